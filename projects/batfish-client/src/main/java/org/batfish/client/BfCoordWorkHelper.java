@@ -1,11 +1,14 @@
 package org.batfish.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import java.io.File;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -393,17 +396,7 @@ public class BfCoordWorkHelper {
       }
       addTextMultiPart(multiPart, CoordConsts.SVC_KEY_ANALYSIS_NAME, analysisName);
 
-      JSONObject jObj = postData(webTarget, multiPart);
-      if (jObj == null) {
-        return null;
-      }
-
-      if (!jObj.has(CoordConsts.SVC_KEY_ANSWERS)) {
-        _logger.errorf("answer key not found in: %s\n", jObj);
-        return null;
-      }
-
-      return jObj.getString(CoordConsts.SVC_KEY_ANSWERS);
+      return postDataForString(webTarget, multiPart, CoordConsts.SVC_KEY_ANSWERS);
     } catch (Exception e) {
       _logger.errorf(
           "Exception in getAnswer from %s using (%s, %s)\n",
@@ -437,17 +430,7 @@ public class BfCoordWorkHelper {
       }
       addTextMultiPart(multiPart, CoordConsts.SVC_KEY_QUESTION_NAME, questionName);
 
-      JSONObject jObj = postData(webTarget, multiPart);
-      if (jObj == null) {
-        return null;
-      }
-
-      if (!jObj.has(CoordConsts.SVC_KEY_ANSWER)) {
-        _logger.errorf("answer key not found in: %s\n", jObj);
-        return null;
-      }
-
-      return jObj.getString(CoordConsts.SVC_KEY_ANSWER);
+      return postDataForString(webTarget, multiPart, CoordConsts.SVC_KEY_ANSWER);
 
     } catch (Exception e) {
       _logger.errorf(
@@ -1047,6 +1030,68 @@ public class BfCoordWorkHelper {
 
   @Nullable
   private JSONObject postData(WebTarget webTarget, MultiPart multiPart) throws Exception {
+    Response response = post(webTarget, multiPart);
+    if (response == null) {
+      return null;
+    }
+
+    String sobj = response.readEntity(String.class);
+    JSONArray array = new JSONArray(sobj);
+    _logger.debugf("response: %s [%s] [%s]\n", array, array.get(0), array.get(1));
+
+    if (!array.get(0).equals(CoordConsts.SVC_KEY_SUCCESS)) {
+      _logger.errorf("Error in PostData: %s %s\n", array.get(0), array.get(1));
+      return null;
+    }
+
+    return new JSONObject(array.get(1).toString());
+  }
+
+  /**
+   * Posts {@code multiPart} and returns the string mapped to {@code key} in a successful response.
+   * The response is parsed as it is streamed, so a large value such as an answer is held in memory
+   * only once.
+   */
+  @Nullable
+  private String postDataForString(WebTarget webTarget, MultiPart multiPart, String key)
+      throws Exception {
+    Response response = post(webTarget, multiPart);
+    if (response == null) {
+      return null;
+    }
+
+    try (InputStream stream = response.readEntity(InputStream.class);
+        JsonParser parser = BatfishObjectMapper.mapper().getFactory().createParser(stream)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY || parser.nextToken() == null) {
+        _logger.errorf("Error in PostData: malformed response\n");
+        return null;
+      }
+      String status = parser.getValueAsString();
+      parser.nextToken();
+      if (!CoordConsts.SVC_KEY_SUCCESS.equals(status)) {
+        _logger.errorf("Error in PostData: %s %s\n", status, parser.readValueAsTree().toString());
+        return null;
+      }
+      if (parser.currentToken() != JsonToken.START_OBJECT) {
+        _logger.errorf("Error in PostData: malformed response\n");
+        return null;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if (field.equals(key)) {
+          return parser.getValueAsString();
+        }
+        parser.skipChildren();
+      }
+      _logger.errorf("%s key not found in response\n", key);
+      return null;
+    }
+  }
+
+  /** Posts {@code multiPart}, returning the response if it is OK or {@code null} otherwise. */
+  @Nullable
+  private Response post(WebTarget webTarget, MultiPart multiPart) {
     try {
 
       addTextMultiPart(multiPart, CoordConsts.SVC_KEY_VERSION, Version.getVersion());
@@ -1063,16 +1108,7 @@ public class BfCoordWorkHelper {
         return null;
       }
 
-      String sobj = response.readEntity(String.class);
-      JSONArray array = new JSONArray(sobj);
-      _logger.debugf("response: %s [%s] [%s]\n", array, array.get(0), array.get(1));
-
-      if (!array.get(0).equals(CoordConsts.SVC_KEY_SUCCESS)) {
-        _logger.errorf("Error in PostData: %s %s\n", array.get(0), array.get(1));
-        return null;
-      }
-
-      return new JSONObject(array.get(1).toString());
+      return response;
     } catch (ProcessingException e) {
       if (e.getMessage().contains("ConnectException")) {
         _logger.errorf("unable to connect to coordinator at %s\n", _coordWorkMgr);
@@ -6,6 +6,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -60,7 +61,12 @@ public final class ColumnFilter {
   }
 
   public boolean matches(@Nonnull Row row) {
-    return row.get(_column).toString().contains(_filterText);
+    return matches(row.get(_column));
+  }
+
+  /** Returns whether {@code value}, taken from this filter's column, matches this filter. */
+  public boolean matches(@Nonnull JsonNode value) {
+    return value.toString().contains(_filterText);
   }
 
   @Override
@@ -9,6 +9,20 @@ public class CoordConstsV2 {
   /** The HTTP Header containing the client's version. */
   public static final String HTTP_HEADER_BATFISH_VERSION = "X-Batfish-Version";
 
+  ////// Query parameters of answer rows requests. //////
+
+  /** The analysis of the question, if any. */
+  public static final String QP_ANALYSIS = "analysis";
+  /** An opaque cursor returned with the previous page of answer rows. */
+  public static final String QP_CURSOR = "cursor";
+  /** The delta snapshot on which the question was answered, if any. */
+  public static final String QP_DELTA_SNAPSHOT = "deltasnapshot";
+  /** The JSON of the options for filtering, sorting and paging the rows of the answer. */
+  public static final String QP_OPTIONS = "options";
+  /** The snapshot on which the question was answered. */
+  public static final String QP_SNAPSHOT = "snapshot";
+
+  public static final String RSC_ANSWERS = "answers";
   public static final String RSC_CONTAINER = "container";
   public static final String RSC_CONTAINERS = "containers";
   public static final String RSC_NETWORK = "network";
@@ -30,13 +30,14 @@ import java.util.zip.GZIPInputStream;
 import net.jpountz.lz4.LZ4FrameInputStream;
 import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.batfish.common.BatfishException;
-import org.batfish.common.util.BatfishObjectInputStream;
+import org.batfish.common.util.SerializationCodec;
 
 public abstract class PluginConsumer implements IPluginConsumer {
 
   /** Supported formats we can deserialize from */
   public enum Format {
     JAVA_SERIALIZED,
+    COMPACT_SERIALIZED,
     LZ4,
     GZIP,
     UNKNOWN
@@ -54,6 +55,11 @@ public abstract class PluginConsumer implements IPluginConsumer {
     (byte) 0xac, (byte) 0xed, (byte) 0x00, (byte) 0x05
   };
 
+  /** The header of a stream written by {@link SerializationCodec#COMPACT} */
+  private static final byte[] COMPACT_SERIALIZED_OBJECT_HEADER = {
+    (byte) 0xbf, (byte) 0xc0, (byte) 0x00, (byte) 0x01
+  };
+
   private static final byte[] LZ4_MAGIC_BYTES = {
     (byte) 0x04, (byte) 0x22, (byte) 0x4D, (byte) 0x18
   };
@@ -90,12 +96,13 @@ public abstract class PluginConsumer implements IPluginConsumer {
       InputStream stream, Class<S> outputClass, Format format) throws IOException {
     try {
       ObjectInputStream ois;
-      if (format != Format.JAVA_SERIALIZED) {
+      if (format == Format.JAVA_SERIALIZED || format == Format.COMPACT_SERIALIZED) {
+        ois =
+            SerializationCodec.forFormat(format).newObjectInputStream(stream, _currentClassLoader);
+      } else {
         XStream xstream = new XStream(new DomDriver("UTF-8"));
         xstream.setClassLoader(_currentClassLoader);
         ois = xstream.createObjectInputStream(stream);
-      } else {
-        ois = new BatfishObjectInputStream(stream, _currentClassLoader);
       }
       Object o = ois.readObject();
       return outputClass.cast(o);
@@ -157,6 +164,8 @@ public abstract class PluginConsumer implements IPluginConsumer {
     Format format;
     if (Arrays.equals(header, JAVA_SERIALIZED_OBJECT_HEADER)) {
       format = Format.JAVA_SERIALIZED;
+    } else if (Arrays.equals(header, COMPACT_SERIALIZED_OBJECT_HEADER)) {
+      format = Format.COMPACT_SERIALIZED;
     } else if (Arrays.equals(header, LZ4_MAGIC_BYTES)) {
       format = Format.LZ4;
     } else if (Arrays.equals(Arrays.copyOf(header, GZIP_HEADER_LENGTH_BYTES), GZIP_MAGIC_BYTES)) {
@@ -237,7 +246,7 @@ public abstract class PluginConsumer implements IPluginConsumer {
         XStream xstream = new XStream(new DomDriver("UTF-8"));
         oos = closer.register(xstream.createObjectOutputStream(los));
       } else {
-        oos = closer.register(new ObjectOutputStream(los));
+        oos = closer.register(SerializationCodec.DEFAULT.newObjectOutputStream(los));
       }
       oos.writeObject(object);
     } catch (IOException e) {
@@ -14,12 +14,16 @@ public class BatfishObjectInputStream extends ObjectInputStream {
     _loader = loader;
   }
 
+  /** Returns the class with the given name, from this stream's class loader if possible. */
+  protected Class<?> loadClass(String name) throws ClassNotFoundException {
+    return Class.forName(name, false, _loader);
+  }
+
   @Override
   protected Class<?> resolveClass(ObjectStreamClass osc)
       throws IOException, ClassNotFoundException {
     try {
-      String name = osc.getName();
-      return Class.forName(name, false, _loader);
+      return loadClass(osc.getName());
     } catch (ClassNotFoundException e) {
       return super.resolveClass(osc);
     }
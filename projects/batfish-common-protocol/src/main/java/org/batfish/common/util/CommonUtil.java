@@ -13,6 +13,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
 import com.google.common.graph.ImmutableValueGraph;
 import com.google.common.graph.MutableValueGraph;
 import com.google.common.graph.Network;
@@ -51,6 +52,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -97,6 +99,7 @@ import org.batfish.datamodel.BgpPeerConfigId;
 import org.batfish.datamodel.BgpProcess;
 import org.batfish.datamodel.BgpSessionProperties;
 import org.batfish.datamodel.BgpSessionProperties.SessionType;
+import org.batfish.datamodel.BgpSessionReachabilityCache;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
@@ -942,7 +945,37 @@ public class CommonUtil {
   }
 
   /**
-   * Check if a bgp peer is reachable to establish a session
+   * Build the flow with which {@code initiator} opens a BGP connection to its peer address
+   * according to its local configuration {@code src}.
+   */
+  private static Flow bgpForwardFlow(BgpPeerConfigId initiator, BgpActivePeerConfig src) {
+    return new Flow.Builder()
+        .setIpProtocol(IpProtocol.TCP)
+        .setTag("neighbor-resolution")
+        .setIngressNode(initiator.getHostname())
+        .setIngressVrf(initiator.getVrfName())
+        .setSrcIp(src.getLocalIp())
+        .setDstIp(src.getPeerAddress())
+        .setSrcPort(NamedPort.EPHEMERAL_LOWEST.number())
+        .setDstPort(NamedPort.BGP.number())
+        .build();
+  }
+
+  /** Build the reply to {@code forwardFlow}, sent by {@code listener}. */
+  private static Flow bgpBackwardFlow(BgpPeerConfigId listener, Flow forwardFlow) {
+    return new Flow.Builder(forwardFlow)
+        .setIngressNode(listener.getHostname())
+        .setIngressVrf(listener.getVrfName())
+        .setSrcIp(forwardFlow.getDstIp())
+        .setDstIp(forwardFlow.getSrcIp())
+        .setSrcPort(forwardFlow.getDstPort())
+        .setDstPort(forwardFlow.getSrcPort())
+        .build();
+  }
+
+  /**
+   * Check if a bgp peer is reachable to establish a session, given the traces of the flows built by
+   * {@link #bgpForwardFlow} and {@link #bgpBackwardFlow}.
    *
    * <p><b>Warning:</b> Notion of directionality is important here, we are assuming {@code src} is
    * initiating the connection according to its local configuration
@@ -951,40 +984,10 @@ public class CommonUtil {
       BgpPeerConfigId initiator,
       BgpPeerConfigId listener,
       BgpActivePeerConfig src,
-      @Nullable ITracerouteEngine tracerouteEngine,
-      @Nullable DataPlane dp) {
-
-    Ip srcAddress = src.getLocalIp();
-    Ip dstAddress = src.getPeerAddress();
-    if (dstAddress == null) {
-      return false;
-    }
-    if (tracerouteEngine == null || dp == null) {
-      throw new BatfishException("Cannot compute neighbor reachability without a dataplane");
-    }
-
-    /*
-     * Ensure that the session can be established by running traceroute in both directions
-     */
-    Flow.Builder fb = new Flow.Builder();
-    fb.setIpProtocol(IpProtocol.TCP);
-    fb.setTag("neighbor-resolution");
-
-    fb.setIngressNode(initiator.getHostname());
-    fb.setIngressVrf(initiator.getVrfName());
-    fb.setSrcIp(srcAddress);
-    fb.setDstIp(dstAddress);
-    fb.setSrcPort(NamedPort.EPHEMERAL_LOWEST.number());
-    fb.setDstPort(NamedPort.BGP.number());
-    Flow forwardFlow = fb.build();
-
-    // Execute the "initiate connection" traceroute
-    SortedMap<Flow, Set<FlowTrace>> traces =
-        tracerouteEngine.processFlows(dp, ImmutableSet.of(forwardFlow), dp.getFibs(), false);
-
+      Set<FlowTrace> forwardTraces,
+      Set<FlowTrace> backwardTraces) {
     SortedSet<FlowTrace> acceptedFlows =
-        traces
-            .get(forwardFlow)
+        forwardTraces
             .stream()
             .filter(
                 trace ->
@@ -996,7 +999,6 @@ public class CommonUtil {
     if (acceptedFlows.isEmpty()) {
       return false;
     }
-    NodeInterfacePair acceptPoint = acceptedFlows.first().getAcceptingNode();
     if (SessionType.isEbgp(BgpSessionProperties.getSessionType(src))
         && !src.getEbgpMultihop()
         && acceptedFlows.first().getHops().size() > 1) {
@@ -1004,33 +1006,86 @@ public class CommonUtil {
       return false;
     }
 
-    if (acceptPoint == null) {
-      return false;
-    }
-    String acceptedHostname = acceptPoint.getHostname();
-    // The reply traceroute
-    fb.setIngressNode(acceptedHostname);
-    fb.setIngressVrf(listener.getVrfName());
-    fb.setSrcIp(forwardFlow.getDstIp());
-    fb.setDstIp(forwardFlow.getSrcIp());
-    fb.setSrcPort(forwardFlow.getDstPort());
-    fb.setDstPort(forwardFlow.getSrcPort());
-    Flow backwardFlow = fb.build();
-    traces = tracerouteEngine.processFlows(dp, ImmutableSet.of(backwardFlow), dp.getFibs(), false);
-
     /*
      * If backward traceroutes fail, do not consider the neighbor reachable
      */
-    return !traces
-        .get(backwardFlow)
+    return backwardTraces
         .stream()
-        .filter(
+        .anyMatch(
             trace ->
                 trace.getDisposition() == FlowDisposition.ACCEPTED
                     && trace.getAcceptingNode() != null
-                    && trace.getAcceptingNode().getHostname().equals(initiator.getHostname()))
-        .collect(ImmutableSet.toImmutableSet())
-        .isEmpty();
+                    && trace.getAcceptingNode().getHostname().equals(initiator.getHostname()));
+  }
+
+  /**
+   * Determine which of the given sessions (initiator, listener) can be established in {@code dp}.
+   * The forward and backward flows of all sessions not answered by {@code reachabilityCache} are
+   * traced together in a single batch.
+   */
+  private static Set<EndpointPair<BgpPeerConfigId>> computeReachableBgpSessions(
+      Map<EndpointPair<BgpPeerConfigId>, BgpActivePeerConfig> sessions,
+      @Nullable ITracerouteEngine tracerouteEngine,
+      @Nullable DataPlane dp,
+      @Nullable BgpSessionReachabilityCache reachabilityCache) {
+    if (sessions.isEmpty()) {
+      return ImmutableSet.of();
+    }
+    if (tracerouteEngine == null || dp == null) {
+      throw new BatfishException("Cannot compute neighbor reachability without a dataplane");
+    }
+    ImmutableSet.Builder<EndpointPair<BgpPeerConfigId>> reachable = ImmutableSet.builder();
+    Map<EndpointPair<BgpPeerConfigId>, Flow> forwardFlows = new HashMap<>();
+    Map<EndpointPair<BgpPeerConfigId>, Flow> backwardFlows = new HashMap<>();
+    sessions.forEach(
+        (session, src) -> {
+          Boolean cached =
+              reachabilityCache == null ? null : reachabilityCache.getReachable(session, dp);
+          if (cached != null) {
+            if (cached) {
+              reachable.add(session);
+            }
+            return;
+          }
+          Flow forwardFlow = bgpForwardFlow(session.source(), src);
+          forwardFlows.put(session, forwardFlow);
+          backwardFlows.put(session, bgpBackwardFlow(session.target(), forwardFlow));
+        });
+    if (forwardFlows.isEmpty()) {
+      return reachable.build();
+    }
+
+    Set<Flow> flows =
+        ImmutableSet.<Flow>builder()
+            .addAll(forwardFlows.values())
+            .addAll(backwardFlows.values())
+            .build();
+    SortedMap<Flow, Set<FlowTrace>> traces =
+        tracerouteEngine.processFlows(dp, flows, dp.getFibs(), false);
+    forwardFlows.forEach(
+        (session, forwardFlow) -> {
+          Flow backwardFlow = backwardFlows.get(session);
+          Set<FlowTrace> forwardTraces = traces.get(forwardFlow);
+          Set<FlowTrace> backwardTraces = traces.get(backwardFlow);
+          boolean sessionReachable =
+              isReachableBgpNeighbor(
+                  session.source(),
+                  session.target(),
+                  sessions.get(session),
+                  forwardTraces,
+                  backwardTraces);
+          if (sessionReachable) {
+            reachable.add(session);
+          }
+          if (reachabilityCache != null) {
+            reachabilityCache.put(
+                session,
+                sessionReachable,
+                dp,
+                ImmutableMap.of(forwardFlow, forwardTraces, backwardFlow, backwardTraces));
+          }
+        });
+    return reachable.build();
   }
 
   /**
@@ -1077,6 +1132,26 @@ public class CommonUtil {
       boolean checkReachability,
       @Nullable ITracerouteEngine tracerouteEngine,
       @Nullable DataPlane dp) {
+    return initBgpTopology(
+        configurations, ipOwners, keepInvalid, checkReachability, tracerouteEngine, dp, null);
+  }
+
+  /**
+   * Compute the BGP topology, reusing and updating the session reachability results in {@code
+   * reachabilityCache}. See {@link #initBgpTopology(Map, Map, boolean, boolean, ITracerouteEngine,
+   * DataPlane)} for more details.
+   *
+   * @param reachabilityCache results of earlier reachability checks against the same
+   *     configurations, or {@code null} to check every session
+   */
+  public static ValueGraph<BgpPeerConfigId, BgpSessionProperties> initBgpTopology(
+      Map<String, Configuration> configurations,
+      Map<Ip, Set<String>> ipOwners,
+      boolean keepInvalid,
+      boolean checkReachability,
+      @Nullable ITracerouteEngine tracerouteEngine,
+      @Nullable DataPlane dp,
+      @Nullable BgpSessionReachabilityCache reachabilityCache) {
 
     // TODO: handle duplicate ips on different vrfs
 
@@ -1120,6 +1195,8 @@ public class CommonUtil {
     }
 
     // Second pass: add edges to the graph. Note, these are directed edges.
+    // Sessions that need reachability checks, in order
+    Map<EndpointPair<BgpPeerConfigId>, BgpActivePeerConfig> sessionsToCheck = new LinkedHashMap<>();
     for (BgpPeerConfigId neighborId : graph.nodes()) {
       if (neighborId.isDynamic()) {
         // Passive end of the peering cannot initiate a connection
@@ -1158,19 +1235,10 @@ public class CommonUtil {
           continue;
         }
         /*
-         * Perform reachability checks.
+         * Defer reachability checks, to perform them in a single batch.
          */
         if (checkReachability) {
-          if (isReachableBgpNeighbor(
-              neighborId, candidateNeighborId, neighbor, tracerouteEngine, dp)) {
-            graph.putEdgeValue(
-                neighborId,
-                candidateNeighborId,
-                BgpSessionProperties.from(
-                    neighbor,
-                    Objects.requireNonNull(
-                        networkConfigurations.getBgpPeerConfig(candidateNeighborId))));
-          }
+          sessionsToCheck.put(EndpointPair.ordered(neighborId, candidateNeighborId), neighbor);
         } else {
           graph.putEdgeValue(
               neighborId,
@@ -1182,6 +1250,23 @@ public class CommonUtil {
         }
       }
     }
+    /*
+     * Perform reachability checks.
+     */
+    Set<EndpointPair<BgpPeerConfigId>> reachableSessions =
+        computeReachableBgpSessions(sessionsToCheck, tracerouteEngine, dp, reachabilityCache);
+    sessionsToCheck.forEach(
+        (session, neighbor) -> {
+          if (reachableSessions.contains(session)) {
+            graph.putEdgeValue(
+                session.source(),
+                session.target(),
+                BgpSessionProperties.from(
+                    neighbor,
+                    Objects.requireNonNull(
+                        networkConfigurations.getBgpPeerConfig(session.target()))));
+          }
+        });
     return ImmutableValueGraph.copyOf(graph);
   }
 
@@ -0,0 +1,65 @@
+package org.batfish.common.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import org.batfish.datamodel.Ip;
+
+/**
+ * Reads streams written by {@link CompactObjectOutputStream}. Strings and {@link Ip IPs} are
+ * interned, since the same names and addresses recur across the configurations of a network.
+ */
+final class CompactObjectInputStream extends BatfishObjectInputStream {
+
+  private static final Interner<Object> INTERNER = Interners.newWeakInterner();
+
+  CompactObjectInputStream(InputStream in, ClassLoader loader) throws IOException {
+    super(in, loader);
+    enableResolveObject(true);
+  }
+
+  @Override
+  protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+    int type = read();
+    switch (type) {
+      case CompactObjectOutputStream.FULL_DESCRIPTOR:
+        return super.readClassDescriptor();
+      case CompactObjectOutputStream.NAME_DESCRIPTOR:
+        String name = readUTF();
+        long fingerprint = readLong();
+        Class<?> clazz;
+        try {
+          clazz = loadClass(name);
+        } catch (ClassNotFoundException e) {
+          clazz = Class.forName(name, false, CompactObjectInputStream.class.getClassLoader());
+        }
+        ObjectStreamClass desc = ObjectStreamClass.lookupAny(clazz);
+        if (CompactObjectOutputStream.fingerprint(desc) != fingerprint) {
+          throw new InvalidClassException(name, "local class incompatible with stream");
+        }
+        return desc;
+      default:
+        throw new StreamCorruptedException("Unexpected class descriptor type: " + type);
+    }
+  }
+
+  @Override
+  protected void readStreamHeader() throws IOException {
+    short magic = readShort();
+    short version = readShort();
+    if (magic != CompactObjectOutputStream.STREAM_MAGIC
+        || version != CompactObjectOutputStream.STREAM_VERSION) {
+      throw new StreamCorruptedException(
+          String.format("Invalid stream header: %04X%04X", magic, version));
+    }
+  }
+
+  @Override
+  protected Object resolveObject(Object obj) {
+    return obj instanceof String || obj instanceof Ip ? INTERNER.intern(obj) : obj;
+  }
+}
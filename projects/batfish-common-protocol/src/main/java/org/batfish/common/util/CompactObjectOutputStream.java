@@ -0,0 +1,68 @@
+package org.batfish.common.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+
+/**
+ * An {@link ObjectOutputStream} for {@link SerializationCodec#COMPACT}. The descriptor of each
+ * class is replaced by its name and a {@link #fingerprint(ObjectStreamClass) fingerprint}, which
+ * {@link CompactObjectInputStream} uses to look up and verify the local class instead.
+ */
+final class CompactObjectOutputStream extends ObjectOutputStream {
+
+  /** Class descriptor written in full, for arrays and primitive types */
+  static final int FULL_DESCRIPTOR = 0;
+
+  /** Class descriptor written as name and fingerprint only */
+  static final int NAME_DESCRIPTOR = 1;
+
+  /** First two bytes of the stream, in place of Java serialization's {@code 0xACED} */
+  static final short STREAM_MAGIC = (short) 0xBFC0;
+
+  static final short STREAM_VERSION = 1;
+
+  CompactObjectOutputStream(OutputStream out) throws IOException {
+    super(out);
+  }
+
+  /**
+   * Returns a hash of the serial version UID and serializable fields of a class, which must match
+   * between the writer and the reader of a stream.
+   */
+  static long fingerprint(ObjectStreamClass desc) {
+    Hasher hasher = Hashing.murmur3_128().newHasher().putLong(desc.getSerialVersionUID());
+    for (ObjectStreamField field : desc.getFields()) {
+      hasher.putString(field.getName(), UTF_8).putChar(field.getTypeCode());
+      if (field.getTypeString() != null) {
+        hasher.putString(field.getTypeString(), UTF_8);
+      }
+    }
+    return hasher.hash().asLong();
+  }
+
+  @Override
+  protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+    Class<?> clazz = desc.forClass();
+    if (clazz.isArray() || clazz.isPrimitive()) {
+      write(FULL_DESCRIPTOR);
+      super.writeClassDescriptor(desc);
+      return;
+    }
+    write(NAME_DESCRIPTOR);
+    writeUTF(desc.getName());
+    writeLong(fingerprint(desc));
+  }
+
+  @Override
+  protected void writeStreamHeader() throws IOException {
+    writeShort(STREAM_MAGIC);
+    writeShort(STREAM_VERSION);
+  }
+}
@@ -0,0 +1,116 @@
+package org.batfish.common.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import org.batfish.common.BatfishException;
+import org.batfish.common.plugin.PluginConsumer;
+import org.batfish.common.plugin.PluginConsumer.Format;
+
+/**
+ * Encodings of serialized objects. Streams start with a header identifying their {@link Format}
+ * (see {@link PluginConsumer#detectFormat(PushbackInputStream)}), so objects written with any codec
+ * remain readable when the codec used for writing ({@link #DEFAULT}) changes.
+ */
+public enum SerializationCodec {
+  /** Standard Java serialization */
+  JAVA(Format.JAVA_SERIALIZED) {
+    @Override
+    public ObjectInputStream newObjectInputStream(InputStream in, ClassLoader loader)
+        throws IOException {
+      return new BatfishObjectInputStream(in, loader);
+    }
+
+    @Override
+    public ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException {
+      return new ObjectOutputStream(out);
+    }
+  },
+  /**
+   * Java serialization that writes only the name and a fingerprint of each class rather than its
+   * full descriptor, and interns strings and IPs on read.
+   */
+  COMPACT(Format.COMPACT_SERIALIZED) {
+    @Override
+    public ObjectInputStream newObjectInputStream(InputStream in, ClassLoader loader)
+        throws IOException {
+      return new CompactObjectInputStream(in, loader);
+    }
+
+    @Override
+    public ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException {
+      return new CompactObjectOutputStream(out);
+    }
+  };
+
+  /** The codec used to write serialized objects */
+  public static final SerializationCodec DEFAULT = COMPACT;
+
+  private final Format _format;
+
+  SerializationCodec(Format format) {
+    _format = format;
+  }
+
+  /** Returns the codec that writes streams of the given {@link Format}. */
+  public static SerializationCodec forFormat(Format format) {
+    for (SerializationCodec codec : values()) {
+      if (codec._format == format) {
+        return codec;
+      }
+    }
+    throw new BatfishException("No serialization codec for format: " + format);
+  }
+
+  /**
+   * Returns an {@link ObjectInputStream} for {@code in} using the codec that wrote it. The stream
+   * must already be decompressed.
+   */
+  public static ObjectInputStream newDetectingObjectInputStream(InputStream in, ClassLoader loader)
+      throws IOException {
+    PushbackInputStream pbstream =
+        new PushbackInputStream(in, PluginConsumer.DEFAULT_HEADER_LENGTH_BYTES);
+    Format format = PluginConsumer.detectFormat(pbstream);
+    if (format != Format.JAVA_SERIALIZED && format != Format.COMPACT_SERIALIZED) {
+      throw new StreamCorruptedException("Not a serialized object stream: " + format);
+    }
+    return forFormat(format).newObjectInputStream(pbstream, loader);
+  }
+
+  /** Returns a deep copy of {@code object} made by serializing and deserializing it. */
+  @SuppressWarnings("unchecked")
+  public <S extends Serializable> S copy(S object) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream oos = newObjectOutputStream(bytes)) {
+        oos.writeObject(object);
+      }
+      try (ObjectInputStream ois =
+          newObjectInputStream(
+              new ByteArrayInputStream(bytes.toByteArray()),
+              Thread.currentThread().getContextClassLoader())) {
+        return (S) ois.readObject();
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new BatfishException("Failed to copy object of type " + object.getClass(), e);
+    }
+  }
+
+  public Format getFormat() {
+    return _format;
+  }
+
+  /** Returns a stream that reads objects written by {@link #newObjectOutputStream}. */
+  public abstract ObjectInputStream newObjectInputStream(InputStream in, ClassLoader loader)
+      throws IOException;
+
+  /** Returns a stream that writes objects in this codec's format, starting with its header. */
+  public abstract ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException;
+}
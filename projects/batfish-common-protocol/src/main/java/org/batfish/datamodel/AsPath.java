@@ -4,18 +4,19 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.primitives.Longs;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
-import org.batfish.common.util.CommonUtil;
 
+/** An immutable sequence of AS sets, each stored as a sorted primitive array. */
 public class AsPath implements Serializable, Comparable<AsPath> {
 
   private static final long serialVersionUID = 1L;
@@ -49,82 +50,77 @@ public class AsPath implements Serializable, Comparable<AsPath> {
         .collect(ImmutableList.toImmutableList());
   }
 
-  private final List<SortedSet<Long>> _asSets;
+  private static final Interner<AsPath> INTERNER = Interners.newWeakInterner();
+
+  public static final AsPath EMPTY = new AsPath(new long[0][]).intern();
+
+  /** Each AS set, as its distinct elements in ascending order */
+  private final long[][] _asSets;
+
+  private final int _hashCode;
 
   @JsonCreator
   public AsPath(List<SortedSet<Long>> asSets) {
-    _asSets = copyAsSets(asSets);
+    this(asSets.stream().map(SortedLongSet::toSortedArray).toArray(long[][]::new));
+  }
+
+  private AsPath(long[][] asSets) {
+    _asSets = asSets;
+    _hashCode = Arrays.deepHashCode(asSets);
   }
 
   @Override
   public int compareTo(@Nonnull AsPath rhs) {
-    Iterator<SortedSet<Long>> l = _asSets.iterator();
-    Iterator<SortedSet<Long>> r = rhs._asSets.iterator();
-    while (l.hasNext()) {
-      if (!r.hasNext()) {
-        return 1;
+    int n = Math.min(_asSets.length, rhs._asSets.length);
+    for (int i = 0; i < n; i++) {
+      long[] l = _asSets[i];
+      long[] r = rhs._asSets[i];
+      int m = Math.min(l.length, r.length);
+      for (int j = 0; j < m; j++) {
+        int ret = Long.compare(l[j], r[j]);
+        if (ret != 0) {
+          return ret;
+        }
       }
-      SortedSet<Long> lVal = l.next();
-      SortedSet<Long> rVal = r.next();
-      int ret = CommonUtil.compareCollection(lVal, rVal);
+      int ret = Integer.compare(l.length, r.length);
       if (ret != 0) {
         return ret;
       }
     }
-    if (r.hasNext()) {
-      return -1;
-    }
-    return 0;
+    return Integer.compare(_asSets.length, rhs._asSets.length);
   }
 
   public boolean containsAs(long as) {
-    return _asSets.stream().anyMatch(a -> a.contains(as));
-  }
-
-  private List<SortedSet<Long>> copyAsSets(List<SortedSet<Long>> asSets) {
-    List<SortedSet<Long>> newAsSets = new ArrayList<>(asSets.size());
-    for (SortedSet<Long> asSet : asSets) {
-      SortedSet<Long> newAsSet = ImmutableSortedSet.copyOf(asSet);
-      newAsSets.add(newAsSet);
+    for (long[] asSet : _asSets) {
+      if (Arrays.binarySearch(asSet, as) >= 0) {
+        return true;
+      }
     }
-    return newAsSets;
+    return false;
   }
 
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
       return true;
-    }
-    if (obj == null) {
-      return false;
-    }
-    if (getClass() != obj.getClass()) {
+    } else if (!(obj instanceof AsPath)) {
       return false;
     }
     AsPath other = (AsPath) obj;
-    if (_asSets == null) {
-      if (other._asSets != null) {
-        return false;
-      }
-    } else if (!_asSets.equals(other._asSets)) {
-      return false;
-    }
-    return true;
+    return _hashCode == other._hashCode && Arrays.deepEquals(_asSets, other._asSets);
   }
 
   public String getAsPathString() {
     StringBuilder sb = new StringBuilder();
-    for (Set<Long> asSet : _asSets) {
-      if (asSet.size() == 1) {
-        long elem = asSet.iterator().next();
-        sb.append(elem);
+    for (long[] asSet : _asSets) {
+      if (asSet.length == 1) {
+        sb.append(asSet[0]);
       } else {
         sb.append("{");
-        Iterator<Long> i = asSet.iterator();
-        sb.append(i.next());
-        while (i.hasNext()) {
+        sb.append(asSet[0]);
+        for (int i = 1; i < asSet.length; i++) {
           sb.append(",");
-          sb.append(i.next());
+          sb.append(asSet[i]);
         }
         sb.append("}");
       }
@@ -135,20 +131,56 @@ public class AsPath implements Serializable, Comparable<AsPath> {
 
   @JsonValue
   public List<SortedSet<Long>> getAsSets() {
-    return copyAsSets(_asSets);
+    return Arrays.stream(_asSets)
+        .map(asSet -> ImmutableSortedSet.copyOf(Longs.asList(asSet)))
+        .collect(ImmutableList.toImmutableList());
   }
 
   @Override
   public int hashCode() {
-    return _asSets.hashCode();
+    return _hashCode;
+  }
+
+  /** Returns the canonical instance of this AS path, shared by all equal interned AS paths. */
+  public AsPath intern() {
+    return INTERNER.intern(this);
+  }
+
+  /** Returns the interned AS path with a singleton AS set for each of {@code asNums} prepended. */
+  public AsPath prepend(List<Long> asNums) {
+    if (asNums.isEmpty()) {
+      return intern();
+    }
+    long[][] asSets = new long[asNums.size() + _asSets.length][];
+    for (int i = 0; i < asNums.size(); i++) {
+      asSets[i] = new long[] {asNums.get(i)};
+    }
+    System.arraycopy(_asSets, 0, asSets, asNums.size(), _asSets.length);
+    return new AsPath(asSets).intern();
+  }
+
+  private Object readResolve() {
+    return intern();
+  }
+
+  /** Returns the interned AS path with all private AS numbers removed. */
+  public AsPath removePrivateAs() {
+    List<long[]> asSets = new ArrayList<>(_asSets.length);
+    for (long[] asSet : _asSets) {
+      long[] publicAsSet = Arrays.stream(asSet).filter(as -> !isPrivateAs(as)).toArray();
+      if (publicAsSet.length > 0) {
+        asSets.add(publicAsSet.length == asSet.length ? asSet : publicAsSet);
+      }
+    }
+    return new AsPath(asSets.toArray(new long[0][])).intern();
   }
 
   public int size() {
-    return _asSets.size();
+    return _asSets.length;
   }
 
   @Override
   public String toString() {
-    return _asSets.toString();
+    return getAsSets().toString();
   }
 }
@@ -4,9 +4,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSortedSet;
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.SortedSet;
@@ -322,11 +320,9 @@ public class BgpAdvertisement implements Comparable<BgpAdvertisement>, Serializa
     _localPreference = localPreference;
     _med = med;
     _originatorIp = originatorIp;
-    _asPath = asPath;
-    _communities =
-        communities == null ? Collections.emptySortedSet() : ImmutableSortedSet.copyOf(communities);
-    _clusterList =
-        clusterList == null ? Collections.emptySortedSet() : ImmutableSortedSet.copyOf(clusterList);
+    _asPath = asPath.intern();
+    _communities = communities == null ? CommunitySet.EMPTY : CommunitySet.of(communities);
+    _clusterList = clusterList == null ? ClusterList.EMPTY : ClusterList.of(clusterList);
     _weight = weight;
   }
 
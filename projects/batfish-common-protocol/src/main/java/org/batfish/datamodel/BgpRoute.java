@@ -5,27 +5,23 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.collect.ImmutableSortedSet;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.SortedSet;
-import java.util.TreeSet;
 import javax.annotation.Nonnull;
 import org.batfish.common.BatfishException;
-import org.batfish.common.util.CommonUtil;
 
 public class BgpRoute extends AbstractRoute {
 
   public static class Builder extends AbstractRouteBuilder<Builder, BgpRoute> {
 
-    private List<SortedSet<Long>> _asPath;
+    private AsPath _asPath;
 
-    private SortedSet<Long> _clusterList;
+    private ClusterList _clusterList;
 
-    private SortedSet<Long> _communities;
+    private CommunitySet _communities;
 
     private boolean _discard;
 
@@ -46,9 +42,9 @@ public class BgpRoute extends AbstractRoute {
     private int _weight;
 
     public Builder() {
-      _asPath = new ArrayList<>();
-      _communities = new TreeSet<>();
-      _clusterList = new TreeSet<>();
+      _asPath = AsPath.EMPTY;
+      _communities = CommunitySet.EMPTY;
+      _clusterList = ClusterList.EMPTY;
     }
 
     @Override
@@ -66,7 +62,7 @@ public class BgpRoute extends AbstractRoute {
           getNetwork(),
           getNextHopIp(),
           getAdmin(),
-          new AsPath(_asPath),
+          _asPath,
           _communities,
           _discard,
           _localPreference,
@@ -81,15 +77,32 @@ public class BgpRoute extends AbstractRoute {
           _weight);
     }
 
-    public List<SortedSet<Long>> getAsPath() {
+    /** Adds {@code clusterId} to the cluster list */
+    public Builder addClusterId(long clusterId) {
+      _clusterList = _clusterList.plus(clusterId);
+      return getThis();
+    }
+
+    /** Adds all of {@code clusterIds} to the cluster list */
+    public Builder addClusterIds(Collection<Long> clusterIds) {
+      _clusterList = _clusterList.union(clusterIds);
+      return getThis();
+    }
+
+    public Builder addCommunities(Collection<Long> communities) {
+      _communities = _communities.union(communities);
+      return getThis();
+    }
+
+    public AsPath getAsPath() {
       return _asPath;
     }
 
-    public SortedSet<Long> getClusterList() {
+    public ClusterList getClusterList() {
       return _clusterList;
     }
 
-    public SortedSet<Long> getCommunities() {
+    public CommunitySet getCommunities() {
       return _communities;
     }
 
@@ -118,18 +131,28 @@ public class BgpRoute extends AbstractRoute {
       return _weight;
     }
 
-    public Builder setAsPath(List<SortedSet<Long>> asPath) {
+    public Builder removeCommunities(Collection<Long> communities) {
+      _communities = _communities.difference(communities);
+      return getThis();
+    }
+
+    public Builder setAsPath(AsPath asPath) {
       _asPath = asPath;
       return getThis();
     }
 
-    public Builder setClusterList(SortedSet<Long> clusterList) {
-      _clusterList = clusterList;
+    public Builder setAsPath(List<SortedSet<Long>> asPath) {
+      _asPath = new AsPath(asPath);
+      return getThis();
+    }
+
+    public Builder setClusterList(Collection<Long> clusterList) {
+      _clusterList = ClusterList.of(clusterList);
       return getThis();
     }
 
-    public Builder setCommunities(SortedSet<Long> communities) {
-      _communities = communities;
+    public Builder setCommunities(Collection<Long> communities) {
+      _communities = CommunitySet.of(communities);
       return getThis();
     }
 
@@ -206,8 +229,8 @@ public class BgpRoute extends AbstractRoute {
 
   private static final Comparator<BgpRoute> COMPARATOR =
       Comparator.comparing(BgpRoute::getAsPath)
-          .thenComparing(BgpRoute::getClusterList, CommonUtil::compareCollection)
-          .thenComparing(BgpRoute::getCommunities, CommonUtil::compareCollection)
+          .thenComparing(BgpRoute::getClusterList, SortedLongSet::compare)
+          .thenComparing(BgpRoute::getCommunities, SortedLongSet::compare)
           .thenComparing(BgpRoute::getDiscard)
           .thenComparing(BgpRoute::getLocalPreference)
           .thenComparing(BgpRoute::getOriginType)
@@ -223,9 +246,9 @@ public class BgpRoute extends AbstractRoute {
 
   private final AsPath _asPath;
 
-  private final SortedSet<Long> _clusterList;
+  private final ClusterList _clusterList;
 
-  private final SortedSet<Long> _communities;
+  private final CommunitySet _communities;
 
   private final boolean _discard;
 
@@ -270,11 +293,9 @@ public class BgpRoute extends AbstractRoute {
       @JsonProperty(PROP_WEIGHT) int weight) {
     super(network);
     _admin = admin;
-    _asPath = asPath;
-    _clusterList =
-        clusterList == null ? Collections.emptySortedSet() : ImmutableSortedSet.copyOf(clusterList);
-    _communities =
-        communities == null ? Collections.emptySortedSet() : ImmutableSortedSet.copyOf(communities);
+    _asPath = asPath == null ? AsPath.EMPTY : asPath.intern();
+    _clusterList = clusterList == null ? ClusterList.EMPTY : ClusterList.of(clusterList);
+    _communities = communities == null ? CommunitySet.EMPTY : CommunitySet.of(communities);
     _discard = discard;
     _localPreference = localPreference;
     _med = med;
@@ -351,12 +372,12 @@ public class BgpRoute extends AbstractRoute {
   }
 
   @JsonProperty(PROP_CLUSTER_LIST)
-  public SortedSet<Long> getClusterList() {
+  public ClusterList getClusterList() {
     return _clusterList;
   }
 
   @JsonProperty(PROP_COMMUNITIES)
-  public SortedSet<Long> getCommunities() {
+  public CommunitySet getCommunities() {
     return _communities;
   }
 
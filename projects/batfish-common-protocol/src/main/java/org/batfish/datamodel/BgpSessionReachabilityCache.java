@@ -0,0 +1,238 @@
+package org.batfish.datamodel;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.SetMultimap;
+import com.google.common.graph.EndpointPair;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+
+/**
+ * Results of BGP session reachability checks, keyed by session endpoints (initiator, listener). A
+ * result is reused as long as every forwarding decision made along the traced paths of the session
+ * would still be the same: whether the node accepts the destination IP, its FIB lookup, and the ARP
+ * outcomes on the resulting next-hop interfaces. A later BGP topology computation during the same
+ * data plane computation therefore only re-traces sessions whose paths may have changed.
+ */
+@ParametersAreNonnullByDefault
+public final class BgpSessionReachabilityCache {
+
+  private static final class Entry {
+
+    private final List<Hop> _hops;
+    private final boolean _reachable;
+
+    private Entry(boolean reachable, List<Hop> hops) {
+      _reachable = reachable;
+      _hops = hops;
+    }
+  }
+
+  /** The forwarding decisions made at a node for a destination IP */
+  private static final class Decision {
+
+    private final boolean _accepted;
+
+    /** Edge out of a next-hop interface -&gt; ARP IPs to which the neighbor replies */
+    private final @Nonnull SetMultimap<Edge, Ip> _arpReplies;
+
+    private final @Nonnull Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> _fibResult;
+
+    /** Next-hop interface -&gt; ARP IPs to which no neighbor replies */
+    private final @Nonnull SetMultimap<String, Ip> _neighborUnreachable;
+
+    private Decision(
+        boolean accepted,
+        Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> fibResult,
+        SetMultimap<String, Ip> neighborUnreachable,
+        SetMultimap<Edge, Ip> arpReplies) {
+      _accepted = accepted;
+      _fibResult = fibResult;
+      _neighborUnreachable = neighborUnreachable;
+      _arpReplies = arpReplies;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Decision)) {
+        return false;
+      }
+      Decision other = (Decision) o;
+      return _accepted == other._accepted
+          && _fibResult.equals(other._fibResult)
+          && _neighborUnreachable.equals(other._neighborUnreachable)
+          && _arpReplies.equals(other._arpReplies);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_accepted, _fibResult, _neighborUnreachable, _arpReplies);
+    }
+  }
+
+  /** A node visited by a traced flow, and the forwarding decisions made there at that time */
+  private static final class Hop {
+
+    private final @Nonnull Decision _decision;
+    private final @Nonnull Ip _dstIp;
+    private final @Nonnull String _hostname;
+    private final @Nonnull String _vrf;
+
+    private Hop(String hostname, String vrf, Ip dstIp, Decision decision) {
+      _hostname = hostname;
+      _vrf = vrf;
+      _dstIp = dstIp;
+      _decision = decision;
+    }
+
+    private boolean isCurrent(DataPlane dp) {
+      return _decision.equals(decide(dp, _hostname, _vrf, _dstIp));
+    }
+  }
+
+  private final Map<EndpointPair<BgpPeerConfigId>, Entry> _entries = new ConcurrentHashMap<>();
+
+  private static void addHop(
+      ImmutableList.Builder<Hop> hops, DataPlane dp, String hostname, String vrf, Ip dstIp) {
+    Decision decision = decide(dp, hostname, vrf, dstIp);
+    if (decision != null) {
+      hops.add(new Hop(hostname, vrf, dstIp, decision));
+    }
+  }
+
+  /**
+   * Returns the decisions the traceroute engine makes for {@code dstIp} at {@code vrf} of {@code
+   * hostname} in {@code dp}, or {@code null} if there is no such FIB.
+   */
+  private static @Nullable Decision decide(DataPlane dp, String hostname, String vrf, Ip dstIp) {
+    Fib fib = dp.getFibs().getOrDefault(hostname, ImmutableMap.of()).get(vrf);
+    if (fib == null) {
+      return null;
+    }
+    boolean accepted =
+        dp.getIpVrfOwners()
+            .getOrDefault(dstIp, ImmutableMap.of())
+            .getOrDefault(hostname, ImmutableSet.of())
+            .contains(vrf);
+    Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> fibResult =
+        fib.getNextHopInterfacesByRoute(dstIp);
+
+    // ARP is sent for the final next-hop IP of a route, or for the destination IP
+    SetMultimap<String, Ip> arpIps = HashMultimap.create();
+    fibResult
+        .values()
+        .forEach(
+            byInterface ->
+                byInterface.forEach(
+                    (iface, finalNextHopIps) -> {
+                      arpIps.put(iface, dstIp);
+                      finalNextHopIps
+                          .keySet()
+                          .stream()
+                          .filter(ip -> !ip.equals(Ip.AUTO))
+                          .forEach(ip -> arpIps.put(iface, ip));
+                    }));
+
+    ForwardingAnalysis forwardingAnalysis = dp.getForwardingAnalysis();
+    Map<String, Configuration> configurations = dp.getConfigurations();
+    Configuration c = configurations.get(hostname);
+    Map<String, IpSpace> namedIpSpaces = c == null ? ImmutableMap.of() : c.getIpSpaces();
+    Map<String, IpSpace> neighborUnreachableByInterface =
+        forwardingAnalysis
+            .getNeighborUnreachable()
+            .getOrDefault(hostname, ImmutableMap.of())
+            .getOrDefault(vrf, ImmutableMap.of());
+    Map<NodeInterfacePair, SortedSet<Edge>> interfaceEdges = dp.getTopology().getInterfaceEdges();
+    ImmutableSetMultimap.Builder<String, Ip> neighborUnreachable = ImmutableSetMultimap.builder();
+    ImmutableSetMultimap.Builder<Edge, Ip> arpReplies = ImmutableSetMultimap.builder();
+    arpIps.forEach(
+        (iface, arpIp) -> {
+          IpSpace unreachableIps = neighborUnreachableByInterface.get(iface);
+          if (unreachableIps != null && unreachableIps.containsIp(arpIp, namedIpSpaces)) {
+            neighborUnreachable.put(iface, arpIp);
+          }
+          for (Edge edge :
+              interfaceEdges.getOrDefault(
+                  new NodeInterfacePair(hostname, iface), ImmutableSortedSet.of())) {
+            if (!edge.getNode1().equals(hostname)) {
+              continue;
+            }
+            Configuration neighbor = configurations.get(edge.getNode2());
+            IpSpace replyIps =
+                forwardingAnalysis
+                    .getArpReplies()
+                    .getOrDefault(edge.getNode2(), ImmutableMap.of())
+                    .get(edge.getInt2());
+            if (neighbor != null
+                && replyIps != null
+                && replyIps.containsIp(arpIp, neighbor.getIpSpaces())) {
+              arpReplies.put(edge, arpIp);
+            }
+          }
+        });
+    return new Decision(accepted, fibResult, neighborUnreachable.build(), arpReplies.build());
+  }
+
+  /**
+   * Returns the cached reachability of {@code session}, or {@code null} if it was never checked or
+   * a forwarding decision along its traced paths has changed in {@code dp}.
+   */
+  public @Nullable Boolean getReachable(EndpointPair<BgpPeerConfigId> session, DataPlane dp) {
+    Entry entry = _entries.get(session);
+    if (entry == null) {
+      return null;
+    }
+    return entry._hops.stream().allMatch(hop -> hop.isCurrent(dp)) ? entry._reachable : null;
+  }
+
+  /**
+   * Records the reachability of {@code session}, as determined from {@code traces} of its flows in
+   * {@code dp}.
+   */
+  public void put(
+      EndpointPair<BgpPeerConfigId> session,
+      boolean reachable,
+      DataPlane dp,
+      Map<Flow, Set<FlowTrace>> traces) {
+    Map<String, Configuration> configurations = dp.getConfigurations();
+    ImmutableList.Builder<Hop> hops = ImmutableList.builder();
+    traces.forEach(
+        (flow, flowTraces) -> {
+          Ip dstIp = flow.getDstIp();
+          addHop(
+              hops,
+              dp,
+              flow.getIngressNode(),
+              firstNonNull(flow.getIngressVrf(), Configuration.DEFAULT_VRF_NAME),
+              dstIp);
+          for (FlowTrace trace : flowTraces) {
+            for (FlowTraceHop hop : trace.getHops()) {
+              Edge edge = hop.getEdge();
+              Configuration c = configurations.get(edge.getNode2());
+              Interface receivingInterface =
+                  c == null ? null : c.getInterfaces().get(edge.getInt2());
+              if (receivingInterface != null) {
+                addHop(hops, dp, edge.getNode2(), receivingInterface.getVrfName(), dstIp);
+              }
+            }
+          }
+        });
+    _entries.put(session, new Entry(reachable, hops.build()));
+  }
+}
@@ -0,0 +1,57 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Collection;
+import javax.annotation.Nonnull;
+
+/** An immutable, interned set of BGP route reflection cluster IDs, in ascending order. */
+public final class ClusterList extends SortedLongSet {
+
+  private static final Interner<ClusterList> INTERNER = Interners.newWeakInterner();
+
+  public static final ClusterList EMPTY = INTERNER.intern(new ClusterList(new long[0]));
+
+  private static final long serialVersionUID = 1L;
+
+  public static @Nonnull ClusterList of(long... clusterIds) {
+    return intern(sortDistinct(clusterIds.clone()));
+  }
+
+  public static @Nonnull ClusterList of(Collection<Long> clusterIds) {
+    if (clusterIds instanceof ClusterList) {
+      return (ClusterList) clusterIds;
+    }
+    return intern(toSortedArray(clusterIds));
+  }
+
+  private static ClusterList intern(long[] sortedClusterIds) {
+    return sortedClusterIds.length == 0
+        ? EMPTY
+        : INTERNER.intern(new ClusterList(sortedClusterIds));
+  }
+
+  private ClusterList(long[] sortedClusterIds) {
+    super(sortedClusterIds);
+  }
+
+  @Override
+  ClusterList create(long[] sortedElements) {
+    return intern(sortedElements);
+  }
+
+  private Object readResolve() {
+    return intern(_elements);
+  }
+
+  /** Returns the cluster list with {@code clusterId} added. */
+  public @Nonnull ClusterList plus(long clusterId) {
+    return contains(clusterId) ? this : intern(union(_elements, new long[] {clusterId}));
+  }
+
+  /** Returns the cluster list with the IDs in this list or in {@code clusterIds}. */
+  public @Nonnull ClusterList union(Collection<Long> clusterIds) {
+    long[] union = union(_elements, toSortedArray(clusterIds));
+    return union == _elements ? this : intern(union);
+  }
+}
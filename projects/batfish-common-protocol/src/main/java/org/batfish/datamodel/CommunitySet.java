@@ -0,0 +1,58 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Collection;
+import javax.annotation.Nonnull;
+
+/** An immutable, interned set of BGP communities, in ascending order. */
+public final class CommunitySet extends SortedLongSet {
+
+  private static final Interner<CommunitySet> INTERNER = Interners.newWeakInterner();
+
+  public static final CommunitySet EMPTY = INTERNER.intern(new CommunitySet(new long[0]));
+
+  private static final long serialVersionUID = 1L;
+
+  public static @Nonnull CommunitySet of(long... communities) {
+    return intern(sortDistinct(communities.clone()));
+  }
+
+  public static @Nonnull CommunitySet of(Collection<Long> communities) {
+    if (communities instanceof CommunitySet) {
+      return (CommunitySet) communities;
+    }
+    return intern(toSortedArray(communities));
+  }
+
+  private static CommunitySet intern(long[] sortedCommunities) {
+    return sortedCommunities.length == 0
+        ? EMPTY
+        : INTERNER.intern(new CommunitySet(sortedCommunities));
+  }
+
+  private CommunitySet(long[] sortedCommunities) {
+    super(sortedCommunities);
+  }
+
+  @Override
+  CommunitySet create(long[] sortedElements) {
+    return intern(sortedElements);
+  }
+
+  /** Returns the set of communities in this set but not in {@code communities}. */
+  public @Nonnull CommunitySet difference(Collection<Long> communities) {
+    long[] difference = difference(_elements, toSortedArray(communities));
+    return difference == _elements ? this : intern(difference);
+  }
+
+  private Object readResolve() {
+    return intern(_elements);
+  }
+
+  /** Returns the set of communities in this set or in {@code communities}. */
+  public @Nonnull CommunitySet union(Collection<Long> communities) {
+    long[] union = union(_elements, toSortedArray(communities));
+    return union == _elements ? this : intern(union);
+  }
+}
@@ -0,0 +1,186 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link Fib} whose forwarding decisions are computed once, at construction time, and stored in a
+ * flattened lookup table. It keeps no reference to the RIB it was built from.
+ *
+ * <p>The IPv4 address space is partitioned into disjoint ranges of addresses that have the same
+ * longest prefix match in the RIB. Each range points to a shared, immutable {@link FibEntry}. A
+ * lookup first indexes a direct table on the high-order bits of the address (as in DIR-24-8, but
+ * with a stride chosen from the number of ranges to bound memory use), then binary searches the few
+ * ranges in that bucket.
+ */
+public final class CompiledFib implements Fib {
+
+  /** Forwarding decision shared by all addresses in one or more ranges */
+  private static final class FibEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final FibEntry EMPTY = new FibEntry(ImmutableSortedSet.of(), ImmutableMap.of());
+
+    private final @Nonnull Set<String> _nextHopInterfaces;
+
+    private final @Nonnull Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>>
+        _nextHopInterfacesByRoute;
+
+    private FibEntry(
+        Set<String> nextHopInterfaces,
+        Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute) {
+      _nextHopInterfaces = nextHopInterfaces;
+      _nextHopInterfacesByRoute = nextHopInterfacesByRoute;
+    }
+  }
+
+  private static final int MAX_STRIDE = 16;
+
+  private static final long serialVersionUID = 1L;
+
+  /** Index of the range containing the first address of each bucket, plus a sentinel */
+  private final @Nonnull int[] _bucketRanges;
+
+  /** Entry for each range */
+  private final @Nonnull FibEntry[] _entries;
+
+  private final @Nonnull Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>>
+      _nextHopInterfaces;
+
+  /** First address of each range, as a sign-flipped int so that signed order is address order */
+  private final @Nonnull int[] _rangeStarts;
+
+  private final @Nonnull Map<String, Set<AbstractRoute>> _routesByNextHopInterface;
+
+  /** Number of high-order address bits used to index {@link #_bucketRanges} */
+  private final int _stride;
+
+  public CompiledFib(@Nonnull GenericRib<AbstractRoute> rib) {
+    Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfaces =
+        new HashMap<>();
+    Set<Long> boundaries = new TreeSet<>();
+    boundaries.add(0L);
+    for (AbstractRoute route : rib.getRoutes()) {
+      nextHopInterfaces.put(route, FibImpl.collectNextHopInterfaces(rib, route));
+      Prefix network = route.getNetwork();
+      boundaries.add(network.getStartIp().asLong());
+      long end = network.getEndIp().asLong() + 1;
+      if (end <= Ip.MAX.asLong()) {
+        boundaries.add(end);
+      }
+    }
+    _nextHopInterfaces = ImmutableMap.copyOf(nextHopInterfaces);
+    _routesByNextHopInterface = computeRoutesByNextHopInterface(_nextHopInterfaces);
+
+    // Partition the address space, merging adjacent ranges with the same longest prefix match
+    Map<Set<AbstractRoute>, FibEntry> entriesByRoutes = new HashMap<>();
+    entriesByRoutes.put(ImmutableSet.of(), FibEntry.EMPTY);
+    List<Integer> rangeStarts = new ArrayList<>();
+    List<FibEntry> entries = new ArrayList<>();
+    for (long boundary : boundaries) {
+      Set<AbstractRoute> routes = ImmutableSet.copyOf(rib.longestPrefixMatch(new Ip(boundary)));
+      FibEntry entry = entriesByRoutes.computeIfAbsent(routes, this::computeEntry);
+      if (!entries.isEmpty() && entries.get(entries.size() - 1) == entry) {
+        continue;
+      }
+      rangeStarts.add(toKey(boundary));
+      entries.add(entry);
+    }
+    _rangeStarts = rangeStarts.stream().mapToInt(Integer::intValue).toArray();
+    _entries = entries.toArray(new FibEntry[0]);
+
+    // Direct index on the high-order bits, about as large as the number of ranges
+    _stride = Math.min(MAX_STRIDE, Integer.SIZE - Integer.numberOfLeadingZeros(_entries.length));
+    int numBuckets = 1 << _stride;
+    _bucketRanges = new int[numBuckets + 1];
+    for (int bucket = 0; bucket < numBuckets; bucket++) {
+      long bucketStart = (long) bucket << (Prefix.MAX_PREFIX_LENGTH - _stride);
+      _bucketRanges[bucket] = findRange(toKey(bucketStart), 0, _rangeStarts.length - 1);
+    }
+    _bucketRanges[numBuckets] = _rangeStarts.length - 1;
+  }
+
+  private static int toKey(long address) {
+    return (int) address ^ Integer.MIN_VALUE;
+  }
+
+  private static Map<String, Set<AbstractRoute>> computeRoutesByNextHopInterface(
+      Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfaces) {
+    Map<String, ImmutableSet.Builder<AbstractRoute>> routesByNextHopInterface = new HashMap<>();
+    nextHopInterfaces.forEach(
+        (route, nextHopInterfaceMap) ->
+            nextHopInterfaceMap
+                .keySet()
+                .forEach(
+                    nextHopInterface ->
+                        routesByNextHopInterface
+                            .computeIfAbsent(nextHopInterface, n -> ImmutableSet.builder())
+                            .add(route)));
+    return routesByNextHopInterface
+        .entrySet()
+        .stream()
+        .collect(ImmutableMap.toImmutableMap(Entry::getKey, e -> e.getValue().build()));
+  }
+
+  private FibEntry computeEntry(Set<AbstractRoute> routes) {
+    SortedSet<String> nextHopInterfaces = new TreeSet<>();
+    ImmutableMap.Builder<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>>
+        nextHopInterfacesByRoute = ImmutableMap.builder();
+    for (AbstractRoute route : routes) {
+      Map<String, Map<Ip, Set<AbstractRoute>>> routeNextHopInterfaces =
+          _nextHopInterfaces.get(route);
+      nextHopInterfaces.addAll(routeNextHopInterfaces.keySet());
+      nextHopInterfacesByRoute.put(route, routeNextHopInterfaces);
+    }
+    return new FibEntry(
+        ImmutableSortedSet.copyOf(nextHopInterfaces), nextHopInterfacesByRoute.build());
+  }
+
+  /** Return the index of the last range in {@code [lo, hi]} whose start is at most {@code key} */
+  private int findRange(int key, int lo, int hi) {
+    int i = Arrays.binarySearch(_rangeStarts, lo, hi + 1, key);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  private FibEntry lookup(Ip ip) {
+    long address = ip.asLong();
+    int bucket = (int) (address >>> (Prefix.MAX_PREFIX_LENGTH - _stride));
+    return _entries[findRange(toKey(address), _bucketRanges[bucket], _bucketRanges[bucket + 1])];
+  }
+
+  /** Mapping: route -&gt; nextHopInterface -&gt; nextHopIp -&gt; interfaceRoutes */
+  @Override
+  public @Nonnull Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>>
+      getNextHopInterfaces() {
+    return _nextHopInterfaces;
+  }
+
+  @Override
+  public @Nonnull Set<String> getNextHopInterfaces(Ip ip) {
+    return lookup(ip)._nextHopInterfaces;
+  }
+
+  @Override
+  public @Nonnull Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>>
+      getNextHopInterfacesByRoute(Ip dstIp) {
+    return lookup(dstIp)._nextHopInterfacesByRoute;
+  }
+
+  @Override
+  public @Nonnull Map<String, Set<AbstractRoute>> getRoutesByNextHopInterface() {
+    return _routesByNextHopInterface;
+  }
+}
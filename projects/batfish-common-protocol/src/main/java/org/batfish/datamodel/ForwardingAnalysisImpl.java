@@ -2,6 +2,9 @@ package org.batfish.datamodel;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicates;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -15,6 +18,11 @@ import java.util.function.Function;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 
+/**
+ * Computes the {@link ForwardingAnalysis} of a data plane from its RIBs, FIBs and topology. Each
+ * step computes the entries of different nodes in parallel, and the IPs matched by each RIB prefix
+ * are computed once per RIB and shared by every {@link IpSpace} built from them.
+ */
 public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
 
   private final Map<String, Map<String, IpSpace>> _arpReplies;
@@ -58,22 +66,27 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
       SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
       Map<String, Map<String, Fib>> fibs,
       Topology topology) {
+    // the IPs matched by each prefix of each RIB, by RIB identity, shared by the steps below
+    LoadingCache<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIpsCache =
+        CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(GenericRib::getMatchingIps));
+    Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps =
+        matchingIpsCache::getUnchecked;
     _interfaceOwnedIps = CommonUtil.computeInterfaceOwnedIps(configurations, false);
-    _nullRoutedIps = computeNullRoutedIps(ribs, fibs);
+    _nullRoutedIps = computeNullRoutedIps(ribs, fibs, matchingIps);
     _routableIps = computeRoutableIps(ribs);
     _routesWithNextHop = computeRoutesWithNextHop(fibs);
-    _ipsRoutedOutInterfaces = computeIpsRoutedOutInterfaces(ribs);
+    _ipsRoutedOutInterfaces = computeIpsRoutedOutInterfaces(ribs, matchingIps);
     _arpReplies = computeArpReplies(configurations, ribs);
     _someoneReplies = computeSomeoneReplies(topology);
     _routesWithNextHopIpArpFalse = computeRoutesWithNextHopIpArpFalse(fibs);
-    _neighborUnreachableArpNextHopIp = computeNeighborUnreachableArpNextHopIp(ribs);
+    _neighborUnreachableArpNextHopIp = computeNeighborUnreachableArpNextHopIp(ribs, matchingIps);
     _routesWithNextHopIpArpTrue = computeRoutesWithNextHopIpArpTrue(fibs, topology);
-    _arpTrueEdgeNextHopIp = computeArpTrueEdgeNextHopIp(configurations, ribs);
+    _arpTrueEdgeNextHopIp = computeArpTrueEdgeNextHopIp(configurations, ribs, matchingIps);
     _routesWhereDstIpCanBeArpIp = computeRoutesWhereDstIpCanBeArpIp(fibs);
-    _neighborUnreachableArpDestIp = computeNeighborUnreachableArpDestIp(ribs);
+    _neighborUnreachableArpDestIp = computeNeighborUnreachableArpDestIp(ribs, matchingIps);
     _neighborUnreachable = computeNeighborUnreachable();
     _routesWithDestIpEdge = computeRoutesWithDestIpEdge(fibs, topology);
-    _arpTrueEdgeDestIp = computeArpTrueEdgeDestIp(configurations, ribs);
+    _arpTrueEdgeDestIp = computeArpTrueEdgeDestIp(configurations, ribs, matchingIps);
     _arpTrueEdge = computeArpTrueEdge();
   }
 
@@ -130,7 +143,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
       SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
     Map<String, Map<String, IpSpace>> routableIpsByNodeVrf = computeRoutableIpsByNodeVrf(ribs);
     return ribs.entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey, // hostname
@@ -186,10 +199,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   @VisibleForTesting
   Map<Edge, IpSpace> computeArpTrueEdgeDestIp(
       Map<String, Configuration> configurations,
-      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
+      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
+      Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps) {
     return _routesWithDestIpEdge
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* edge */,
@@ -200,7 +214,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                   String iface = edge.getInt1();
                   String vrf = configurations.get(hostname).getInterfaces().get(iface).getVrfName();
                   GenericRib<AbstractRoute> rib = ribs.get(hostname).get(vrf);
-                  IpSpace dstIpMatchesSomeRoutePrefix = computeRouteMatchConditions(routes, rib);
+                  IpSpace dstIpMatchesSomeRoutePrefix =
+                      computeRouteMatchConditions(routes, matchingIps.apply(rib));
                   String recvNode = edge.getNode2();
                   String recvInterface = edge.getInt2();
                   IpSpace recvReplies = _arpReplies.get(recvNode).get(recvInterface);
@@ -213,10 +228,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   @VisibleForTesting
   Map<Edge, IpSpace> computeArpTrueEdgeNextHopIp(
       Map<String, Configuration> configurations,
-      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
+      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
+      Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps) {
     return _routesWithNextHopIpArpTrue
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* edge */,
@@ -227,7 +243,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                   String vrf = configurations.get(hostname).getInterfaces().get(iface).getVrfName();
                   GenericRib<AbstractRoute> rib = ribs.get(hostname).get(vrf);
                   Set<AbstractRoute> routes = routesWithNextHopIpArpTrueEntry.getValue();
-                  return computeRouteMatchConditions(routes, rib);
+                  return computeRouteMatchConditions(routes, matchingIps.apply(rib));
                 }));
   }
 
@@ -265,10 +281,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
 
   @VisibleForTesting
   Map<String, Map<String, IpSpace>> computeIpsRoutedOutInterfaces(
-      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
+      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
+      Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps) {
     return _routesWithNextHop
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -291,7 +308,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                                     return;
                                   }
                                   ipsRoutedOutInterfacesByInterface.put(
-                                      iface, computeRouteMatchConditions(routes, rib));
+                                      iface,
+                                      computeRouteMatchConditions(routes, matchingIps.apply(rib)));
                                 });
                           });
                   return ipsRoutedOutInterfacesByInterface.build();
@@ -336,10 +354,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
 
   @VisibleForTesting
   Map<String, Map<String, Map<String, IpSpace>>> computeNeighborUnreachableArpDestIp(
-      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
+      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
+      Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps) {
     return _routesWhereDstIpCanBeArpIp
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -380,7 +399,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                                               GenericRib<AbstractRoute> rib =
                                                   ribs.get(hostname).get(vrf);
                                               IpSpace ipsRoutedOutInterface =
-                                                  computeRouteMatchConditions(routes, rib);
+                                                  computeRouteMatchConditions(
+                                                      routes, matchingIps.apply(rib));
                                               return AclIpSpace.rejecting(someoneReplies)
                                                   .thenPermitting(ipsRoutedOutInterface)
                                                   .build();
@@ -391,10 +411,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
 
   @VisibleForTesting
   Map<String, Map<String, Map<String, IpSpace>>> computeNeighborUnreachableArpNextHopIp(
-      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
+      SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
+      Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps) {
     return _routesWithNextHopIpArpFalse
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -424,7 +445,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                                                 computeRouteMatchConditions(
                                                     routesWithNextHopIpArpFalseByOutInterfaceEntry
                                                         .getValue(),
-                                                    ribs.get(hostname).get(vrf))));
+                                                    matchingIps.apply(
+                                                        ribs.get(hostname).get(vrf)))));
                               }));
                 }));
   }
@@ -453,9 +475,10 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   @VisibleForTesting
   Map<String, Map<String, IpSpace>> computeNullRoutedIps(
       SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs,
-      Map<String, Map<String, Fib>> fibs) {
+      Map<String, Map<String, Fib>> fibs,
+      Function<GenericRib<AbstractRoute>, Map<Prefix, IpSpace>> matchingIps) {
     return fibs.entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -484,7 +507,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                                                     .contains(Interface.NULL_INTERFACE_NAME))
                                         .map(Entry::getKey)
                                         .collect(ImmutableSet.toImmutableSet());
-                                return computeRouteMatchConditions(nullRoutes, rib);
+                                return computeRouteMatchConditions(
+                                    nullRoutes, matchingIps.apply(rib));
                               }));
                 }));
   }
@@ -493,7 +517,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   Map<String, Map<String, IpSpace>> computeRoutableIps(
       SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
     return ribs.entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -513,7 +537,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   Map<String, Map<String, IpSpace>> computeRoutableIpsByNodeVrf(
       SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs) {
     return ribs.entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey, // hostname
@@ -529,8 +553,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   }
 
   @VisibleForTesting
-  IpSpace computeRouteMatchConditions(Set<AbstractRoute> routes, GenericRib<AbstractRoute> rib) {
-    Map<Prefix, IpSpace> matchingIps = rib.getMatchingIps();
+  static IpSpace computeRouteMatchConditions(
+      Set<AbstractRoute> routes, Map<Prefix, IpSpace> matchingIps) {
     return AclIpSpace.permitting(
             routes
                 .stream()
@@ -546,7 +570,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
       Map<String, Map<String, Fib>> fibs) {
     return _routesWithNextHop
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -611,7 +635,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   Map<String, Map<String, Map<String, Set<AbstractRoute>>>> computeRoutesWithNextHop(
       Map<String, Map<String, Fib>> fibs) {
     return fibs.entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
@@ -635,7 +659,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
       Map<String, Map<String, Fib>> fibs) {
     return _routesWithNextHop
         .entrySet()
-        .stream()
+        .parallelStream()
         .collect(
             ImmutableMap.toImmutableMap(
                 Entry::getKey /* hostname */,
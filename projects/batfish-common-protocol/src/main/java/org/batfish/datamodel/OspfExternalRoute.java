@@ -3,6 +3,7 @@ package org.batfish.datamodel;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import org.batfish.datamodel.ospf.OspfMetricType;
 
@@ -142,6 +143,12 @@ public abstract class OspfExternalRoute extends OspfRoute {
     if (_admin != other._admin) {
       return false;
     }
+    if (_area != other._area) {
+      return false;
+    }
+    if (!Objects.equals(_advertiser, other._advertiser)) {
+      return false;
+    }
     if (_lsaMetric != other._lsaMetric) {
       return false;
     }
@@ -195,6 +202,8 @@ public abstract class OspfExternalRoute extends OspfRoute {
     result = prime * result + _network.hashCode();
     result = prime * result + ((_nextHopIp == null) ? 0 : _nextHopIp.hashCode());
     result = prime * result + _admin;
+    result = prime * result + Long.hashCode(_area);
+    result = prime * result + Objects.hashCode(_advertiser);
     result = prime * result + Long.hashCode(_metric);
     result = prime * result + Long.hashCode(_lsaMetric);
     result = prime * result + ((getOspfMetricType() == null) ? 0 : getOspfMetricType().ordinal());
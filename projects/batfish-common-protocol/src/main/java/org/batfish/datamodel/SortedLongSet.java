@@ -0,0 +1,247 @@
+package org.batfish.datamodel;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable {@link SortedSet} of longs backed by a sorted primitive array, with a cached hash
+ * code. Equal to any {@link java.util.Set} with the same elements.
+ */
+public abstract class SortedLongSet extends AbstractSet<Long>
+    implements SortedSet<Long>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Lexicographic order on the elements, as {@link
+   * org.batfish.common.util.CommonUtil#compareCollection}
+   */
+  public static int compare(SortedLongSet lhs, SortedLongSet rhs) {
+    long[] l = lhs._elements;
+    long[] r = rhs._elements;
+    int n = Math.min(l.length, r.length);
+    for (int i = 0; i < n; i++) {
+      int ret = Long.compare(l[i], r[i]);
+      if (ret != 0) {
+        return ret;
+      }
+    }
+    return Integer.compare(l.length, r.length);
+  }
+
+  static long[] difference(long[] lhs, long[] rhs) {
+    long[] result = new long[lhs.length];
+    int n = 0;
+    int j = 0;
+    for (long e : lhs) {
+      while (j < rhs.length && rhs[j] < e) {
+        j++;
+      }
+      if (j == rhs.length || rhs[j] != e) {
+        result[n++] = e;
+      }
+    }
+    return n == result.length ? lhs : Arrays.copyOf(result, n);
+  }
+
+  /** Returns the distinct elements of {@code elements}, in ascending order. */
+  static long[] toSortedArray(Collection<Long> elements) {
+    if (elements instanceof SortedLongSet) {
+      return ((SortedLongSet) elements)._elements;
+    }
+    long[] result = new long[elements.size()];
+    int i = 0;
+    for (long e : elements) {
+      result[i++] = e;
+    }
+    return sortDistinct(result);
+  }
+
+  /** Sorts {@code elements} in place and returns its distinct elements, in ascending order. */
+  static long[] sortDistinct(long[] elements) {
+    Arrays.sort(elements);
+    int n = 0;
+    for (int i = 0; i < elements.length; i++) {
+      if (i == 0 || elements[i] != elements[i - 1]) {
+        elements[n++] = elements[i];
+      }
+    }
+    return n == elements.length ? elements : Arrays.copyOf(elements, n);
+  }
+
+  static long[] union(long[] lhs, long[] rhs) {
+    if (rhs.length == 0) {
+      return lhs;
+    } else if (lhs.length == 0) {
+      return rhs;
+    }
+    long[] result = new long[lhs.length + rhs.length];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < lhs.length && j < rhs.length) {
+      if (lhs[i] < rhs[j]) {
+        result[n++] = lhs[i++];
+      } else if (lhs[i] > rhs[j]) {
+        result[n++] = rhs[j++];
+      } else {
+        result[n++] = lhs[i++];
+        j++;
+      }
+    }
+    while (i < lhs.length) {
+      result[n++] = lhs[i++];
+    }
+    while (j < rhs.length) {
+      result[n++] = rhs[j++];
+    }
+    return n == lhs.length ? lhs : n == rhs.length ? rhs : Arrays.copyOf(result, n);
+  }
+
+  final long[] _elements;
+
+  private final int _hashCode;
+
+  SortedLongSet(long[] sortedElements) {
+    _elements = sortedElements;
+    int hashCode = 0;
+    for (long e : sortedElements) {
+      hashCode += Long.hashCode(e);
+    }
+    _hashCode = hashCode;
+  }
+
+  /** Returns an interned set of the same type with the given sorted, distinct elements. */
+  abstract SortedLongSet create(long[] sortedElements);
+
+  @Override
+  public @Nullable Comparator<? super Long> comparator() {
+    return null;
+  }
+
+  public boolean contains(long element) {
+    return Arrays.binarySearch(_elements, element) >= 0;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof Long && contains((long) (Long) o);
+  }
+
+  /** Returns true iff this set and {@code other} have an element in common. */
+  public boolean containsAny(SortedLongSet other) {
+    long[] l = _elements;
+    long[] r = other._elements;
+    int i = 0;
+    int j = 0;
+    while (i < l.length && j < r.length) {
+      if (l[i] < r[j]) {
+        i++;
+      } else if (l[i] > r[j]) {
+        j++;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (o instanceof SortedLongSet) {
+      SortedLongSet other = (SortedLongSet) o;
+      return _hashCode == other._hashCode && Arrays.equals(_elements, other._elements);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public Long first() {
+    if (_elements.length == 0) {
+      throw new NoSuchElementException();
+    }
+    return _elements[0];
+  }
+
+  @Override
+  public int hashCode() {
+    return _hashCode;
+  }
+
+  @Override
+  public @Nonnull SortedSet<Long> headSet(Long toElement) {
+    return create(Arrays.copyOfRange(_elements, 0, indexOf(toElement)));
+  }
+
+  /** Returns the index of the first element not less than {@code element} */
+  private int indexOf(long element) {
+    int i = Arrays.binarySearch(_elements, element);
+    return i >= 0 ? i : -i - 1;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return _elements.length == 0;
+  }
+
+  @Override
+  public @Nonnull Iterator<Long> iterator() {
+    return new Iterator<Long>() {
+      private int _next;
+
+      @Override
+      public boolean hasNext() {
+        return _next < _elements.length;
+      }
+
+      @Override
+      public Long next() {
+        if (_next == _elements.length) {
+          throw new NoSuchElementException();
+        }
+        return _elements[_next++];
+      }
+    };
+  }
+
+  @Override
+  public Long last() {
+    if (_elements.length == 0) {
+      throw new NoSuchElementException();
+    }
+    return _elements[_elements.length - 1];
+  }
+
+  @Override
+  public int size() {
+    return _elements.length;
+  }
+
+  @Override
+  public @Nonnull SortedSet<Long> subSet(Long fromElement, Long toElement) {
+    if (fromElement > toElement) {
+      throw new IllegalArgumentException("fromElement > toElement");
+    }
+    return create(Arrays.copyOfRange(_elements, indexOf(fromElement), indexOf(toElement)));
+  }
+
+  @Override
+  public @Nonnull SortedSet<Long> tailSet(Long fromElement) {
+    return create(Arrays.copyOfRange(_elements, indexOf(fromElement), _elements.length));
+  }
+
+  /** Returns a copy of the elements of this set, in ascending order. */
+  public long[] toLongArray() {
+    return _elements.clone();
+  }
+}
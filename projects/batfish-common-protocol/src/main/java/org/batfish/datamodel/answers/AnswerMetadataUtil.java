@@ -41,7 +41,7 @@ public final class AnswerMetadataUtil {
       return null;
     }
     TableAnswerElement table = (TableAnswerElement) ae;
-    int numRows = table.getRowsList().size();
+    int numRows = table.getRowsTable().size();
     ImmutableList.Builder<ColumnAggregation> columnAggregationsBuilder = ImmutableList.builder();
     table
         .getMetadata()
@@ -128,8 +128,7 @@ public final class AnswerMetadataUtil {
       return null;
     }
     return table
-        .getRows()
-        .getData()
+        .getRowsList()
         .stream()
         .map(rowToInteger)
         .max(Comparator.naturalOrder())
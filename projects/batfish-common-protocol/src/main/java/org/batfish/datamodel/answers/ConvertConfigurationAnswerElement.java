@@ -3,6 +3,8 @@ package org.batfish.datamodel.answers;
 import static com.google.common.base.MoreObjects.firstNonNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
 import java.util.Set;
@@ -27,6 +29,8 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   /** A non-default number because we changed the class */
   private static final long serialVersionUID = 2L;
 
+  private static final String PROP_CONVERT_CACHE_HITS = "convertCacheHits";
+  private static final String PROP_CONVERT_CACHE_MISSES = "convertCacheMisses";
   private static final String PROP_DEFINED_STRUCTURES = "definedStructures";
   private static final String PROP_ERRORS = "errors";
   private static final String PROP_FAILED = "failed";
@@ -34,6 +38,10 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   private static final String PROP_VERSION = "version";
   private static final String PROP_WARNINGS = "warnings";
 
+  private int _convertCacheHits;
+
+  private int _convertCacheMisses;
+
   // hostname -> structType -> structName -> info
   @Nonnull
   private SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
@@ -78,6 +86,20 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     _warnings = firstNonNull(warnings, new TreeMap<>());
   }
 
+  /** Number of configurations whose conversion result was loaded from the parse cache */
+  @JsonInclude(Include.NON_DEFAULT)
+  @JsonProperty(PROP_CONVERT_CACHE_HITS)
+  public int getConvertCacheHits() {
+    return _convertCacheHits;
+  }
+
+  /** Number of configurations looked up in the parse cache but converted anew */
+  @JsonInclude(Include.NON_DEFAULT)
+  @JsonProperty(PROP_CONVERT_CACHE_MISSES)
+  public int getConvertCacheMisses() {
+    return _convertCacheMisses;
+  }
+
   @JsonProperty(PROP_DEFINED_STRUCTURES)
   public SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
       getDefinedStructures() {
@@ -173,6 +195,16 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     return sb.toString();
   }
 
+  @JsonProperty(PROP_CONVERT_CACHE_HITS)
+  public void setConvertCacheHits(int convertCacheHits) {
+    _convertCacheHits = convertCacheHits;
+  }
+
+  @JsonProperty(PROP_CONVERT_CACHE_MISSES)
+  public void setConvertCacheMisses(int convertCacheMisses) {
+    _convertCacheMisses = convertCacheMisses;
+  }
+
   @Override
   public void setErrors(SortedMap<String, BatfishException.BatfishStackTrace> errors) {
     _errors = errors;
@@ -20,8 +20,17 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
 
   private static final String PROP_EIGRP_INTERNAL_ITERATIONS = "eigrpInternalIterations";
 
+  private static final String PROP_MAX_MESSAGE_QUEUE_DEPTH_BY_ITERATION =
+      "maxMessageQueueDepthByIteration";
+
+  private static final String PROP_MESSAGES_BY_ITERATION = "messagesByIteration";
+
   private static final String PROP_OSPF_INTERNAL_ITERATIONS = "ospfInternalIterations";
 
+  private static final String PROP_ROUTE_INTERNER_HITS = "routeInternerHits";
+
+  private static final String PROP_ROUTE_INTERNER_MISSES = "routeInternerMisses";
+
   private static final String PROP_WARNINGS = "warnings";
 
   private static final long serialVersionUID = 1L;
@@ -36,8 +45,16 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
 
   private SortedMap<Integer, Integer> _mainRibRoutesByIteration;
 
+  private SortedMap<Integer, Integer> _maxMessageQueueDepthByIteration;
+
+  private SortedMap<Integer, Integer> _messagesByIteration;
+
   private int _ospfInternalIterations;
 
+  private long _routeInternerHits;
+
+  private long _routeInternerMisses;
+
   private String _version;
 
   private Warnings _warnings;
@@ -46,6 +63,8 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _bgpBestPathRibRoutesByIteration = new TreeMap<>();
     _bgpMultipathRibRoutesByIteration = new TreeMap<>();
     _mainRibRoutesByIteration = new TreeMap<>();
+    _maxMessageQueueDepthByIteration = new TreeMap<>();
+    _messagesByIteration = new TreeMap<>();
     _warnings = new Warnings();
   }
 
@@ -74,11 +93,38 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     return _mainRibRoutesByIteration;
   }
 
+  /**
+   * Largest number of routing messages drained at once from the queue of a single adjacency, by
+   * iteration
+   */
+  @JsonProperty(PROP_MAX_MESSAGE_QUEUE_DEPTH_BY_ITERATION)
+  public SortedMap<Integer, Integer> getMaxMessageQueueDepthByIteration() {
+    return _maxMessageQueueDepthByIteration;
+  }
+
+  /** Number of routing messages delivered between routers, by iteration */
+  @JsonProperty(PROP_MESSAGES_BY_ITERATION)
+  public SortedMap<Integer, Integer> getMessagesByIteration() {
+    return _messagesByIteration;
+  }
+
   @JsonProperty(PROP_OSPF_INTERNAL_ITERATIONS)
   public int getOspfInternalIterations() {
     return _ospfInternalIterations;
   }
 
+  /** Number of routes merged into RIBs that were replaced by an equal route from another RIB */
+  @JsonProperty(PROP_ROUTE_INTERNER_HITS)
+  public long getRouteInternerHits() {
+    return _routeInternerHits;
+  }
+
+  /** Number of routes merged into RIBs that were not already held by any RIB */
+  @JsonProperty(PROP_ROUTE_INTERNER_MISSES)
+  public long getRouteInternerMisses() {
+    return _routeInternerMisses;
+  }
+
   @Override
   @JsonProperty(PROP_VERSION)
   public String getVersion() {
@@ -110,6 +156,17 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
         + "\n"
         + "   Main RIB routes by iteration: "
         + _mainRibRoutesByIteration
+        + "\n"
+        + "   Messages by iteration: "
+        + _messagesByIteration
+        + "\n"
+        + "   Max message queue depth by iteration: "
+        + _maxMessageQueueDepthByIteration
+        + "\n"
+        + "   Route interner hits/misses: "
+        + _routeInternerHits
+        + "/"
+        + _routeInternerMisses
         + "\n";
   }
 
@@ -140,11 +197,32 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _mainRibRoutesByIteration = mainRibRoutesByIteration;
   }
 
+  @JsonProperty(PROP_MAX_MESSAGE_QUEUE_DEPTH_BY_ITERATION)
+  public void setMaxMessageQueueDepthByIteration(
+      SortedMap<Integer, Integer> maxMessageQueueDepthByIteration) {
+    _maxMessageQueueDepthByIteration = maxMessageQueueDepthByIteration;
+  }
+
+  @JsonProperty(PROP_MESSAGES_BY_ITERATION)
+  public void setMessagesByIteration(SortedMap<Integer, Integer> messagesByIteration) {
+    _messagesByIteration = messagesByIteration;
+  }
+
   @JsonProperty(PROP_OSPF_INTERNAL_ITERATIONS)
   public void setOspfInternalIterations(int ospfInternalIterations) {
     _ospfInternalIterations = ospfInternalIterations;
   }
 
+  @JsonProperty(PROP_ROUTE_INTERNER_HITS)
+  public void setRouteInternerHits(long routeInternerHits) {
+    _routeInternerHits = routeInternerHits;
+  }
+
+  @JsonProperty(PROP_ROUTE_INTERNER_MISSES)
+  public void setRouteInternerMisses(long routeInternerMisses) {
+    _routeInternerMisses = routeInternerMisses;
+  }
+
   @JsonProperty(PROP_VERSION)
   public void setVersion(String version) {
     _version = version;
@@ -1,3 +0,0 @@
-package org.batfish.datamodel.answers;
-
-public class NodFirstUnsatAnswerElement extends AnswerElement {}
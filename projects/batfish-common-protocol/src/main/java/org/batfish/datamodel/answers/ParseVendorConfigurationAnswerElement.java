@@ -1,5 +1,7 @@
 package org.batfish.datamodel.answers;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
 import java.util.SortedMap;
@@ -17,12 +19,20 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
 
   private static final String PROP_FILE_MAP = "fileMap";
 
+  private static final String PROP_PARSE_CACHE_HITS = "parseCacheHits";
+
+  private static final String PROP_PARSE_CACHE_MISSES = "parseCacheMisses";
+
   private static final String PROP_VERSION = "version";
 
   private SortedMap<String, BatfishException.BatfishStackTrace> _errors;
 
   private SortedMap<String, String> _fileMap;
 
+  private int _parseCacheHits;
+
+  private int _parseCacheMisses;
+
   private SortedMap<String, ParseStatus> _parseStatus;
 
   private SortedMap<String, ParseTreeSentences> _parseTrees;
@@ -56,6 +66,20 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     return _fileMap;
   }
 
+  /** Number of files whose parse result was loaded from the parse cache */
+  @JsonInclude(Include.NON_DEFAULT)
+  @JsonProperty(PROP_PARSE_CACHE_HITS)
+  public int getParseCacheHits() {
+    return _parseCacheHits;
+  }
+
+  /** Number of files looked up in the parse cache but parsed anew */
+  @JsonInclude(Include.NON_DEFAULT)
+  @JsonProperty(PROP_PARSE_CACHE_MISSES)
+  public int getParseCacheMisses() {
+    return _parseCacheMisses;
+  }
+
   @Override
   public SortedMap<String, ParseStatus> getParseStatus() {
     return _parseStatus;
@@ -119,6 +143,16 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _fileMap = fileMap;
   }
 
+  @JsonProperty(PROP_PARSE_CACHE_HITS)
+  public void setParseCacheHits(int parseCacheHits) {
+    _parseCacheHits = parseCacheHits;
+  }
+
+  @JsonProperty(PROP_PARSE_CACHE_MISSES)
+  public void setParseCacheMisses(int parseCacheMisses) {
+    _parseCacheMisses = parseCacheMisses;
+  }
+
   @Override
   public void setParseStatus(SortedMap<String, ParseStatus> parseStatus) {
     _parseStatus = parseStatus;
@@ -4,10 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSortedSet;
 import java.util.List;
-import java.util.SortedSet;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -49,23 +46,12 @@ public final class PrependAsPath extends Statement {
   @Override
   public Result execute(Environment environment) {
     List<Long> toPrepend = _expr.evaluate(environment);
-    List<SortedSet<Long>> newAsPaths =
-        toPrepend.stream().map(ImmutableSortedSet::of).collect(ImmutableList.toImmutableList());
-
     BgpRoute.Builder bgpRouteBuilder = (BgpRoute.Builder) environment.getOutputRoute();
-    bgpRouteBuilder.setAsPath(
-        ImmutableList.<SortedSet<Long>>builder()
-            .addAll(newAsPaths)
-            .addAll(bgpRouteBuilder.getAsPath())
-            .build());
+    bgpRouteBuilder.setAsPath(bgpRouteBuilder.getAsPath().prepend(toPrepend));
 
     if (environment.getWriteToIntermediateBgpAttributes()) {
       BgpRoute.Builder ir = environment.getIntermediateBgpAttributes();
-      ir.setAsPath(
-          ImmutableList.<SortedSet<Long>>builder()
-              .addAll(newAsPaths)
-              .addAll(ir.getAsPath())
-              .build());
+      ir.setAsPath(ir.getAsPath().prepend(toPrepend));
     }
 
     Result result = new Result();
@@ -0,0 +1,392 @@
+package org.batfish.datamodel.table;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.BatfishObjectMapper;
+
+/**
+ * The rows of a table, stored column by column. Each column is dictionary-encoded: it holds each
+ * distinct value once, and refers to the value of each row by an integer code.
+ *
+ * <p>Filtering, sorting, projecting and removing duplicates work on the codes and return views that
+ * share the columns of this table. {@link Row Rows}, and so their JSON, are only built for the rows
+ * actually requested, e.g. one page of an answer.
+ */
+@JsonSerialize(using = ColumnarTable.Serializer.class)
+@ParametersAreNonnullByDefault
+public final class ColumnarTable implements Iterable<Row> {
+
+  /** Code of a cell whose row has no value in its column */
+  private static final int ABSENT = -1;
+
+  /** Appends rows to a table. Deserializes from the JSON of a list of rows. */
+  @JsonDeserialize(using = BuilderDeserializer.class)
+  public static final class Builder {
+
+    private final Map<String, Column> _columns;
+
+    private int _size;
+
+    private Builder() {
+      _columns = new LinkedHashMap<>();
+    }
+
+    /** Appends {@code row}. */
+    public Builder add(Row row) {
+      row.getData().fields().forEachRemaining(field -> set(field.getKey(), field.getValue()));
+      _size++;
+      return this;
+    }
+
+    /**
+     * Returns a table of the rows appended so far. Rows appended later do not change the returned
+     * table.
+     */
+    public ColumnarTable build() {
+      return new ColumnarTable(ImmutableList.copyOf(_columns.values()), _size, null);
+    }
+
+    private void set(String column, JsonNode value) {
+      _columns.computeIfAbsent(column, Column::new).set(_size, value);
+    }
+
+    public int size() {
+      return _size;
+    }
+  }
+
+  private static final class BuilderDeserializer extends StdDeserializer<Builder> {
+
+    private static final long serialVersionUID = 1L;
+
+    private BuilderDeserializer() {
+      super(Builder.class);
+    }
+
+    @Override
+    public Builder deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      Builder builder = builder();
+      if (p.getCurrentToken() != JsonToken.START_ARRAY) {
+        return (Builder) ctxt.handleUnexpectedToken(Builder.class, p);
+      }
+      for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+        if (token == JsonToken.START_OBJECT) {
+          // read each cell on its own, so that no tree is built for the whole row
+          while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String column = p.getCurrentName();
+            p.nextToken();
+            builder.set(column, ctxt.readValue(p, JsonNode.class));
+          }
+        } else if (token != JsonToken.VALUE_NULL) {
+          return (Builder) ctxt.handleUnexpectedToken(Builder.class, p);
+        }
+        builder._size++;
+      }
+      return builder;
+    }
+  }
+
+  /** A dictionary-encoded column, shared by a builder and the tables built from it. */
+  private static final class Column {
+
+    private int[] _codes;
+
+    private final String _name;
+
+    private final Map<JsonNode, Integer> _valueCodes;
+
+    private final List<JsonNode> _values;
+
+    private Column(String name) {
+      _codes = new int[0];
+      _name = name;
+      _valueCodes = new HashMap<>();
+      _values = new ArrayList<>();
+    }
+
+    private int code(int row) {
+      return row < _codes.length ? _codes[row] : ABSENT;
+    }
+
+    private void set(int row, JsonNode value) {
+      if (row >= _codes.length) {
+        int oldLength = _codes.length;
+        _codes = Arrays.copyOf(_codes, Math.max(row + 1, 2 * oldLength));
+        Arrays.fill(_codes, oldLength, _codes.length, ABSENT);
+      }
+      _codes[row] =
+          _valueCodes.computeIfAbsent(
+              value,
+              v -> {
+                _values.add(v);
+                return _values.size() - 1;
+              });
+    }
+  }
+
+  static final class Serializer extends StdSerializer<ColumnarTable> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Serializer() {
+      super(ColumnarTable.class);
+    }
+
+    @Override
+    public void serialize(ColumnarTable value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      gen.writeStartArray();
+      for (int i = 0; i < value._size; i++) {
+        int row = value.storedRow(i);
+        gen.writeStartObject();
+        for (Column column : value._columns) {
+          int code = column.code(row);
+          if (code != ABSENT) {
+            provider.defaultSerializeField(column._name, column._values.get(code), gen);
+          }
+        }
+        gen.writeEndObject();
+      }
+      gen.writeEndArray();
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final List<Column> _columns;
+
+  /** The stored row of each row of this view, or {@code null} for the first {@link #_size} rows */
+  @Nullable private final int[] _rows;
+
+  private final int _size;
+
+  private ColumnarTable(List<Column> columns, int size, @Nullable int[] rows) {
+    _columns = columns;
+    _rows = rows;
+    _size = size;
+  }
+
+  /**
+   * Returns the rows of this table in which the value of {@code column} matches {@code predicate}.
+   * The predicate is evaluated once per distinct value.
+   *
+   * @throws NoSuchElementException if some row has no value in {@code column}
+   */
+  public ColumnarTable filter(String column, Predicate<JsonNode> predicate) {
+    Column col = getColumn(column);
+    // 0 if not yet evaluated, else 1 if matching and 2 if not
+    byte[] matches = new byte[col._values.size()];
+    int[] rows = new int[_size];
+    int size = 0;
+    for (int i = 0; i < _size; i++) {
+      int row = storedRow(i);
+      int code = checkedCode(col, row);
+      if (matches[code] == 0) {
+        matches[code] = predicate.test(col._values.get(code)) ? (byte) 1 : (byte) 2;
+      }
+      if (matches[code] == 1) {
+        rows[size++] = row;
+      }
+    }
+    return new ColumnarTable(_columns, size, Arrays.copyOf(rows, size));
+  }
+
+  /** Returns the rows of this table, keeping only the first of each set of equal rows. */
+  public ColumnarTable distinct() {
+    Set<List<Integer>> seen = new HashSet<>();
+    int[] rows = new int[_size];
+    int size = 0;
+    for (int i = 0; i < _size; i++) {
+      int row = storedRow(i);
+      int[] codes = new int[_columns.size()];
+      for (int j = 0; j < codes.length; j++) {
+        codes[j] = _columns.get(j).code(row);
+      }
+      if (seen.add(Ints.asList(codes))) {
+        rows[size++] = row;
+      }
+    }
+    return new ColumnarTable(_columns, size, Arrays.copyOf(rows, size));
+  }
+
+  private int checkedCode(Column column, int row) {
+    int code = column.code(row);
+    if (code == ABSENT) {
+      throw new NoSuchElementException(
+          Row.missingColumnErrorMessage(column._name, getColumnNames()));
+    }
+    return code;
+  }
+
+  private Column getColumn(String name) {
+    for (Column column : _columns) {
+      if (column._name.equals(name)) {
+        return column;
+      }
+    }
+    // an empty table has no columns at all
+    Column column = new Column(name);
+    if (_size > 0) {
+      throw new NoSuchElementException(Row.missingColumnErrorMessage(name, getColumnNames()));
+    }
+    return column;
+  }
+
+  /** Returns the names of the columns of this table, in order of first appearance. */
+  public Set<String> getColumnNames() {
+    return _columns.stream().map(column -> column._name).collect(ImmutableSet.toImmutableSet());
+  }
+
+  /** Builds the row at {@code index} in this table. */
+  public Row getRow(int index) {
+    checkArgument(index >= 0 && index < _size, "Row index %s out of bounds", index);
+    int row = storedRow(index);
+    ObjectNode data = BatfishObjectMapper.mapper().createObjectNode();
+    for (Column column : _columns) {
+      int code = column.code(row);
+      if (code != ABSENT) {
+        data.set(column._name, column._values.get(code));
+      }
+    }
+    return new Row(data);
+  }
+
+  /**
+   * Returns the position of the row at {@code index} in this table among the rows of the table it
+   * was derived from, i.e. in the order in which they were added to the {@link Builder}.
+   */
+  public int getRowNumber(int index) {
+    checkArgument(index >= 0 && index < _size, "Row index %s out of bounds", index);
+    return storedRow(index);
+  }
+
+  /** Builds at most {@code limit} rows of this table, starting at {@code offset}. */
+  public List<Row> getRows(int offset, int limit) {
+    checkArgument(offset >= 0 && limit >= 0, "Offset and limit must be non-negative");
+    ImmutableList.Builder<Row> rows = ImmutableList.builder();
+    for (int i = offset; i < _size && i - offset < limit; i++) {
+      rows.add(getRow(i));
+    }
+    return rows.build();
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<Row> iterator() {
+    return new Iterator<Row>() {
+      private int _next;
+
+      @Override
+      public boolean hasNext() {
+        return _next < _size;
+      }
+
+      @Override
+      public Row next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return getRow(_next++);
+      }
+    };
+  }
+
+  /**
+   * Returns this table restricted to {@code columns}, in that order.
+   *
+   * @throws NoSuchElementException if this table is not empty and lacks one of {@code columns}
+   */
+  public ColumnarTable project(Collection<String> columns) {
+    List<Column> projected =
+        columns.stream().map(this::getColumn).collect(ImmutableList.toImmutableList());
+    return new ColumnarTable(projected, _size, _rows);
+  }
+
+  public int size() {
+    return _size;
+  }
+
+  /**
+   * Returns the rows of this table ordered by the values of {@code column} according to {@code
+   * order}. The sort is stable, so sorting by several columns is done by sorting by the least
+   * significant column first.
+   *
+   * @throws NoSuchElementException if some row has no value in {@code column}
+   */
+  public ColumnarTable sortBy(String column, Comparator<JsonNode> order) {
+    Column col = getColumn(column);
+    // rank the distinct values once, then sort rows by rank
+    List<Integer> codes = new ArrayList<>(col._values.size());
+    for (int code = 0; code < col._values.size(); code++) {
+      codes.add(code);
+    }
+    codes.sort((c1, c2) -> order.compare(col._values.get(c1), col._values.get(c2)));
+    int[] ranks = new int[codes.size()];
+    for (int i = 1; i < codes.size(); i++) {
+      int code = codes.get(i);
+      int previous = codes.get(i - 1);
+      boolean tied = order.compare(col._values.get(previous), col._values.get(code)) == 0;
+      ranks[code] = tied ? ranks[previous] : i;
+    }
+    // ties are broken by position, which makes the sort stable
+    long[] keys = new long[_size];
+    for (int i = 0; i < _size; i++) {
+      keys[i] = ((long) ranks[checkedCode(col, storedRow(i))] << 32) | i;
+    }
+    Arrays.sort(keys);
+    int[] rows = new int[_size];
+    for (int i = 0; i < _size; i++) {
+      rows[i] = storedRow((int) keys[i]);
+    }
+    return new ColumnarTable(_columns, _size, rows);
+  }
+
+  private int storedRow(int index) {
+    return _rows == null ? index : _rows[index];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (Row row : this) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(row);
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -156,7 +156,7 @@ public class Row implements Comparable<Row>, Serializable {
   }
 
   @JsonCreator
-  private Row(ObjectNode data) {
+  Row(ObjectNode data) {
     _data = firstNonNull(data, BatfishObjectMapper.mapper().createObjectNode());
   }
 
@@ -259,7 +259,7 @@ public class Row implements Comparable<Row>, Serializable {
   }
 
   @JsonValue
-  private ObjectNode getData() {
+  ObjectNode getData() {
     return _data;
   }
 
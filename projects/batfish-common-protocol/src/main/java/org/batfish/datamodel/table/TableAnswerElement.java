@@ -5,10 +5,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.TreeMultiset;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.batfish.common.BatfishException;
 import org.batfish.common.util.BatfishObjectMapper;
@@ -25,21 +25,18 @@ public final class TableAnswerElement extends AnswerElement {
 
   private static final String PROP_METADATA = "metadata";
 
-  private static final String PROP_ROWS = "rows";
+  public static final String PROP_ROWS = "rows";
 
   private List<ExcludedRows> _excludedRows;
 
-  private Rows _rows;
-
-  private List<Row> _rowsList;
+  private ColumnarTable.Builder _rows;
 
   private TableMetadata _tableMetadata;
 
   @JsonCreator
   public TableAnswerElement(@Nonnull @JsonProperty(PROP_METADATA) TableMetadata tableMetadata) {
     _tableMetadata = tableMetadata;
-    _rows = new Rows();
-    _rowsList = new LinkedList<>();
+    _rows = ColumnarTable.builder();
     _excludedRows = new LinkedList<>();
   }
 
@@ -50,7 +47,6 @@ public final class TableAnswerElement extends AnswerElement {
    */
   public TableAnswerElement addRow(Row row) {
     _rows.add(row);
-    _rowsList.add(row);
     return this;
   }
 
@@ -116,7 +112,7 @@ public final class TableAnswerElement extends AnswerElement {
         } catch (IOException e) {
           throw new BatfishException("Could not recover Rows object from expect", e);
         }
-        return _rows.equals(expectedEntries);
+        return getRows().equals(expectedEntries);
       default:
         throw new BatfishException("Unhandled assertion type: " + assertion.getType());
     }
@@ -132,14 +128,22 @@ public final class TableAnswerElement extends AnswerElement {
     return _tableMetadata;
   }
 
+  /** Returns a copy of the data rows, in the order of {@link Row#compareTo(Row)}. */
   @JsonIgnore
   public Rows getRows() {
-    return _rows;
+    return new Rows(TreeMultiset.create(getRowsTable()));
   }
 
-  @JsonProperty(PROP_ROWS)
+  /** Returns the data rows, in the order in which they were added. */
+  @JsonIgnore
   public List<Row> getRowsList() {
-    return ImmutableList.copyOf(_rowsList);
+    return ImmutableList.copyOf(getRowsTable());
+  }
+
+  /** Returns the data rows added so far, in columnar form. */
+  @JsonProperty(PROP_ROWS)
+  public ColumnarTable getRowsTable() {
+    return _rows.build();
   }
 
   /**
@@ -169,26 +173,8 @@ public final class TableAnswerElement extends AnswerElement {
     _excludedRows = excludedRows == null ? new LinkedList<>() : excludedRows;
   }
 
-  @JsonIgnore
-  private void setRows(Rows rows) {
-    if (rows == null) {
-      _rows = new Rows();
-      _rowsList = new LinkedList<>();
-    } else {
-      _rows = rows;
-      _rowsList = rows.getData().stream().collect(Collectors.toList());
-    }
-  }
-
   @JsonProperty(PROP_ROWS)
-  private void setRowsList(List<Row> rows) {
-    _rows = new Rows();
-    if (rows == null) {
-      _rowsList = new LinkedList<>();
-
-    } else {
-      _rowsList = rows;
-    }
-    _rowsList.forEach(_rows::add);
+  private void setRowsTable(ColumnarTable.Builder rows) {
+    _rows = rows == null ? ColumnarTable.builder() : rows;
   }
 }
@@ -7,6 +7,7 @@ import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import org.batfish.datamodel.IpSpace;
@@ -34,6 +35,22 @@ public final class IpSpaceAssignment {
     public Set<Location> getLocations() {
       return _locations;
     }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry other = (Entry) o;
+      return _ipSpace.equals(other._ipSpace) && _locations.equals(other._locations);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_ipSpace, _locations);
+    }
   }
 
   public static class Builder {
@@ -81,4 +98,19 @@ public final class IpSpaceAssignment {
   public static IpSpaceAssignment of(List<Entry> entries) {
     return new IpSpaceAssignment(entries);
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof IpSpaceAssignment)) {
+      return false;
+    }
+    return _entries.equals(((IpSpaceAssignment) o)._entries);
+  }
+
+  @Override
+  public int hashCode() {
+    return _entries.hashCode();
+  }
 }
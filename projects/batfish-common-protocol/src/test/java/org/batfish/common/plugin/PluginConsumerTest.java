@@ -3,8 +3,13 @@ package org.batfish.common.plugin;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.batfish.common.BatfishLogger;
+import org.batfish.common.util.SerializationCodec;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -51,4 +56,20 @@ public class PluginConsumerTest {
   public void testSerializingAndDeserializingText() throws Exception {
     runSerializationTest(true);
   }
+
+  @Test
+  public void testDeserializingEachCodec() throws Exception {
+    TestPluginConsumer consumer = new TestPluginConsumer(false);
+    int[] ints = new int[] {1, 2, 3};
+    for (SerializationCodec codec : SerializationCodec.values()) {
+      Path serializeFile = _folder.newFile().toPath();
+      try (OutputStream out = Files.newOutputStream(serializeFile);
+          LZ4FrameOutputStream los = new LZ4FrameOutputStream(out);
+          ObjectOutputStream oos = codec.newObjectOutputStream(los)) {
+        oos.writeObject(ints);
+      }
+
+      assertThat(consumer.deserializeObject(serializeFile, int[].class), equalTo(ints));
+    }
+  }
 }
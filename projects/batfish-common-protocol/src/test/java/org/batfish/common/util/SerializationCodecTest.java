@@ -0,0 +1,125 @@
+package org.batfish.common.util;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import org.batfish.common.BatfishException;
+import org.batfish.common.plugin.PluginConsumer;
+import org.batfish.common.plugin.PluginConsumer.Format;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link SerializationCodec}. */
+public class SerializationCodecTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static byte[] write(SerializationCodec codec, Serializable object) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = codec.newObjectOutputStream(bytes)) {
+      oos.writeObject(object);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object read(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream ois =
+        SerializationCodec.newDetectingObjectInputStream(
+            new ByteArrayInputStream(bytes), SerializationCodecTest.class.getClassLoader())) {
+      return ois.readObject();
+    }
+  }
+
+  private static TreeMap<String, Object> sampleObject() {
+    TreeMap<String, Object> object = new TreeMap<>();
+    object.put("ip", new Ip("1.2.3.4"));
+    object.put("protocol", IpProtocol.TCP);
+    object.put("list", new ArrayList<>(ImmutableList.of("a", "b")));
+    object.put("array", new long[] {1L, 2L});
+    return object;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    for (SerializationCodec codec : SerializationCodec.values()) {
+      byte[] bytes = write(codec, sampleObject());
+
+      PushbackInputStream in =
+          new PushbackInputStream(
+              new ByteArrayInputStream(bytes), PluginConsumer.DEFAULT_HEADER_LENGTH_BYTES);
+      assertThat(PluginConsumer.detectFormat(in), equalTo(codec.getFormat()));
+      @SuppressWarnings("unchecked")
+      TreeMap<String, Object> read = (TreeMap<String, Object>) read(bytes);
+      assertThat(read.keySet(), equalTo(sampleObject().keySet()));
+      assertThat(read.get("ip"), equalTo(new Ip("1.2.3.4")));
+      assertThat(read.get("protocol"), equalTo(IpProtocol.TCP));
+      assertThat(read.get("list"), equalTo(ImmutableList.of("a", "b")));
+      assertThat((long[]) read.get("array"), equalTo(new long[] {1L, 2L}));
+    }
+  }
+
+  @Test
+  public void testCompactSmallerThanJava() throws IOException {
+    assertThat(
+        write(SerializationCodec.COMPACT, sampleObject()).length
+            < write(SerializationCodec.JAVA, sampleObject()).length,
+        equalTo(true));
+  }
+
+  @Test
+  public void testCompactInternsStringsAndIps() throws Exception {
+    byte[] bytes = write(SerializationCodec.COMPACT, sampleObject());
+
+    List<?> list1 = (List<?>) ((TreeMap<?, ?>) read(bytes)).get("list");
+    TreeMap<?, ?> map2 = (TreeMap<?, ?>) read(bytes);
+    List<?> list2 = (List<?>) map2.get("list");
+    assertThat(list2.get(0), sameInstance(list1.get(0)));
+    assertThat(map2.get("ip"), sameInstance(((TreeMap<?, ?>) read(bytes)).get("ip")));
+  }
+
+  @Test
+  public void testCopy() {
+    TreeMap<String, Object> object = sampleObject();
+    TreeMap<String, Object> copy = SerializationCodec.DEFAULT.copy(object);
+
+    assertThat(copy, not(sameInstance(object)));
+    assertThat(copy.get("list"), equalTo(object.get("list")));
+    assertThat(copy.get("list"), not(sameInstance(object.get("list"))));
+  }
+
+  @Test
+  public void testForFormat() {
+    for (SerializationCodec codec : SerializationCodec.values()) {
+      assertThat(SerializationCodec.forFormat(codec.getFormat()), equalTo(codec));
+    }
+  }
+
+  @Test
+  public void testUnknownFormat() throws Exception {
+    _thrown.expect(StreamCorruptedException.class);
+    read(new byte[] {1, 2, 3, 4, 5});
+  }
+
+  @Test
+  public void testForUnknownFormat() {
+    _thrown.expect(BatfishException.class);
+    SerializationCodec.forFormat(Format.UNKNOWN);
+  }
+}
@@ -0,0 +1,74 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.IOException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.junit.Test;
+
+/** Tests of {@link AsPath} */
+public class AsPathTest {
+
+  @Test
+  public void testPrepend() {
+    AsPath asPath = AsPath.ofSingletonAsSets(3L);
+
+    assertThat(
+        asPath.prepend(ImmutableList.of(1L, 2L)),
+        sameInstance(AsPath.ofSingletonAsSets(1L, 2L, 3L).intern()));
+    assertThat(asPath.prepend(ImmutableList.of()), equalTo(asPath));
+  }
+
+  @Test
+  public void testRemovePrivateAs() {
+    AsPath asPath =
+        new AsPath(
+            ImmutableList.of(
+                ImmutableSortedSet.of(1L, 65000L),
+                ImmutableSortedSet.of(65001L),
+                ImmutableSortedSet.of(2L)));
+
+    assertThat(asPath.removePrivateAs(), equalTo(AsPath.ofSingletonAsSets(1L, 2L)));
+    assertThat(
+        new AsPath(AsPath.removePrivateAs(asPath.getAsSets())), equalTo(asPath.removePrivateAs()));
+  }
+
+  @Test
+  public void testContainsAsAndString() {
+    AsPath asPath =
+        new AsPath(ImmutableList.of(ImmutableSortedSet.of(1L), ImmutableSortedSet.of(3L, 2L)));
+
+    assertThat(asPath.containsAs(2L), equalTo(true));
+    assertThat(asPath.containsAs(4L), equalTo(false));
+    assertThat(asPath.getAsPathString(), equalTo("1 {2,3}"));
+    assertThat(asPath.size(), equalTo(2));
+  }
+
+  @Test
+  public void testCompareTo() {
+    assertThat(
+        AsPath.ofSingletonAsSets(1L, 2L).compareTo(AsPath.ofSingletonAsSets(1L, 3L)), lessThan(0));
+    assertThat(
+        AsPath.ofSingletonAsSets(1L).compareTo(AsPath.ofSingletonAsSets(1L, 2L)), lessThan(0));
+    assertThat(
+        new AsPath(ImmutableList.of(ImmutableSortedSet.of(1L)))
+            .compareTo(new AsPath(ImmutableList.of(ImmutableSortedSet.of(1L, 2L)))),
+        lessThan(0));
+    assertThat(AsPath.ofSingletonAsSets(1L), not(equalTo(AsPath.ofSingletonAsSets(2L))));
+  }
+
+  @Test
+  public void testSerialization() throws IOException {
+    AsPath asPath = AsPath.ofSingletonAsSets(1L, 2L).intern();
+
+    assertThat(SerializationUtils.clone(asPath), sameInstance(asPath));
+    assertThat(BatfishObjectMapper.clone(asPath, AsPath.class), equalTo(asPath));
+  }
+}
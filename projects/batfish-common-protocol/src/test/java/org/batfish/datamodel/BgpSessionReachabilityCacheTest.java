@@ -0,0 +1,128 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.graph.EndpointPair;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+/** Tests of {@link BgpSessionReachabilityCache} */
+public class BgpSessionReachabilityCacheTest {
+
+  private static final Ip DST_IP = new Ip("1.1.1.1");
+
+  private static final Flow FLOW =
+      Flow.builder()
+          .setIngressNode("n1")
+          .setIngressVrf(Configuration.DEFAULT_VRF_NAME)
+          .setDstIp(DST_IP)
+          .setTag("tag")
+          .build();
+
+  private static final EndpointPair<BgpPeerConfigId> SESSION =
+      EndpointPair.ordered(
+          new BgpPeerConfigId(
+              "n1", Configuration.DEFAULT_VRF_NAME, Prefix.parse("1.1.1.1/32"), false),
+          new BgpPeerConfigId(
+              "n2", Configuration.DEFAULT_VRF_NAME, Prefix.parse("2.2.2.2/32"), false));
+
+  private static DataPlane dataPlane(String nextHopInterface) {
+    return dataPlane(nextHopInterface, EmptyIpSpace.INSTANCE, UniverseIpSpace.INSTANCE);
+  }
+
+  /**
+   * A data plane in which n1 routes {@link #DST_IP} out of {@code nextHopInterface}, which connects
+   * to n2's eth0.
+   */
+  private static DataPlane dataPlane(
+      String nextHopInterface, IpSpace neighborUnreachableIps, IpSpace arpReplyIps) {
+    AbstractRoute route = new ConnectedRoute(Prefix.parse("1.1.1.0/24"), nextHopInterface);
+    Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> byRoute =
+        ImmutableMap.of(
+            route,
+            ImmutableMap.of(
+                nextHopInterface, ImmutableMap.of(Ip.AUTO, ImmutableSet.<AbstractRoute>of())));
+    Fib fib =
+        MockFib.builder().setNextHopInterfacesByRoute(ImmutableMap.of(DST_IP, byRoute)).build();
+    return MockDataPlane.builder()
+        .setConfigurations(
+            ImmutableMap.of(
+                "n1",
+                new Configuration("n1", ConfigurationFormat.CISCO_IOS),
+                "n2",
+                new Configuration("n2", ConfigurationFormat.CISCO_IOS)))
+        .setFibs(ImmutableMap.of("n1", ImmutableMap.of(Configuration.DEFAULT_VRF_NAME, fib)))
+        .setForwardingAnalysis(
+            MockForwardingAnalysis.builder()
+                .setNeighborUnreachable(
+                    ImmutableMap.of(
+                        "n1",
+                        ImmutableMap.of(
+                            Configuration.DEFAULT_VRF_NAME,
+                            ImmutableMap.of(nextHopInterface, neighborUnreachableIps))))
+                .setArpReplies(ImmutableMap.of("n2", ImmutableMap.of("eth0", arpReplyIps)))
+                .build())
+        .setTopology(
+            new Topology(ImmutableSortedSet.of(new Edge("n1", nextHopInterface, "n2", "eth0"))))
+        .build();
+  }
+
+  @Test
+  public void testGetReachable() {
+    BgpSessionReachabilityCache cache = new BgpSessionReachabilityCache();
+    DataPlane dp = dataPlane("eth0");
+
+    assertThat(cache.getReachable(SESSION, dp), nullValue());
+
+    cache.put(SESSION, true, dp, ImmutableMap.of(FLOW, ImmutableSet.of()));
+    assertThat(cache.getReachable(SESSION, dp), equalTo(true));
+    assertThat(cache.getReachable(SESSION, dataPlane("eth0")), equalTo(true));
+  }
+
+  @Test
+  public void testFibPathChanged() {
+    BgpSessionReachabilityCache cache = new BgpSessionReachabilityCache();
+    cache.put(SESSION, false, dataPlane("eth0"), ImmutableMap.of(FLOW, ImmutableSet.of()));
+
+    assertThat(cache.getReachable(SESSION, dataPlane("eth1")), nullValue());
+  }
+
+  @Test
+  public void testArpOutcomeChanged() {
+    BgpSessionReachabilityCache cache = new BgpSessionReachabilityCache();
+    cache.put(SESSION, false, dataPlane("eth0"), ImmutableMap.of(FLOW, ImmutableSet.of()));
+
+    // same FIB lookups, but the neighbor no longer replies to ARP
+    assertThat(
+        cache.getReachable(SESSION, dataPlane("eth0", DST_IP.toIpSpace(), EmptyIpSpace.INSTANCE)),
+        nullValue());
+    assertThat(
+        cache.getReachable(
+            SESSION, dataPlane("eth0", EmptyIpSpace.INSTANCE, EmptyIpSpace.INSTANCE)),
+        nullValue());
+  }
+
+  @Test
+  public void testOwnershipChanged() {
+    BgpSessionReachabilityCache cache = new BgpSessionReachabilityCache();
+    cache.put(SESSION, false, dataPlane("eth0"), ImmutableMap.of(FLOW, ImmutableSet.of()));
+    DataPlane owned =
+        MockDataPlane.builder()
+            .setConfigurations(dataPlane("eth0").getConfigurations())
+            .setFibs(dataPlane("eth0").getFibs())
+            .setForwardingAnalysis(dataPlane("eth0").getForwardingAnalysis())
+            .setTopology(dataPlane("eth0").getTopology())
+            .setIpVrfOwners(
+                ImmutableMap.of(
+                    DST_IP, ImmutableMap.of("n1", ImmutableSet.of(Configuration.DEFAULT_VRF_NAME))))
+            .build();
+
+    assertThat(cache.getReachable(SESSION, owned), nullValue());
+  }
+}
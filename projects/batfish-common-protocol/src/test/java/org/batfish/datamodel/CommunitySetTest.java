@@ -0,0 +1,62 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+/** Tests of {@link CommunitySet} */
+public class CommunitySetTest {
+
+  @Test
+  public void testInterned() {
+    assertThat(CommunitySet.of(3L, 1L, 2L), sameInstance(CommunitySet.of(1L, 2L, 3L, 2L)));
+    assertThat(CommunitySet.of(ImmutableSet.of(2L, 1L)), sameInstance(CommunitySet.of(1L, 2L)));
+    assertThat(CommunitySet.of(), sameInstance(CommunitySet.EMPTY));
+  }
+
+  @Test
+  public void testSetContract() {
+    CommunitySet communities = CommunitySet.of(5L, 1L, 3L);
+
+    assertThat(communities, contains(1L, 3L, 5L));
+    assertThat(communities, equalTo(ImmutableSortedSet.of(1L, 3L, 5L)));
+    assertThat(ImmutableSortedSet.of(1L, 3L, 5L), equalTo(communities));
+    assertThat(communities.hashCode(), equalTo(ImmutableSet.of(1L, 3L, 5L).hashCode()));
+    assertThat(communities.headSet(3L), contains(1L));
+    assertThat(communities.tailSet(3L), contains(3L, 5L));
+    assertThat(communities.subSet(2L, 6L), contains(3L, 5L));
+  }
+
+  @Test
+  public void testUnionAndDifference() {
+    CommunitySet communities = CommunitySet.of(1L, 3L);
+
+    assertThat(
+        communities.union(ImmutableSet.of(2L, 3L)), sameInstance(CommunitySet.of(1L, 2L, 3L)));
+    assertThat(communities.union(ImmutableSet.of(1L)), sameInstance(communities));
+    assertThat(communities.difference(ImmutableSet.of(3L, 4L)), sameInstance(CommunitySet.of(1L)));
+    assertThat(communities.difference(ImmutableSet.of(2L)), sameInstance(communities));
+  }
+
+  @Test
+  public void testCompare() {
+    assertThat(
+        SortedLongSet.compare(CommunitySet.of(1L, 2L), CommunitySet.of(1L, 3L)), lessThan(0));
+    assertThat(SortedLongSet.compare(CommunitySet.of(1L), CommunitySet.of(1L, 2L)), lessThan(0));
+    assertThat(SortedLongSet.compare(CommunitySet.of(2L), CommunitySet.of(1L, 3L)), equalTo(1));
+  }
+
+  @Test
+  public void testSerializationInterns() {
+    CommunitySet communities = CommunitySet.of(1L, 2L);
+
+    assertThat(SerializationUtils.clone(communities), sameInstance(communities));
+  }
+}
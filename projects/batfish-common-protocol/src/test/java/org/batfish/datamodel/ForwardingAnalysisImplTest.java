@@ -361,7 +361,8 @@ public class ForwardingAnalysisImplTest {
                     .build()));
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<Edge, IpSpace> result =
-        forwardingAnalysisImpl.computeArpTrueEdgeDestIp(configurations, ribs);
+        forwardingAnalysisImpl.computeArpTrueEdgeDestIp(
+            configurations, ribs, GenericRib::getMatchingIps);
 
     /* Respond to request for IP on i2. */
     assertThat(result, hasEntry(equalTo(edge), containsIp(i2Ip)));
@@ -412,7 +413,8 @@ public class ForwardingAnalysisImplTest {
                 StaticRoute.builder().setNetwork(P1).setNextHopIp(P2.getStartIp()).build()));
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<Edge, IpSpace> result =
-        forwardingAnalysisImpl.computeArpTrueEdgeNextHopIp(configurations, ribs);
+        forwardingAnalysisImpl.computeArpTrueEdgeNextHopIp(
+            configurations, ribs, GenericRib::getMatchingIps);
 
     /*
      * Respond for any destination IP in network not matching more specific route not going out i1.
@@ -515,7 +517,7 @@ public class ForwardingAnalysisImplTest {
                     ImmutableSet.of(nullRoute))));
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<String, Map<String, IpSpace>> result =
-        forwardingAnalysisImpl.computeIpsRoutedOutInterfaces(ribs);
+        forwardingAnalysisImpl.computeIpsRoutedOutInterfaces(ribs, GenericRib::getMatchingIps);
 
     /* Should contain IPs matching the route */
     assertThat(result, hasEntry(equalTo(c1), hasEntry(equalTo(i1), containsIp(P1.getStartIp()))));
@@ -574,7 +576,8 @@ public class ForwardingAnalysisImplTest {
     _someoneReplies = ImmutableMap.of(c1, ImmutableMap.of(i1, P1.getEndIp().toIpSpace()));
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<String, Map<String, Map<String, IpSpace>>> result =
-        forwardingAnalysisImpl.computeNeighborUnreachableArpDestIp(ribs);
+        forwardingAnalysisImpl.computeNeighborUnreachableArpDestIp(
+            ribs, GenericRib::getMatchingIps);
 
     /* Should contain IP in the route's prefix that sees no reply */
     assertThat(
@@ -613,7 +616,8 @@ public class ForwardingAnalysisImplTest {
     _someoneReplies = ImmutableMap.of();
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<String, Map<String, Map<String, IpSpace>>> result =
-        forwardingAnalysisImpl.computeNeighborUnreachableArpDestIp(ribs);
+        forwardingAnalysisImpl.computeNeighborUnreachableArpDestIp(
+            ribs, GenericRib::getMatchingIps);
 
     /*
      * Since _someoneReplies is empty, all IPs for which longest-prefix-match route has no
@@ -654,7 +658,8 @@ public class ForwardingAnalysisImplTest {
                 v1, MockRib.builder().setMatchingIps(ImmutableMap.of(P1, P1.toIpSpace())).build()));
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<String, Map<String, Map<String, IpSpace>>> result =
-        forwardingAnalysisImpl.computeNeighborUnreachableArpNextHopIp(ribs);
+        forwardingAnalysisImpl.computeNeighborUnreachableArpNextHopIp(
+            ribs, GenericRib::getMatchingIps);
 
     /* IPs matching some route on interface with no response should appear */
     assertThat(
@@ -717,7 +722,7 @@ public class ForwardingAnalysisImplTest {
                     .build()));
     ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
     Map<String, Map<String, IpSpace>> result =
-        forwardingAnalysisImpl.computeNullRoutedIps(ribs, fibs);
+        forwardingAnalysisImpl.computeNullRoutedIps(ribs, fibs, GenericRib::getMatchingIps);
 
     /* IPs for the null route should appear */
     assertThat(result, hasEntry(equalTo(c1), hasEntry(equalTo(v1), containsIp(P1.getStartIp()))));
@@ -799,11 +804,10 @@ public class ForwardingAnalysisImplTest {
         ImmutableSet.of(new ConnectedRoute(P1, INTERFACE1), new ConnectedRoute(P2, INTERFACE2));
     MockRib rib =
         MockRib.builder().setMatchingIps(ImmutableMap.of(P1, IPSPACE1, P2, IPSPACE2)).build();
-    ForwardingAnalysisImpl forwardingAnalysisImpl = initForwardingAnalysisImpl();
 
     /* Resulting IP space should permit matching IPs */
     assertThat(
-        forwardingAnalysisImpl.computeRouteMatchConditions(routes, rib),
+        ForwardingAnalysisImpl.computeRouteMatchConditions(routes, rib.getMatchingIps()),
         isAclIpSpaceThat(
             hasLines(
                 containsInAnyOrder(
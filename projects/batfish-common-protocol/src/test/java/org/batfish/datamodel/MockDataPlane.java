@@ -42,6 +42,7 @@ public class MockDataPlane implements DataPlane {
       _ribs = ImmutableSortedMap.of();
       _topologyEdges = ImmutableSortedSet.of();
       _ipOwners = ImmutableMap.of();
+      _ipVrfOwners = ImmutableMap.of();
     }
 
     public MockDataPlane build() {
@@ -57,11 +58,26 @@ public class MockDataPlane implements DataPlane {
       return this;
     }
 
+    public Builder setConfigurations(Map<String, Configuration> configurations) {
+      _configurations = configurations;
+      return this;
+    }
+
+    public Builder setFibs(Map<String, Map<String, Fib>> fibs) {
+      _fibs = fibs;
+      return this;
+    }
+
     public Builder setIpOwners(Map<Ip, Set<String>> owners) {
       _ipOwners = owners;
       return this;
     }
 
+    public Builder setIpVrfOwners(Map<Ip, Map<String, Set<String>>> owners) {
+      _ipVrfOwners = owners;
+      return this;
+    }
+
     public Builder setForwardingAnalysis(ForwardingAnalysis forwardingAnalysis) {
       _forwardingAnalysis = forwardingAnalysis;
       return this;
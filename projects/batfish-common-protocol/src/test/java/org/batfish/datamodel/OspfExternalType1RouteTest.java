@@ -19,6 +19,11 @@ public class OspfExternalType1RouteTest {
         new OspfExternalType1Route(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, 1, 1, 1, 1, 1, "");
     OspfExternalType1Route r2 =
         new OspfExternalType1Route(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, 1, 1, 1, 1, 2, "");
+    OspfExternalType1Route otherArea =
+        new OspfExternalType1Route(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, 1, 1, 1, 2, 1, "");
+    OspfExternalType1Route otherAdvertiser =
+        new OspfExternalType1Route(
+            new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, 1, 1, 1, 1, 1, "advertiser");
     OspfExternalType2Route type2Route =
         new OspfExternalType2Route(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, 1, 1, 1, 1, 2, "");
 
@@ -29,6 +34,10 @@ public class OspfExternalType1RouteTest {
 
     // Cost to advertiser differs
     assertThat(r1, not(equalTo(r2)));
+    // Area differs
+    assertThat(r1, not(equalTo(otherArea)));
+    // Advertiser differs
+    assertThat(r1, not(equalTo(otherAdvertiser)));
     // Not the same type
     assertThat(r1, not(equalTo(type2Route)));
   }
@@ -9,6 +9,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
+import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
@@ -41,7 +42,7 @@ public class PrependAsPathTest {
     Environment env = newTestEnvironment(builder);
 
     operation.execute(env);
-    assertThat(builder.getAsPath(), equalTo(mkAsPath(1L, 2L, 3L, 4L)));
+    assertThat(builder.getAsPath(), equalTo(new AsPath(mkAsPath(1L, 2L, 3L, 4L))));
   }
 
   @Test
@@ -58,7 +59,7 @@ public class PrependAsPathTest {
     env.setWriteToIntermediateBgpAttributes(true);
 
     operation.execute(env);
-    assertThat(outputRoute.getAsPath(), equalTo(mkAsPath(1L, 2L, 3L, 4L)));
-    assertThat(intermediateAttributes.getAsPath(), equalTo(mkAsPath(1L, 2L, 5L, 6L)));
+    assertThat(outputRoute.getAsPath(), equalTo(new AsPath(mkAsPath(1L, 2L, 3L, 4L))));
+    assertThat(intermediateAttributes.getAsPath(), equalTo(new AsPath(mkAsPath(1L, 2L, 5L, 6L))));
   }
 }
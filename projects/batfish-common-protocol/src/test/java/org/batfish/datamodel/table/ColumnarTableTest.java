@@ -0,0 +1,149 @@
+package org.batfish.datamodel.table;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link ColumnarTable}. */
+public class ColumnarTableTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static final Comparator<JsonNode> BY_INT = Comparator.comparing(JsonNode::asInt);
+
+  private static final Comparator<JsonNode> BY_TEXT = Comparator.comparing(JsonNode::asText);
+
+  private static ColumnarTable table(Row... rows) {
+    ColumnarTable.Builder builder = ColumnarTable.builder();
+    for (Row row : rows) {
+      builder.add(row);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testBuild() {
+    Row r1 = Row.of("a", 1, "b", "x");
+    Row r2 = Row.of("b", "y");
+    Row r3 = Row.of("a", null, "c", ImmutableList.of(1, 2));
+    ColumnarTable table = table(r1, r2, r3);
+
+    assertThat(table.size(), equalTo(3));
+    assertThat(table, contains(r1, r2, r3));
+    assertThat(table.getRows(1, 5), contains(r2, r3));
+    assertThat(table.getRows(3, 5), empty());
+  }
+
+  @Test
+  public void testBuildSnapshot() {
+    ColumnarTable.Builder builder = ColumnarTable.builder().add(Row.of("a", 1));
+    ColumnarTable table = builder.build();
+    builder.add(Row.of("a", 2, "b", 3));
+
+    assertThat(table, contains(Row.of("a", 1)));
+    assertThat(builder.build(), contains(Row.of("a", 1), Row.of("a", 2, "b", 3)));
+  }
+
+  @Test
+  public void testFilter() {
+    Row r1 = Row.of("a", "x", "b", 1);
+    Row r2 = Row.of("a", "y", "b", 2);
+    Row r3 = Row.of("a", "x", "b", 3);
+    List<JsonNode> tested = new ArrayList<>();
+
+    ColumnarTable filtered =
+        table(r1, r2, r3)
+            .filter(
+                "a",
+                value -> {
+                  tested.add(value);
+                  return value.asText().equals("x");
+                });
+
+    assertThat(filtered, contains(r1, r3));
+    // the predicate is evaluated once per distinct value
+    assertThat(tested.size(), equalTo(2));
+    assertThat(filtered.filter("b", value -> value.asInt() > 1), contains(r3));
+  }
+
+  @Test
+  public void testFilterMissingColumn() {
+    ColumnarTable table = table(Row.of("a", 1), Row.of("b", 2));
+
+    _thrown.expect(NoSuchElementException.class);
+    table.filter("a", value -> true);
+  }
+
+  @Test
+  public void testSortBy() {
+    Row r1 = Row.of("a", "x", "b", 2);
+    Row r2 = Row.of("a", "y", "b", 1);
+    Row r3 = Row.of("a", "x", "b", 1);
+    ColumnarTable table = table(r1, r2, r3);
+
+    assertThat(table.sortBy("b", BY_INT), contains(r2, r3, r1));
+    assertThat(table.sortBy("b", BY_INT.reversed()), contains(r1, r2, r3));
+    // sorting by a then b is sorting by b then (stably) by a
+    assertThat(table.sortBy("b", BY_INT).sortBy("a", BY_TEXT), contains(r3, r1, r2));
+  }
+
+  @Test
+  public void testSortByTiedValues() {
+    // distinct values that compare equal keep their relative order
+    Row r1 = Row.of("a", "X");
+    Row r2 = Row.of("a", "x");
+    Row r3 = Row.of("a", "w");
+    Comparator<JsonNode> ignoreCase = Comparator.comparing(v -> v.asText().toLowerCase());
+
+    assertThat(table(r1, r2, r3).sortBy("a", ignoreCase), contains(r3, r1, r2));
+    assertThat(table(r2, r1, r3).sortBy("a", ignoreCase), contains(r3, r2, r1));
+  }
+
+  @Test
+  public void testProjectAndDistinct() {
+    ColumnarTable table =
+        table(Row.of("a", 1, "b", 1), Row.of("a", 1, "b", 2), Row.of("a", 2, "b", 2));
+
+    assertThat(table.distinct().size(), equalTo(3));
+    ColumnarTable projected = table.project(ImmutableList.of("a"));
+    assertThat(projected, contains(Row.of("a", 1), Row.of("a", 1), Row.of("a", 2)));
+    assertThat(projected.distinct(), contains(Row.of("a", 1), Row.of("a", 2)));
+  }
+
+  @Test
+  public void testProjectMissingColumn() {
+    ColumnarTable table = table(Row.of("a", 1));
+
+    assertThat(ColumnarTable.builder().build().project(ImmutableList.of("b")).size(), equalTo(0));
+    _thrown.expect(NoSuchElementException.class);
+    table.project(ImmutableList.of("b"));
+  }
+
+  @Test
+  public void testJsonSerialization() throws IOException {
+    Row r1 = Row.of("a", 1, "b", "x");
+    Row r2 = Row.of("b", "x", "c", ImmutableList.of("y"));
+    ColumnarTable table = table(r1, r2).sortBy("b", BY_TEXT);
+    String json = BatfishObjectMapper.writePrettyString(table);
+
+    assertThat(
+        BatfishObjectMapper.mapper().readTree(json),
+        equalTo(BatfishObjectMapper.mapper().valueToTree(ImmutableList.of(r1, r2))));
+    ColumnarTable.Builder clone =
+        BatfishObjectMapper.mapper().readValue(json, ColumnarTable.Builder.class);
+    assertThat(clone.build(), contains(r1, r2));
+  }
+}
@@ -0,0 +1,27 @@
+package org.batfish.specifier;
+
+import com.google.common.testing.EqualsTester;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.junit.Test;
+
+/** Tests of {@link IpSpaceAssignment}. */
+public class IpSpaceAssignmentTest {
+
+  @Test
+  public void testEquals() {
+    Location location = new InterfaceLocation("n", "i");
+    new EqualsTester()
+        .addEqualityGroup(IpSpaceAssignment.empty(), IpSpaceAssignment.builder().build())
+        .addEqualityGroup(
+            IpSpaceAssignment.builder().assign(location, UniverseIpSpace.INSTANCE).build(),
+            IpSpaceAssignment.builder().assign(location, UniverseIpSpace.INSTANCE).build())
+        .addEqualityGroup(
+            IpSpaceAssignment.builder().assign(location, new Ip("1.1.1.1").toIpSpace()).build())
+        .addEqualityGroup(
+            IpSpaceAssignment.builder()
+                .assign(new InterfaceLocation("n", "j"), UniverseIpSpace.INSTANCE)
+                .build())
+        .testEquals();
+  }
+}
@@ -11,15 +11,23 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import java.util.ArrayDeque;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import net.sf.javabdd.BDD;
 import org.batfish.common.BatfishException;
 import org.batfish.datamodel.Flow;
@@ -52,19 +60,36 @@ import org.batfish.z3.state.visitors.DefaultTransitionGenerator;
  * Instead, we keep track of where/how the packet is transformed as it flows through the network,
  * and reconstruct it after the fact. This requires some work that can't be expressed in BDDs.
  *
- * <p>We currently implement backward all-pairs reachability. Forward reachability is useful for
- * questions with a tight source constraint, e.g. "find me packets send from node A that get
- * dropped". When reasoning about many sources simultaneously, we have to somehow remember the
- * source, which is very expensive for a large number of sources. Something like multipath
- * consistency -- "find me a packet and a node such that when the node sends the packet, it can be
- * either accepted and dropped" -- for which there are many sources but only a few sinks ({@link
- * Accept}, {@link Drop}, and {@link NeighborUnreachable}), backward reachability is much more
- * efficient. We still have to remember the sinks, but there's only ever 3 of those, no matter how
- * many sources there are.
+ * <p>We implement backward all-pairs reachability, and forward reachability from one source at a
+ * time. Forward reachability is useful for questions with a tight source constraint, e.g. "find me
+ * packets send from node A that get dropped". When reasoning about many sources simultaneously, we
+ * have to somehow remember the source, which is very expensive for a large number of sources.
+ * Something like multipath consistency -- "find me a packet and a node such that when the node
+ * sends the packet, it can be either accepted and dropped" -- for which there are many sources but
+ * only a few sinks ({@link Accept}, {@link Drop}, and {@link NeighborUnreachable}), backward
+ * reachability is much more efficient. We still have to remember the sinks, but there's only ever 3
+ * of those, no matter how many sources there are. {@link #getIngressLocationAcceptBDDs} uses
+ * forward reachability when there are at most {@link #MAX_FORWARD_ROOTS} sources. If given a
+ * fixpoint parallelism above 1, backward reachability over large graphs is computed on that many
+ * threads by {@link PartitionedReverseReachability}.
  */
 public class BDDReachabilityAnalysis {
+  /** The most graph roots for which reachability is computed forward from each root in turn */
+  static final int MAX_FORWARD_ROOTS = 8;
+
+  /**
+   * The fewest states for which the backward fixpoint is computed by {@link
+   * PartitionedReverseReachability} when a fixpoint parallelism above 1 is given
+   */
+  static final int MIN_PARTITIONED_STATES = 10000;
+
   private final BDDPacket _bddPacket;
 
+  private final int _fixpointParallelism;
+
+  // state --> length of the shortest path from state to Accept
+  private final Supplier<Map<StateExpr, Integer>> _distancesToAccept;
+
   // preState --> postState --> predicate
   private final Map<StateExpr, Map<StateExpr, Edge>> _edges;
 
@@ -76,6 +101,8 @@ public class BDDReachabilityAnalysis {
   // state --> final state --> predicate
   private final Supplier<Map<StateExpr, Map<StateExpr, BDD>>> _reverseReachableStates;
 
+  private volatile FixpointMetrics _reverseReachabilityMetrics;
+
   // for NAT
   private final BDD _srcIpVars;
 
@@ -84,11 +111,14 @@ public class BDDReachabilityAnalysis {
   BDDReachabilityAnalysis(
       BDDPacket packet,
       Map<StateExpr, BDD> graphRoots,
-      Map<StateExpr, Map<StateExpr, Edge>> transitions) {
+      Map<StateExpr, Map<StateExpr, Edge>> transitions,
+      int fixpointParallelism) {
     _bddPacket = packet;
+    _fixpointParallelism = fixpointParallelism;
     _edges = computeEdges(graphRoots, transitions);
     _reverseEdges = computeReverseEdges(_edges);
     _graphRoots = ImmutableMap.copyOf(graphRoots);
+    _distancesToAccept = Suppliers.memoize(() -> computeDistancesTo(Accept.INSTANCE));
     _reverseReachableStates = Suppliers.memoize(this::computeReverseReachableStates);
     _leafStates = computeTerminalStates();
     _srcIpVars = new BDDOps(_bddPacket.getFactory()).and(_bddPacket.getSrcIp().getBitvec());
@@ -140,13 +170,27 @@ public class BDDReachabilityAnalysis {
    * node --> final --> set of headers that can reach final from node.
    */
   private Map<StateExpr, Map<StateExpr, BDD>> computeReverseReachableStates() {
-    List<StateExpr> leaves =
-        ImmutableList.of(Accept.INSTANCE, Drop.INSTANCE, NeighborUnreachable.INSTANCE);
-    return computeReverseReachableStates(leaves);
+    return _reverseEdges.size() >= MIN_PARTITIONED_STATES && _fixpointParallelism > 1
+        ? computeReverseReachableStatesPartitioned(_fixpointParallelism)
+        : computeReverseReachableStates(getFinalStates());
+  }
+
+  private static List<StateExpr> getFinalStates() {
+    return ImmutableList.of(Accept.INSTANCE, Drop.INSTANCE, NeighborUnreachable.INSTANCE);
+  }
+
+  @VisibleForTesting
+  Map<StateExpr, Map<StateExpr, BDD>> computeReverseReachableStatesPartitioned(int parallelism) {
+    PartitionedReverseReachability partitioned =
+        new PartitionedReverseReachability(
+            _bddPacket.getFactory(), _edges, getFinalStates(), _srcIpVars, parallelism);
+    Map<StateExpr, Map<StateExpr, BDD>> reverseReachableStates = partitioned.compute();
+    _reverseReachabilityMetrics = partitioned.getMetrics();
+    return reverseReachableStates;
   }
 
-  private Map<StateExpr, Map<StateExpr, BDD>> computeReverseReachableStates(
-      List<StateExpr> leaves) {
+  @VisibleForTesting
+  Map<StateExpr, Map<StateExpr, BDD>> computeReverseReachableStates(List<StateExpr> leaves) {
     Map<StateExpr, Map<StateExpr, BDD>> reverseReachableStates = new HashMap<>();
     Multimap<StateExpr, StateExpr> dirty = HashMultimap.create();
     for (StateExpr leaf : leaves) {
@@ -178,25 +222,9 @@ public class BDDReachabilityAnalysis {
                     return;
                   }
 
-                  // apply source nat backward
                   List<BDDSourceNat> sourceNats = edge.getSourceNats();
                   if (sourceNats != null) {
-                    BDD orig = result;
-                    BDD origExistSrcIp = orig.exist(_srcIpVars);
-                    // non-natted case: srcIp unchanged, none of the lines match
-                    result =
-                        sourceNats
-                            .stream()
-                            .map(srcNat -> srcNat._condition.not())
-                            .reduce(orig, BDD::and);
-                    // natted cases
-                    for (BDDSourceNat sourceNat : sourceNats) {
-                      if (!orig.and(sourceNat._updateSrcIp).isZero()) {
-                        // this could be the NAT rule that was applied
-                        result = result.or(origExistSrcIp.and(sourceNat._condition));
-                      }
-                    }
-                    assert !result.isZero();
+                    result = applySourceNatsBackward(result, sourceNats, _srcIpVars);
                   }
 
                   // update preState BDD reverse-reachable from leaf
@@ -218,6 +246,7 @@ public class BDDReachabilityAnalysis {
       roundTimes.add(time);
       roundDirties.add(dirty.size());
     }
+    _reverseReachabilityMetrics = new FixpointMetrics(1, roundTimes, roundDirties, 0, 0);
 
     return toImmutableMap(
         reverseReachableStates,
@@ -225,6 +254,173 @@ public class BDDReachabilityAnalysis {
         rootEntry -> toImmutableMap(rootEntry.getValue(), Entry::getKey, Entry::getValue));
   }
 
+  /**
+   * Returns the headers that, before {@code sourceNats} are applied, may become {@code natted}.
+   * {@code srcIpVars} are the source IP variables of the factory of the other arguments.
+   */
+  static BDD applySourceNatsBackward(BDD natted, List<BDDSourceNat> sourceNats, BDD srcIpVars) {
+    BDD nattedExistSrcIp = natted.exist(srcIpVars);
+    // non-natted case: srcIp unchanged, none of the lines match
+    BDD result =
+        sourceNats.stream().map(srcNat -> srcNat._condition.not()).reduce(natted, BDD::and);
+    // natted cases
+    for (BDDSourceNat sourceNat : sourceNats) {
+      if (!natted.and(sourceNat._updateSrcIp).isZero()) {
+        // this could be the NAT rule that was applied
+        result = result.or(nattedExistSrcIp.and(sourceNat._condition));
+      }
+    }
+    assert !result.isZero();
+    return result;
+  }
+
+  /**
+   * Returns what {@code headers} become once the first of {@code sourceNats} they match applies.
+   */
+  private BDD applySourceNatsForward(BDD headers, List<BDDSourceNat> sourceNats) {
+    BDD unmatched = headers;
+    BDD result = _bddPacket.getFactory().zero();
+    for (BDDSourceNat sourceNat : sourceNats) {
+      BDD matched = unmatched.and(sourceNat._condition);
+      if (!matched.isZero()) {
+        result = result.or(matched.exist(_srcIpVars).and(sourceNat._updateSrcIp));
+        unmatched = unmatched.and(sourceNat._condition.not());
+      }
+    }
+    return result.or(unmatched);
+  }
+
+  /**
+   * Returns the length of the shortest path from each state that can reach {@code target} to it,
+   * found by breadth-first search over the reverse edges.
+   */
+  private Map<StateExpr, Integer> computeDistancesTo(StateExpr target) {
+    Map<StateExpr, Integer> distances = new HashMap<>();
+    Queue<StateExpr> queue = new ArrayDeque<>();
+    distances.put(target, 0);
+    queue.add(target);
+    while (!queue.isEmpty()) {
+      StateExpr postState = queue.remove();
+      int distance = distances.get(postState) + 1;
+      _reverseEdges
+          .getOrDefault(postState, ImmutableMap.of())
+          .keySet()
+          .forEach(
+              preState -> {
+                if (distances.putIfAbsent(preState, distance) == null) {
+                  queue.add(preState);
+                }
+              });
+    }
+    return ImmutableMap.copyOf(distances);
+  }
+
+  /**
+   * Returns the headers that can reach {@code target} from {@code root}.
+   *
+   * <p>The headers reachable from the root are propagated forward to a fixpoint, pruned to the
+   * states that have a path to the target. States farthest from the target are processed first, so
+   * a state is rarely propagated again after more headers reach it. If no source NAT is applied
+   * along the way, the headers at the target are the answer. Otherwise they are propagated back to
+   * the root, through only the states reached going forward.
+   */
+  @VisibleForTesting
+  BDD computeForwardReachableBDD(StateExpr root, StateExpr target) {
+    BDD zero = _bddPacket.getFactory().zero();
+    Map<StateExpr, Integer> distances =
+        target.equals(Accept.INSTANCE) ? _distancesToAccept.get() : computeDistancesTo(target);
+    if (!distances.containsKey(root)) {
+      return zero;
+    }
+
+    // state --> headers at state reachable from root
+    Map<StateExpr, BDD> forwardReach = new HashMap<>();
+    forwardReach.put(root, _bddPacket.getFactory().one());
+    Comparator<StateExpr> farthestFirst =
+        Comparator.<StateExpr>comparingInt(distances::get).reversed();
+    boolean natted =
+        propagate(
+            root,
+            forwardReach,
+            _edges,
+            farthestFirst,
+            distances::containsKey,
+            (edge, headers) ->
+                edge.getSourceNats() == null
+                    ? headers
+                    : applySourceNatsForward(headers, edge.getSourceNats()));
+    BDD targetReach = forwardReach.get(target);
+    if (targetReach == null || !natted) {
+      return targetReach == null ? zero : targetReach;
+    }
+
+    // state --> headers at state reachable from root that can reach target
+    Map<StateExpr, BDD> backwardReach = new HashMap<>();
+    backwardReach.put(target, targetReach);
+    propagate(
+        target,
+        backwardReach,
+        _reverseEdges,
+        Comparator.comparingInt(distances::get),
+        forwardReach::containsKey,
+        (edge, headers) -> {
+          BDD result =
+              edge.getSourceNats() == null
+                  ? headers
+                  : applySourceNatsBackward(headers, edge.getSourceNats(), _srcIpVars);
+          return result.and(forwardReach.get(edge._preState));
+        });
+    return backwardReach.getOrDefault(root, zero);
+  }
+
+  /**
+   * Propagates headers from {@code start} along {@code edges} to a fixpoint, using a worklist
+   * ordered by {@code priority}. Only states accepted by {@code relevant} are visited. Returns
+   * whether any edge with source NAT was traversed.
+   */
+  private static boolean propagate(
+      StateExpr start,
+      Map<StateExpr, BDD> reach,
+      Map<StateExpr, Map<StateExpr, Edge>> edges,
+      Comparator<StateExpr> priority,
+      Predicate<StateExpr> relevant,
+      BiFunction<Edge, BDD, BDD> traverse) {
+    boolean natted = false;
+    Queue<StateExpr> worklist = new PriorityQueue<>(priority);
+    Set<StateExpr> queued = new HashSet<>();
+    worklist.add(start);
+    queued.add(start);
+    while (!worklist.isEmpty()) {
+      StateExpr state = worklist.remove();
+      queued.remove(state);
+      BDD stateReach = reach.get(state);
+      for (Entry<StateExpr, Edge> entry : edges.getOrDefault(state, ImmutableMap.of()).entrySet()) {
+        StateExpr nextState = entry.getKey();
+        if (!relevant.test(nextState)) {
+          continue;
+        }
+        Edge edge = entry.getValue();
+        BDD constraint = edge.getConstraint();
+        BDD headers = constraint == null ? stateReach : stateReach.and(constraint);
+        if (headers.isZero()) {
+          continue;
+        }
+        natted |= edge.getSourceNats() != null;
+        headers = traverse.apply(edge, headers);
+        if (headers.isZero()) {
+          continue;
+        }
+        BDD oldReach = reach.get(nextState);
+        BDD newReach = oldReach == null ? headers : oldReach.or(headers);
+        if ((oldReach == null || !oldReach.equals(newReach)) && queued.add(nextState)) {
+          worklist.add(nextState);
+        }
+        reach.put(nextState, newReach);
+      }
+    }
+    return natted;
+  }
+
   private Set<StateExpr> computeTerminalStates() {
     Set<StateExpr> preStates = _edges.keySet();
     Set<StateExpr> postStates =
@@ -274,19 +470,44 @@ public class BDDReachabilityAnalysis {
         .collect(ImmutableList.toImmutableList());
   }
 
+  /**
+   * Returns the headers accepted from each ingress location, computed forward from each location if
+   * there are at most {@link #MAX_FORWARD_ROOTS} of them, and backward from {@link Accept}
+   * otherwise. Questions that start from every interface, like reduced reachability, always take
+   * the backward path.
+   */
   public Map<IngressLocation, BDD> getIngressLocationAcceptBDDs() {
-    return _reverseReachableStates
-        .get()
-        .entrySet()
+    return _graphRoots.size() <= MAX_FORWARD_ROOTS
+        ? computeForwardIngressLocationAcceptBDDs()
+        : computeBackwardIngressLocationAcceptBDDs();
+  }
+
+  @VisibleForTesting
+  Map<IngressLocation, BDD> computeForwardIngressLocationAcceptBDDs() {
+    return _graphRoots
+        .keySet()
         .stream()
-        .filter(
-            entry ->
-                entry.getKey() instanceof OriginateInterfaceLink
-                    || entry.getKey() instanceof OriginateVrf)
         .collect(
             ImmutableMap.toImmutableMap(
-                entry -> toIngressLocation(entry.getKey()),
-                entry -> entry.getValue().get(Accept.INSTANCE)));
+                BDDReachabilityAnalysis::toIngressLocation,
+                root -> computeForwardReachableBDD(root, Accept.INSTANCE)));
+  }
+
+  @VisibleForTesting
+  Map<IngressLocation, BDD> computeBackwardIngressLocationAcceptBDDs() {
+    Map<StateExpr, Map<StateExpr, BDD>> reverseReachableStates = _reverseReachableStates.get();
+    BDD zero = _bddPacket.getFactory().zero();
+    // a root that reaches no leaf, or only leaves other than Accept, accepts nothing
+    return _graphRoots
+        .keySet()
+        .stream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                BDDReachabilityAnalysis::toIngressLocation,
+                root ->
+                    reverseReachableStates
+                        .getOrDefault(root, ImmutableMap.of())
+                        .getOrDefault(Accept.INSTANCE, zero)));
   }
 
   private static IngressLocation toIngressLocation(StateExpr stateExpr) {
@@ -303,6 +524,13 @@ public class BDDReachabilityAnalysis {
     }
   }
 
+  /**
+   * Returns how the backward fixpoint was computed, or {@code null} if it has not been computed.
+   */
+  public @Nullable FixpointMetrics getReverseReachabilityMetrics() {
+    return _reverseReachabilityMetrics;
+  }
+
   Set<StateExpr> getLeafStates() {
     return _leafStates;
   }
@@ -26,6 +26,7 @@ import org.batfish.specifier.LocationVisitor;
 import org.batfish.symbolic.bdd.BDDAcl;
 import org.batfish.symbolic.bdd.BDDPacket;
 import org.batfish.symbolic.bdd.IpSpaceToBDD;
+import org.batfish.symbolic.bdd.MemoizedIpSpaceToBDD;
 import org.batfish.z3.expr.StateExpr;
 import org.batfish.z3.state.Accept;
 import org.batfish.z3.state.Drop;
@@ -113,7 +114,7 @@ public final class BDDReachabilityAnalysisFactory {
     _bddPacket = packet;
     _configs = configs;
     _forwardingAnalysis = forwardingAnalysis;
-    _dstIpSpaceToBDD = new IpSpaceToBDD(_bddPacket.getFactory(), _bddPacket.getDstIp());
+    _dstIpSpaceToBDD = new MemoizedIpSpaceToBDD(_bddPacket.getFactory(), _bddPacket.getDstIp());
 
     Map<String, Map<String, BDDAcl>> bddAcls = computeBDDAcls(_bddPacket, configs);
     _aclDenyBDDs = computeAclDenyBDDs(bddAcls);
@@ -662,6 +663,15 @@ public final class BDDReachabilityAnalysisFactory {
 
   public BDDReachabilityAnalysis bddReachabilityAnalysis(
       IpSpaceAssignment srcIpSpaceAssignment, IpSpace dstIpSpace) {
+    return bddReachabilityAnalysis(srcIpSpaceAssignment, dstIpSpace, 1);
+  }
+
+  /**
+   * Builds the analysis, computing backward reachability over large graphs on {@code
+   * fixpointParallelism} threads if above 1.
+   */
+  public BDDReachabilityAnalysis bddReachabilityAnalysis(
+      IpSpaceAssignment srcIpSpaceAssignment, IpSpace dstIpSpace, int fixpointParallelism) {
     Map<StateExpr, BDD> roots = new HashMap<>();
     IpSpaceToBDD srcIpSpaceToBDD = new IpSpaceToBDD(_bddPacket.getFactory(), _bddPacket.getSrcIp());
     IpSpaceToBDD dstIpSpaceToBDD = new IpSpaceToBDD(_bddPacket.getFactory(), _bddPacket.getDstIp());
@@ -676,7 +686,7 @@ public final class BDDReachabilityAnalysisFactory {
       }
     }
 
-    return new BDDReachabilityAnalysis(_bddPacket, roots, _edges);
+    return new BDDReachabilityAnalysis(_bddPacket, roots, _edges, fixpointParallelism);
   }
 
   private String ifaceVrf(String node, String iface) {
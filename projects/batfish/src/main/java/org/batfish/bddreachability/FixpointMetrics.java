@@ -0,0 +1,87 @@
+package org.batfish.bddreachability;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * How a reachability fixpoint was computed: the time taken by each round, and the number of states
+ * updated in it. A round of the sequential fixpoint propagates every state updated in the previous
+ * round; a round of the partitioned fixpoint solves one level of strongly connected components.
+ * Since each component is solved by a single thread, the size of the largest one bounds how much
+ * the partitioned fixpoint can gain.
+ */
+public final class FixpointMetrics {
+
+  private final int _largestSccSize;
+
+  private final int _parallelism;
+
+  private final List<Integer> _roundStates;
+
+  private final List<Long> _roundTimes;
+
+  private final int _sccs;
+
+  FixpointMetrics(
+      int parallelism,
+      List<Long> roundTimes,
+      List<Integer> roundStates,
+      int sccs,
+      int largestSccSize) {
+    _largestSccSize = largestSccSize;
+    _parallelism = parallelism;
+    _roundStates = ImmutableList.copyOf(roundStates);
+    _roundTimes = ImmutableList.copyOf(roundTimes);
+    _sccs = sccs;
+  }
+
+  /**
+   * Returns the number of states in the largest strongly connected component, 0 for the sequential
+   * fixpoint, which does not split the graph.
+   */
+  public int getLargestSccSize() {
+    return _largestSccSize;
+  }
+
+  /** Returns the number of threads used, 1 for the sequential fixpoint. */
+  public int getParallelism() {
+    return _parallelism;
+  }
+
+  /** Returns the number of states updated in each round. */
+  public List<Integer> getRoundStates() {
+    return _roundStates;
+  }
+
+  /**
+   * Returns the number of strongly connected components, 0 for the sequential fixpoint, which does
+   * not split the graph.
+   */
+  public int getSccs() {
+    return _sccs;
+  }
+
+  /** Returns the time taken by each round, in milliseconds. */
+  public List<Long> getRoundTimes() {
+    return _roundTimes;
+  }
+
+  /** Returns the total time taken by all rounds, in milliseconds. */
+  public long getTotalTime() {
+    return _roundTimes.stream().mapToLong(Long::longValue).sum();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(getClass())
+        .add("parallelism", _parallelism)
+        .add("rounds", _roundTimes.size())
+        .add("totalTime", getTotalTime())
+        .add("maxRoundTime", _roundTimes.stream().mapToLong(Long::longValue).max().orElse(0L))
+        .add("states", _roundStates.stream().mapToInt(Integer::intValue).sum())
+        .add("sccs", _sccs)
+        .add("largestSccSize", _largestSccSize)
+        .toString();
+  }
+}
@@ -0,0 +1,382 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.common.util.CommonUtil.toImmutableMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.batfish.common.BatfishException;
+import org.batfish.symbolic.bdd.BDDTransfer;
+import org.batfish.z3.expr.StateExpr;
+
+/**
+ * Computes the same backward reachability fixpoint as {@link BDDReachabilityAnalysis}, using
+ * several threads.
+ *
+ * <p>The state graph is split into strongly connected components. The headers that can reach each
+ * leaf from a component depend only on those of the components it has edges to, so components are
+ * solved level by level, starting from those without out-edges, and the components of each level
+ * are solved concurrently. {@link BDDFactory BDDFactories} are not thread-safe, so each thread
+ * solves its components in a factory of its own with the same variables as the analysis's, and BDDs
+ * are copied into and out of the analysis's factory while holding its lock.
+ *
+ * <p>Routed networks tend to have one strongly connected component holding most of their states,
+ * which a single thread solves, so this only pays off when the components are balanced. The {@link
+ * FixpointMetrics metrics} record how the graph split.
+ */
+final class PartitionedReverseReachability {
+
+  /** A copy of an {@link Edge} in a worker's factory */
+  private static final class WorkerEdge {
+    private final BDD _constraint;
+    private final StateExpr _postState;
+    private final List<BDDSourceNat> _sourceNats;
+
+    private WorkerEdge(StateExpr postState, BDD constraint, List<BDDSourceNat> sourceNats) {
+      _constraint = constraint;
+      _postState = postState;
+      _sourceNats = sourceNats;
+    }
+  }
+
+  // preState --> postState --> predicate
+  private final Map<StateExpr, Map<StateExpr, Edge>> _edges;
+
+  // the analysis's factory, which also guards every use of its BDDs
+  private final BDDFactory _factory;
+
+  private int _largestSccSize;
+
+  private final Set<StateExpr> _leaves;
+
+  private final int _parallelism;
+
+  // state --> leaf --> headers at state that can reach leaf, in the analysis's factory
+  private final Map<StateExpr, Map<StateExpr, BDD>> _reverseReachableStates;
+
+  private final List<Integer> _roundStates;
+
+  private final List<Long> _roundTimes;
+
+  private int _sccs;
+
+  private final BDD _srcIpVars;
+
+  PartitionedReverseReachability(
+      BDDFactory factory,
+      Map<StateExpr, Map<StateExpr, Edge>> edges,
+      List<StateExpr> leaves,
+      BDD srcIpVars,
+      int parallelism) {
+    _edges = edges;
+    _factory = factory;
+    _leaves = ImmutableSet.copyOf(leaves);
+    _parallelism = parallelism;
+    _reverseReachableStates = new ConcurrentHashMap<>();
+    _roundStates = new ArrayList<>();
+    _roundTimes = new ArrayList<>();
+    _srcIpVars = srcIpVars;
+  }
+
+  /** Returns state --&gt; leaf --&gt; headers at state that can reach leaf. */
+  Map<StateExpr, Map<StateExpr, BDD>> compute() {
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            _parallelism,
+            new ThreadFactoryBuilder().setNameFormat("bdd-fixpoint-%d").setDaemon(true).build());
+    ThreadLocal<BDDFactory> workerFactories =
+        ThreadLocal.withInitial(
+            () -> {
+              synchronized (_factory) {
+                return BDDTransfer.compatibleFactory(_factory);
+              }
+            });
+    try {
+      for (List<Set<StateExpr>> level : computeLevels()) {
+        long time = System.currentTimeMillis();
+        int chunkSize = (level.size() + _parallelism - 1) / _parallelism;
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Set<StateExpr>> chunk : Lists.partition(level, chunkSize)) {
+          futures.add(pool.submit(() -> solve(chunk, workerFactories.get())));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        _roundTimes.add(System.currentTimeMillis() - time);
+        _roundStates.add(level.stream().mapToInt(Set::size).sum());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BatfishException("Interrupted while computing reachability", e);
+    } catch (ExecutionException e) {
+      throw new BatfishException("Error computing reachability", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return toImmutableMap(
+        _reverseReachableStates, Entry::getKey, entry -> ImmutableMap.copyOf(entry.getValue()));
+  }
+
+  /**
+   * Returns the strongly connected components of the state graph grouped into levels, such that
+   * each component only has edges to components of earlier levels.
+   */
+  List<List<Set<StateExpr>>> computeLevels() {
+    List<Set<StateExpr>> sccs = computeSccs();
+    _sccs = sccs.size();
+    _largestSccSize = sccs.stream().mapToInt(Set::size).max().orElse(0);
+    Map<StateExpr, Integer> sccLevels = new HashMap<>();
+    List<List<Set<StateExpr>>> levels = new ArrayList<>();
+    for (Set<StateExpr> scc : sccs) {
+      // components are found after every component they have edges to
+      int level =
+          scc.stream()
+              .flatMap(state -> successors(state).stream())
+              .filter(postState -> !scc.contains(postState))
+              .mapToInt(postState -> sccLevels.get(postState) + 1)
+              .max()
+              .orElse(0);
+      scc.forEach(state -> sccLevels.put(state, level));
+      if (level == levels.size()) {
+        levels.add(new ArrayList<>());
+      }
+      levels.get(level).add(scc);
+    }
+    return levels;
+  }
+
+  /**
+   * Returns the strongly connected components of the state graph, each after all components it has
+   * edges to, using an iterative version of Tarjan's algorithm.
+   */
+  private List<Set<StateExpr>> computeSccs() {
+    Set<StateExpr> states = new LinkedHashSet<>(_edges.keySet());
+    _edges.values().forEach(postStates -> states.addAll(postStates.keySet()));
+    states.addAll(_leaves);
+
+    List<Set<StateExpr>> sccs = new ArrayList<>();
+    Map<StateExpr, Integer> indices = new HashMap<>();
+    Map<StateExpr, Integer> lowLinks = new HashMap<>();
+    Deque<StateExpr> sccStack = new ArrayDeque<>();
+    Set<StateExpr> onSccStack = new HashSet<>();
+    Deque<StateExpr> callStack = new ArrayDeque<>();
+    Deque<Iterator<StateExpr>> successorIterators = new ArrayDeque<>();
+    for (StateExpr root : states) {
+      if (indices.containsKey(root)) {
+        continue;
+      }
+      StateExpr next = root;
+      while (next != null || !callStack.isEmpty()) {
+        if (next != null) {
+          // visit next
+          indices.put(next, indices.size());
+          lowLinks.put(next, indices.get(next));
+          sccStack.push(next);
+          onSccStack.add(next);
+          callStack.push(next);
+          successorIterators.push(successors(next).iterator());
+          next = null;
+          continue;
+        }
+        StateExpr state = callStack.peek();
+        Iterator<StateExpr> successors = successorIterators.peek();
+        if (successors.hasNext()) {
+          StateExpr successor = successors.next();
+          if (!indices.containsKey(successor)) {
+            next = successor;
+          } else if (onSccStack.contains(successor)) {
+            lowLinks.put(state, Math.min(lowLinks.get(state), indices.get(successor)));
+          }
+          continue;
+        }
+        callStack.pop();
+        successorIterators.pop();
+        if (!callStack.isEmpty()) {
+          StateExpr caller = callStack.peek();
+          lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLinks.get(state)));
+        }
+        if (lowLinks.get(state).equals(indices.get(state))) {
+          ImmutableSet.Builder<StateExpr> scc = ImmutableSet.builder();
+          StateExpr member;
+          do {
+            member = sccStack.pop();
+            onSccStack.remove(member);
+            scc.add(member);
+          } while (member != state);
+          sccs.add(scc.build());
+        }
+      }
+    }
+    return sccs;
+  }
+
+  private Set<StateExpr> successors(StateExpr state) {
+    return _edges.getOrDefault(state, ImmutableMap.of()).keySet();
+  }
+
+  /**
+   * Solves {@code sccs}, all of whose out-edges lead to already solved components, in {@code
+   * worker}, and records the results in the analysis's factory.
+   */
+  private void solve(List<Set<StateExpr>> sccs, BDDFactory worker) {
+    BDDTransfer toWorker = new BDDTransfer(worker);
+    BDD srcIpVars;
+    Map<StateExpr, List<WorkerEdge>> outEdges = new HashMap<>();
+    // solved postState --> leaf --> headers at postState that can reach leaf
+    Map<StateExpr, Map<StateExpr, BDD>> solved = new HashMap<>();
+    synchronized (_factory) {
+      srcIpVars = toWorker.transfer(_srcIpVars);
+      for (Set<StateExpr> scc : sccs) {
+        for (StateExpr state : scc) {
+          List<WorkerEdge> stateOutEdges = new ArrayList<>();
+          for (Edge edge : _edges.getOrDefault(state, ImmutableMap.of()).values()) {
+            List<BDDSourceNat> sourceNats =
+                edge._sourceNats == null
+                    ? null
+                    : edge._sourceNats
+                        .stream()
+                        .map(
+                            sourceNat ->
+                                new BDDSourceNat(
+                                    toWorker.transfer(sourceNat._condition),
+                                    toWorker.transfer(sourceNat._updateSrcIp)))
+                        .collect(ImmutableList.toImmutableList());
+            stateOutEdges.add(
+                new WorkerEdge(edge._postState, toWorker.transfer(edge._constraint), sourceNats));
+            if (!scc.contains(edge._postState)) {
+              solved.computeIfAbsent(
+                  edge._postState,
+                  postState ->
+                      toImmutableMap(
+                          _reverseReachableStates.getOrDefault(postState, ImmutableMap.of()),
+                          Entry::getKey,
+                          entry -> toWorker.transfer(entry.getValue())));
+            }
+          }
+          outEdges.put(state, stateOutEdges);
+        }
+      }
+    }
+
+    Map<StateExpr, Map<StateExpr, BDD>> reverseReachableStates = new HashMap<>();
+    for (Set<StateExpr> scc : sccs) {
+      solveScc(scc, worker, srcIpVars, outEdges, solved, reverseReachableStates);
+    }
+
+    synchronized (_factory) {
+      BDDTransfer fromWorker = new BDDTransfer(_factory);
+      reverseReachableStates.forEach(
+          (state, leafBdds) -> {
+            if (!leafBdds.isEmpty()) {
+              _reverseReachableStates.put(
+                  state,
+                  toImmutableMap(
+                      leafBdds, Entry::getKey, entry -> fromWorker.transfer(entry.getValue())));
+            }
+          });
+    }
+  }
+
+  private void solveScc(
+      Set<StateExpr> scc,
+      BDDFactory worker,
+      BDD srcIpVars,
+      Map<StateExpr, List<WorkerEdge>> outEdges,
+      Map<StateExpr, Map<StateExpr, BDD>> solved,
+      Map<StateExpr, Map<StateExpr, BDD>> reverseReachableStates) {
+    // postState --> preState --> edge, within the component
+    Map<StateExpr, Map<StateExpr, WorkerEdge>> inEdges = new HashMap<>();
+    Queue<StateExpr> dirty = new ArrayDeque<>();
+    for (StateExpr state : scc) {
+      Map<StateExpr, BDD> reach = new HashMap<>();
+      if (_leaves.contains(state)) {
+        reach.put(state, worker.one());
+      }
+      for (WorkerEdge edge : outEdges.get(state)) {
+        if (scc.contains(edge._postState)) {
+          inEdges.computeIfAbsent(edge._postState, k -> new HashMap<>()).put(state, edge);
+        } else {
+          solved
+              .get(edge._postState)
+              .forEach((leaf, bdd) -> merge(reach, leaf, traverse(edge, bdd, srcIpVars)));
+        }
+      }
+      reverseReachableStates.put(state, reach);
+      if (!reach.isEmpty()) {
+        dirty.add(state);
+      }
+    }
+    Set<StateExpr> queued = new HashSet<>(dirty);
+    while (!dirty.isEmpty()) {
+      StateExpr postState = dirty.remove();
+      queued.remove(postState);
+      Map<StateExpr, BDD> postStateReach = reverseReachableStates.get(postState);
+      inEdges
+          .getOrDefault(postState, ImmutableMap.of())
+          .forEach(
+              (preState, edge) -> {
+                Map<StateExpr, BDD> preStateReach = reverseReachableStates.get(preState);
+                boolean changed = false;
+                for (Entry<StateExpr, BDD> entry : postStateReach.entrySet()) {
+                  changed |=
+                      merge(
+                          preStateReach,
+                          entry.getKey(),
+                          traverse(edge, entry.getValue(), srcIpVars));
+                }
+                if (changed && queued.add(preState)) {
+                  dirty.add(preState);
+                }
+              });
+    }
+  }
+
+  /** Returns the headers before {@code edge} that become {@code headers} after it. */
+  private static BDD traverse(WorkerEdge edge, BDD headers, BDD srcIpVars) {
+    BDD result = headers.and(edge._constraint);
+    if (result.isZero() || edge._sourceNats == null) {
+      return result;
+    }
+    return BDDReachabilityAnalysis.applySourceNatsBackward(result, edge._sourceNats, srcIpVars);
+  }
+
+  /** Adds {@code headers} to those reaching {@code leaf}, returning whether they changed. */
+  private static boolean merge(Map<StateExpr, BDD> reach, StateExpr leaf, BDD headers) {
+    if (headers.isZero()) {
+      return false;
+    }
+    BDD oldReach = reach.get(leaf);
+    BDD newReach = oldReach == null ? headers : oldReach.or(headers);
+    if (oldReach != null && oldReach.equals(newReach)) {
+      return false;
+    }
+    reach.put(leaf, newReach);
+    return true;
+  }
+
+  /** Returns the time taken and states solved by each level, and how the graph split. */
+  FixpointMetrics getMetrics() {
+    return new FixpointMetrics(_parallelism, _roundTimes, _roundStates, _sccs, _largestSccSize);
+  }
+}
@@ -456,18 +456,32 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_LOG_TEE = "logtee";
 
+  private static final String ARG_MAX_DATA_PLANE_TASKS = "maxdataplanetasks";
+
   private static final String ARG_MAX_PARSER_CONTEXT_LINES = "maxparsercontextlines";
 
   private static final String ARG_MAX_PARSER_CONTEXT_TOKENS = "maxparsercontexttokens";
 
   private static final String ARG_MAX_PARSE_TREE_PRINT_LENGTH = "maxparsetreeprintlength";
 
+  private static final String ARG_MAX_PARSING_TASKS = "maxparsingtasks";
+
+  private static final String ARG_MAX_QUESTION_TASKS = "maxquestiontasks";
+
   private static final String ARG_MAX_RUNTIME_MS = "maxruntime";
 
+  private static final String ARG_MAX_TASKS = "maxtasks";
+
   private static final String ARG_NO_SHUFFLE = "noshuffle";
 
+  private static final String ARG_PARALLEL_BDD_FIXPOINT = "parallelbddfixpoint";
+
   public static final String ARG_PARENT_PID = "parentpid";
 
+  private static final String ARG_PARSE_CACHE = "parsecache";
+
+  private static final String ARG_PARSE_CACHE_MAX_SIZE_MB = "parsecachemaxsize";
+
   private static final String ARG_PRINT_PARSE_TREES = "ppt";
 
   private static final String ARG_PRINT_PARSE_TREE_LINE_NUMS = "printparsetreelinenums";
@@ -488,6 +502,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   public static final String ARG_SERVICE_PORT = "serviceport";
 
+  private static final String ARG_SNAPSHOT_CACHE_MAX_SIZE_MB = "snapshotcachemaxsize";
+
   private static final String ARG_TRACING_AGENT_HOST = "tracingagenthost";
 
   private static final String ARG_TRACING_AGENT_PORT = "tracingagentport";
@@ -763,10 +779,18 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_LOG_TEE);
   }
 
+  public boolean getParallelBddFixpoint() {
+    return _config.getBoolean(ARG_PARALLEL_BDD_FIXPOINT);
+  }
+
   public int getParentPid() {
     return _config.getInt(ARG_PARENT_PID);
   }
 
+  public int getMaxDataPlaneTasks() {
+    return _config.getInt(ARG_MAX_DATA_PLANE_TASKS);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -782,14 +806,39 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getInt(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
   }
 
+  public int getMaxParsingTasks() {
+    return _config.getInt(ARG_MAX_PARSING_TASKS);
+  }
+
+  public int getMaxQuestionTasks() {
+    return _config.getInt(ARG_MAX_QUESTION_TASKS);
+  }
+
   public int getMaxRuntimeMs() {
     return _config.getInt(ARG_MAX_RUNTIME_MS);
   }
 
+  public int getMaxTasks() {
+    return _config.getInt(ARG_MAX_TASKS);
+  }
+
   public String getOutputEnvironmentName() {
     return _config.getString(BfConsts.ARG_OUTPUT_ENV);
   }
 
+  /**
+   * Whether parse and conversion results are cached on disk under the container directory, keyed by
+   * the content of their input, and reused by subsequent testrigs.
+   */
+  public boolean getParseCache() {
+    return _config.getBoolean(ARG_PARSE_CACHE);
+  }
+
+  /** Size in megabytes above which least recently used parse cache entries are evicted */
+  public int getParseCacheMaxSizeMb() {
+    return _config.getInt(ARG_PARSE_CACHE_MAX_SIZE_MB);
+  }
+
   public boolean getPedanticRecord() {
     return !_config.getBoolean(BfConsts.ARG_PEDANTIC_SUPPRESS);
   }
@@ -873,6 +922,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return !_config.getBoolean(ARG_DISABLE_Z3_SIMPLIFICATION);
   }
 
+  /**
+   * Estimated size in megabytes of the snapshot data kept in memory across tasks, or 0 for half of
+   * the maximum heap
+   */
+  public int getSnapshotCacheMaxSizeMb() {
+    return _config.getInt(ARG_SNAPSHOT_CACHE_MAX_SIZE_MB);
+  }
+
   public boolean getSslDisable() {
     return _config.getBoolean(BfConsts.ARG_SSL_DISABLE);
   }
@@ -1020,16 +1077,23 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_JOBS, Integer.MAX_VALUE);
     setDefaultProperty(ARG_LOG_TEE, false);
     setDefaultProperty(BfConsts.ARG_LOG_LEVEL, "debug");
+    setDefaultProperty(ARG_MAX_DATA_PLANE_TASKS, 1);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_LINES, 10);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_TOKENS, 10);
     setDefaultProperty(ARG_MAX_PARSE_TREE_PRINT_LENGTH, 0);
+    setDefaultProperty(ARG_MAX_PARSING_TASKS, 1);
+    setDefaultProperty(ARG_MAX_QUESTION_TASKS, Integer.MAX_VALUE);
     setDefaultProperty(ARG_MAX_RUNTIME_MS, 0);
+    setDefaultProperty(ARG_MAX_TASKS, 1);
     setDefaultProperty(ARG_CHECK_BGP_REACHABILITY, true);
     setDefaultProperty(ARG_NO_SHUFFLE, false);
     setDefaultProperty(BfConsts.ARG_OUTPUT_ENV, null);
     setDefaultProperty(BfConsts.ARG_PEDANTIC_SUPPRESS, false);
     setDefaultProperty(BfConsts.ARG_PRETTY_PRINT_ANSWER, false);
+    setDefaultProperty(ARG_PARALLEL_BDD_FIXPOINT, false);
     setDefaultProperty(ARG_PARENT_PID, -1);
+    setDefaultProperty(ARG_PARSE_CACHE, false);
+    setDefaultProperty(ARG_PARSE_CACHE_MAX_SIZE_MB, 4096);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(ARG_PRINT_SYMMETRIC_EDGES, false);
@@ -1042,6 +1106,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_SERVICE_HOST, "localhost");
     setDefaultProperty(ARG_SERVICE_NAME, "worker-service");
     setDefaultProperty(ARG_SERVICE_PORT, BfConsts.SVC_PORT);
+    setDefaultProperty(ARG_SNAPSHOT_CACHE_MAX_SIZE_MB, 0);
     setDefaultProperty(BfConsts.ARG_SSL_DISABLE, CoordConsts.SVC_CFG_POOL_SSL_DISABLE);
     setDefaultProperty(BfConsts.ARG_SSL_KEYSTORE_FILE, null);
     setDefaultProperty(BfConsts.ARG_SSL_KEYSTORE_PASSWORD, null);
@@ -1214,6 +1279,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_LOG_TEE, "print output to both logfile and standard out");
 
+    addOption(
+        ARG_MAX_DATA_PLANE_TASKS,
+        "max number of data plane computations a worker service runs at once",
+        ARGNAME_NUMBER);
+
     addOption(
         ARG_MAX_PARSER_CONTEXT_LINES,
         "max number of surrounding lines to print on parser error",
@@ -1230,14 +1300,42 @@ public final class Settings extends BaseSettings implements GrammarSettings {
             + "(<= 0 is treated as no limit)",
         ARGNAME_NUMBER);
 
+    addOption(
+        ARG_MAX_PARSING_TASKS,
+        "max number of parsing tasks a worker service runs at once",
+        ARGNAME_NUMBER);
+
+    addOption(
+        ARG_MAX_QUESTION_TASKS,
+        "max number of questions a worker service answers at once",
+        ARGNAME_NUMBER);
+
     addOption(ARG_MAX_RUNTIME_MS, "maximum time (in ms) to allow a task to run", ARGNAME_NUMBER);
 
+    addOption(
+        ARG_MAX_TASKS,
+        "max number of tasks a worker service accepts at once, running or waiting for a slot",
+        ARGNAME_NUMBER);
+
     addBooleanOption(ARG_NO_SHUFFLE, "do not shuffle parallel jobs");
 
     addOption(BfConsts.ARG_OUTPUT_ENV, "name of output environment", ARGNAME_NAME);
 
+    addBooleanOption(
+        ARG_PARALLEL_BDD_FIXPOINT,
+        "compute backward BDD reachability over large graphs on several threads, one strongly "
+            + "connected component of states per thread at a time");
+
     addOption(ARG_PARENT_PID, "name of parent PID", ARGNAME_NUMBER);
 
+    addBooleanOption(
+        ARG_PARSE_CACHE, "cache parse and conversion results across testrigs in a container");
+
+    addOption(
+        ARG_PARSE_CACHE_MAX_SIZE_MB,
+        "size in megabytes above which old parse cache entries are evicted",
+        ARGNAME_NUMBER);
+
     addBooleanOption(BfConsts.ARG_PEDANTIC_SUPPRESS, "suppresses pedantic warnings");
 
     addBooleanOption(BfConsts.ARG_PRETTY_PRINT_ANSWER, "pretty print answer");
@@ -1274,6 +1372,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addOption(ARG_SERVICE_PORT, "port for batfish service", ARGNAME_PORT);
 
+    addOption(
+        ARG_SNAPSHOT_CACHE_MAX_SIZE_MB,
+        "estimated size in megabytes of snapshot data kept in memory across tasks "
+            + "(<= 0 is treated as half of the maximum heap)",
+        ARGNAME_NUMBER);
+
     addBooleanOption(
         BfConsts.ARG_SSL_DISABLE, "whether to disable SSL during communication with coordinator");
 
@@ -1404,12 +1508,19 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(BfConsts.COMMAND_INIT_INFO);
     getIntOptionValue(ARG_JOBS);
     getBooleanOptionValue(ARG_LOG_TEE);
+    getIntOptionValue(ARG_MAX_DATA_PLANE_TASKS);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_LINES);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_TOKENS);
     getIntOptionValue(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
+    getIntOptionValue(ARG_MAX_PARSING_TASKS);
+    getIntOptionValue(ARG_MAX_QUESTION_TASKS);
     getIntOptionValue(ARG_MAX_RUNTIME_MS);
+    getIntOptionValue(ARG_MAX_TASKS);
     getStringOptionValue(BfConsts.ARG_OUTPUT_ENV);
+    getBooleanOptionValue(ARG_PARALLEL_BDD_FIXPOINT);
     getIntOptionValue(ARG_PARENT_PID);
+    getBooleanOptionValue(ARG_PARSE_CACHE);
+    getIntOptionValue(ARG_PARSE_CACHE_MAX_SIZE_MB);
     getBooleanOptionValue(BfConsts.ARG_PEDANTIC_SUPPRESS);
     getBooleanOptionValue(BfConsts.ARG_PRETTY_PRINT_ANSWER);
     getBooleanOptionValue(ARG_PRINT_PARSE_TREES);
@@ -1427,6 +1538,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getStringOptionValue(ARG_SERVICE_HOST);
     getStringOptionValue(ARG_SERVICE_NAME);
     getIntOptionValue(ARG_SERVICE_PORT);
+    getIntOptionValue(ARG_SNAPSHOT_CACHE_MAX_SIZE_MB);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
     getBooleanOptionValue(ARG_DISABLE_Z3_SIMPLIFICATION);
     getBooleanOptionValue(BfConsts.ARG_SSL_DISABLE);
@@ -1529,6 +1641,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_MAX_RUNTIME_MS, runtimeMs);
   }
 
+  public void setParseCache(boolean parseCache) {
+    _config.setProperty(ARG_PARSE_CACHE, parseCache);
+  }
+
   @Override
   public void setPrintParseTree(boolean printParseTree) {
     _config.setProperty(ARG_PRINT_PARSE_TREES, printParseTree);
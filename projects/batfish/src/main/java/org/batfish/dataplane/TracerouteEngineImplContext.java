@@ -6,13 +6,18 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.MapMaker;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
@@ -20,6 +25,8 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.util.CommonUtil;
@@ -44,10 +51,75 @@ import org.batfish.datamodel.SourceNat;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 
 class TracerouteEngineImplContext {
+
+  /**
+   * The forwarding decision for a set of FIB matches: for each next hop interface, the routes
+   * leading to it and the final next hop IP. Shared by all flows whose destinations hit the same
+   * FIB entry.
+   */
+  private static final class FibDecision {
+
+    private final Set<String> _nextHopInterfaces;
+    private final Map<String, NextHop> _nextHops;
+
+    private FibDecision(Set<String> nextHopInterfaces, Map<String, NextHop> nextHops) {
+      _nextHopInterfaces = nextHopInterfaces;
+      _nextHops = nextHops;
+    }
+  }
+
+  /** An evaluation of a filter against a flow, memoized within the traces of a single flow */
+  private static final class FilterEvaluation {
+
+    private final IpAccessList _filter;
+    private final Flow _flow;
+    private final String _nodeName;
+    private final @Nullable String _srcInterface;
+
+    private FilterEvaluation(
+        IpAccessList filter, Flow flow, String nodeName, @Nullable String srcInterface) {
+      _filter = filter;
+      _flow = flow;
+      _nodeName = nodeName;
+      _srcInterface = srcInterface;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof FilterEvaluation)) {
+        return false;
+      }
+      FilterEvaluation other = (FilterEvaluation) o;
+      return _filter == other._filter
+          && _flow.equals(other._flow)
+          && _nodeName.equals(other._nodeName)
+          && Objects.equals(_srcInterface, other._srcInterface);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(_filter), _flow, _nodeName, _srcInterface);
+    }
+  }
+
+  private static final class NextHop {
+
+    private final @Nullable Ip _finalNextHopIp;
+    private final SortedSet<String> _routes;
+
+    private NextHop(SortedSet<String> routes, @Nullable Ip finalNextHopIp) {
+      _routes = routes;
+      _finalNextHopIp = finalNextHopIp;
+    }
+  }
+
   private static class TransmissionContext {
 
     private final Map<String, IpAccessList> _aclDefinitions;
     private final String _currentNodeName;
+    private final Map<FilterEvaluation, FilterResult> _filterResults;
     private String _filterOutNotes;
     private final Set<FlowTrace> _flowTraces;
     private final List<FlowTraceHop> _hopsSoFar;
@@ -59,6 +131,7 @@ class TracerouteEngineImplContext {
     private TransmissionContext(
         Map<String, IpAccessList> aclDefinitions,
         String currentNodeName,
+        Map<FilterEvaluation, FilterResult> filterResults,
         Set<FlowTrace> flowTraces,
         List<FlowTraceHop> hopsSoFar,
         NavigableMap<String, IpSpace> namedIpSpaces,
@@ -67,6 +140,7 @@ class TracerouteEngineImplContext {
         Flow transformedFlow) {
       _aclDefinitions = aclDefinitions;
       _currentNodeName = currentNodeName;
+      _filterResults = filterResults;
       _flowTraces = flowTraces;
       _hopsSoFar = hopsSoFar;
       _namedIpSpaces = namedIpSpaces;
@@ -80,6 +154,7 @@ class TracerouteEngineImplContext {
           new TransmissionContext(
               _aclDefinitions,
               _currentNodeName,
+              _filterResults,
               _flowTraces,
               new ArrayList<>(_hopsSoFar),
               _namedIpSpaces,
@@ -91,6 +166,9 @@ class TracerouteEngineImplContext {
     }
   }
 
+  /** Tag given to all flows in a batch that are forwarded identically */
+  private static final String EQUIVALENCE_CLASS_TAG = "traceroute_equivalence_class";
+
   private static final String TRACEROUTE_INGRESS_NODE_INTERFACE_NAME =
       "traceroute_source_interface";
 
@@ -141,6 +219,30 @@ class TracerouteEngineImplContext {
     return transformedFlowBuilder.build();
   }
 
+  /** Returns a copy of {@code trace} whose transformed flows carry the given tag. */
+  private static FlowTrace retag(FlowTrace trace, String tag) {
+    if (trace.getHops().stream().allMatch(hop -> hop.getTransformedFlow() == null)) {
+      // the trace does not mention the tag, so it can be shared
+      return trace;
+    }
+    List<FlowTraceHop> hops =
+        trace
+            .getHops()
+            .stream()
+            .map(
+                hop ->
+                    hop.getTransformedFlow() == null
+                        ? hop
+                        : new FlowTraceHop(
+                            hop.getEdge(),
+                            hop.getRoutes(),
+                            hop.getFilterOut(),
+                            hop.getFilterIn(),
+                            new Flow.Builder(hop.getTransformedFlow()).setTag(tag).build()))
+            .collect(ImmutableList.toImmutableList());
+    return new FlowTrace(trace.getDisposition(), hops, trace.getNotes());
+  }
+
   @VisibleForTesting
   static boolean interfaceRepliesToArpRequestForIp(Interface iface, Fib ifaceFib, Ip arpIp) {
     // interfaces without addresses never reply
@@ -166,9 +268,25 @@ class TracerouteEngineImplContext {
 
   private final Map<String, Configuration> _configurations;
   private final DataPlane _dataPlane;
+  /**
+   * Decisions for the FIB entries (identified by the result of {@link
+   * Fib#getNextHopInterfacesByRoute(Ip)}) looked up so far. Weak keys, so FIBs that compute a fresh
+   * result on each lookup do not leak.
+   */
+  private final ConcurrentMap<
+          Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>>, FibDecision>
+      _fibDecisions;
+
   private final Map<String, Map<String, Fib>> _fibs;
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
+
+  /**
+   * Whether traces depend only on where a flow enters the network and its destination, i.e. ACLs
+   * are ignored and no interface applies source NAT.
+   */
+  private final boolean _forwardingOnly;
+
   private final boolean _ignoreAcls;
 
   TracerouteEngineImplContext(
@@ -179,9 +297,17 @@ class TracerouteEngineImplContext {
     _configurations = dataPlane.getConfigurations();
     _dataPlane = dataPlane;
     _flows = flows;
+    _fibDecisions = new MapMaker().weakKeys().makeMap();
     _fibs = fibs;
     _ignoreAcls = ignoreAcls;
     _forwardingAnalysis = _dataPlane.getForwardingAnalysis();
+    _forwardingOnly =
+        ignoreAcls
+            && _configurations
+                .values()
+                .stream()
+                .flatMap(c -> c.getInterfaces().values().stream())
+                .allMatch(i -> CommonUtil.isNullOrEmpty(i.getSourceNats()));
   }
 
   private void collectFlowTraces(
@@ -190,6 +316,7 @@ class TracerouteEngineImplContext {
       Set<Edge> visitedEdges,
       List<FlowTraceHop> hopsSoFar,
       Set<FlowTrace> flowTraces,
+      Map<FilterEvaluation, FilterResult> filterResults,
       Flow originalFlow,
       Flow transformedFlow) {
     Ip dstIp = transformedFlow.getDstIp();
@@ -234,43 +361,16 @@ class TracerouteEngineImplContext {
       return;
     }
 
-    Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute =
-        currentFib.getNextHopInterfacesByRoute(dstIp);
+    FibDecision fibDecision =
+        getFibDecision(nextHopInterfaces, currentFib.getNextHopInterfacesByRoute(dstIp));
     Map<String, IpAccessList> aclDefinitions = currentConfiguration.getIpAccessLists();
     NavigableMap<String, IpSpace> namedIpSpaces = currentConfiguration.getIpSpaces();
 
     // For every interface with a route to the dst IP
-    for (String nextHopInterfaceName : nextHopInterfaces) {
-      SortedSet<String> routesForThisNextHopInterface = new TreeSet<>();
-      Ip finalNextHopIp = null;
-
-      // Loop over all matching routes that use nextHopInterfaceName as one of the next hop
-      // interfaces.
-      for (Entry<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> e :
-          nextHopInterfacesByRoute.entrySet()) {
-        AbstractRoute routeCandidate = e.getKey();
-        Map<String, Map<Ip, Set<AbstractRoute>>> routeCandidateNextHopInterfaces = e.getValue();
-        if (routeCandidateNextHopInterfaces.containsKey(nextHopInterfaceName)) {
-          Ip nextHopIp = routeCandidate.getNextHopIp();
-          if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
-            Set<Ip> finalNextHopIps =
-                routeCandidateNextHopInterfaces.get(nextHopInterfaceName).keySet();
-            if (finalNextHopIps.size() > 1) {
-              throw new BatfishException(
-                  "Can not currently handle multiple final next hop ips across multiple "
-                      + "routes leading to one next hop interface");
-            }
-            Ip newFinalNextHopIp = finalNextHopIps.iterator().next();
-            if (finalNextHopIp != null && !newFinalNextHopIp.equals(finalNextHopIp)) {
-              throw new BatfishException(
-                  "Can not currently handle multiple final next hop ips for same next hop "
-                      + "interface");
-            }
-            finalNextHopIp = newFinalNextHopIp;
-          }
-          routesForThisNextHopInterface.add(routeCandidate + "_fnhip:" + finalNextHopIp);
-        }
-      }
+    for (Entry<String, NextHop> nextHop : fibDecision._nextHops.entrySet()) {
+      String nextHopInterfaceName = nextHop.getKey();
+      SortedSet<String> routesForThisNextHopInterface = nextHop.getValue()._routes;
+      Ip finalNextHopIp = nextHop.getValue()._finalNextHopIp;
       NodeInterfacePair nextHopInterface =
           new NodeInterfacePair(currentNodeName, nextHopInterfaceName);
       if (nextHopInterfaceName.equals(Interface.NULL_INTERFACE_NAME)) {
@@ -312,6 +412,7 @@ class TracerouteEngineImplContext {
             new TransmissionContext(
                 aclDefinitions,
                 currentNodeName,
+                filterResults,
                 flowTraces,
                 hopsSoFar,
                 namedIpSpaces,
@@ -368,6 +469,64 @@ class TracerouteEngineImplContext {
     }
   }
 
+  private static FibDecision computeFibDecision(
+      Set<String> nextHopInterfaces,
+      Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute) {
+    Map<String, NextHop> nextHops = new LinkedHashMap<>();
+    for (String nextHopInterfaceName : nextHopInterfaces) {
+      SortedSet<String> routesForThisNextHopInterface = new TreeSet<>();
+      Ip finalNextHopIp = null;
+
+      // Loop over all matching routes that use nextHopInterfaceName as one of the next hop
+      // interfaces.
+      for (Entry<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> e :
+          nextHopInterfacesByRoute.entrySet()) {
+        AbstractRoute routeCandidate = e.getKey();
+        Map<String, Map<Ip, Set<AbstractRoute>>> routeCandidateNextHopInterfaces = e.getValue();
+        if (routeCandidateNextHopInterfaces.containsKey(nextHopInterfaceName)) {
+          Ip nextHopIp = routeCandidate.getNextHopIp();
+          if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
+            Set<Ip> finalNextHopIps =
+                routeCandidateNextHopInterfaces.get(nextHopInterfaceName).keySet();
+            if (finalNextHopIps.size() > 1) {
+              throw new BatfishException(
+                  "Can not currently handle multiple final next hop ips across multiple "
+                      + "routes leading to one next hop interface");
+            }
+            Ip newFinalNextHopIp = finalNextHopIps.iterator().next();
+            if (finalNextHopIp != null && !newFinalNextHopIp.equals(finalNextHopIp)) {
+              throw new BatfishException(
+                  "Can not currently handle multiple final next hop ips for same next hop "
+                      + "interface");
+            }
+            finalNextHopIp = newFinalNextHopIp;
+          }
+          routesForThisNextHopInterface.add(routeCandidate + "_fnhip:" + finalNextHopIp);
+        }
+      }
+      nextHops.put(
+          nextHopInterfaceName,
+          new NextHop(ImmutableSortedSet.copyOf(routesForThisNextHopInterface), finalNextHopIp));
+    }
+    return new FibDecision(nextHopInterfaces, nextHops);
+  }
+
+  private FilterResult filter(
+      IpAccessList filter, @Nullable String srcInterface, TransmissionContext transmissionContext) {
+    return transmissionContext._filterResults.computeIfAbsent(
+        new FilterEvaluation(
+            filter,
+            transmissionContext._transformedFlow,
+            transmissionContext._currentNodeName,
+            srcInterface),
+        evaluation ->
+            filter.filter(
+                transmissionContext._transformedFlow,
+                srcInterface,
+                transmissionContext._aclDefinitions,
+                transmissionContext._namedIpSpaces));
+  }
+
   private boolean flowTraceFilterHelper(
       @Nullable String srcInterface,
       IpAccessList filter,
@@ -375,12 +534,7 @@ class TracerouteEngineImplContext {
       @Nullable NodeInterfacePair outInterface,
       TransmissionContext transmissionContext) {
     boolean out = disposition == FlowDisposition.DENIED_OUT;
-    FilterResult outResult =
-        filter.filter(
-            transmissionContext._transformedFlow,
-            srcInterface,
-            transmissionContext._aclDefinitions,
-            transmissionContext._namedIpSpaces);
+    FilterResult outResult = filter(filter, srcInterface, transmissionContext);
     String outFilterName = filter.getName();
     Integer matchLine = outResult.getMatchLine();
     String lineDesc;
@@ -424,6 +578,23 @@ class TracerouteEngineImplContext {
     return denied;
   }
 
+  /**
+   * Returns the forwarding decision for the given FIB lookup result, computing it only the first
+   * time the FIB entry is hit.
+   */
+  private FibDecision getFibDecision(
+      Set<String> nextHopInterfaces,
+      Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute) {
+    FibDecision fibDecision =
+        _fibDecisions.computeIfAbsent(
+            nextHopInterfacesByRoute, byRoute -> computeFibDecision(nextHopInterfaces, byRoute));
+    if (fibDecision._nextHopInterfaces != nextHopInterfaces) {
+      // the FIB shares its result map across entries with different next hop interfaces
+      return computeFibDecision(nextHopInterfaces, nextHopInterfacesByRoute);
+    }
+    return fibDecision;
+  }
+
   @Nullable
   private Flow hopFlow(Flow originalFlow, Flow transformedFlow) {
     if (originalFlow == transformedFlow) {
@@ -543,63 +714,105 @@ class TracerouteEngineImplContext {
         newVisitedEdges,
         transmissionContext._hopsSoFar,
         transmissionContext._flowTraces,
+        transmissionContext._filterResults,
         transmissionContext._originalFlow,
         transmissionContext._transformedFlow);
   }
 
+  /**
+   * Computes the traces of all flows in the batch. Flows with the same {@link #equivalenceKey} are
+   * forwarded identically, so each such class is traced once, classes are traced in parallel, and
+   * the traces are then fanned back out to the individual flows.
+   */
   SortedMap<Flow, Set<FlowTrace>> processFlows() {
+    Map<Flow, List<Flow>> flowsByEquivalenceKey =
+        _flows.stream().collect(Collectors.groupingBy(this::equivalenceKey));
     Map<Flow, Set<FlowTrace>> flowTraces = new ConcurrentHashMap<>();
-    _flows
+    flowsByEquivalenceKey
+        .values()
         .parallelStream()
         .forEach(
-            flow -> {
-              Set<FlowTrace> currentFlowTraces = new TreeSet<>();
-              flowTraces.put(flow, currentFlowTraces);
-              String ingressNodeName = flow.getIngressNode();
-              if (ingressNodeName == null) {
-                throw new BatfishException(
-                    "Cannot construct flow trace since ingressNode is not specified");
-              }
-              Ip dstIp = flow.getDstIp();
-              if (dstIp == null) {
-                throw new BatfishException(
-                    "Cannot construct flow trace since dstIp is not specified");
-              }
-              Set<Edge> visitedEdges = Collections.emptySet();
-              List<FlowTraceHop> hops = new ArrayList<>();
-              String ingressInterfaceName = flow.getIngressInterface();
-              if (ingressInterfaceName != null) {
-                Edge edge =
-                    new Edge(
-                        TRACEROUTE_INGRESS_NODE_NAME,
-                        TRACEROUTE_INGRESS_NODE_INTERFACE_NAME,
-                        ingressNodeName,
-                        ingressInterfaceName);
-                TransmissionContext transmissionContext =
-                    new TransmissionContext(
-                        _configurations.get(ingressNodeName).getIpAccessLists(),
-                        ingressNodeName,
-                        currentFlowTraces,
-                        hops,
-                        _configurations.get(ingressNodeName).getIpSpaces(),
-                        flow,
-                        new TreeSet<>(),
-                        flow);
-                processFlowReception(edge, transmissionContext, new TreeSet<>(), null);
-              } else {
-                collectFlowTraces(
-                    ingressNodeName,
-                    firstNonNull(flow.getIngressVrf(), Configuration.DEFAULT_VRF_NAME),
-                    visitedEdges,
-                    hops,
-                    currentFlowTraces,
+            equivalentFlows -> {
+              Flow representative = equivalentFlows.get(0);
+              Set<FlowTrace> representativeTraces = traceFlow(representative);
+              flowTraces.put(representative, representativeTraces);
+              for (Flow flow : equivalentFlows.subList(1, equivalentFlows.size())) {
+                flowTraces.put(
                     flow,
-                    flow);
+                    representativeTraces
+                        .stream()
+                        .map(trace -> retag(trace, flow.getTag()))
+                        .collect(Collectors.toCollection(TreeSet::new)));
               }
             });
     return new TreeMap<>(flowTraces);
   }
 
+  /**
+   * Returns the key under which flows are batched together. Flows with the same key differ only in
+   * fields that no forwarding decision reads: the tag, and when {@link #_forwardingOnly}, all
+   * header fields other than the destination IP.
+   */
+  private Flow equivalenceKey(Flow flow) {
+    if (_forwardingOnly) {
+      return Flow.builder()
+          .setIngressNode(flow.getIngressNode())
+          .setIngressInterface(flow.getIngressInterface())
+          .setIngressVrf(flow.getIngressVrf())
+          .setDstIp(flow.getDstIp())
+          .setTag(EQUIVALENCE_CLASS_TAG)
+          .build();
+    }
+    return new Flow.Builder(flow).setTag(EQUIVALENCE_CLASS_TAG).build();
+  }
+
+  private Set<FlowTrace> traceFlow(Flow flow) {
+    Set<FlowTrace> currentFlowTraces = new TreeSet<>();
+    String ingressNodeName = flow.getIngressNode();
+    if (ingressNodeName == null) {
+      throw new BatfishException("Cannot construct flow trace since ingressNode is not specified");
+    }
+    Ip dstIp = flow.getDstIp();
+    if (dstIp == null) {
+      throw new BatfishException("Cannot construct flow trace since dstIp is not specified");
+    }
+    Map<FilterEvaluation, FilterResult> filterResults = new HashMap<>();
+    Set<Edge> visitedEdges = Collections.emptySet();
+    List<FlowTraceHop> hops = new ArrayList<>();
+    String ingressInterfaceName = flow.getIngressInterface();
+    if (ingressInterfaceName != null) {
+      Edge edge =
+          new Edge(
+              TRACEROUTE_INGRESS_NODE_NAME,
+              TRACEROUTE_INGRESS_NODE_INTERFACE_NAME,
+              ingressNodeName,
+              ingressInterfaceName);
+      TransmissionContext transmissionContext =
+          new TransmissionContext(
+              _configurations.get(ingressNodeName).getIpAccessLists(),
+              ingressNodeName,
+              filterResults,
+              currentFlowTraces,
+              hops,
+              _configurations.get(ingressNodeName).getIpSpaces(),
+              flow,
+              new TreeSet<>(),
+              flow);
+      processFlowReception(edge, transmissionContext, new TreeSet<>(), null);
+    } else {
+      collectFlowTraces(
+          ingressNodeName,
+          firstNonNull(flow.getIngressVrf(), Configuration.DEFAULT_VRF_NAME),
+          visitedEdges,
+          hops,
+          currentFlowTraces,
+          filterResults,
+          flow,
+          flow);
+    }
+    return currentFlowTraces;
+  }
+
   private boolean processFlowTransmission(
       String srcInterface,
       Ip dstIp,
@@ -7,19 +7,26 @@ import static org.batfish.common.util.CommonUtil.initBgpTopology;
 import static org.batfish.common.util.CommonUtil.toImmutableSortedMap;
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Sets;
 import com.google.common.graph.Network;
 import com.google.common.graph.ValueGraph;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BdpOscillationException;
 import org.batfish.common.Version;
@@ -30,6 +37,7 @@ import org.batfish.datamodel.BgpPeerConfigId;
 import org.batfish.datamodel.BgpProcess;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.BgpSessionReachabilityCache;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IsisRoute;
@@ -49,6 +57,8 @@ import org.batfish.dataplane.ibdp.schedule.IbdpSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.batfish.dataplane.rib.BgpMultipathRib;
 import org.batfish.dataplane.rib.RibDelta;
+import org.batfish.dataplane.rib.RibFingerprint;
+import org.batfish.dataplane.rib.RouteInterner;
 
 class IncrementalBdpEngine {
 
@@ -102,14 +112,24 @@ class IncrementalBdpEngine {
      * - Finally, compute FIBs, return answer
      */
     IncrementalBdpAnswerElement answerElement = new IncrementalBdpAnswerElement();
+    long routeInternerHits = RouteInterner.getHits();
+    long routeInternerMisses = RouteInterner.getMisses();
     computeIgpDataPlane(nodes, topology, eigrpTopology, answerElement, networkConfigurations);
     computeFibs(nodes);
 
     IncrementalDataPlane dp = dpBuilder.build();
 
+    // Sessions whose FIB paths do not change need not be re-traced in the second pass
+    BgpSessionReachabilityCache bgpReachabilityCache = new BgpSessionReachabilityCache();
     ValueGraph<BgpPeerConfigId, BgpSessionProperties> bgpTopology =
         initBgpTopology(
-            configurations, ipOwners, false, true, TracerouteEngineImpl.getInstance(), dp);
+            configurations,
+            ipOwners,
+            false,
+            true,
+            TracerouteEngineImpl.getInstance(),
+            dp,
+            bgpReachabilityCache);
 
     Network<IsisNode, IsisEdge> isisTopology =
         IsisTopology.initIsisTopology(configurations, topology);
@@ -139,7 +159,13 @@ class IncrementalBdpEngine {
       computeFibs(nodes);
       bgpTopology =
           initBgpTopology(
-              configurations, ipOwners, false, true, TracerouteEngineImpl.getInstance(), dp);
+              configurations,
+              ipOwners,
+              false,
+              true,
+              TracerouteEngineImpl.getInstance(),
+              dp,
+              bgpReachabilityCache);
       // Update queues (if necessary) based on new neighbor relationships
       final ValueGraph<BgpPeerConfigId, BgpSessionProperties> finalBgpTopology = bgpTopology;
       nodes
@@ -163,6 +189,9 @@ class IncrementalBdpEngine {
     }
     // Generate the answers from the computation, compute final FIBs
     computeFibs(nodes);
+    // Counters are global, so they include concurrent computations in the same JVM, if any
+    answerElement.setRouteInternerHits(RouteInterner.getHits() - routeInternerHits);
+    answerElement.setRouteInternerMisses(RouteInterner.getMisses() - routeInternerMisses);
     answerElement.setVersion(Version.getVersion());
     _bfLogger.printElapsedTime();
     return new ComputeDataPlaneResult(answerElement, dp);
@@ -546,14 +575,34 @@ class IncrementalBdpEngine {
 
     /*
      * Setup maps to track iterations. We need this for oscillation detection.
-     * Specifically, if we detect that an iteration hashcode (a hash of all the nodes' RIBs)
+     * Specifically, if we detect that an iteration fingerprint (a hash of all the nodes' RIBs)
      * has been previously encountered, we switch our schedule to a more restrictive one.
      */
 
-    Map<Integer, SortedSet<Integer>> iterationsByHashCode = new HashMap<>();
+    Map<RibFingerprint, SortedSet<Integer>> iterationsByFingerprint = new HashMap<>();
 
     AtomicBoolean dependentRoutesChanged = new AtomicBoolean(false);
 
+    /*
+     * Track which nodes have pending work (queued messages or RIB changes), so that the worklist
+     * schedule only revisits those. Every node is initially pending.
+     */
+    Set<String> pendingNodes = ConcurrentHashMap.newKeySet();
+    pendingNodes.addAll(nodes.keySet());
+    nodes
+        .values()
+        .forEach(
+            n ->
+                n.getVirtualRouters()
+                    .values()
+                    .forEach(vr -> vr.setPendingWorkTracker(pendingNodes)));
+
+    // Per-node iteration fingerprints, only recomputed for nodes whose state may have changed
+    Map<String, RibFingerprint> nodeFingerprints = new HashMap<>();
+    RibFingerprint iterationFingerprint = RibFingerprint.ZERO;
+
+    boolean converged;
+
     // Go into iteration mode, until the routes converge (or oscillation is detected)
     do {
       _numIterations++;
@@ -562,14 +611,21 @@ class IncrementalBdpEngine {
       currentChangedMonitor = dependentRoutesChanged;
       currentChangedMonitor.set(false);
 
+      boolean useWorklist = _settings.getScheduleName() == Schedule.WORKLIST;
+      Set<String> iterationPendingNodes = ImmutableSet.copyOf(pendingNodes);
+      pendingNodes.clear();
+
       // Compute node schedule
-      IbdpSchedule schedule = IbdpSchedule.getSchedule(_settings, nodes, bgpTopology);
+      IbdpSchedule schedule =
+          IbdpSchedule.getSchedule(_settings, nodes, iterationPendingNodes, bgpTopology);
 
       // compute dependent routes for each allowable set of nodes until we cover all nodes
+      Map<String, Node> processedNodes = new HashMap<>();
       while (schedule.hasNext()) {
         Map<String, Node> iterationNodes = schedule.next();
         computeDependentRoutesIteration(
             iterationNodes, topology, _numIterations, nodes, bgpTopology, networkConfigurations);
+        processedNodes.putAll(iterationNodes);
       }
 
       /*
@@ -583,15 +639,30 @@ class IncrementalBdpEngine {
       // Check to see if hash has changed
       AtomicInteger checkFixedPointCompleted =
           _newBatch.apply(
-              "Iteration " + _numIterations + ": Check if fixed-point reached", nodes.size());
+              "Iteration " + _numIterations + ": Check if fixed-point reached",
+              useWorklist ? processedNodes.size() : nodes.size());
+
+      if (useWorklist) {
+        // Processed nodes whose RIBs changed must be revisited in the next iteration
+        compareToPreviousIteration(processedNodes, pendingNodes, checkFixedPointCompleted);
+        // Only processed nodes and nodes that received messages may have changed state
+        iterationFingerprint =
+            updateNodeFingerprints(
+                Sets.union(processedNodes.keySet(), ImmutableSet.copyOf(pendingNodes)),
+                nodes,
+                nodeFingerprints,
+                iterationFingerprint);
+      } else {
+        iterationFingerprint =
+            updateNodeFingerprints(nodes.keySet(), nodes, nodeFingerprints, iterationFingerprint);
+      }
 
-      // This hashcode uniquely identifies the iteration (i.e., network state)
-      int iterationHashCode = computeIterationHashCode(nodes);
-      SortedSet<Integer> iterationsWithThisHashCode =
-          iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
+      // This fingerprint uniquely identifies the iteration (i.e., network state)
+      SortedSet<Integer> iterationsWithThisFingerprint =
+          iterationsByFingerprint.computeIfAbsent(iterationFingerprint, h -> new TreeSet<>());
 
-      if (iterationsWithThisHashCode.isEmpty()) {
-        iterationsWithThisHashCode.add(_numIterations);
+      if (iterationsWithThisFingerprint.isEmpty()) {
+        iterationsWithThisFingerprint.add(_numIterations);
       } else {
         // If oscillation detected, switch to a more restrictive schedule
         if (_settings.getScheduleName() != Schedule.NODE_SERIALIZED) {
@@ -604,8 +675,14 @@ class IncrementalBdpEngine {
         }
       }
 
-      compareToPreviousIteration(nodes, dependentRoutesChanged, checkFixedPointCompleted);
-    } while (!areQueuesEmpty(nodes) || dependentRoutesChanged.get());
+      if (useWorklist) {
+        // Converged once no node has pending work
+        converged = pendingNodes.isEmpty();
+      } else {
+        compareToPreviousIteration(nodes, dependentRoutesChanged, checkFixedPointCompleted);
+        converged = areQueuesEmpty(nodes) && !dependentRoutesChanged.get();
+      }
+    } while (!converged);
 
     // After convergence, compute BGP advertisements sent to the outside of the network
     AtomicInteger computeBgpAdvertisementsToOutsideCompleted =
@@ -643,6 +720,33 @@ class IncrementalBdpEngine {
             });
   }
 
+  /**
+   * Record the nodes (out of those just processed) that have routes still in need of merging, i.e.,
+   * that must be processed again in the next iteration.
+   *
+   * @param processedNodes nodes that were processed during this iteration
+   * @param pendingNodes names of the nodes with pending work; updated by this method
+   * @param checkFixedPointCompleted progress counter
+   */
+  private static void compareToPreviousIteration(
+      Map<String, Node> processedNodes,
+      Set<String> pendingNodes,
+      AtomicInteger checkFixedPointCompleted) {
+    processedNodes
+        .entrySet()
+        .parallelStream()
+        .forEach(
+            e -> {
+              for (VirtualRouter vr : e.getValue().getVirtualRouters().values()) {
+                if (vr.hasOutstandingRoutes()) {
+                  pendingNodes.add(e.getKey());
+                  break;
+                }
+              }
+              checkFixedPointCompleted.incrementAndGet();
+            });
+  }
+
   /**
    * Check that the routers have processed all messages, queues are empty and there is nothing else
    * to do (i.e., we've converged to a stable network solution)
@@ -671,18 +775,43 @@ class IncrementalBdpEngine {
   }
 
   /**
-   * Compute the hashcode that uniquely identifies the state of the network at a given iteration
+   * Recompute the fingerprints of the given nodes. The sum of all node fingerprints uniquely
+   * identifies the state of the network at a given iteration.
    *
-   * @param nodes map of nodes, keyed by hostname
-   * @return integer hashcode
+   * @param hostnames names of the nodes whose fingerprints need to be recomputed
+   * @param nodes map of all nodes, keyed by hostname
+   * @param nodeFingerprints map of node fingerprints, keyed by hostname; updated by this method
+   * @param networkFingerprint the sum of all node fingerprints before the update
+   * @return the sum of all node fingerprints after the update
    */
-  private static int computeIterationHashCode(Map<String, Node> nodes) {
-    return nodes
-        .values()
-        .parallelStream()
-        .flatMap(node -> node.getVirtualRouters().values().stream())
-        .mapToInt(VirtualRouter::computeIterationHashCode)
-        .sum();
+  private static RibFingerprint updateNodeFingerprints(
+      Set<String> hostnames,
+      Map<String, Node> nodes,
+      Map<String, RibFingerprint> nodeFingerprints,
+      RibFingerprint networkFingerprint) {
+    Map<String, RibFingerprint> updatedFingerprints =
+        hostnames
+            .parallelStream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Function.identity(),
+                    hostname ->
+                        nodes
+                            .get(hostname)
+                            .getVirtualRouters()
+                            .values()
+                            .stream()
+                            .map(VirtualRouter::computeIterationFingerprint)
+                            .reduce(RibFingerprint.ZERO, RibFingerprint::plus)));
+    RibFingerprint result = networkFingerprint;
+    for (Entry<String, RibFingerprint> e : updatedFingerprints.entrySet()) {
+      RibFingerprint oldFingerprint = nodeFingerprints.put(e.getKey(), e.getValue());
+      result =
+          result
+              .minus(oldFingerprint == null ? RibFingerprint.ZERO : oldFingerprint)
+              .plus(e.getValue());
+    }
+    return result;
   }
 
   private static void computeIterationStatistics(
@@ -712,6 +841,21 @@ class IncrementalBdpEngine {
             .mapToInt(vr -> vr._mainRib.getRoutes().size())
             .sum();
     ae.getMainRibRoutesByIteration().put(dependentRoutesIterations, numMainRibRoutes);
+    List<Mailbox<?>> mailboxes =
+        nodes
+            .values()
+            .stream()
+            .flatMap(n -> n.getVirtualRouters().values().stream())
+            .flatMap(VirtualRouter::getMailboxes)
+            .collect(Collectors.toList());
+    ae.getMessagesByIteration()
+        .put(
+            dependentRoutesIterations, mailboxes.stream().mapToInt(Mailbox::getNumDelivered).sum());
+    ae.getMaxMessageQueueDepthByIteration()
+        .put(
+            dependentRoutesIterations,
+            mailboxes.stream().mapToInt(Mailbox::getMaxDepth).max().orElse(0));
+    mailboxes.forEach(Mailbox::resetStatistics);
   }
 
   /**
@@ -0,0 +1,154 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Lock-free message queue between virtual routers, delivering messages in batches. Any number of
+ * senders publish a whole batch of messages (e.g., all advertisements of a {@link
+ * org.batfish.dataplane.rib.RibDelta}) with a single atomic operation. The receiver takes all
+ * pending batches at once and iterates over them in publication order, without copying them or
+ * allocating per message.
+ *
+ * @param <T> type of the messages
+ */
+@ParametersAreNonnullByDefault
+final class Mailbox<T> {
+
+  /** An immutable batch of messages, linked to the batch published before it */
+  private static final class Batch {
+
+    /** Total number of messages in this batch and all batches published before it */
+    private final int _depth;
+
+    private final @Nonnull Object[] _messages;
+
+    private final @Nullable Batch _previous;
+
+    private Batch(Object[] messages, @Nullable Batch previous) {
+      _messages = messages;
+      _previous = previous;
+      _depth = messages.length + (previous == null ? 0 : previous._depth);
+    }
+  }
+
+  /** Iterates over a chain of batches, oldest first */
+  private static final class BatchIterator<T> implements Iterator<T> {
+
+    private final Object[][] _batches;
+    private int _batch;
+    private int _message;
+
+    private BatchIterator(Batch newest) {
+      int numBatches = 0;
+      for (Batch b = newest; b != null; b = b._previous) {
+        numBatches++;
+      }
+      _batches = new Object[numBatches][];
+      for (Batch b = newest; b != null; b = b._previous) {
+        _batches[--numBatches] = b._messages;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _batch < _batches.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Object[] batch = _batches[_batch];
+      T message = (T) batch[_message++];
+      if (_message == batch.length) {
+        _batch++;
+        _message = 0;
+      }
+      return message;
+    }
+  }
+
+  /** The most recently published batch, or {@code null} if there are no pending messages */
+  private final AtomicReference<Batch> _newest = new AtomicReference<>();
+
+  /** Largest number of messages drained at once since the last call to {@link #resetStatistics} */
+  private int _maxDepth;
+
+  /** Number of messages drained since the last call to {@link #resetStatistics} */
+  private int _numDelivered;
+
+  private static <T> Iterable<T> messages(@Nullable Batch newest) {
+    return newest == null ? ImmutableList.of() : () -> new BatchIterator<>(newest);
+  }
+
+  /**
+   * Removes all pending messages and returns them in the order they were published. Must only be
+   * called by the receiver.
+   */
+  @Nonnull
+  Iterable<T> drain() {
+    Batch newest = _newest.getAndSet(null);
+    if (newest != null) {
+      _maxDepth = Math.max(_maxDepth, newest._depth);
+      _numDelivered += newest._depth;
+    }
+    return messages(newest);
+  }
+
+  /** Largest number of messages drained at once since the last reset */
+  int getMaxDepth() {
+    return _maxDepth;
+  }
+
+  /** Number of messages drained since the last reset */
+  int getNumDelivered() {
+    return _numDelivered;
+  }
+
+  boolean isEmpty() {
+    return _newest.get() == null;
+  }
+
+  /** Returns the pending messages in the order they were published, without removing them. */
+  @Nonnull
+  Iterable<T> peek() {
+    return messages(_newest.get());
+  }
+
+  /** Publishes {@code messages} as one batch. Does nothing if {@code messages} is empty. */
+  void publish(Collection<? extends T> messages) {
+    if (!messages.isEmpty()) {
+      publish(messages.toArray());
+    }
+  }
+
+  /**
+   * Publishes {@code messages} as one batch, taking ownership of the array. Every element must be
+   * an instance of {@code T}.
+   */
+  void publish(Object[] messages) {
+    if (messages.length > 0) {
+      _newest.updateAndGet(newest -> new Batch(messages, newest));
+    }
+  }
+
+  void resetStatistics() {
+    _maxDepth = 0;
+    _numDelivered = 0;
+  }
+
+  /** Number of pending messages */
+  int size() {
+    Batch newest = _newest.get();
+    return newest == null ? 0 : newest._depth;
+  }
+}
@@ -10,12 +10,11 @@ import com.google.common.graph.Network;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.Configuration;
@@ -39,6 +38,7 @@ import org.batfish.dataplane.rib.EigrpInternalRib;
 import org.batfish.dataplane.rib.EigrpRib;
 import org.batfish.dataplane.rib.Rib;
 import org.batfish.dataplane.rib.RibDelta;
+import org.batfish.dataplane.rib.RibFingerprint;
 import org.batfish.dataplane.rib.RouteAdvertisement;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 
@@ -73,7 +73,7 @@ class VirtualEigrpProcess {
 
   /** Incoming messages into this router from each EIGRP adjacency */
   @VisibleForTesting
-  SortedMap<EigrpEdge, Queue<RouteAdvertisement<EigrpExternalRoute>>> _incomingRoutes;
+  SortedMap<EigrpEdge, Mailbox<RouteAdvertisement<EigrpExternalRoute>>> _incomingRoutes;
 
   private EigrpExternalRib _externalStagingRib;
 
@@ -171,24 +171,20 @@ class VirtualEigrpProcess {
   }
 
   /**
-   * Compute the "hashcode" of this router for the iBDP purposes. The hashcode is computed from the
-   * following data structures:
+   * Compute the fingerprint of this process for the iBDP purposes. The fingerprint is computed from
+   * the following data structures:
    *
    * <ul>
    *   <li>"external" RIB ({@link #_externalRib})
    *   <li>message queue ({@link #_incomingRoutes})
    * </ul>
    *
-   * @return integer hashcode
+   * @return a {@link RibFingerprint}
    */
-  int computeIterationHashCode() {
-    return _externalRib.getRoutes().hashCode()
-        + _incomingRoutes
-            .values()
-            .stream()
-            .flatMap(Queue::stream)
-            .mapToInt(RouteAdvertisement::hashCode)
-            .sum();
+  RibFingerprint computeIterationFingerprint() {
+    return _externalRib
+        .getFingerprint()
+        .plus(VirtualRouter.computeQueuesFingerprint(_incomingRoutes.values()));
   }
 
   long getAsn() {
@@ -214,7 +210,26 @@ class VirtualEigrpProcess {
       builder.from(_externalRib.mergeRouteGetDelta(outputRoute));
     }
 
-    queueOutgoingExternalRoutes(allNodes, builder.build());
+    RibDelta<EigrpExternalRoute> delta = builder.build();
+    queueOutgoingExternalRoutes(allNodes, delta);
+    if (delta != null) {
+      markNeighborsPendingWork(allNodes);
+    }
+  }
+
+  /**
+   * Record that every neighbor has messages to process in the next iteration
+   *
+   * @param allNodes all network nodes, keyed by hostname
+   */
+  private void markNeighborsPendingWork(Map<String, Node> allNodes) {
+    for (EigrpEdge edge : _incomingRoutes.keySet()) {
+      allNodes
+          .get(edge.getNode1().getHostname())
+          .getVirtualRouters()
+          .get(edge.getNode1().getVrf())
+          .markPendingWork();
+    }
   }
 
   /**
@@ -228,7 +243,7 @@ class VirtualEigrpProcess {
             .stream()
             .filter(eigrpTopology.nodes()::contains)
             .flatMap(n -> eigrpTopology.inEdges(n).stream())
-            .collect(toImmutableSortedMap(Function.identity(), e -> new ConcurrentLinkedQueue<>()));
+            .collect(toImmutableSortedMap(Function.identity(), e -> new Mailbox<>()));
   }
 
   /**
@@ -261,8 +276,7 @@ class VirtualEigrpProcess {
           routeBuilder
               .setNextHopInterface(nextHopIntf.getName())
               .setNextHopIp(nextHopIntf.getAddress().getIp());
-          while (queue.peek() != null) {
-            RouteAdvertisement<EigrpExternalRoute> routeAdvert = queue.remove();
+          for (RouteAdvertisement<EigrpExternalRoute> routeAdvert : queue.drain()) {
             EigrpExternalRoute neighborRoute = routeAdvert.getRoute();
             EigrpMetric metric =
                 connectingIntfMetric.accumulate(nextHopIntfMetric, neighborRoute.getEigrpMetric());
@@ -365,7 +379,7 @@ class VirtualEigrpProcess {
       Map<String, Node> allNodes, @Nullable RibDelta<EigrpExternalRoute> delta) {
     // Loop over neighbors, enqueue messages
     for (EigrpEdge edge : _incomingRoutes.keySet()) {
-      Queue<RouteAdvertisement<EigrpExternalRoute>> queue =
+      Mailbox<RouteAdvertisement<EigrpExternalRoute>> queue =
           requireNonNull(
                   allNodes
                       .get(edge.getNode1().getHostname())
@@ -378,6 +392,11 @@ class VirtualEigrpProcess {
     }
   }
 
+  /** Returns the incoming message queues of this process */
+  Stream<Mailbox<?>> getMailboxes() {
+    return _incomingRoutes.values().stream().map(Function.identity());
+  }
+
   /** Re-initialize RIBs (at the start of each iteration). */
   void reInitForNewIteration() {
     /*
@@ -407,6 +426,10 @@ class VirtualEigrpProcess {
       Rib mainRib) {
     RibDelta<EigrpExternalRoute> ribDelta = importRibDelta(_externalRib, delta);
     queueOutgoingExternalRoutes(allNodes, delta);
+    // Neighbors only need to revisit the re-sent routes if our external RIB actually changed
+    if (ribDelta != null) {
+      markNeighborsPendingWork(allNodes);
+    }
     RibDelta.Builder<EigrpRoute> eigrpDeltaBuilder = new RibDelta.Builder<>(_rib);
     eigrpDeltaBuilder.from(importRibDelta(_rib, ribDelta));
     mainRibRouteDeltaBuilder.from(importRibDelta(mainRib, eigrpDeltaBuilder.build()));
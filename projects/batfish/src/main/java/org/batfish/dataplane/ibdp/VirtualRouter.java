@@ -11,15 +11,16 @@ import static org.batfish.dataplane.rib.AbstractRib.importRib;
 import static org.batfish.dataplane.rib.RibDelta.importRibDelta;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
-import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.graph.Network;
 import com.google.common.graph.ValueGraph;
 import java.io.Serializable;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
@@ -28,13 +29,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -54,11 +52,11 @@ import org.batfish.datamodel.BgpProcess;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.BgpSessionProperties;
 import org.batfish.datamodel.BgpTieBreaker;
+import org.batfish.datamodel.CompiledFib;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConnectedRoute;
 import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Fib;
-import org.batfish.datamodel.FibImpl;
 import org.batfish.datamodel.GeneratedRoute;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.InterfaceAddress;
@@ -118,6 +116,7 @@ import org.batfish.dataplane.rib.OspfRib;
 import org.batfish.dataplane.rib.Rib;
 import org.batfish.dataplane.rib.RibDelta;
 import org.batfish.dataplane.rib.RibDelta.Builder;
+import org.batfish.dataplane.rib.RibFingerprint;
 import org.batfish.dataplane.rib.RipInternalRib;
 import org.batfish.dataplane.rib.RipRib;
 import org.batfish.dataplane.rib.RouteAdvertisement;
@@ -143,7 +142,7 @@ public class VirtualRouter implements Serializable {
   private transient RibDelta.Builder<BgpRoute> _bgpBestPathDeltaBuilder;
 
   /** Incoming messages into this router from each BGP neighbor */
-  transient SortedMap<BgpEdgeId, Queue<RouteAdvertisement<BgpRoute>>> _bgpIncomingRoutes;
+  transient SortedMap<BgpEdgeId, Mailbox<RouteAdvertisement<BgpRoute>>> _bgpIncomingRoutes;
 
   /** BGP multipath RIB */
   BgpMultipathRib _bgpMultipathRib;
@@ -183,7 +182,7 @@ public class VirtualRouter implements Serializable {
   transient Rib _independentRib;
 
   /** Incoming messages into this router from each IS-IS circuit */
-  transient SortedMap<IsisEdge, Queue<RouteAdvertisement<IsisRoute>>> _isisIncomingRoutes;
+  transient SortedMap<IsisEdge, Mailbox<RouteAdvertisement<IsisRoute>>> _isisIncomingRoutes;
 
   transient IsisLevelRib _isisL1Rib;
 
@@ -214,7 +213,7 @@ public class VirtualRouter implements Serializable {
   transient OspfExternalType2Rib _ospfExternalType2StagingRib;
 
   @VisibleForTesting
-  transient SortedMap<Prefix, Queue<RouteAdvertisement<OspfExternalRoute>>>
+  transient SortedMap<Prefix, Mailbox<RouteAdvertisement<OspfExternalRoute>>>
       _ospfExternalIncomingRoutes;
 
   transient OspfInterAreaRib _ospfInterAreaRib;
@@ -251,6 +250,12 @@ public class VirtualRouter implements Serializable {
 
   private transient RibDelta.Builder<OspfExternalRoute> _ospfExternalDeltaBuiler;
 
+  /**
+   * Hostnames of nodes with pending work, shared by all virtual routers in the network. A node is
+   * added whenever messages are queued for one of its virtual routers.
+   */
+  @Nullable private transient Set<String> _pendingWork;
+
   private transient Map<Prefix, OspfLink> _ospfNeighbors;
 
   // TODO: make non-transient. Currently transient because de-serialization crashes.
@@ -271,29 +276,35 @@ public class VirtualRouter implements Serializable {
     // Keep track of sent and received advertisements
     _receivedBgpAdvertisements = new LinkedHashSet<>();
     _sentBgpAdvertisements = new LinkedHashSet<>();
-    _bgpIncomingRoutes = new TreeMap<BgpEdgeId, Queue<RouteAdvertisement<BgpRoute>>>();
+    _bgpIncomingRoutes = new TreeMap<BgpEdgeId, Mailbox<RouteAdvertisement<BgpRoute>>>();
     _prefixTracer = new PrefixTracer();
     _virtualEigrpProcesses = ImmutableMap.of();
   }
 
   /**
-   * Convert a given RibDelta into {@link RouteAdvertisement} objects and enqueue them onto a given
-   * queue.
+   * Convert a given RibDelta into {@link RouteAdvertisement} objects and publish them onto a given
+   * mailbox as a single batch.
    *
-   * @param queue the message queue
+   * @param mailbox the message queue
    * @param delta {@link RibDelta} representing changes.
    */
   static <R extends AbstractRoute, D extends R> void queueDelta(
-      Queue<RouteAdvertisement<R>> queue, @Nullable RibDelta<D> delta) {
+      Mailbox<RouteAdvertisement<R>> mailbox, @Nullable RibDelta<D> delta) {
     if (delta == null) {
       // Nothing to do
       return;
     }
-    for (RouteAdvertisement<D> r : delta.getActions()) {
+    List<RouteAdvertisement<D>> actions = delta.getActions();
+    Object[] batch = new Object[actions.size()];
+    int i = 0;
+    for (RouteAdvertisement<D> r : actions) {
       // REPLACE does not make sense across routers, update with WITHDRAW
-      Reason reason = r.getReason() == Reason.REPLACE ? Reason.WITHDRAW : r.getReason();
-      queue.add(new RouteAdvertisement<>(r.getRoute(), r.isWithdrawn(), reason));
+      batch[i++] =
+          r.getReason() == Reason.REPLACE
+              ? new RouteAdvertisement<>(r.getRoute(), r.isWithdrawn(), Reason.WITHDRAW)
+              : r;
     }
+    mailbox.publish(batch);
   }
 
   static Entry<RibDelta<BgpRoute>, RibDelta<BgpRoute>> syncBgpDeltaPropagation(
@@ -441,9 +452,7 @@ public class VirtualRouter implements Serializable {
                 .stream()
                 .collect(
                     ImmutableSortedMap.toImmutableSortedMap(
-                        Prefix::compareTo,
-                        Function.identity(),
-                        p -> new ConcurrentLinkedQueue<>()));
+                        Prefix::compareTo, Function.identity(), p -> new Mailbox<>()));
       }
     }
   }
@@ -478,8 +487,7 @@ public class VirtualRouter implements Serializable {
               .flatMap(
                   dst ->
                       bgpTopology.adjacentNodes(dst).stream().map(src -> new BgpEdgeId(src, dst)))
-              .collect(
-                  toImmutableSortedMap(Function.identity(), e -> new ConcurrentLinkedQueue<>()));
+              .collect(toImmutableSortedMap(Function.identity(), e -> new Mailbox<>()));
     }
   }
 
@@ -503,8 +511,7 @@ public class VirtualRouter implements Serializable {
               .map(ifaceName -> new IsisNode(_c.getHostname(), ifaceName))
               .filter(isisTopology.nodes()::contains)
               .flatMap(n -> isisTopology.inEdges(n).stream())
-              .collect(
-                  toImmutableSortedMap(Function.identity(), e -> new ConcurrentLinkedQueue<>()));
+              .collect(toImmutableSortedMap(Function.identity(), e -> new Mailbox<>()));
     }
   }
 
@@ -595,7 +602,7 @@ public class VirtualRouter implements Serializable {
 
   /** Compute the FIB from the main RIB */
   public void computeFib() {
-    _fib = new FibImpl(_mainRib);
+    _fib = new CompiledFib(_mainRib);
   }
 
   boolean computeInterAreaSummaries() {
@@ -751,7 +758,7 @@ public class VirtualRouter implements Serializable {
         int admin = ebgp ? ebgpAdmin : ibgpAdmin;
         AsPath asPath = advert.getAsPath();
         SortedSet<Long> clusterList = advert.getClusterList();
-        SortedSet<Long> communities = ImmutableSortedSet.copyOf(advert.getCommunities());
+        SortedSet<Long> communities = advert.getCommunities();
         int localPreference = advert.getLocalPreference();
         long metric = advert.getMed();
         Prefix network = advert.getNetwork();
@@ -762,7 +769,7 @@ public class VirtualRouter implements Serializable {
         int weight = advert.getWeight();
         BgpRoute.Builder builder = new BgpRoute.Builder();
         builder.setAdmin(admin);
-        builder.setAsPath(asPath.getAsSets());
+        builder.setAsPath(asPath);
         builder.setClusterList(clusterList);
         builder.setCommunities(communities);
         builder.setLocalPreference(localPreference);
@@ -787,8 +794,8 @@ public class VirtualRouter implements Serializable {
         } else {
           localPreference = advert.getLocalPreference();
         }
-        outgoingRouteBuilder.setAsPath(advert.getAsPath().getAsSets());
-        outgoingRouteBuilder.setCommunities(ImmutableSortedSet.copyOf(advert.getCommunities()));
+        outgoingRouteBuilder.setAsPath(advert.getAsPath());
+        outgoingRouteBuilder.setCommunities(advert.getCommunities());
         outgoingRouteBuilder.setLocalPreference(localPreference);
         outgoingRouteBuilder.setMetric(advert.getMed());
         outgoingRouteBuilder.setNetwork(advert.getNetwork());
@@ -811,21 +818,17 @@ public class VirtualRouter implements Serializable {
             transformedOutgoingRoute.getReceivedFromIp());
 
         // Incoming clusterList
-        transformedIncomingRouteBuilder
-            .getClusterList()
-            .addAll(transformedOutgoingRoute.getClusterList());
+        transformedIncomingRouteBuilder.setClusterList(transformedOutgoingRoute.getClusterList());
 
         // Incoming receivedFromRouteReflectorClient
         transformedIncomingRouteBuilder.setReceivedFromRouteReflectorClient(
             transformedOutgoingRoute.getReceivedFromRouteReflectorClient());
 
         // Incoming asPath
-        transformedIncomingRouteBuilder.setAsPath(transformedOutgoingRoute.getAsPath().getAsSets());
+        transformedIncomingRouteBuilder.setAsPath(transformedOutgoingRoute.getAsPath());
 
         // Incoming communities
-        transformedIncomingRouteBuilder
-            .getCommunities()
-            .addAll(transformedOutgoingRoute.getCommunities());
+        transformedIncomingRouteBuilder.setCommunities(transformedOutgoingRoute.getCommunities());
 
         // Incoming protocol
         transformedIncomingRouteBuilder.setProtocol(targetProtocol);
@@ -1477,14 +1480,14 @@ public class VirtualRouter implements Serializable {
             boolean routeReceivedFromRouteReflectorClient =
                 bgpRoute.getReceivedFromRouteReflectorClient();
             boolean sendingToRouteReflectorClient = neighbor.getRouteReflectorClient();
-            transformedOutgoingRouteBuilder.getClusterList().addAll(bgpRoute.getClusterList());
+            transformedOutgoingRouteBuilder.addClusterIds(bgpRoute.getClusterList());
             if (!routeReceivedFromRouteReflectorClient && !sendingToRouteReflectorClient) {
               continue;
             }
             if (sendingToRouteReflectorClient) {
               // sender adds its local cluster id to clusterlist of
               // new route
-              transformedOutgoingRouteBuilder.getClusterList().add(neighbor.getClusterId());
+              transformedOutgoingRouteBuilder.addClusterId(neighbor.getClusterId());
             }
           }
         }
@@ -1493,15 +1496,14 @@ public class VirtualRouter implements Serializable {
         // Outgoing communities
         if (routeIsBgp) {
           BgpRoute bgpRoute = (BgpRoute) route;
-          transformedOutgoingRouteBuilder.setAsPath(bgpRoute.getAsPath().getAsSets());
+          transformedOutgoingRouteBuilder.setAsPath(bgpRoute.getAsPath());
           if (neighbor.getSendCommunity()) {
-            transformedOutgoingRouteBuilder.getCommunities().addAll(bgpRoute.getCommunities());
+            transformedOutgoingRouteBuilder.addCommunities(bgpRoute.getCommunities());
           }
         }
         if (ebgpSession) {
-          SortedSet<Long> newAsPathElement = new TreeSet<>();
-          newAsPathElement.add(localAs);
-          transformedOutgoingRouteBuilder.getAsPath().add(0, newAsPathElement);
+          transformedOutgoingRouteBuilder.setAsPath(
+              transformedOutgoingRouteBuilder.getAsPath().prepend(ImmutableList.of(localAs)));
         }
 
         // Outgoing protocol
@@ -1572,11 +1574,9 @@ public class VirtualRouter implements Serializable {
         BgpAdvertisementType sentType =
             ebgpSession ? BgpAdvertisementType.EBGP_SENT : BgpAdvertisementType.IBGP_SENT;
         Ip sentOriginatorIp = transformedOutgoingRoute.getOriginatorIp();
-        SortedSet<Long> sentClusterList =
-            ImmutableSortedSet.copyOf(transformedOutgoingRoute.getClusterList());
+        SortedSet<Long> sentClusterList = transformedOutgoingRoute.getClusterList();
         AsPath sentAsPath = transformedOutgoingRoute.getAsPath();
-        SortedSet<Long> sentCommunities =
-            ImmutableSortedSet.copyOf(transformedOutgoingRoute.getCommunities());
+        SortedSet<Long> sentCommunities = transformedOutgoingRoute.getCommunities();
         Prefix sentNetwork = route.getNetwork();
         Ip sentNextHopIp;
         String sentSrcNode = hostname;
@@ -1612,8 +1612,8 @@ public class VirtualRouter implements Serializable {
                 sentMed,
                 sentOriginatorIp,
                 sentAsPath,
-                ImmutableSortedSet.copyOf(sentCommunities),
-                ImmutableSortedSet.copyOf(sentClusterList),
+                sentCommunities,
+                sentClusterList,
                 sentWeight);
         _sentBgpAdvertisements.add(sentAdvert);
         numAdvertisements++;
@@ -1643,10 +1643,11 @@ public class VirtualRouter implements Serializable {
     ribDeltas.put(_ibgpStagingRib, new Builder<>(_ibgpStagingRib));
 
     // Process updates from each neighbor
-    for (Entry<BgpEdgeId, Queue<RouteAdvertisement<BgpRoute>>> e : _bgpIncomingRoutes.entrySet()) {
+    for (Entry<BgpEdgeId, Mailbox<RouteAdvertisement<BgpRoute>>> e :
+        _bgpIncomingRoutes.entrySet()) {
 
-      // Grab the queue containing all messages from remoteBgpPeerConfig
-      Queue<RouteAdvertisement<BgpRoute>> queue = e.getValue();
+      // Grab the mailbox containing all messages from remoteBgpPeerConfig
+      Mailbox<RouteAdvertisement<BgpRoute>> mailbox = e.getValue();
 
       // Setup helper vars
       BgpPeerConfigId remoteConfigId = e.getKey().src();
@@ -1659,8 +1660,7 @@ public class VirtualRouter implements Serializable {
       BgpMultipathRib targetRib = sessionProperties.isEbgp() ? _ebgpStagingRib : _ibgpStagingRib;
 
       // Process all routes from neighbor
-      while (queue.peek() != null) {
-        RouteAdvertisement<BgpRoute> remoteRouteAdvert = queue.remove();
+      for (RouteAdvertisement<BgpRoute> remoteRouteAdvert : mailbox.drain()) {
         BgpRoute remoteRoute = remoteRouteAdvert.getRoute();
 
         BgpRoute.Builder transformedIncomingRouteBuilder =
@@ -1754,8 +1754,7 @@ public class VirtualRouter implements Serializable {
           Ip nextHopIp = edge.getNode1().getInterface(nc).getAddress().getIp();
           Interface iface = edge.getNode2().getInterface(nc);
           routeBuilder.setNextHopIp(nextHopIp);
-          while (queue.peek() != null) {
-            RouteAdvertisement<IsisRoute> routeAdvert = queue.remove();
+          for (RouteAdvertisement<IsisRoute> routeAdvert : queue.drain()) {
             IsisRoute neighborRoute = routeAdvert.getRoute();
 
             routeBuilder
@@ -1875,10 +1874,9 @@ public class VirtualRouter implements Serializable {
                 ? proc.getMaxMetricTransitLinks()
                 : connectingInterfaceCost;
 
-        Queue<RouteAdvertisement<OspfExternalRoute>> q =
+        Mailbox<RouteAdvertisement<OspfExternalRoute>> q =
             _ospfExternalIncomingRoutes.get(connectingInterface.getAddress().getPrefix());
-        while (q.peek() != null) {
-          RouteAdvertisement<OspfExternalRoute> routeAdvert = q.remove();
+        for (RouteAdvertisement<OspfExternalRoute> routeAdvert : q.drain()) {
           OspfExternalRoute neighborRoute = routeAdvert.getRoute();
           boolean withdraw = routeAdvert.isWithdrawn();
           if (neighborRoute instanceof OspfExternalType1Route) {
@@ -2450,9 +2448,12 @@ public class VirtualRouter implements Serializable {
                       .get(edge.getNode1().getHostname())
                       .getVirtualRouters()
                       .get(edge.getNode1().getInterface(nc).getVrfName());
-              Queue<RouteAdvertisement<IsisRoute>> queue =
+              Mailbox<RouteAdvertisement<IsisRoute>> queue =
                   remoteVr._isisIncomingRoutes.get(edge.reverse());
               IsisLevel circuitType = edge.getCircuitType();
+              if (l1delta != null || l2delta != null) {
+                remoteVr.markPendingWork();
+              }
               if (circuitType == IsisLevel.LEVEL_1_2 || circuitType == IsisLevel.LEVEL_1) {
                 queueDelta(queue, l1delta);
               }
@@ -2509,10 +2510,13 @@ public class VirtualRouter implements Serializable {
               return;
             }
             // Get remote neighbor's queue by prefix
-            Queue<RouteAdvertisement<OspfExternalRoute>> q =
+            Mailbox<RouteAdvertisement<OspfExternalRoute>> q =
                 ospfLink._remoteVirtualRouter._ospfExternalIncomingRoutes.get(key);
             queueDelta(q, type1delta);
             queueDelta(q, type2delta);
+            if (type1delta != null || type2delta != null) {
+              ospfLink._remoteVirtualRouter.markPendingWork();
+            }
           });
     }
   }
@@ -2723,12 +2727,12 @@ public class VirtualRouter implements Serializable {
           _bgpIncomingRoutes
               .values()
               .stream()
-              .map(Queue::isEmpty)
+              .map(Mailbox::isEmpty)
               .noneMatch(Predicate.isEqual(false));
     }
     // Check the OSPF external message queues
     if (_vrf.getOspfProcess() != null) {
-      for (Queue<RouteAdvertisement<OspfExternalRoute>> queue :
+      for (Mailbox<RouteAdvertisement<OspfExternalRoute>> queue :
           _ospfExternalIncomingRoutes.values()) {
         if (!queue.isEmpty()) {
           return false;
@@ -2736,7 +2740,7 @@ public class VirtualRouter implements Serializable {
       }
     }
     if (_vrf.getIsisProcess() != null) {
-      for (Queue<RouteAdvertisement<IsisRoute>> queue : _isisIncomingRoutes.values()) {
+      for (Mailbox<RouteAdvertisement<IsisRoute>> queue : _isisIncomingRoutes.values()) {
         if (!queue.isEmpty()) {
           return false;
         }
@@ -2771,7 +2775,26 @@ public class VirtualRouter implements Serializable {
    */
   private void enqueueBgpMessages(
       @Nonnull BgpEdgeId edgeId, @Nonnull Set<RouteAdvertisement<BgpRoute>> routes) {
-    _bgpIncomingRoutes.get(edgeId).addAll(routes);
+    _bgpIncomingRoutes.get(edgeId).publish(routes);
+    if (!routes.isEmpty()) {
+      markPendingWork();
+    }
+  }
+
+  /**
+   * Set the shared collection in which this router records that its node has pending work.
+   *
+   * @param pendingWork hostnames of nodes with pending work, or {@code null} to disable tracking
+   */
+  void setPendingWorkTracker(@Nullable Set<String> pendingWork) {
+    _pendingWork = pendingWork;
+  }
+
+  /** Record that this router has queued messages that must be processed in the next iteration */
+  void markPendingWork() {
+    if (_pendingWork != null) {
+      _pendingWork.add(getHostname());
+    }
   }
 
   /** Note which advertisement we sent, in full {@link BgpAdvertisement} form. */
@@ -3034,44 +3057,58 @@ public class VirtualRouter implements Serializable {
   }
 
   /**
-   * Compute the "hashcode" of this router for the iBDP purposes. The hashcode is computed from the
-   * following data structures:
+   * Compute the fingerprint of this router for the iBDP purposes. The fingerprint is computed from
+   * the following data structures:
    *
    * <ul>
    *   <li>"external" RIBs ({@link #_mainRib}, {@link #_ospfExternalType1Rib}, {@link
-   *       #_ospfExternalType2Rib}
-   *   <li>message queues ({@link #_bgpIncomingRoutes} and {@link #_ospfExternalIncomingRoutes})
+   *       #_ospfExternalType2Rib}), whose fingerprints are maintained incrementally
+   *   <li>message queues ({@link #_bgpIncomingRoutes}, {@link #_ospfExternalIncomingRoutes} and
+   *       {@link #_isisIncomingRoutes})
    * </ul>
    *
-   * @return integer hashcode
+   * @return a {@link RibFingerprint}
    */
-  int computeIterationHashCode() {
-    return _mainRib.getRoutes().hashCode()
-        + _ospfExternalType1Rib.getRoutes().hashCode()
-        + _ospfExternalType2Rib.getRoutes().hashCode()
-        + _bgpIncomingRoutes
-            .values()
-            .stream()
-            .flatMap(Queue::stream)
-            .mapToInt(RouteAdvertisement::hashCode)
-            .sum()
-        + _ospfExternalIncomingRoutes
-            .values()
-            .stream()
-            .flatMap(Queue::stream)
-            .mapToInt(RouteAdvertisement::hashCode)
-            .sum()
-        + _isisIncomingRoutes
-            .values()
-            .stream()
-            .flatMap(Queue::stream)
-            .mapToInt(RouteAdvertisement::hashCode)
-            .sum()
-        + _virtualEigrpProcesses
-            .values()
-            .stream()
-            .mapToInt(VirtualEigrpProcess::computeIterationHashCode)
-            .sum();
+  RibFingerprint computeIterationFingerprint() {
+    RibFingerprint fingerprint =
+        _mainRib
+            .getFingerprint()
+            .plus(_ospfExternalType1Rib.getFingerprint())
+            .plus(_ospfExternalType2Rib.getFingerprint())
+            .plus(computeQueuesFingerprint(_bgpIncomingRoutes.values()))
+            .plus(computeQueuesFingerprint(_ospfExternalIncomingRoutes.values()))
+            .plus(computeQueuesFingerprint(_isisIncomingRoutes.values()));
+    for (VirtualEigrpProcess process : _virtualEigrpProcesses.values()) {
+      fingerprint = fingerprint.plus(process.computeIterationFingerprint());
+    }
+    return fingerprint;
+  }
+
+  /** Returns the incoming message queues of this router, including those of its EIGRP processes */
+  Stream<Mailbox<?>> getMailboxes() {
+    return Stream.of(
+            _bgpIncomingRoutes.values().stream(),
+            _ospfExternalIncomingRoutes.values().stream(),
+            _isisIncomingRoutes.values().stream(),
+            _virtualEigrpProcesses.values().stream().flatMap(VirtualEigrpProcess::getMailboxes))
+        .flatMap(Function.identity());
+  }
+
+  /**
+   * Compute the combined fingerprint of all advertisements in the given message queues
+   *
+   * @param queues message queues
+   * @return a {@link RibFingerprint}
+   */
+  static RibFingerprint computeQueuesFingerprint(
+      Collection<? extends Mailbox<? extends RouteAdvertisement<?>>> queues) {
+    RibFingerprint fingerprint = RibFingerprint.ZERO;
+    for (Mailbox<? extends RouteAdvertisement<?>> queue : queues) {
+      for (RouteAdvertisement<?> advertisement : queue.peek()) {
+        fingerprint = fingerprint.plus(RibFingerprint.of(advertisement));
+      }
+    }
+    return fingerprint;
   }
 
   PrefixTracer getPrefixTracer() {
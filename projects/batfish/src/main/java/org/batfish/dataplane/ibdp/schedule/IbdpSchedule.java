@@ -6,6 +6,7 @@ import com.google.common.graph.ValueGraph;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.batfish.common.BatfishException;
 import org.batfish.datamodel.BgpPeerConfigId;
 import org.batfish.datamodel.BgpSessionProperties;
@@ -23,6 +24,7 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
     ALL,
     NODE_COLORED,
     NODE_SERIALIZED,
+    WORKLIST,
   }
 
   protected ImmutableMap<String, Node> _nodes;
@@ -71,6 +73,8 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
    *
    * @param settings {@link IncrementalDataPlaneSettings}
    * @param allNodes map of all nodes in the network
+   * @param pendingNodes names of nodes that have pending work (only used by {@link
+   *     Schedule#WORKLIST})
    * @param bgpTopology the bgp peering relationships
    * @return a new {@link IbdpSchedule}
    * @throws BatfishException if the schedule type specified is unsupported
@@ -78,6 +82,7 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
   public static IbdpSchedule getSchedule(
       IncrementalDataPlaneSettings settings,
       Map<String, Node> allNodes,
+      Set<String> pendingNodes,
       ValueGraph<BgpPeerConfigId, BgpSessionProperties> bgpTopology) {
     Schedule schedule = settings.getScheduleName();
     switch (schedule) {
@@ -88,6 +93,8 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
       case NODE_COLORED:
         Coloring coloring = settings.getColoringType();
         return new NodeColoredSchedule(allNodes, coloring, bgpTopology);
+      case WORKLIST:
+        return new WorklistSchedule(allNodes, pendingNodes);
       default:
         throw new BatfishException(String.format("Unsupported ibdp schedule: %s", schedule));
     }
@@ -0,0 +1,50 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Ordering;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import org.batfish.dataplane.ibdp.Node;
+
+/**
+ * A dataplane computation schedule that only processes nodes with pending work, i.e., nodes that
+ * received messages or whose RIBs changed during the previous iteration. All such nodes are allowed
+ * to run in parallel.
+ */
+public class WorklistSchedule extends IbdpSchedule {
+
+  private boolean _hasNext;
+
+  /**
+   * Create a new schedule containing only the nodes with pending work
+   *
+   * @param nodes all nodes in the network
+   * @param pendingNodes names of the nodes with pending work
+   */
+  public WorklistSchedule(Map<String, Node> nodes, Set<String> pendingNodes) {
+    super(
+        pendingNodes
+            .stream()
+            .filter(nodes::containsKey)
+            .collect(
+                ImmutableSortedMap.toImmutableSortedMap(
+                    Ordering.natural(), Function.identity(), nodes::get)));
+    _hasNext = !_nodes.isEmpty();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return _hasNext;
+  }
+
+  @Override
+  public Map<String, Node> next() {
+    if (_hasNext) {
+      _hasNext = false;
+      return _nodes;
+    }
+    throw new NoSuchElementException();
+  }
+}
@@ -2,9 +2,8 @@ package org.batfish.dataplane.protocols;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.collect.ImmutableList;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import javax.annotation.Nullable;
 import org.batfish.common.WellKnownCommunity;
 import org.batfish.datamodel.AbstractRoute;
@@ -13,6 +12,7 @@ import org.batfish.datamodel.BgpPassivePeerConfig;
 import org.batfish.datamodel.BgpPeerConfig;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.ClusterList;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.GeneratedRoute;
 import org.batfish.datamodel.InterfaceAddress;
@@ -119,7 +119,7 @@ public class BgpProtocolHelper {
            */
           return null;
         }
-        transformedOutgoingRouteBuilder.getClusterList().addAll(bgpRemoteRoute.getClusterList());
+        transformedOutgoingRouteBuilder.addClusterIds(bgpRemoteRoute.getClusterList());
         if (!remoteRouteOriginatedByRemoteNeighbor) {
           // we are reflecting, so we need to get the clusterid associated with the
           // remoteRoute
@@ -129,10 +129,10 @@ public class BgpProtocolHelper {
                   .getActiveNeighbors()
                   .get(new Prefix(remoteReceivedFromIp, Prefix.MAX_PREFIX_LENGTH));
           long newClusterId = remoteReceivedFromSession.getClusterId();
-          transformedOutgoingRouteBuilder.getClusterList().add(newClusterId);
+          transformedOutgoingRouteBuilder.addClusterId(newClusterId);
         }
         Set<Long> localClusterIds = toVrf.getBgpProcess().getClusterIds();
-        Set<Long> outgoingClusterList = transformedOutgoingRouteBuilder.getClusterList();
+        ClusterList outgoingClusterList = transformedOutgoingRouteBuilder.getClusterList();
         if (localClusterIds.stream().anyMatch(outgoingClusterList::contains)) {
           /*
            *  receiver will reject new route if it contains any of its local cluster ids
@@ -146,15 +146,16 @@ public class BgpProtocolHelper {
     // Outgoing communities
     if (remoteRouteIsBgp) {
       BgpRoute bgpRemoteRoute = (BgpRoute) route;
-      transformedOutgoingRouteBuilder.setAsPath(bgpRemoteRoute.getAsPath().getAsSets());
+      transformedOutgoingRouteBuilder.setAsPath(bgpRemoteRoute.getAsPath());
       if (fromNeighbor.getSendCommunity()) {
-        transformedOutgoingRouteBuilder.getCommunities().addAll(bgpRemoteRoute.getCommunities());
+        transformedOutgoingRouteBuilder.addCommunities(bgpRemoteRoute.getCommunities());
       }
     }
     if (sessionProperties.isEbgp()) {
-      SortedSet<Long> newAsPathElement = new TreeSet<>();
-      newAsPathElement.add(fromNeighbor.getLocalAs());
-      transformedOutgoingRouteBuilder.getAsPath().add(0, newAsPathElement);
+      transformedOutgoingRouteBuilder.setAsPath(
+          transformedOutgoingRouteBuilder
+              .getAsPath()
+              .prepend(ImmutableList.of(fromNeighbor.getLocalAs())));
     }
 
     // Outgoing protocol
@@ -219,11 +220,11 @@ public class BgpProtocolHelper {
     BgpRoute.Builder transformedIncomingRouteBuilder = new BgpRoute.Builder();
     transformedIncomingRouteBuilder.setOriginatorIp(route.getOriginatorIp());
     transformedIncomingRouteBuilder.setReceivedFromIp(route.getReceivedFromIp());
-    transformedIncomingRouteBuilder.getClusterList().addAll(route.getClusterList());
+    transformedIncomingRouteBuilder.setClusterList(route.getClusterList());
     transformedIncomingRouteBuilder.setReceivedFromRouteReflectorClient(
         route.getReceivedFromRouteReflectorClient());
-    transformedIncomingRouteBuilder.setAsPath(route.getAsPath().getAsSets());
-    transformedIncomingRouteBuilder.getCommunities().addAll(route.getCommunities());
+    transformedIncomingRouteBuilder.setAsPath(route.getAsPath());
+    transformedIncomingRouteBuilder.setCommunities(route.getCommunities());
     transformedIncomingRouteBuilder.setProtocol(targetProtocol);
     transformedIncomingRouteBuilder.setNetwork(route.getNetwork());
     transformedIncomingRouteBuilder.setNextHopIp(route.getNextHopIp());
@@ -246,7 +247,7 @@ public class BgpProtocolHelper {
   public static BgpRoute convertGeneratedRouteToBgp(GeneratedRoute generatedRoute, Ip routerId) {
     BgpRoute.Builder b = new BgpRoute.Builder();
     b.setAdmin(generatedRoute.getAdministrativeCost());
-    b.setAsPath(generatedRoute.getAsPath().getAsSets());
+    b.setAsPath(generatedRoute.getAsPath());
     b.setMetric(generatedRoute.getMetric());
     b.setSrcProtocol(RoutingProtocol.AGGREGATE);
     b.setProtocol(RoutingProtocol.AGGREGATE);
@@ -10,6 +10,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import javax.annotation.Nullable;
+import org.batfish.common.BatfishException;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.GenericRib;
 import org.batfish.datamodel.Ip;
@@ -38,21 +39,44 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
   /** Map to keep track when routes were merged in. */
   protected Map<R, Long> _logicalArrivalTime;
 
-  private RibTree<R> _tree;
+  private final RibIndex<R> _tree;
 
   @Nullable private Set<R> _allRoutes;
 
+  /** Fingerprint of all routes in the RIB, maintained incrementally as routes change */
+  private RibFingerprint _fingerprint;
+
   /**
    * Keep a Sorted Set of alternative routes. Used to update the RIB if best routes are withdrawn
    */
   @Nullable protected final Map<Prefix, SortedSet<R>> _backupRoutes;
 
   public AbstractRib(@Nullable Map<Prefix, SortedSet<R>> backupRoutes) {
+    this(backupRoutes, RibIndexType.RIB_TREE);
+  }
+
+  /**
+   * Create a new RIB
+   *
+   * @param backupRoutes a map in which to keep alternative (non-best) routes, or {@code null}
+   * @param indexType the data structure used to index routes by prefix
+   */
+  public AbstractRib(@Nullable Map<Prefix, SortedSet<R>> backupRoutes, RibIndexType indexType) {
     _allRoutes = ImmutableSet.of();
     _backupRoutes = backupRoutes;
+    _fingerprint = RibFingerprint.ZERO;
     _logicalArrivalTime = new HashMap<>();
     _logicalClock = 0;
-    _tree = new RibTree<>(this);
+    switch (indexType) {
+      case COMPRESSED_TRIE:
+        _tree = new CompressedRibTree<>(this);
+        break;
+      case RIB_TREE:
+        _tree = new RibTree<>(this);
+        break;
+      default:
+        throw new BatfishException("Unsupported RIB index type: " + indexType);
+    }
   }
 
   /**
@@ -75,13 +99,16 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
   }
 
   /**
-   * Add route to backup route map if the route map is not null
+   * Add route to backup route map if the route map is not null. The map stores the {@link
+   * RouteInterner interned} instance of the route.
    *
    * @param route Route to add
    */
   public final void addBackupRoute(R route) {
     if (_backupRoutes != null) {
-      _backupRoutes.computeIfAbsent(route.getNetwork(), k -> new TreeSet<>()).add(route);
+      _backupRoutes
+          .computeIfAbsent(route.getNetwork(), k -> new TreeSet<>())
+          .add(RouteInterner.intern(route));
     }
   }
 
@@ -89,6 +116,32 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
     return _tree.containsRoute(route);
   }
 
+  /**
+   * Return the {@link RibFingerprint} of all routes in this RIB. Takes constant time.
+   *
+   * @return the fingerprint of {@link #getRoutes()}
+   */
+  public final RibFingerprint getFingerprint() {
+    return _fingerprint;
+  }
+
+  /**
+   * Update the fingerprint of this RIB with the changes in the given delta
+   *
+   * @param delta changes that were applied to this RIB
+   * @param unchangedRoute a route that the delta may list as added, but which was present in the
+   *     RIB before the change as well (e.g., a route removed and then restored as a backup)
+   */
+  private void updateFingerprint(RibDelta<R> delta, @Nullable R unchangedRoute) {
+    for (RouteAdvertisement<R> action : delta.getActions()) {
+      if (action.isWithdrawn()) {
+        _fingerprint = _fingerprint.minus(RibFingerprint.of(action.getRoute()));
+      } else if (!action.getRoute().equals(unchangedRoute)) {
+        _fingerprint = _fingerprint.plus(RibFingerprint.of(action.getRoute()));
+      }
+    }
+  }
+
   @Override
   public final SortedSet<Prefix> getPrefixes() {
     SortedSet<Prefix> prefixes = new TreeSet<>();
@@ -108,11 +161,7 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
   }
 
   public final Set<R> getRoutes(Prefix p) {
-    // Collect routes that match the prefix
-    return getRoutes()
-        .stream()
-        .filter(r -> r.getNetwork().equals(p))
-        .collect(ImmutableSet.toImmutableSet());
+    return _tree.getRoutes(p);
   }
 
   /**
@@ -143,7 +192,8 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
   }
 
   /**
-   * Add a new route to the RIB.
+   * Add a new route to the RIB. The RIB stores the {@link RouteInterner interned} instance of the
+   * route.
    *
    * @param route the route to add
    * @return @{link RibDelta} if the route was added. {@code null} if the route already existed or
@@ -151,10 +201,12 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
    */
   @Nullable
   public RibDelta<R> mergeRouteGetDelta(R route) {
+    route = RouteInterner.intern(route);
     RibDelta<R> delta = _tree.mergeRoute(route);
     if (delta != null) {
       // A change to routes has been made
       _allRoutes = null;
+      updateFingerprint(delta, null);
       _logicalArrivalTime.put(route, _logicalClock);
       _logicalClock++;
     }
@@ -187,6 +239,7 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
     if (delta != null && delta.getActions() != null) {
       // A change to routes has been made
       _allRoutes = null;
+      updateFingerprint(delta, route);
       delta
           .getActions()
           .forEach(
@@ -228,6 +281,7 @@ public abstract class AbstractRib<R extends AbstractRoute> implements GenericRib
     RibDelta<R> d = _tree.clearRoutes(prefix);
     if (d != null) {
       _allRoutes = null;
+      updateFingerprint(d, null);
     }
     return d;
   }
@@ -31,7 +31,8 @@ public class BgpBestPathRib extends AbstractRib<BgpRoute> {
       BgpTieBreaker tieBreaker,
       @Nullable Map<Prefix, SortedSet<BgpRoute>> backupRoutes,
       @Nullable Rib mainRib) {
-    super(backupRoutes);
+    // BGP RIBs may hold full Internet tables, so use the compact index
+    super(backupRoutes, RibIndexType.COMPRESSED_TRIE);
     _tieBreaker = tieBreaker;
     _mainRib = mainRib;
   }
@@ -21,7 +21,8 @@ public class BgpMultipathRib extends AbstractRib<BgpRoute> {
   private MultipathEquivalentAsPathMatchMode _multipathEquivalentAsPathMatchMode;
 
   public BgpMultipathRib(MultipathEquivalentAsPathMatchMode meapmm) {
-    super(null);
+    // BGP RIBs may hold full Internet tables, so use the compact index
+    super(null, RibIndexType.COMPRESSED_TRIE);
     _multipathEquivalentAsPathMatchMode = meapmm;
   }
 
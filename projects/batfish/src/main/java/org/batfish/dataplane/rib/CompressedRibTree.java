@@ -0,0 +1,489 @@
+package org.batfish.dataplane.rib;
+
+import static org.batfish.dataplane.rib.RouteAdvertisement.Reason.REPLACE;
+
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.dataplane.rib.RibDelta.Builder;
+import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
+
+/**
+ * A path-compressed binary trie used to store routes, supporting exact prefix lookup, longest
+ * prefix match and iteration in {@link Prefix} order.
+ *
+ * <p>Unlike {@link RibTree}, nodes store their prefix as primitive fields and their routes in a
+ * small inline array, and nodes that hold no routes are only kept when they are needed as branching
+ * points. Lookups take time proportional to the number of branching points on the path, which is
+ * bounded by the prefix length.
+ */
+final class CompressedRibTree<R extends AbstractRoute> implements RibIndex<R> {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Object[] NO_ROUTES = new Object[0];
+
+  /** A trie node. Its prefix is given by the top {@code _length} bits of {@code _bits}. */
+  private static final class Node implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long _bits;
+
+    private final int _length;
+
+    @Nullable private Node _left;
+
+    @Nullable private Node _right;
+
+    private Object[] _routes;
+
+    private int _numRoutes;
+
+    private Node(long bits, int length) {
+      _bits = bits;
+      _length = length;
+      _routes = NO_ROUTES;
+    }
+
+    private boolean hasRoutes() {
+      return _numRoutes > 0;
+    }
+
+    private boolean containsRoute(Object route) {
+      for (int i = 0; i < _numRoutes; i++) {
+        if (_routes[i].equals(route)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void addRoute(Object route) {
+      if (_numRoutes == _routes.length) {
+        _routes = Arrays.copyOf(_routes, Math.max(1, _numRoutes * 2));
+      }
+      _routes[_numRoutes++] = route;
+    }
+
+    private boolean removeRoute(Object route) {
+      for (int i = 0; i < _numRoutes; i++) {
+        if (_routes[i].equals(route)) {
+          _numRoutes--;
+          System.arraycopy(_routes, i + 1, _routes, i, _numRoutes - i);
+          _routes[_numRoutes] = null;
+          if (_numRoutes == 0) {
+            _routes = NO_ROUTES;
+          }
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void clearRoutes() {
+      _routes = NO_ROUTES;
+      _numRoutes = 0;
+    }
+
+    private Prefix getPrefix() {
+      return new Prefix(new Ip(_bits), _length);
+    }
+
+    @Override
+    public String toString() {
+      return getPrefix().toString();
+    }
+  }
+
+  private final AbstractRib<R> _owner;
+
+  /** The node for {@link Prefix#ZERO}, which is always present */
+  private final Node _root;
+
+  CompressedRibTree(@Nonnull AbstractRib<R> owner) {
+    _owner = owner;
+    _root = new Node(0L, 0);
+  }
+
+  /** Return the mask selecting the top {@code length} bits of a 32-bit address */
+  private static long mask(int length) {
+    return length == 0 ? 0L : (0xFFFFFFFFL << (Prefix.MAX_PREFIX_LENGTH - length)) & 0xFFFFFFFFL;
+  }
+
+  /** Return the number of leading bits that {@code a} and {@code b} have in common */
+  private static int commonPrefixLength(long a, long b) {
+    return Long.numberOfLeadingZeros(a ^ b) - (Long.SIZE - Prefix.MAX_PREFIX_LENGTH);
+  }
+
+  /** Whether {@code node}'s prefix contains the address (or longer prefix) {@code bits} */
+  private static boolean matches(Node node, long bits) {
+    return (bits & mask(node._length)) == node._bits;
+  }
+
+  @SuppressWarnings("unchecked")
+  private R getRoute(Node node, int index) {
+    return (R) node._routes[index];
+  }
+
+  private void collectRoutes(Node node, ImmutableCollection.Builder<R> routes) {
+    for (int i = 0; i < node._numRoutes; i++) {
+      routes.add(getRoute(node, i));
+    }
+  }
+
+  @Nullable
+  private static Node getChild(Node node, boolean right) {
+    return right ? node._right : node._left;
+  }
+
+  private static void setChild(Node parent, Node child) {
+    if (Ip.getBitAtPosition(child._bits, parent._length)) {
+      parent._right = child;
+    } else {
+      parent._left = child;
+    }
+  }
+
+  /** Return the node for exactly the given prefix, or {@code null} if there is none */
+  @Nullable
+  private Node findNode(long bits, int length) {
+    Node node = _root;
+    while (node != null && node._length < length) {
+      node = getChild(node, Ip.getBitAtPosition(bits, node._length));
+      if (node != null && (node._length > length || !matches(node, bits))) {
+        return null;
+      }
+    }
+    return node;
+  }
+
+  /** Return the node for exactly the given prefix, creating it if necessary */
+  private Node findOrCreateNode(long bits, int length) {
+    Node node = _root;
+    while (node._length < length) {
+      Node child = getChild(node, Ip.getBitAtPosition(bits, node._length));
+      if (child == null) {
+        Node leaf = new Node(bits, length);
+        setChild(node, leaf);
+        return leaf;
+      }
+      int common = Math.min(commonPrefixLength(child._bits, bits), Math.min(child._length, length));
+      if (common == child._length) {
+        // child's prefix contains the key, keep descending
+        node = child;
+        continue;
+      }
+      if (common == length) {
+        // key's prefix contains the child's, insert a new node above the child
+        Node newNode = new Node(bits, length);
+        setChild(node, newNode);
+        setChild(newNode, child);
+        return newNode;
+      }
+      // prefixes diverge before the end of either, insert a branching node
+      Node branch = new Node(bits & mask(common), common);
+      Node leaf = new Node(bits, length);
+      setChild(node, branch);
+      setChild(branch, child);
+      setChild(branch, leaf);
+      return leaf;
+    }
+    return node;
+  }
+
+  /**
+   * Remove the node for exactly the given prefix if it holds no routes and is not needed as a
+   * branching point, and likewise for its parent.
+   */
+  private void prune(long bits, int length) {
+    Node grandparent = null;
+    Node parent = null;
+    Node node = _root;
+    while (node._length < length) {
+      grandparent = parent;
+      parent = node;
+      node = getChild(node, Ip.getBitAtPosition(bits, node._length));
+      if (node == null) {
+        return;
+      }
+    }
+    if (parent == null || node.hasRoutes()) {
+      return;
+    }
+    if (node._left != null && node._right != null) {
+      return;
+    }
+    Node onlyChild = node._left != null ? node._left : node._right;
+    if (onlyChild != null) {
+      setChild(parent, onlyChild);
+      return;
+    }
+    if (Ip.getBitAtPosition(node._bits, parent._length)) {
+      parent._right = null;
+    } else {
+      parent._left = null;
+    }
+    // The parent may now be a routeless node with a single child, which is redundant
+    if (grandparent != null && !parent.hasRoutes()) {
+      Node remaining = parent._left != null ? parent._left : parent._right;
+      if (remaining != null) {
+        setChild(grandparent, remaining);
+      }
+    }
+  }
+
+  @Nullable
+  @Override
+  public RibDelta<R> removeRouteGetDelta(R route, Reason reason) {
+    Prefix prefix = route.getNetwork();
+    long bits = prefix.getStartIp().asLong();
+    Node node = findNode(bits, prefix.getPrefixLength());
+    if (node == null) {
+      return null;
+    }
+    Builder<R> b = new Builder<>(_owner);
+    if (node.removeRoute(route)) {
+      b.remove(route, reason);
+      if (!node.hasRoutes() && _owner._backupRoutes != null) {
+        SortedSet<? extends R> backups =
+            _owner._backupRoutes.getOrDefault(prefix, Collections.emptySortedSet());
+        if (!backups.isEmpty()) {
+          node.addRoute(backups.first());
+          b.add(backups.first());
+        }
+      }
+      if (!node.hasRoutes()) {
+        prune(bits, prefix.getPrefixLength());
+      }
+    }
+    return b.build();
+  }
+
+  @Override
+  public boolean containsRoute(R route) {
+    Prefix prefix = route.getNetwork();
+    Node node = findNode(prefix.getStartIp().asLong(), prefix.getPrefixLength());
+    return node != null && node.containsRoute(route);
+  }
+
+  @Override
+  public Set<R> getLongestPrefixMatch(Ip address, int maxPrefixLength) {
+    long bits = address.asLong();
+    Node best = null;
+    Node node = _root;
+    while (node != null && node._length <= maxPrefixLength && matches(node, bits)) {
+      if (node.hasRoutes()) {
+        best = node;
+      }
+      if (node._length == Prefix.MAX_PREFIX_LENGTH) {
+        break;
+      }
+      node = getChild(node, Ip.getBitAtPosition(bits, node._length));
+    }
+    if (best == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<R> routes = ImmutableSet.builder();
+    collectRoutes(best, routes);
+    return routes.build();
+  }
+
+  /** Add all routes in the subtree rooted at {@code node} in {@link Prefix} order */
+  private void collectSubtreeRoutes(@Nullable Node node, ImmutableCollection.Builder<R> routes) {
+    if (node == null) {
+      return;
+    }
+    collectRoutes(node, routes);
+    collectSubtreeRoutes(node._left, routes);
+    collectSubtreeRoutes(node._right, routes);
+  }
+
+  @Override
+  public Set<R> getRoutes() {
+    ImmutableSet.Builder<R> routes = ImmutableSet.builder();
+    collectSubtreeRoutes(_root, routes);
+    return routes.build();
+  }
+
+  @Override
+  public Set<R> getRoutes(Prefix prefix) {
+    Node node = findNode(prefix.getStartIp().asLong(), prefix.getPrefixLength());
+    if (node == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet.Builder<R> routes = ImmutableSet.builder();
+    collectRoutes(node, routes);
+    return routes.build();
+  }
+
+  @Nullable
+  @Override
+  public RibDelta<R> mergeRoute(R route) {
+    Prefix prefix = route.getNetwork();
+    Node node = findOrCreateNode(prefix.getStartIp().asLong(), prefix.getPrefixLength());
+
+    // No routes with this prefix, so just add it. No comparison necessary
+    if (!node.hasRoutes()) {
+      node.addRoute(route);
+      return new Builder<>(_owner).add(route).build();
+    }
+
+    /*
+     * All routes already in this node have the same preference level, so we only need to compare
+     * to one of them.
+     */
+    int preferenceComparison = _owner.comparePreference(route, getRoute(node, 0));
+    if (preferenceComparison < 0) {
+      return null;
+    }
+    if (preferenceComparison == 0) {
+      // equal preference, so add for multipath routing unless already present
+      if (node.containsRoute(route)) {
+        return null;
+      }
+      node.addRoute(route);
+      return new Builder<>(_owner).add(route).build();
+    }
+    // Better than all pre-existing routes for this prefix, so replace them with this one.
+    Builder<R> b = new Builder<>(_owner);
+    for (int i = 0; i < node._numRoutes; i++) {
+      b.remove(getRoute(node, i), REPLACE);
+    }
+    node.clearRoutes();
+    node.addRoute(route);
+    return b.add(route).build();
+  }
+
+  @Nullable
+  @Override
+  public RibDelta<R> clearRoutes(Prefix prefix) {
+    long bits = prefix.getStartIp().asLong();
+    Node node = findNode(bits, prefix.getPrefixLength());
+    if (node == null) {
+      return null;
+    }
+    Builder<R> b = new Builder<>(_owner);
+    for (int i = 0; i < node._numRoutes; i++) {
+      b.remove(getRoute(node, i), REPLACE);
+    }
+    node.clearRoutes();
+    prune(bits, prefix.getPrefixLength());
+    return b.build();
+  }
+
+  private static void addMatchingIps(
+      @Nullable Node node, ImmutableMap.Builder<Prefix, IpWildcardSetIpSpace> builder) {
+    if (node == null) {
+      return;
+    }
+    addMatchingIps(node._left, builder);
+    addMatchingIps(node._right, builder);
+    if (node.hasRoutes()) {
+      IpWildcardSetIpSpace.Builder matchingIps = IpWildcardSetIpSpace.builder();
+      excludeRoutableIps(node._left, matchingIps);
+      excludeRoutableIps(node._right, matchingIps);
+      Prefix prefix = node.getPrefix();
+      matchingIps.including(new IpWildcard(prefix));
+      builder.put(prefix, matchingIps.build());
+    }
+  }
+
+  private static void addRoutableIps(@Nullable Node node, IpWildcardSetIpSpace.Builder builder) {
+    if (node == null) {
+      return;
+    }
+    if (node.hasRoutes()) {
+      builder.including(new IpWildcard(node.getPrefix()));
+    } else {
+      addRoutableIps(node._left, builder);
+      addRoutableIps(node._right, builder);
+    }
+  }
+
+  private static void excludeRoutableIps(
+      @Nullable Node node, IpWildcardSetIpSpace.Builder builder) {
+    if (node == null) {
+      return;
+    }
+    if (node.hasRoutes()) {
+      builder.excluding(new IpWildcard(node.getPrefix()));
+    } else {
+      excludeRoutableIps(node._left, builder);
+      excludeRoutableIps(node._right, builder);
+    }
+  }
+
+  @Override
+  public Map<Prefix, IpWildcardSetIpSpace> getMatchingIps() {
+    ImmutableMap.Builder<Prefix, IpWildcardSetIpSpace> builder = ImmutableMap.builder();
+    addMatchingIps(_root, builder);
+    return builder.build();
+  }
+
+  @Override
+  public IpSpace getRoutableIps() {
+    IpWildcardSetIpSpace.Builder builder = IpWildcardSetIpSpace.builder();
+    addRoutableIps(_root, builder);
+    return builder.build();
+  }
+
+  private static int hashCode(@Nullable Node node) {
+    if (node == null) {
+      return 0;
+    }
+    int hashCode = 0;
+    for (int i = 0; i < node._numRoutes; i++) {
+      hashCode += node._routes[i].hashCode();
+    }
+    return hashCode + hashCode(node._left) + hashCode(node._right);
+  }
+
+  private static boolean equals(@Nullable Node a, @Nullable Node b) {
+    if (a == b) {
+      return true;
+    }
+    if (a == null
+        || b == null
+        || a._bits != b._bits
+        || a._length != b._length
+        || a._numRoutes != b._numRoutes) {
+      return false;
+    }
+    for (int i = 0; i < a._numRoutes; i++) {
+      if (!b.containsRoute(a._routes[i])) {
+        return false;
+      }
+    }
+    return equals(a._left, b._left) && equals(a._right, b._right);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode(_root);
+  }
+
+  /**
+   * Two compressed trees are equal if they contain the same routes. Since nodes without routes are
+   * only kept as branching points, the shape of the tree is determined by the set of prefixes.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    return (obj == this)
+        || (obj instanceof CompressedRibTree && equals(_root, ((CompressedRibTree<?>) obj)._root));
+  }
+}
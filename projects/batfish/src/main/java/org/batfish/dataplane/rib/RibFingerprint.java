@@ -0,0 +1,124 @@
+package org.batfish.dataplane.rib;
+
+import com.google.common.base.MoreObjects;
+import java.io.Serializable;
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Ip;
+
+/**
+ * An order-independent 128-bit fingerprint of a collection of routes. Fingerprints of individual
+ * routes are combined by (lane-wise) addition, so a collection's fingerprint can be maintained
+ * incrementally as routes are added and removed.
+ *
+ * <p>The two 64-bit lanes are computed from different route attributes, making collisions between
+ * distinct RIB states far less likely than with a single 32-bit {@link Object#hashCode()}.
+ */
+public final class RibFingerprint implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Fingerprint of an empty collection */
+  public static final RibFingerprint ZERO = new RibFingerprint(0L, 0L);
+
+  private static final long HIGH_SEED = 0x9E3779B97F4A7C15L;
+
+  private static final long LOW_SEED = 0xC2B2AE3D27D4EB4FL;
+
+  private static final long WITHDRAWN_SEED = 0x165667B19E3779F9L;
+
+  private final long _high;
+
+  private final long _low;
+
+  private RibFingerprint(long high, long low) {
+    _high = high;
+    _low = low;
+  }
+
+  /** Finalization step of the SplitMix64 generator: a bijective 64-bit mixing function */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /** Compute the fingerprint of a single route */
+  @Nonnull
+  public static RibFingerprint of(@Nonnull AbstractRoute route) {
+    long network =
+        (route.getNetwork().getStartIp().asLong() << 6) | route.getNetwork().getPrefixLength();
+    // High lane: full route equality, as captured by the route's own hashcode
+    long high = mix(mix(HIGH_SEED ^ network) + route.hashCode());
+    // Low lane: common forwarding attributes, hashed independently of the route's hashcode
+    Ip nextHopIp = route.getNextHopIp();
+    String nextHopInterface = route.getNextHopInterface();
+    Long metric = route.getMetric();
+    long low = mix(LOW_SEED ^ network);
+    low = mix(low + (nextHopIp == null ? 0L : nextHopIp.asLong()));
+    low = mix(low + (nextHopInterface == null ? 0L : nextHopInterface.hashCode()));
+    low = mix(low + (metric == null ? 0L : metric));
+    low = mix(low + ((long) route.getAdministrativeCost() << 32 | (route.getTag() & 0xFFFFFFFFL)));
+    low = mix(low + route.getProtocol().ordinal());
+    return new RibFingerprint(high, low);
+  }
+
+  /** Compute the fingerprint of a single route advertisement */
+  @Nonnull
+  public static RibFingerprint of(@Nonnull RouteAdvertisement<?> advertisement) {
+    RibFingerprint route = of(advertisement.getRoute());
+    if (!advertisement.isWithdrawn()) {
+      return route;
+    }
+    long reason = WITHDRAWN_SEED + advertisement.getReason().ordinal();
+    return new RibFingerprint(mix(route._high ^ reason), mix(route._low ^ reason));
+  }
+
+  /** Return the fingerprint of the union of the collections represented by the two fingerprints */
+  @Nonnull
+  public RibFingerprint plus(@Nonnull RibFingerprint other) {
+    return new RibFingerprint(_high + other._high, _low + other._low);
+  }
+
+  /**
+   * Return the fingerprint of this collection after removing the collection represented by {@code
+   * other}
+   */
+  @Nonnull
+  public RibFingerprint minus(@Nonnull RibFingerprint other) {
+    return new RibFingerprint(_high - other._high, _low - other._low);
+  }
+
+  public long getHigh() {
+    return _high;
+  }
+
+  public long getLow() {
+    return _low;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RibFingerprint)) {
+      return false;
+    }
+    RibFingerprint other = (RibFingerprint) o;
+    return _high == other._high && _low == other._low;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(_high) * 31 + Long.hashCode(_low);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(getClass())
+        .add("high", Long.toHexString(_high))
+        .add("low", Long.toHexString(_low))
+        .toString();
+  }
+}
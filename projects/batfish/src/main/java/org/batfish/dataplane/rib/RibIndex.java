@@ -0,0 +1,66 @@
+package org.batfish.dataplane.rib;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
+
+/**
+ * A prefix-indexed store of routes backing an {@link AbstractRib}. Implementations are responsible
+ * for route preference (using the owner RIB's comparator) and backup route promotion.
+ *
+ * @param <R> type of route stored in the index
+ */
+interface RibIndex<R extends AbstractRoute> extends Serializable {
+
+  /**
+   * Remove a single route from the index, if it exists
+   *
+   * @param route route to remove
+   * @param reason the reason for route removal (will propagate to the returned delta)
+   * @return {@link RibDelta} if the route was removed, otherwise {@code null}
+   */
+  @Nullable
+  RibDelta<R> removeRouteGetDelta(R route, Reason reason);
+
+  /** Check if the route is present in the index */
+  boolean containsRoute(R route);
+
+  /**
+   * Return the routes with the longest prefix containing {@code address}, considering only prefixes
+   * no longer than {@code maxPrefixLength}
+   */
+  Set<R> getLongestPrefixMatch(Ip address, int maxPrefixLength);
+
+  /** Return a set of all routes contained in this index */
+  Set<R> getRoutes();
+
+  /** Return the routes whose network is exactly {@code prefix} */
+  Set<R> getRoutes(Prefix prefix);
+
+  /**
+   * Add a new route into the index, potentially replacing other routes
+   *
+   * @param route route to add
+   * @return a {@link RibDelta} indicating which routes where added and evicted, or {@code null} if
+   *     nothing changed
+   */
+  @Nullable
+  RibDelta<R> mergeRoute(R route);
+
+  /** Remove all routes whose network is exactly {@code prefix} */
+  @Nullable
+  RibDelta<R> clearRoutes(Prefix prefix);
+
+  /** Return, for each prefix with routes, the IPs for which that prefix is the longest match */
+  Map<Prefix, IpWildcardSetIpSpace> getMatchingIps();
+
+  /** Return the space of IPs matched by at least one route */
+  IpSpace getRoutableIps();
+}
@@ -0,0 +1,13 @@
+package org.batfish.dataplane.rib;
+
+/** The data structure used by an {@link AbstractRib} to index its routes by prefix */
+public enum RibIndexType {
+  /** A binary trie of {@link RibTreeNode}s, one node (with a {@code HashSet}) per prefix */
+  RIB_TREE,
+  /**
+   * A path-compressed binary trie keyed by primitive longs, with small inline route arrays. Has a
+   * much smaller footprint than {@link #RIB_TREE} for large tables, e.g., full Internet tables
+   * received over BGP.
+   */
+  COMPRESSED_TRIE
+}
@@ -2,7 +2,6 @@ package org.batfish.dataplane.rib;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import java.io.Serializable;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -20,7 +19,7 @@ import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
  * where the wildcard symbols can appear only after (to-the-right-of) non wildcard symbols in the
  * bit vector. E.g., 101010**, but not 1*001***
  */
-class RibTree<R extends AbstractRoute> implements Serializable {
+class RibTree<R extends AbstractRoute> implements RibIndex<R> {
 
   private static final long serialVersionUID = 1L;
 
@@ -36,8 +35,9 @@ class RibTree<R extends AbstractRoute> implements Serializable {
    * @param route route to remove
    * @return {@link RibDelta} if the route was removed, otherwise {@code null};
    */
+  @Override
   @Nullable
-  RibDelta<R> removeRouteGetDelta(R route, Reason reason) {
+  public RibDelta<R> removeRouteGetDelta(R route, Reason reason) {
     Prefix prefix = route.getNetwork();
     int prefixLength = prefix.getPrefixLength();
     long bits = prefix.getStartIp().asLong();
@@ -50,14 +50,16 @@ class RibTree<R extends AbstractRoute> implements Serializable {
    * @param route route to find
    * @return true if the route exists in the RIB
    */
-  boolean containsRoute(R route) {
+  @Override
+  public boolean containsRoute(R route) {
     Prefix prefix = route.getNetwork();
     int prefixLength = prefix.getPrefixLength();
     long bits = prefix.getStartIp().asLong();
     return _root.containsRoute(route, bits, prefixLength);
   }
 
-  Set<R> getLongestPrefixMatch(Ip address, int maxPrefixLength) {
+  @Override
+  public Set<R> getLongestPrefixMatch(Ip address, int maxPrefixLength) {
     long addressBits = address.asLong();
     return _root.getLongestPrefixMatch(address, addressBits, 0, maxPrefixLength);
   }
@@ -67,12 +69,18 @@ class RibTree<R extends AbstractRoute> implements Serializable {
    *
    * @return a {@link Set} of routes
    */
+  @Override
   public Set<R> getRoutes() {
     ImmutableSet.Builder<R> routes = ImmutableSet.builder();
     _root.collectRoutes(routes);
     return routes.build();
   }
 
+  @Override
+  public Set<R> getRoutes(Prefix prefix) {
+    return _root.getRoutes(prefix.getStartIp().asLong(), prefix.getPrefixLength());
+  }
+
   /**
    * Add a new route into the RIB, potentially replacing other routes
    *
@@ -80,8 +88,9 @@ class RibTree<R extends AbstractRoute> implements Serializable {
    * @return a {@link RibDelta} objects indicating which routes where added and evicted from this
    *     RIB
    */
+  @Override
   @Nullable
-  RibDelta<R> mergeRoute(R route) {
+  public RibDelta<R> mergeRoute(R route) {
     Prefix prefix = route.getNetwork();
     int prefixLength = prefix.getPrefixLength();
     long bits = prefix.getStartIp().asLong();
@@ -98,17 +107,21 @@ class RibTree<R extends AbstractRoute> implements Serializable {
     return (obj == this) || (obj instanceof RibTree && this._root.equals(((RibTree<?>) obj)._root));
   }
 
+  @Override
+  @Nullable
   public RibDelta<R> clearRoutes(Prefix prefix) {
     return _root.clearRoutes(prefix);
   }
 
+  @Override
   public Map<Prefix, IpWildcardSetIpSpace> getMatchingIps() {
     ImmutableMap.Builder<Prefix, IpWildcardSetIpSpace> builder = ImmutableMap.builder();
     _root.addMatchingIps(builder);
     return builder.build();
   }
 
-  IpSpace getRoutableIps() {
+  @Override
+  public IpSpace getRoutableIps() {
     IpWildcardSetIpSpace.Builder builder = IpWildcardSetIpSpace.builder();
     _root.addRoutableIps(builder);
     return builder.build();
@@ -99,6 +99,20 @@ class RibTreeNode<R extends AbstractRoute> implements Serializable {
     return node != null && node._routes.contains(route);
   }
 
+  /**
+   * Return the routes stored in our subtree for exactly the given prefix
+   *
+   * @param bits prefix's IP address represented as a long
+   * @param prefixLength prefix length
+   * @return an immutable set of routes
+   */
+  Set<R> getRoutes(long bits, int prefixLength) {
+    RibTreeNode<R> node = findRouteNode(bits, prefixLength, 0);
+    return node == null || node._prefix.getStartIp().asLong() != bits
+        ? ImmutableSet.of()
+        : ImmutableSet.copyOf(node._routes);
+  }
+
   private Set<R> getLongestPrefixMatch(Ip address) {
     return _routes
         .stream()
@@ -0,0 +1,85 @@
+package org.batfish.dataplane.rib;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.BgpRoute;
+
+/**
+ * Interns routes merged into any {@link AbstractRib}, so that equal routes held by the RIBs of
+ * different routers (e.g., a BGP route reflected to many clients) share one instance in memory and
+ * in serialized data planes. Route attributes such as AS paths and communities are interned by
+ * their own classes. Safe for concurrent use; interned routes are only weakly held.
+ *
+ * <p>Routes are only merged if they also agree on the properties {@link Object#equals} ignores but
+ * the data plane computation reads, such as whether a BGP route was received from a route reflector
+ * client. Each combination of those properties has its own interner.
+ */
+public final class RouteInterner {
+
+  private static final Map<List<Object>, Interner<AbstractRoute>> INTERNERS =
+      new ConcurrentHashMap<>();
+
+  private static final LongAdder HITS = new LongAdder();
+
+  private static final LongAdder MISSES = new LongAdder();
+
+  /** Number of routes interned so far that were replaced by an existing equal route */
+  public static long getHits() {
+    return HITS.sum();
+  }
+
+  /** Number of routes interned so far that were not seen before */
+  public static long getMisses() {
+    return MISSES.sum();
+  }
+
+  /**
+   * Returns the properties of {@code route} that are not covered by {@link Object#equals} but must
+   * match for two routes to be merged.
+   */
+  private static List<Object> unequatedProperties(AbstractRoute route) {
+    List<Object> properties =
+        new ArrayList<>(
+            Arrays.asList(
+                route.getClass(),
+                route.getNonRouting(),
+                route.getNode(),
+                route.getVrf(),
+                route.getNextHop()));
+    if (route instanceof BgpRoute) {
+      BgpRoute bgpRoute = (BgpRoute) route;
+      properties.add(bgpRoute.getReceivedFromRouteReflectorClient());
+      properties.add(bgpRoute.getSrcProtocol());
+      properties.add(bgpRoute.getDiscard());
+    }
+    return properties;
+  }
+
+  /**
+   * Returns the canonical instance of {@code route}, which is equal to it and agrees with it on
+   * every property the data plane computation reads.
+   */
+  @SuppressWarnings("unchecked")
+  public static @Nonnull <R extends AbstractRoute> R intern(@Nonnull R route) {
+    AbstractRoute canonical =
+        INTERNERS
+            .computeIfAbsent(unequatedProperties(route), k -> Interners.newWeakInterner())
+            .intern(route);
+    if (canonical == route) {
+      MISSES.increment();
+      return route;
+    }
+    HITS.increment();
+    return (R) canonical;
+  }
+
+  private RouteInterner() {}
+}
@@ -3,6 +3,7 @@ package org.batfish.job;
 import com.google.common.base.Throwables;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
@@ -67,8 +68,42 @@ public class BatfishJobExecutor {
           AnswerElementT answerElement,
           boolean haltOnProcessingError,
           String description) {
+    runJobsInExecutor(
+        settings,
+        logger,
+        jobs,
+        output,
+        answerElement,
+        haltOnProcessingError,
+        description,
+        Integer.MAX_VALUE);
+  }
+
+  /**
+   * Like {@link #runJobsInExecutor(Settings, BatfishLogger, List, Object, AnswerElement, boolean,
+   * String)}, but at most {@code maxPendingJobs} jobs are submitted and not yet applied to {@code
+   * output} at any time. Further jobs are submitted only as results are consumed, so the memory
+   * held by in-flight jobs and their results is bounded regardless of the number of jobs.
+   *
+   * @param maxPendingJobs maximum number of jobs submitted whose results have not been applied
+   */
+  public static <
+          JobT extends BatfishJob<JobResultT>,
+          AnswerElementT extends AnswerElement,
+          JobResultT extends BatfishJobResult<OutputT, AnswerElementT>,
+          OutputT>
+      void runJobsInExecutor(
+          Settings settings,
+          BatfishLogger logger,
+          List<JobT> jobs,
+          OutputT output,
+          AnswerElementT answerElement,
+          boolean haltOnProcessingError,
+          String description,
+          int maxPendingJobs) {
     getBatfishJobExecutor(settings, logger)
-        .executeJobs(jobs, output, answerElement, haltOnProcessingError, description);
+        .executeJobs(
+            jobs, output, answerElement, haltOnProcessingError, description, maxPendingJobs);
   }
 
   static BatfishJobExecutor getBatfishJobExecutor(Settings settings, BatfishLogger logger) {
@@ -82,6 +117,7 @@ public class BatfishJobExecutor {
    * @param answerElement {@link AnswerElement} containing the detail of the jobs executed
    * @param haltOnProcessingError whether to halt on processing error
    * @param description description of the jobs submitted to the executor
+   * @param maxPendingJobs maximum number of jobs submitted whose results have not been applied
    * @param <JobT> type of job executed in the executor
    * @param <AnswerElementT> type of {@link AnswerElement} to which {@link BatfishJobResult} will be
    *     applied
@@ -98,7 +134,8 @@ public class BatfishJobExecutor {
           OutputT output,
           AnswerElementT answerElement,
           boolean haltOnProcessingError,
-          String description) {
+          String description,
+          int maxPendingJobs) {
 
     // Initializing executors
     ExecutorService pool = createExecutorService();
@@ -108,8 +145,9 @@ public class BatfishJobExecutor {
       Collections.shuffle(jobs);
     }
 
-    for (JobT job : jobs) {
-      completionService.submit(job);
+    Iterator<JobT> unsubmittedJobs = jobs.iterator();
+    for (int i = 0; i < maxPendingJobs && unsubmittedJobs.hasNext(); i++) {
+      completionService.submit(unsubmittedJobs.next());
     }
 
     initializeJobsStats(jobs, description);
@@ -135,6 +173,9 @@ public class BatfishJobExecutor {
         if (jobResultError) {
           processingError = true;
         }
+        if (unsubmittedJobs.hasNext()) {
+          completionService.submit(unsubmittedJobs.next());
+        }
       }
     } finally {
       pool.shutdown();
@@ -0,0 +1,180 @@
+package org.batfish.job;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Version;
+import org.batfish.common.util.SerializationCodec;
+
+/**
+ * An on-disk cache of parse and conversion results, keyed by a SHA-256 hash of everything that
+ * determines them (see {@link #newKey()}). Entries are written atomically, so a cache directory may
+ * be shared by concurrent jobs and by workers processing different testrigs of a container.
+ *
+ * <p>Reading an entry refreshes its modification time, and {@link #evict()} deletes the entries
+ * least recently read or written until the cache fits in its maximum size.
+ */
+public final class ConfigurationCache {
+
+  /** Changed whenever the layout of cached values changes */
+  private static final int CACHE_FORMAT = 1;
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private static final String VERSION = Version.getVersion();
+
+  private final Path _directory;
+
+  private final BatfishLogger _logger;
+
+  private final long _maxSizeBytes;
+
+  public ConfigurationCache(Path directory, long maxSizeBytes, BatfishLogger logger) {
+    _directory = directory;
+    _logger = logger;
+    _maxSizeBytes = maxSizeBytes;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new BatfishException("Could not create configuration cache: " + directory, e);
+    }
+  }
+
+  /**
+   * Deletes least recently used entries until the total size of the cache is at most its maximum
+   * size.
+   *
+   * @return the number of entries deleted
+   */
+  public int evict() {
+    Map<Path, BasicFileAttributes> entries = new TreeMap<>();
+    long totalSize = 0L;
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(_directory)) {
+      for (Path path : paths) {
+        BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+          // evicted concurrently
+          continue;
+        }
+        entries.put(path, attributes);
+        totalSize += attributes.size();
+      }
+    } catch (IOException e) {
+      throw new BatfishException("Could not list configuration cache: " + _directory, e);
+    }
+    if (totalSize <= _maxSizeBytes) {
+      return 0;
+    }
+    List<Entry<Path, BasicFileAttributes>> byAge = new ArrayList<>(entries.entrySet());
+    byAge.sort(Comparator.comparing(e -> e.getValue().lastModifiedTime()));
+    int evicted = 0;
+    for (Entry<Path, BasicFileAttributes> entry : byAge) {
+      if (totalSize <= _maxSizeBytes) {
+        break;
+      }
+      try {
+        Files.deleteIfExists(entry.getKey());
+      } catch (IOException e) {
+        _logger.warnf("Could not evict configuration cache entry %s: %s\n", entry.getKey(), e);
+        continue;
+      }
+      totalSize -= entry.getValue().size();
+      evicted++;
+    }
+    _logger.infof("Evicted %d entries from configuration cache %s\n", evicted, _directory);
+    return evicted;
+  }
+
+  /**
+   * Returns the value cached under {@code key}, or {@code null} if there is none or it cannot be
+   * read as an instance of {@code valueClass}.
+   */
+  @Nullable
+  public <T extends Serializable> T load(HashCode key, Class<T> valueClass) {
+    Path path = _directory.resolve(key.toString());
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try (InputStream in = Files.newInputStream(path);
+        LZ4FrameInputStream lis = new LZ4FrameInputStream(in);
+        ObjectInputStream ois =
+            SerializationCodec.newDetectingObjectInputStream(
+                lis, Thread.currentThread().getContextClassLoader())) {
+      T value = valueClass.cast(ois.readObject());
+      Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+      return value;
+    } catch (NoSuchFileException e) {
+      // evicted concurrently
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      _logger.warnf("Discarding unreadable configuration cache entry %s: %s\n", path, e);
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e2) {
+        // another reader may still have it open, leave it to eviction
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Returns a {@link Hasher} for computing a cache key, already seeded with the Batfish version and
+   * cache format. Callers must add every input that determines the cached value.
+   */
+  public static Hasher newKey() {
+    return Hashing.sha256().newHasher().putInt(CACHE_FORMAT).putString(VERSION, UTF_8);
+  }
+
+  /** Caches {@code value} under {@code key}, replacing any existing value. */
+  public void store(HashCode key, Serializable value) {
+    Path path = _directory.resolve(key.toString());
+    Path tempPath = null;
+    try {
+      tempPath = Files.createTempFile(_directory, key.toString(), TEMP_SUFFIX);
+      try (OutputStream out = Files.newOutputStream(tempPath);
+          LZ4FrameOutputStream los = new LZ4FrameOutputStream(out);
+          ObjectOutputStream oos = SerializationCodec.DEFAULT.newObjectOutputStream(los)) {
+        oos.writeObject(value);
+      }
+      Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // the cache is an optimization only, so failing to populate it is not an error
+      _logger.warnf("Could not write configuration cache entry %s: %s\n", path, e);
+      if (tempPath != null) {
+        try {
+          Files.deleteIfExists(tempPath);
+        } catch (IOException e2) {
+          // leave it to eviction
+        }
+      }
+    }
+  }
+}
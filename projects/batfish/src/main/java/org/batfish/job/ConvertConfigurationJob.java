@@ -1,7 +1,16 @@
 package org.batfish.job;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.Warnings;
 import org.batfish.config.Settings;
@@ -15,18 +24,104 @@ import org.batfish.vendor.VendorConfiguration;
 
 public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResult> {
 
+  /** A conversion result cached for the same inputs as this job's */
+  private static final class CachedConvertResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ConvertConfigurationAnswerElement _answerElement;
+
+    private final Map<String, Configuration> _configurations;
+
+    private final Map<String, Warnings> _warningsByHost;
+
+    private CachedConvertResult(
+        Map<String, Configuration> configurations,
+        Map<String, Warnings> warningsByHost,
+        ConvertConfigurationAnswerElement answerElement) {
+      _answerElement = answerElement;
+      _configurations = configurations;
+      _warningsByHost = warningsByHost;
+    }
+  }
+
+  @Nullable private final ConfigurationCache _cache;
+
   private Object _configObject;
 
   private String _name;
 
   public ConvertConfigurationJob(Settings settings, Object configObject, String name) {
+    this(settings, configObject, name, null);
+  }
+
+  /**
+   * Creates a job that, if {@code cache} is given, loads the conversion of a {@link
+   * VendorConfiguration} from it when an identical configuration has been converted before with the
+   * same settings, and stores the result in it otherwise.
+   */
+  public ConvertConfigurationJob(
+      Settings settings, Object configObject, String name, @Nullable ConfigurationCache cache) {
     super(settings);
+    _cache = cache;
     _configObject = configObject;
     _name = name;
   }
 
   @Override
   public ConvertConfigurationResult call() {
+    if (_cache == null || !(_configObject instanceof VendorConfiguration)) {
+      return convert();
+    }
+    long startTime = System.currentTimeMillis();
+    HashCode key = getCacheKey((VendorConfiguration) _configObject);
+    CachedConvertResult cached = _cache.load(key, CachedConvertResult.class);
+    if (cached != null) {
+      _logger.infof("Loaded conversion of \"%s\" from cache\n", _name);
+      ConvertConfigurationResult result =
+          new ConvertConfigurationResult(
+              System.currentTimeMillis() - startTime,
+              _logger.getHistory(),
+              cached._warningsByHost,
+              _name,
+              cached._configurations,
+              cached._answerElement);
+      result.setCacheHit(true);
+      return result;
+    }
+    ConvertConfigurationResult result = convert();
+    if (result.getFailureCause() == null) {
+      _cache.store(
+          key,
+          new CachedConvertResult(
+              result.getConfigurations(), result.getWarningsByHost(), result.getAnswerElement()));
+    }
+    result.setCacheHit(false);
+    return result;
+  }
+
+  /**
+   * Returns the key of the result of converting {@code vc} with the current settings, which hashes
+   * the serialized form of {@code vc} including its overlay.
+   */
+  private HashCode getCacheKey(VendorConfiguration vc) {
+    Hasher hasher =
+        ConfigurationCache.newKey()
+            .putString(_name, UTF_8)
+            // determine which warnings are recorded
+            .putBoolean(_settings.getPedanticRecord())
+            .putBoolean(_settings.getRedFlagRecord())
+            .putBoolean(_settings.getUnimplementedRecord())
+            .putString(_settings.getLogLevel(), UTF_8);
+    try (ObjectOutputStream oos = new ObjectOutputStream(Funnels.asOutputStream(hasher))) {
+      oos.writeObject(vc);
+    } catch (IOException e) {
+      throw new BatfishException("Could not hash configuration: " + _name, e);
+    }
+    return hasher.hash();
+  }
+
+  private ConvertConfigurationResult convert() {
     long startTime = System.currentTimeMillis();
     long elapsedTime;
     _logger.infof("Processing: \"%s\"", _name);
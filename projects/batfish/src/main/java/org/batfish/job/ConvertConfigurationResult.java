@@ -2,6 +2,7 @@ package org.batfish.job;
 
 import java.util.Map;
 import java.util.Map.Entry;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
@@ -14,6 +15,9 @@ public class ConvertConfigurationResult
 
   private ConvertConfigurationAnswerElement _answerElement;
 
+  /** Whether the result was loaded from a cache, or {@code null} if no cache was consulted */
+  @Nullable private Boolean _cacheHit;
+
   private Map<String, Configuration> _configurations;
 
   private String _name;
@@ -58,6 +62,13 @@ public class ConvertConfigurationResult
       ConvertConfigurationAnswerElement answerElement) {
     appendHistory(logger);
     if (_configurations != null) {
+      if (_cacheHit != null) {
+        if (_cacheHit) {
+          answerElement.setConvertCacheHits(answerElement.getConvertCacheHits() + 1);
+        } else {
+          answerElement.setConvertCacheMisses(answerElement.getConvertCacheMisses() + 1);
+        }
+      }
       for (Entry<String, Configuration> hostConfig : _configurations.entrySet()) {
         String hostname = hostConfig.getKey();
         Configuration config = hostConfig.getValue();
@@ -84,6 +95,10 @@ public class ConvertConfigurationResult
     }
   }
 
+  ConvertConfigurationAnswerElement getAnswerElement() {
+    return _answerElement;
+  }
+
   public Map<String, Configuration> getConfigurations() {
     return _configurations;
   }
@@ -97,6 +112,14 @@ public class ConvertConfigurationResult
     return _name;
   }
 
+  Map<String, Warnings> getWarningsByHost() {
+    return _warningsByHost;
+  }
+
+  void setCacheHit(boolean cacheHit) {
+    _cacheHit = cacheHit;
+  }
+
   @Override
   public String toString() {
     if (_configurations != null) {
@@ -1,12 +1,21 @@
 package org.batfish.job;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import java.io.Serializable;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.batfish.common.BatfishException;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ParseStatus;
@@ -65,6 +74,33 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     }
   }
 
+  /** A parse result cached for the same inputs as this job's */
+  private static final class CachedParseResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ParseTreeSentences _parseTree;
+
+    private final boolean _unrecognized;
+
+    private final VendorConfiguration _vc;
+
+    private final Warnings _warnings;
+
+    private CachedParseResult(
+        VendorConfiguration vc, Warnings warnings, ParseTreeSentences parseTree) {
+      _parseTree = parseTree;
+      _unrecognized = vc.getUnrecognized();
+      _vc = vc;
+      _warnings = warnings;
+    }
+  }
+
+  @Nullable private final ConfigurationCache _cache;
+
+  /** The file to read the text from when the job is run, or {@code null} if given up front. */
+  @Nullable private final Path _file;
+
   /** The name of the parsed file, relative to the testrig base. */
   private String _filename;
 
@@ -72,6 +108,8 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
   private ConfigurationFormat _format;
 
+  @Nullable private final Consumer<VendorConfiguration> _onParsed;
+
   private ParseTreeSentences _ptSentences;
 
   private Warnings _warnings;
@@ -83,6 +121,9 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       Warnings warnings,
       ConfigurationFormat configurationFormat) {
     super(settings);
+    _cache = null;
+    _file = null;
+    _onParsed = null;
     _fileText = fileText;
     _filename = filename;
     _ptSentences = new ParseTreeSentences();
@@ -90,9 +131,126 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     _format = configurationFormat;
   }
 
-  @SuppressWarnings("fallthrough")
+  /**
+   * Creates a job that reads the text of {@code file} only when run, and releases it once parsing
+   * completes, so that pending and completed jobs do not hold file contents in memory. If {@code
+   * cache} is given, the result is loaded from it when the file and relevant settings are unchanged
+   * since a previous parse, and stored in it otherwise.
+   */
+  public ParseVendorConfigurationJob(
+      Settings settings,
+      Path file,
+      String filename,
+      Warnings warnings,
+      ConfigurationFormat configurationFormat,
+      @Nullable ConfigurationCache cache) {
+    this(settings, file, filename, warnings, configurationFormat, cache, null);
+  }
+
+  /**
+   * Like {@link #ParseVendorConfigurationJob(Settings, Path, String, Warnings, ConfigurationFormat,
+   * ConfigurationCache)}, but also passes each parsed configuration to {@code onParsed} on the
+   * thread running the job, e.g. to serialize it there.
+   */
+  public ParseVendorConfigurationJob(
+      Settings settings,
+      Path file,
+      String filename,
+      Warnings warnings,
+      ConfigurationFormat configurationFormat,
+      @Nullable ConfigurationCache cache,
+      @Nullable Consumer<VendorConfiguration> onParsed) {
+    super(settings);
+    _cache = cache;
+    _file = file;
+    _onParsed = onParsed;
+    _filename = filename;
+    _ptSentences = new ParseTreeSentences();
+    _warnings = warnings;
+    _format = configurationFormat;
+  }
+
   @Override
   public ParseVendorConfigurationResult call() throws Exception {
+    if (_file == null) {
+      return parse();
+    }
+    _logger.debugf("Reading: \"%s\"\n", _file);
+    String fileTextRaw = CommonUtil.readFile(_file.toAbsolutePath());
+    _fileText = fileTextRaw + ((fileTextRaw.length() != 0) ? "\n" : "");
+    ParseVendorConfigurationResult result;
+    try {
+      result = _cache == null ? parse() : parseWithCache(_cache);
+    } finally {
+      _fileText = null;
+    }
+    VendorConfiguration vc = result.getVendorConfiguration();
+    if (_onParsed != null && vc != null) {
+      _onParsed.accept(vc);
+    }
+    return result;
+  }
+
+  /** Returns the key of the result of parsing this job's file with the current settings. */
+  private HashCode getCacheKey() {
+    Hasher hasher =
+        ConfigurationCache.newKey()
+            .putString(_filename, UTF_8)
+            .putString(_format.name(), UTF_8)
+            .putBoolean(_settings.getDisableUnrecognized())
+            .putBoolean(_settings.getEnableCiscoNxParser())
+            .putBoolean(_settings.flattenOnTheFly())
+            .putBoolean(_settings.getPrintParseTree())
+            .putBoolean(_settings.getPrintParseTreeLineNums())
+            .putBoolean(_settings.getThrowOnLexerError())
+            .putBoolean(_settings.getThrowOnParserError())
+            // determine which warnings are recorded
+            .putBoolean(_settings.getPedanticRecord())
+            .putBoolean(_settings.getRedFlagRecord())
+            .putBoolean(_settings.getUnimplementedRecord())
+            .putString(_settings.getLogLevel(), UTF_8);
+    for (String s : _settings.ignoreFilesWithStrings()) {
+      hasher.putString(s, UTF_8);
+    }
+    return hasher.putString(_fileText, UTF_8).hash();
+  }
+
+  private ParseVendorConfigurationResult parseWithCache(ConfigurationCache cache) throws Exception {
+    long startTime = System.currentTimeMillis();
+    HashCode key = getCacheKey();
+    CachedParseResult cached = cache.load(key, CachedParseResult.class);
+    if (cached != null) {
+      _logger.infof("Loaded parse result for '%s' from cache\n", _filename);
+      // deserialized warnings do not record new warnings, so copy them into ours
+      _warnings.getParseWarnings().addAll(cached._warnings.getParseWarnings());
+      _warnings.getPedanticWarnings().addAll(cached._warnings.getPedanticWarnings());
+      _warnings.getRedFlagWarnings().addAll(cached._warnings.getRedFlagWarnings());
+      _warnings.getUnimplementedWarnings().addAll(cached._warnings.getUnimplementedWarnings());
+      VendorConfiguration vc = cached._vc;
+      vc.setFilename(_filename);
+      vc.setUnrecognized(cached._unrecognized);
+      ParseVendorConfigurationResult result =
+          new ParseVendorConfigurationResult(
+              System.currentTimeMillis() - startTime,
+              _logger.getHistory(),
+              _filename,
+              vc,
+              _warnings,
+              cached._parseTree);
+      result.setCacheHit(true);
+      return result;
+    }
+    ParseVendorConfigurationResult result = parse();
+    VendorConfiguration vc = result.getVendorConfiguration();
+    if (result.getFailureCause() == null && vc != null) {
+      cache.store(key, new CachedParseResult(vc, _warnings, _ptSentences));
+    }
+    result.setCacheHit(false);
+    return result;
+  }
+
+  @SuppressWarnings("fallthrough")
+  private ParseVendorConfigurationResult parse() throws Exception {
     long startTime = System.currentTimeMillis();
     long elapsedTime;
     VendorConfiguration vc = null;
@@ -4,6 +4,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
@@ -17,6 +18,9 @@ public class ParseVendorConfigurationResult
     extends BatfishJobResult<
         Map<String, VendorConfiguration>, ParseVendorConfigurationAnswerElement> {
 
+  /** Whether the result was loaded from a cache, or {@code null} if no cache was consulted */
+  @Nullable private Boolean _cacheHit;
+
   private final String _filename;
 
   private ParseTreeSentences _parseTree;
@@ -116,6 +120,13 @@ public class ParseVendorConfigurationResult
       if (!_parseTree.isEmpty()) {
         answerElement.getParseTrees().put(hostname, _parseTree);
       }
+      if (_cacheHit != null) {
+        if (_cacheHit) {
+          answerElement.setParseCacheHits(answerElement.getParseCacheHits() + 1);
+        } else {
+          answerElement.setParseCacheMisses(answerElement.getParseCacheMisses() + 1);
+        }
+      }
       if (_vc.getUnrecognized()) {
         answerElement.getParseStatus().put(_filename, ParseStatus.PARTIALLY_UNRECOGNIZED);
       } else {
@@ -133,6 +144,10 @@ public class ParseVendorConfigurationResult
     }
   }
 
+  void setCacheHit(boolean cacheHit) {
+    _cacheHit = cacheHit;
+  }
+
   public String getFilename() {
     return _filename;
   }
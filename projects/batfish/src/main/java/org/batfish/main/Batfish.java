@@ -1,7 +1,6 @@
 package org.batfish.main;
 
 import static java.util.stream.Collectors.toMap;
-import static org.batfish.common.util.CommonUtil.toImmutableSortedMap;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
 import static org.batfish.main.ReachabilityParametersResolver.resolveReachabilityParameters;
 
@@ -9,6 +8,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.base.Verify;
 import com.google.common.cache.Cache;
@@ -18,10 +18,11 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
 import io.opentracing.ActiveSpan;
 import io.opentracing.util.GlobalTracer;
-import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.DirectoryStream;
@@ -29,11 +30,11 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -41,7 +42,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
@@ -50,13 +50,13 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 import java.util.function.BiFunction;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -64,7 +64,6 @@ import net.sf.javabdd.BDD;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.apache.commons.configuration2.ImmutableConfiguration;
-import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.bddreachability.BDDReachabilityAnalysis;
 import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.Answerer;
@@ -94,6 +93,7 @@ import org.batfish.common.topology.Layer3Topology;
 import org.batfish.common.topology.TopologyUtil;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.SerializationCodec;
 import org.batfish.config.Settings;
 import org.batfish.config.Settings.EnvironmentSettings;
 import org.batfish.config.Settings.TestrigSettings;
@@ -117,7 +117,6 @@ import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IpAccessList;
-import org.batfish.datamodel.IpAccessListLine;
 import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.IpsecVpn;
 import org.batfish.datamodel.RipNeighbor;
@@ -125,10 +124,8 @@ import org.batfish.datamodel.RipProcess;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.UniverseIpSpace;
 import org.batfish.datamodel.Vrf;
-import org.batfish.datamodel.acl.AclLineMatchExpr;
-import org.batfish.datamodel.acl.PermittedByAcl;
-import org.batfish.datamodel.acl.TypeMatchExprsCollector;
 import org.batfish.datamodel.answers.AclReachabilityRows;
 import org.batfish.datamodel.answers.AclSpecs;
 import org.batfish.datamodel.answers.Answer;
@@ -142,8 +139,6 @@ import org.batfish.datamodel.answers.FlattenVendorConfigurationAnswerElement;
 import org.batfish.datamodel.answers.InitInfoAnswerElement;
 import org.batfish.datamodel.answers.InitStepAnswerElement;
 import org.batfish.datamodel.answers.NodAnswerElement;
-import org.batfish.datamodel.answers.NodFirstUnsatAnswerElement;
-import org.batfish.datamodel.answers.NodSatAnswerElement;
 import org.batfish.datamodel.answers.ParseAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentRoutingTablesAnswerElement;
@@ -173,6 +168,7 @@ import org.batfish.grammar.juniper.JuniperFlattener;
 import org.batfish.grammar.vyos.VyosCombinedParser;
 import org.batfish.grammar.vyos.VyosFlattener;
 import org.batfish.job.BatfishJobExecutor;
+import org.batfish.job.ConfigurationCache;
 import org.batfish.job.ConvertConfigurationJob;
 import org.batfish.job.FlattenVendorConfigurationJob;
 import org.batfish.job.ParseEnvironmentBgpTableJob;
@@ -200,40 +196,27 @@ import org.batfish.specifier.SpecifierContextImpl;
 import org.batfish.specifier.UnionLocationSpecifier;
 import org.batfish.symbolic.abstraction.BatfishCompressor;
 import org.batfish.symbolic.abstraction.Roles;
-import org.batfish.symbolic.bdd.AclLineMatchExprToBDD;
-import org.batfish.symbolic.bdd.BDDAcl;
+import org.batfish.symbolic.bdd.BDDAclLineReachability;
 import org.batfish.symbolic.bdd.BDDPacket;
+import org.batfish.symbolic.bdd.BDDPacketContext;
 import org.batfish.symbolic.bdd.BDDSourceManager;
-import org.batfish.symbolic.bdd.HeaderSpaceToBDD;
 import org.batfish.symbolic.smt.PropertyChecker;
 import org.batfish.vendor.VendorConfiguration;
-import org.batfish.z3.AclIdentifier;
-import org.batfish.z3.AclLine;
-import org.batfish.z3.AclLineIndependentSatisfiabilityQuerySynthesizer;
-import org.batfish.z3.AclReachabilityQuerySynthesizer;
-import org.batfish.z3.BDDIpAccessListSpecializer;
 import org.batfish.z3.BlacklistDstIpQuerySynthesizer;
 import org.batfish.z3.CompositeNodJob;
-import org.batfish.z3.EarliestMoreGeneralReachableLineQuerySynthesizer;
 import org.batfish.z3.IngressLocation;
 import org.batfish.z3.LocationToIngressLocation;
 import org.batfish.z3.MultipathInconsistencyQuerySynthesizer;
-import org.batfish.z3.NodFirstUnsatJob;
 import org.batfish.z3.NodJob;
-import org.batfish.z3.NodSatJob;
+import org.batfish.z3.NodSession;
 import org.batfish.z3.QuerySynthesizer;
 import org.batfish.z3.ReachEdgeQuerySynthesizer;
 import org.batfish.z3.ReachabilityQuerySynthesizer;
 import org.batfish.z3.StandardReachabilityQuerySynthesizer;
 import org.batfish.z3.Synthesizer;
 import org.batfish.z3.SynthesizerInputImpl;
-import org.batfish.z3.expr.BasicRuleStatement;
 import org.batfish.z3.expr.BooleanExpr;
 import org.batfish.z3.expr.OrExpr;
-import org.batfish.z3.expr.RuleStatement;
-import org.batfish.z3.expr.TrueExpr;
-import org.batfish.z3.state.AclLineMatch;
-import org.batfish.z3.state.NumberedQuery;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
@@ -482,12 +465,20 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return tree;
   }
 
+  /**
+   * Serializes loading, and if needed repairing, the configurations and data planes of each
+   * snapshot, since a worker service may run several tasks on the same snapshot at once.
+   */
+  private static final Striped<Lock> SNAPSHOT_LOCKS = Striped.lazyWeakLock(1024);
+
   private final Map<String, BiFunction<Question, IBatfish, Answerer>> _answererCreators;
 
   private TestrigSettings _baseTestrigSettings;
 
   private SortedMap<BgpTableFormat, BgpTablePlugin> _bgpTablePlugins;
 
+  private final Cache<NetworkSnapshot, BDDPacketContext> _cachedBddPacketContexts;
+
   private final Cache<NetworkSnapshot, SortedMap<String, Configuration>>
       _cachedCompressedConfigurations;
 
@@ -497,12 +488,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private final Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
 
-  private final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
+  private final Cache<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       _cachedEnvironmentBgpTables;
 
-  private final Map<NetworkSnapshot, SortedMap<String, RoutesByVrf>>
+  private final Cache<NetworkSnapshot, SortedMap<String, RoutesByVrf>>
       _cachedEnvironmentRoutingTables;
 
+  private final Cache<NetworkSnapshot, NodSession> _cachedNodSessions;
+
   private TestrigSettings _deltaTestrigSettings;
 
   private Set<ExternalBgpAdvertisementPlugin> _externalBgpAdvertisementPlugins;
@@ -529,17 +522,21 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Cache<NetworkSnapshot, SortedMap<String, Configuration>> cachedConfigurations,
       Cache<NetworkSnapshot, DataPlane> cachedCompressedDataPlanes,
       Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
-      Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
-      Map<NetworkSnapshot, SortedMap<String, RoutesByVrf>> cachedEnvironmentRoutingTables) {
+      Cache<NetworkSnapshot, BDDPacketContext> cachedBddPacketContexts,
+      Cache<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
+      Cache<NetworkSnapshot, SortedMap<String, RoutesByVrf>> cachedEnvironmentRoutingTables,
+      Cache<NetworkSnapshot, NodSession> cachedNodSessions) {
     super(settings.getSerializeToText());
     _settings = settings;
     _bgpTablePlugins = new TreeMap<>();
+    _cachedBddPacketContexts = cachedBddPacketContexts;
     _cachedCompressedConfigurations = cachedCompressedConfigurations;
     _cachedConfigurations = cachedConfigurations;
     _cachedCompressedDataPlanes = cachedCompressedDataPlanes;
     _cachedDataPlanes = cachedDataPlanes;
     _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
     _cachedEnvironmentRoutingTables = cachedEnvironmentRoutingTables;
+    _cachedNodSessions = cachedNodSessions;
     _externalBgpAdvertisementPlugins = new TreeSet<>();
     _testrigSettings = settings.getActiveTestrigSettings();
     _baseTestrigSettings = settings.getBaseTestrigSettings();
@@ -718,258 +715,34 @@ public class Batfish extends PluginConsumer implements IBatfish {
             .sum());
   }
 
-  /**
-   * Generates job to identify whether a given ACL line is unmatchable (i.e. it has unsatisfiable
-   * match condition).
-   *
-   * @param c Configuration containing ACL to check for unmatchable line
-   * @param aclName Name of ACL to check for unmatchable line
-   * @param lineToCheck Line number in the given ACL to check for matchability
-   * @return The {@link NodSatJob} to run to see if the given line is unmatchable
-   */
-  @VisibleForTesting
-  public NodSatJob<AclLine> generateUnmatchableAclLineJob(
-      Configuration c, String aclName, int lineToCheck) {
-    String hostname = c.getHostname();
-    Synthesizer aclSynthesizer = synthesizeAcls(hostname, c, aclName);
-    AclLineIndependentSatisfiabilityQuerySynthesizer query =
-        new AclLineIndependentSatisfiabilityQuerySynthesizer(hostname, aclName, lineToCheck);
-    return new NodSatJob<>(_settings, aclSynthesizer, query, true);
-  }
-
   @Override
   public void answerAclReachability(List<AclSpecs> aclSpecs, AclReachabilityRows answerRows) {
-
-    // Map aclSpecs into a map of hostname/aclName pairs to AclSpecs objects
-    Map<AclIdentifier, AclSpecs> aclSpecsMap =
-        toImmutableSortedMap(
-            aclSpecs,
-            aclSpec -> new AclIdentifier(aclSpec.reprHostname, aclSpec.acl.getAclName()),
-            Function.identity());
-
-    // Map each ACL line to its own phony config with ACL and dependencies specialized to that line
-    TypeMatchExprsCollector<PermittedByAcl> permittedByAclFinder =
-        new TypeMatchExprsCollector<>(PermittedByAcl.class);
-    Map<AclLine, Configuration> configs =
+    // Analyze each ACL in a single pass, with its own BDD factory so that ACLs run in parallel
+    List<BDDAclLineReachability> results =
         aclSpecs
             .parallelStream()
-            .map(aclSpec -> collectConfigs(aclSpec, permittedByAclFinder))
-            .flatMap(configsMap -> configsMap.entrySet().stream())
-            .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
-
-    // Find all unreachable lines
-    List<NodSatJob<AclLine>> lineReachabilityJobs = generateUnreachableAclLineJobs(configs);
-    Map<AclLine, Boolean> lineReachabilityMap = new TreeMap<>();
-    computeNodSatOutput(lineReachabilityJobs, lineReachabilityMap);
-
-    // Collect the unreachable lines into a set
-    Set<AclLine> unreachableLines =
-        lineReachabilityMap
-            .entrySet()
-            .stream()
-            .filter(e -> !e.getValue())
-            .map(Entry::getKey)
-            .collect(Collectors.toSet());
-
-    // For all unreachable lines, see if they are unmatchable
-    List<NodSatJob<AclLine>> lineMatchabilityJobs =
-        generateAllUnmatchableLineJobs(configs, unreachableLines);
-    Map<AclLine, Boolean> lineMatchabilityMap = new TreeMap<>();
-    computeNodSatOutput(lineMatchabilityJobs, lineMatchabilityMap);
-
-    // Collect the unmatchable lines into a set
-    Set<AclLine> unmatchableLines =
-        lineMatchabilityMap
-            .entrySet()
-            .stream()
-            .filter(e -> !e.getValue())
-            .map(Entry::getKey)
-            .collect(Collectors.toSet());
-
-    // For lines that are unreachable but not unmatchable, find earlier blocking lines
-    List<NodFirstUnsatJob<AclLine, Integer>> blockingLineJobs =
-        generateBlockingLineJobs(configs, unreachableLines, unmatchableLines);
-    Map<AclLine, Integer> blockingLinesMap = new TreeMap<>();
-    computeNodFirstUnsatOutput(blockingLineJobs, blockingLinesMap);
+            .map(aclSpec -> BDDAclLineReachability.analyze(aclSpec.acl))
+            .collect(Collectors.toList());
 
     // Report lines
-    for (AclLine line : unreachableLines) {
-      AclSpecs aclSpec = aclSpecsMap.get(line.toAclIdentifier());
-      int lineNum = line.getLine();
-      if (unmatchableLines.contains(line)) {
-        // Line is unmatchable
-        answerRows.addUnreachableLine(aclSpec, lineNum, true, new TreeSet<>());
-      } else {
-        // Line is matchable, but blocked
-        Integer blockingLineNum = blockingLinesMap.get(line);
-        SortedSet<Integer> blockingLineNums =
-            blockingLineNum == null
-                ? ImmutableSortedSet.of()
-                : ImmutableSortedSet.of(blockingLineNum);
-        answerRows.addUnreachableLine(aclSpec, lineNum, false, blockingLineNums);
-      }
-    }
-  }
-
-  private static Map<AclLine, Configuration> collectConfigs(
-      AclSpecs aclSpec, TypeMatchExprsCollector<PermittedByAcl> permittedByAclFinder) {
-    String hostname = aclSpec.reprHostname;
-    List<IpAccessListLine> lines = aclSpec.acl.getSanitizedAcl().getLines();
-    String aclName = aclSpec.acl.getAclName();
-    NavigableMap<String, Interface> interfaces =
-        toImmutableSortedMap(
-            aclSpec.acl.getInterfaces(),
-            Function.identity(),
-            iface -> Interface.builder().setName(iface).build());
-
-    return IntStream.range(0, lines.size())
-        .parallel()
-        .mapToObj(i -> new AclLine(hostname, aclName, i))
-        .collect(
-            Collectors.toMap(
-                Function.identity(),
-                aclLine -> {
-                  int lineNum = aclLine.getLine();
-                  AclLineMatchExpr matchExpr = lines.get(lineNum).getMatchCondition();
-
-                  // If line matches other ACLs, build aclEnv
-                  BDDPacket bddPacket = new BDDPacket();
-                  BDDSourceManager sourceMgr =
-                      BDDSourceManager.forInterfaces(bddPacket, aclSpec.acl.getInterfaces());
-                  List<PermittedByAcl> aclMatchExprs = matchExpr.accept(permittedByAclFinder);
-                  Map<String, Supplier<BDD>> aclEnv = new TreeMap<>();
-                  if (!aclMatchExprs.isEmpty()) {
-                    Map<String, IpAccessList> dependencies = aclSpec.acl.getDependencies();
-                    aclEnv =
-                        dependencies
-                            .entrySet()
-                            .stream()
-                            .collect(
-                                Collectors.toMap(
-                                    dep -> dep.getKey(),
-                                    dep ->
-                                        () ->
-                                            BDDAcl.create(
-                                                    bddPacket,
-                                                    dep.getValue(),
-                                                    dependencies,
-                                                    ImmutableMap.of(),
-                                                    sourceMgr)
-                                                .getBdd()));
-                  }
-
-                  // Specialize ACL and dependencies to current line
-                  BDD lineBDD =
-                      matchExpr.accept(
-                          new AclLineMatchExprToBDD(
-                              bddPacket.getFactory(),
-                              bddPacket,
-                              aclEnv,
-                              ImmutableMap.of(),
-                              sourceMgr));
-                  BDDIpAccessListSpecializer specializer =
-                      new BDDIpAccessListSpecializer(
-                          bddPacket, lineBDD, ImmutableMap.of(), sourceMgr);
-
-                  // Build new configuration from ACLs and interfaces
-                  Configuration c = new Configuration(hostname, ConfigurationFormat.CISCO_IOS);
-                  c.setInterfaces(interfaces);
-                  c.setIpAccessLists(collectAcls(lineNum, aclSpec, specializer));
-                  return c;
-                }));
-  }
-
-  private static NavigableMap<String, IpAccessList> collectAcls(
-      int lineNum, AclSpecs aclSpec, @Nullable BDDIpAccessListSpecializer specializer) {
-    Map<String, IpAccessList> dependencies = aclSpec.acl.getDependencies();
-    IpAccessList acl = aclSpec.acl.getSanitizedAcl();
-    if (specializer != null) {
-      dependencies =
-          dependencies
-              .entrySet()
-              .stream()
-              .collect(
-                  Collectors.toMap(Entry::getKey, dep -> specializer.specialize(dep.getValue())));
-      acl = specializer.specializeUpToLine(acl, lineNum);
-    }
-    return new ImmutableSortedMap.Builder<String, IpAccessList>(Comparator.naturalOrder())
-        .putAll(dependencies)
-        .put(acl.getName(), acl)
-        .build();
-  }
-
-  private List<NodSatJob<AclLine>> generateAllUnmatchableLineJobs(
-      Map<AclLine, Configuration> configs, Set<AclLine> unreachableLines) {
-    List<NodSatJob<AclLine>> lineMatchabilityJobs = new ArrayList<>();
-
-    // For each unreachable line, create a job to check if it is unmatchable
-    for (AclLine line : unreachableLines) {
-      String aclName = line.getAclName();
-      Configuration c = configs.get(line);
-      lineMatchabilityJobs.add(generateUnmatchableAclLineJob(c, aclName, line.getLine()));
-    }
-    return lineMatchabilityJobs;
-  }
-
-  private List<NodSatJob<AclLine>> generateUnreachableAclLineJobs(
-      Map<AclLine, Configuration> configs) {
-    List<NodSatJob<AclLine>> lineReachabilityJobs = new ArrayList<>();
-    for (Entry<AclLine, Configuration> lineEntry : configs.entrySet()) {
-      AclLine line = lineEntry.getKey();
-      String aclName = line.getAclName();
-      String hostname = line.getHostname();
-      int lineNum = line.getLine();
-
-      Configuration c = lineEntry.getValue();
-      Synthesizer aclSynthesizer = synthesizeAcls(hostname, c, aclName);
-
-      // Create job for each line to see if it's unreachable
-      List<RuleStatement> rules =
-          IntStream.range(0, lineNum + 1)
-              .mapToObj(
-                  i ->
-                      new BasicRuleStatement(
-                          TrueExpr.INSTANCE,
-                          ImmutableSet.of(new AclLineMatch(hostname, aclName, i)),
-                          new NumberedQuery(i)))
-              .collect(Collectors.toList());
-      AclReachabilityQuerySynthesizer query =
-          new AclReachabilityQuerySynthesizer(rules, hostname, aclName, lineNum);
-      lineReachabilityJobs.add(new NodSatJob<>(_settings, aclSynthesizer, query, true));
-    }
-    return lineReachabilityJobs;
-  }
-
-  private List<NodFirstUnsatJob<AclLine, Integer>> generateBlockingLineJobs(
-      Map<AclLine, Configuration> configs,
-      Set<AclLine> unreachableAclLines,
-      Set<AclLine> unmatchableLineNums) {
-
-    // Create jobs to find blocking lines for all unreachable lines that aren't unmatchable
-    List<NodFirstUnsatJob<AclLine, Integer>> jobs = new ArrayList<>();
-    for (AclLine line : unreachableAclLines) {
-      if (!unmatchableLineNums.contains(line)) {
-        Configuration c = configs.get(line);
-        String hostname = c.getHostname();
-        String aclName = line.getAclName();
-        Synthesizer aclSynthesizer = synthesizeAcls(hostname, c, aclName);
-        List<String> interfaces = ImmutableList.copyOf(c.getInterfaces().keySet());
-        NavigableMap<String, IpSpace> ipSpaces = ImmutableSortedMap.copyOf(c.getIpSpaces());
-        NavigableMap<String, IpAccessList> acls = ImmutableSortedMap.copyOf(c.getIpAccessLists());
-        IpAccessList acl = c.getIpAccessLists().get(aclName);
-
-        List<AclLine> toCheck =
-            IntStream.range(0, line.getLine())
-                .mapToObj(i -> new AclLine(hostname, aclName, i))
-                .filter(l -> !unreachableAclLines.contains(l))
-                .collect(Collectors.toList());
-        EarliestMoreGeneralReachableLineQuerySynthesizer query =
-            new EarliestMoreGeneralReachableLineQuerySynthesizer(
-                line, toCheck, acl, ipSpaces, acls, interfaces);
-        jobs.add(new NodFirstUnsatJob<>(_settings, aclSynthesizer, query, true));
+    for (int i = 0; i < aclSpecs.size(); i++) {
+      AclSpecs aclSpec = aclSpecs.get(i);
+      BDDAclLineReachability result = results.get(i);
+      for (int lineNum : result.getUnreachableLines()) {
+        if (result.getUnmatchableLines().contains(lineNum)) {
+          // Line is unmatchable
+          answerRows.addUnreachableLine(aclSpec, lineNum, true, new TreeSet<>());
+        } else {
+          // Line is matchable, but blocked
+          Integer blockingLineNum = result.getBlockingLines().get(lineNum);
+          SortedSet<Integer> blockingLineNums =
+              blockingLineNum == null
+                  ? ImmutableSortedSet.of()
+                  : ImmutableSortedSet.of(blockingLineNum);
+          answerRows.addUnreachableLine(aclSpec, lineNum, false, blockingLineNums);
+        }
       }
     }
-    return jobs;
   }
 
   public static Warnings buildWarnings(Settings settings) {
@@ -1075,12 +848,15 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return flows;
   }
 
-  private CompressDataPlaneResult computeCompressedDataPlane() {
+  /**
+   * Computes, caches and saves the compressed data plane, returning the compressed configurations.
+   */
+  private SortedMap<String, Configuration> computeCompressedDataPlane() {
     CompressDataPlaneResult result = computeCompressedDataPlane(new HeaderSpace());
-    _cachedCompressedConfigurations.put(
-        getNetworkSnapshot(), new TreeMap<>(result._compressedConfigs));
+    SortedMap<String, Configuration> compressedConfigs = new TreeMap<>(result._compressedConfigs);
+    _cachedCompressedConfigurations.put(getNetworkSnapshot(), compressedConfigs);
     saveDataPlane(result._compressedDataPlane, result._answerElement, true);
-    return result;
+    return compressedConfigs;
   }
 
   public class CompressDataPlaneResult {
@@ -1106,7 +882,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
         loadConfigurations()
             .entrySet()
             .parallelStream()
-            .collect(toMap(Entry::getKey, entry -> SerializationUtils.clone(entry.getValue())));
+            .collect(
+                toMap(Entry::getKey, entry -> SerializationCodec.DEFAULT.copy(entry.getValue())));
 
     Map<String, Configuration> configs =
         new BatfishCompressor(new BDDPacket(), this, clonedConfigs).compress(headerSpace);
@@ -1144,6 +921,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         compressed ? _cachedCompressedDataPlanes : _cachedDataPlanes;
 
     cache.put(getNetworkSnapshot(), dataPlane);
+    _cachedNodSessions.invalidate(getNetworkSnapshot());
 
     _logger.resetTimer();
     newBatch("Writing data plane to disk", 0);
@@ -1178,21 +956,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return topology;
   }
 
-  public <KeyT, ResultT> void computeNodFirstUnsatOutput(
-      List<NodFirstUnsatJob<KeyT, ResultT>> jobs, Map<KeyT, ResultT> output) {
-    _logger.info("\n*** EXECUTING NOD UNSAT JOBS ***\n");
-    _logger.resetTimer();
-    BatfishJobExecutor.runJobsInExecutor(
-        _settings,
-        _logger,
-        jobs,
-        output,
-        new NodFirstUnsatAnswerElement(),
-        true,
-        "NOD First-UNSAT");
-    _logger.printElapsedTime();
-  }
-
   public Set<Flow> computeNodOutput(List<NodJob> jobs) {
     _logger.info("\n*** EXECUTING NOD JOBS ***\n");
     _logger.resetTimer();
@@ -1203,14 +966,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return flows;
   }
 
-  public <KeyT> void computeNodSatOutput(List<NodSatJob<KeyT>> jobs, Map<KeyT, Boolean> output) {
-    _logger.info("\n*** EXECUTING NOD SAT JOBS ***\n");
-    _logger.resetTimer();
-    BatfishJobExecutor.runJobsInExecutor(
-        _settings, _logger, jobs, output, new NodSatAnswerElement(), true, "NOD SAT");
-    _logger.printElapsedTime();
-  }
-
   @VisibleForTesting
   Topology computeTestrigTopology(Map<String, Configuration> configurations) {
     Topology legacyTopology = _storage.loadLegacyTopology(_testrigSettings.getName());
@@ -1244,10 +999,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _logger.info("\n*** CONVERTING VENDOR CONFIGURATIONS TO INDEPENDENT FORMAT ***\n");
     _logger.resetTimer();
     Map<String, Configuration> configurations = new TreeMap<>();
+    ConfigurationCache cache = getConfigurationCache();
     List<ConvertConfigurationJob> jobs = new ArrayList<>();
     for (Entry<String, GenericConfigObject> config : vendorConfigurations.entrySet()) {
       GenericConfigObject vc = config.getValue();
-      ConvertConfigurationJob job = new ConvertConfigurationJob(_settings, vc, config.getKey());
+      ConvertConfigurationJob job =
+          new ConvertConfigurationJob(_settings, vc, config.getKey(), cache);
       jobs.add(job);
     }
     BatfishJobExecutor.runJobsInExecutor(
@@ -1258,10 +1015,33 @@ public class Batfish extends PluginConsumer implements IBatfish {
         answerElement,
         _settings.getHaltOnConvertError(),
         "Convert configurations to vendor-independent format");
+    if (cache != null) {
+      cache.evict();
+    }
     _logger.printElapsedTime();
     return configurations;
   }
 
+  /**
+   * Returns the cache of parse and conversion results shared by the testrigs of the current
+   * container, or {@code null} if caching is disabled or there is no container.
+   */
+  @Nullable
+  private ConfigurationCache getConfigurationCache() {
+    if (!_settings.getParseCache()
+        || _settings.getStorageBase() == null
+        || _settings.getContainer() == null) {
+      return null;
+    }
+    return new ConfigurationCache(
+        _settings
+            .getStorageBase()
+            .resolve(_settings.getContainer())
+            .resolve(BfConsts.RELPATH_PARSE_CACHE_DIR),
+        _settings.getParseCacheMaxSizeMb() * 1024L * 1024L,
+        _logger);
+  }
+
   private boolean dataPlaneDependenciesExist(TestrigSettings testrigSettings) {
     Path dpPath = testrigSettings.getEnvironmentSettings().getDataPlaneAnswerPath();
     return Files.exists(dpPath);
@@ -2388,19 +2168,26 @@ public class Batfish extends PluginConsumer implements IBatfish {
     if (configurations != null) {
       return configurations;
     }
-    _logger.debugf("Loading configurations for %s, cache miss", snapshot);
-
-    // Next, see if we have an up-to-date, environment-specific configurations on disk.
-    configurations = _storage.loadCompressedConfigurations(snapshot.getSnapshot().getTestrig());
-    if (configurations != null) {
-      return configurations;
-    } else {
-      computeCompressedDataPlane();
+    Lock lock = SNAPSHOT_LOCKS.get(snapshot);
+    lock.lock();
+    try {
+      // Another task may have loaded them while we waited.
       configurations = _cachedCompressedConfigurations.getIfPresent(snapshot);
-      if (configurations == null) {
-        throw new BatfishException("Could not compute compressed configs");
+      if (configurations != null) {
+        return configurations;
       }
-      return configurations;
+      _logger.debugf("Loading configurations for %s, cache miss", snapshot);
+
+      // Next, see if we have an up-to-date, environment-specific configurations on disk.
+      configurations = _storage.loadCompressedConfigurations(snapshot.getSnapshot().getTestrig());
+      if (configurations != null) {
+        return configurations;
+      } else {
+        // not read back from the cache, which another task may already have evicted them from
+        return computeCompressedDataPlane();
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -2414,20 +2201,32 @@ public class Batfish extends PluginConsumer implements IBatfish {
     if (configurations != null) {
       return configurations;
     }
-    _logger.debugf("Loading configurations for %s, cache miss", snapshot);
+    Lock lock = SNAPSHOT_LOCKS.get(snapshot);
+    lock.lock();
+    try {
+      // Another task may have loaded them while we waited.
+      configurations = _cachedConfigurations.getIfPresent(snapshot);
+      if (configurations != null) {
+        return configurations;
+      }
+      _logger.debugf("Loading configurations for %s, cache miss", snapshot);
+
+      // Next, see if we have an up-to-date, environment-specific configurations on disk.
+      LazyConfigurations storedConfigurations =
+          _storage.loadLazyConfigurations(snapshot.getSnapshot().getTestrig());
+      if (storedConfigurations != null) {
+        _logger.debugf("Loaded configurations for %s off disk", snapshot);
+        configurations = applyEnvironmentLazily(storedConfigurations);
+      } else {
+        // Otherwise, we have to parse the configurations. Fall back to old, hacky code.
+        configurations = parseConfigurationsAndApplyEnvironment();
+      }
 
-    // Next, see if we have an up-to-date, environment-specific configurations on disk.
-    configurations = _storage.loadConfigurations(snapshot.getSnapshot().getTestrig());
-    if (configurations != null) {
-      _logger.debugf("Loaded configurations for %s off disk", snapshot);
-      applyEnvironment(configurations);
-    } else {
-      // Otherwise, we have to parse the configurations. Fall back to old, hacky code.
-      configurations = parseConfigurationsAndApplyEnvironment();
+      _cachedConfigurations.put(snapshot, configurations);
+      return configurations;
+    } finally {
+      lock.unlock();
     }
-
-    _cachedConfigurations.put(snapshot, configurations);
-    return configurations;
   }
 
   @Nonnull
@@ -2481,21 +2280,28 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     NetworkSnapshot snapshot = getNetworkSnapshot();
     DataPlane dp = cache.getIfPresent(snapshot);
-    if (dp == null) {
+    if (dp != null) {
+      return dp;
+    }
+    Lock lock = SNAPSHOT_LOCKS.get(snapshot);
+    lock.lock();
+    try {
       /*
        * Data plane should exist after loading answer element, as it triggers
        * repair if necessary. However, it might not be cached if it was not
        * repaired, so we still might need to load it from disk.
        */
       loadDataPlaneAnswerElement(compressed);
-      dp = cache.getIfPresent(_testrigSettings);
+      dp = cache.getIfPresent(snapshot);
       if (dp == null) {
         newBatch("Loading data plane from disk", 0);
         dp = deserializeObject(path, DataPlane.class);
         cache.put(snapshot, dp);
       }
+      return dp;
+    } finally {
+      lock.unlock();
     }
-    return dp;
   }
 
   private DataPlaneAnswerElement loadDataPlaneAnswerElement(boolean compressed) {
@@ -2527,7 +2333,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables() {
     NetworkSnapshot snapshot = getNetworkSnapshot();
     SortedMap<String, BgpAdvertisementsByVrf> environmentBgpTables =
-        _cachedEnvironmentBgpTables.get(snapshot);
+        _cachedEnvironmentBgpTables.getIfPresent(snapshot);
     if (environmentBgpTables == null) {
       ParseEnvironmentBgpTablesAnswerElement ae = loadParseEnvironmentBgpTablesAnswerElement();
       if (!Version.isCompatibleVersion(
@@ -2546,7 +2352,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
   public SortedMap<String, RoutesByVrf> loadEnvironmentRoutingTables() {
     NetworkSnapshot snapshot = getNetworkSnapshot();
     SortedMap<String, RoutesByVrf> environmentRoutingTables =
-        _cachedEnvironmentRoutingTables.get(snapshot);
+        _cachedEnvironmentRoutingTables.getIfPresent(snapshot);
     if (environmentRoutingTables == null) {
       ParseEnvironmentRoutingTablesAnswerElement pertae =
           loadParseEnvironmentRoutingTablesAnswerElement();
@@ -2740,19 +2546,17 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private void outputAnswer(Answer answer, boolean writeLog) {
     try {
-      String answerString = BatfishObjectMapper.writePrettyString(answer) + '\n';
-      _logger.debug(answerString);
-      @Nullable String logString = writeLog ? answerString : null;
-      writeJsonAnswerWithLog(logString, answerString);
+      if (_logger.isActive(BatfishLogger.LEVEL_DEBUG)) {
+        _logger.debug(BatfishObjectMapper.writePrettyString(answer) + '\n');
+      }
+      writeJsonAnswerWithLog(answer, writeLog);
     } catch (Exception e) {
       BatfishException be = new BatfishException("Error in sending answer", e);
       try {
         Answer failureAnswer = Answer.failureAnswer(e.toString(), answer.getQuestion());
         failureAnswer.addAnswerElement(be.getBatfishStackTrace());
-        String answerString = BatfishObjectMapper.writePrettyString(failureAnswer) + '\n';
-        _logger.error(answerString);
-        @Nullable String logString = writeLog ? answerString : null;
-        writeJsonAnswerWithLog(logString, answerString);
+        _logger.error(BatfishObjectMapper.writePrettyString(failureAnswer) + '\n');
+        writeJsonAnswerWithLog(failureAnswer, writeLog);
       } catch (Exception e1) {
         _logger.errorf(
             "Could not serialize failure answer. %s", Throwables.getStackTraceAsString(e1));
@@ -3348,17 +3152,19 @@ public class Batfish extends PluginConsumer implements IBatfish {
     nodeIface.setBlacklisted(true);
   }
 
-  private void processInterfaceBlacklist(
-      Map<String, Configuration> configurations, ValidateEnvironmentAnswerElement veae) {
-    Set<NodeInterfacePair> blacklistInterfaces = getInterfaceBlacklist();
+  private static void processInterfaceBlacklist(
+      Map<String, Configuration> configurations,
+      Set<NodeInterfacePair> blacklistInterfaces,
+      ValidateEnvironmentAnswerElement veae) {
     for (NodeInterfacePair p : blacklistInterfaces) {
       blacklistInterface(configurations, veae, p);
     }
   }
 
-  private void processNodeBlacklist(
-      Map<String, Configuration> configurations, ValidateEnvironmentAnswerElement veae) {
-    SortedSet<String> blacklistNodes = getNodeBlacklist();
+  private static void processNodeBlacklist(
+      Map<String, Configuration> configurations,
+      Set<String> blacklistNodes,
+      ValidateEnvironmentAnswerElement veae) {
     for (String hostname : blacklistNodes) {
       Configuration node = configurations.get(hostname);
       if (node != null) {
@@ -3703,9 +3509,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
    * </ul>
    */
   private void updateBlacklistedAndInactiveConfigs(
-      Map<String, Configuration> configurations, ValidateEnvironmentAnswerElement veae) {
-    processNodeBlacklist(configurations, veae);
-    processInterfaceBlacklist(configurations, veae);
+      Map<String, Configuration> configurations,
+      Set<String> blacklistNodes,
+      Set<NodeInterfacePair> blacklistInterfaces,
+      ValidateEnvironmentAnswerElement veae) {
+    processNodeBlacklist(configurations, blacklistNodes, veae);
+    processInterfaceBlacklist(configurations, blacklistInterfaces, veae);
     // We do not process the edge blacklist here. Instead, we rely on these edges being explicitly
     // deleted from the Topology (aka list of edges) that is used along with configurations in
     // answering questions.
@@ -3727,13 +3536,76 @@ public class Batfish extends PluginConsumer implements IBatfish {
    */
   private void applyEnvironment(Map<String, Configuration> configurationsWithoutEnvironment) {
     ValidateEnvironmentAnswerElement veae = new ValidateEnvironmentAnswerElement();
-    updateBlacklistedAndInactiveConfigs(configurationsWithoutEnvironment, veae);
+    updateBlacklistedAndInactiveConfigs(
+        configurationsWithoutEnvironment, getNodeBlacklist(), getInterfaceBlacklist(), veae);
     postProcessForEnvironment(configurationsWithoutEnvironment);
 
     serializeObject(
         veae, _testrigSettings.getEnvironmentSettings().getValidateEnvironmentAnswerPath());
   }
 
+  /**
+   * Like {@link #applyEnvironment(Map)}, but returns a view of {@code storedConfigurations} that
+   * loads each configuration and applies the environment to it only when it is first requested.
+   *
+   * <p>Apart from resolving IPsec VPN peers, the environment is applied to each configuration
+   * independently. Configurations that may take part in resolving peers are loaded together the
+   * first time any one of them is requested (see {@link LazyConfigurations#getIpsecNodes()}).
+   */
+  private SortedMap<String, Configuration> applyEnvironmentLazily(
+      LazyConfigurations storedConfigurations) {
+    SortedSet<String> blacklistNodes = getNodeBlacklist();
+    SortedSet<NodeInterfacePair> blacklistInterfaces = getInterfaceBlacklist();
+    Supplier<Map<String, Configuration>> ipsecNodes =
+        Suppliers.memoize(
+            () -> {
+              Map<String, Configuration> configurations =
+                  new TreeMap<>(
+                      Maps.asMap(storedConfigurations.getIpsecNodes(), storedConfigurations::load));
+              updateBlacklistedAndInactiveConfigs(
+                  configurations,
+                  blacklistNodes,
+                  blacklistInterfaces,
+                  new ValidateEnvironmentAnswerElement());
+              postProcessForEnvironment(configurations);
+              return configurations;
+            });
+    ImmutableSortedMap.Builder<String, Supplier<Configuration>> loaders =
+        ImmutableSortedMap.naturalOrder();
+    for (String hostname : storedConfigurations.getHostnames()) {
+      if (storedConfigurations.getIpsecNodes().contains(hostname)) {
+        loaders.put(hostname, () -> ipsecNodes.get().get(hostname));
+        continue;
+      }
+      loaders.put(
+          hostname,
+          Suppliers.memoize(
+              () -> {
+                Map<String, Configuration> configuration =
+                    ImmutableMap.of(hostname, storedConfigurations.load(hostname));
+                // blacklist entries for other nodes are reported below, not here
+                updateBlacklistedAndInactiveConfigs(
+                    configuration,
+                    blacklistNodes,
+                    blacklistInterfaces,
+                    new ValidateEnvironmentAnswerElement());
+                postProcessForEnvironment(configuration);
+                return configuration.get(hostname);
+              }));
+    }
+    SortedMap<String, Configuration> configurations =
+        Maps.transformValues(loaders.build(), Supplier::get);
+
+    // Only blacklisted nodes need to be loaded to validate the environment. Reapplying the
+    // blacklists to them has no further effect.
+    ValidateEnvironmentAnswerElement veae = new ValidateEnvironmentAnswerElement();
+    processNodeBlacklist(configurations, blacklistNodes, veae);
+    processInterfaceBlacklist(configurations, blacklistInterfaces, veae);
+    serializeObject(
+        veae, _testrigSettings.getEnvironmentSettings().getValidateEnvironmentAnswerPath());
+    return configurations;
+  }
+
   private void repairEnvironmentBgpTables() {
     EnvironmentSettings envSettings = _testrigSettings.getEnvironmentSettings();
     Path answerPath = envSettings.getParseEnvironmentBgpTablesAnswerPath();
@@ -4109,60 +3981,85 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return answer;
   }
 
+  /**
+   * Parses the network configuration files, serializing each resulting vendor configuration on the
+   * worker thread that parsed it. File contents are read by the parse jobs themselves, and the
+   * number of jobs in flight is bounded, so memory use is proportional to the number of worker
+   * threads rather than to the size of the testrig.
+   */
   private void serializeNetworkConfigs(
       Path testRigPath,
       Path outputPath,
       ParseVendorConfigurationAnswerElement answerElement,
       SortedMap<String, VendorConfiguration> overlayHostConfigurations) {
-    Map<Path, String> configurationData =
-        readConfigurationFiles(testRigPath, BfConsts.RELPATH_CONFIGURATIONS_DIR);
-    Map<String, VendorConfiguration> vendorConfigurations;
+    _logger.info("\n*** PARSING AND SERIALIZING VENDOR CONFIGURATION FILES ***\n");
+    _logger.resetTimer();
+    CommonUtil.createDirectories(outputPath);
+    ConfigurationCache cache = getConfigurationCache();
+    SerializedVendorConfigurations vendorConfigurations =
+        new SerializedVendorConfigurations(
+            outputPath,
+            overlayHostConfigurations,
+            this::serializeObject,
+            path -> deserializeObject(path, VendorConfiguration.class));
+    List<ParseVendorConfigurationJob> jobs = new ArrayList<>();
+    for (Path file : listAllFiles(testRigPath.resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR))) {
+      String filename =
+          _settings.getActiveTestrigSettings().getTestRigPath().relativize(file).toString();
+      jobs.add(
+          new ParseVendorConfigurationJob(
+              _settings,
+              file,
+              filename,
+              buildWarnings(_settings),
+              ConfigurationFormat.UNKNOWN,
+              cache,
+              vendorConfigurations::stage));
+    }
     try (ActiveSpan parseNetworkConfigsSpan =
         GlobalTracer.get().buildSpan("Parse network configs").startActive()) {
       assert parseNetworkConfigsSpan != null; // avoid unused warning
-      vendorConfigurations =
-          parseVendorConfigurations(configurationData, answerElement, ConfigurationFormat.UNKNOWN);
-    }
-    if (vendorConfigurations == null) {
-      throw new BatfishException("Exiting due to parser errors");
+      BatfishJobExecutor.runJobsInExecutor(
+          _settings,
+          _logger,
+          jobs,
+          vendorConfigurations,
+          answerElement,
+          _settings.getHaltOnParseError(),
+          "Parse and serialize configurations",
+          // keep every thread busy while the previous result is moved into place
+          2 * _settings.getAvailableThreads());
+    } finally {
+      vendorConfigurations.close();
+    }
+    if (cache != null) {
+      cache.evict();
     }
     _logger.infof(
         "Testrig:%s in container:%s has total number of network configs:%d",
         getTestrigName(), getContainerName(), vendorConfigurations.size());
-    _logger.info("\n*** SERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-    _logger.resetTimer();
-    CommonUtil.createDirectories(outputPath);
-    Map<Path, VendorConfiguration> output = new TreeMap<>();
-    vendorConfigurations.forEach(
-        (name, vc) -> {
-          if (name.contains(File.separator)) {
-            // iptables will get a hostname like configs/iptables-save if they
-            // are not set up correctly using host files
-            _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
-            answerElement.addRedFlagWarning(
-                name,
-                new Warning(
-                    "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
-                    "MISCELLANEOUS"));
-          } else {
-            // apply overlay if it exists
-            VendorConfiguration overlayConfig = overlayHostConfigurations.get(name);
-            if (overlayConfig != null) {
-              vc.setOverlayConfiguration(overlayConfig);
-              overlayHostConfigurations.remove(name);
-            }
 
-            Path currentOutputPath = outputPath.resolve(name);
-            output.put(currentOutputPath, vc);
-          }
-        });
+    // iptables will get a hostname like configs/iptables-save if they are not set up correctly
+    // using host files
+    vendorConfigurations
+        .getUnserializable()
+        .keySet()
+        .forEach(
+            name -> {
+              _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
+              answerElement.addRedFlagWarning(
+                  name,
+                  new Warning(
+                      "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
+                      "MISCELLANEOUS"));
+            });
 
     // warn about unused overlays
-    overlayHostConfigurations.forEach(
-        (name, overlay) ->
-            answerElement.getParseStatus().put(overlay.getFilename(), ParseStatus.ORPHANED));
-
-    serializeObjects(output);
+    vendorConfigurations
+        .getOrphanedOverlays()
+        .forEach(
+            (name, overlay) ->
+                answerElement.getParseStatus().put(overlay.getFilename(), ParseStatus.ORPHANED));
     _logger.printElapsedTime();
   }
 
@@ -4268,7 +4165,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
             forbiddenTransitNodes,
             requiredTransitNodes,
             parameters.getSourceIpAssignment(),
-            reachabilityParameters.getSpecialize());
+            reachabilityParameters.getSpecialize(),
+            parameters.getUseCompression());
 
     Map<IngressLocation, BooleanExpr> srcIpConstraints =
         dataPlaneSynthesizer.getInput().getSrcIpConstraints();
@@ -4333,11 +4231,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Configuration deltaConfig,
       IpAccessList deltaAcl,
       ReachFilterParameters reachFilterParameters) {
-    BDDPacket bddPacket = new BDDPacket();
-
     HeaderSpace headerSpace = reachFilterParameters.resolveHeaderspace(specifierContext());
-    BDD headerSpaceBDD =
-        new HeaderSpaceToBDD(bddPacket, baseConfig.getIpSpaces()).toBDD(headerSpace);
 
     // resolve specified source interfaces that exist in both configs.
     Set<String> commonSourceInterfaces =
@@ -4356,30 +4250,25 @@ public class Batfish extends PluginConsumer implements IBatfish {
             referencedSources(baseConfig.getIpAccessLists(), baseAcl),
             referencedSources(deltaConfig.getIpAccessLists(), deltaAcl));
 
-    BDDSourceManager mgr =
-        BDDSourceManager.forSources(bddPacket, activeInterfaces, referencedSources);
-    BDD baseAclBDD =
-        BDDAcl.create(
-                bddPacket, baseAcl, baseConfig.getIpAccessLists(), baseConfig.getIpSpaces(), mgr)
-            .getBdd()
-            .and(headerSpaceBDD)
-            .and(mgr.isSane());
-    BDD deltaAclBDD =
-        BDDAcl.create(
-                bddPacket, deltaAcl, deltaConfig.getIpAccessLists(), deltaConfig.getIpSpaces(), mgr)
-            .getBdd()
-            .and(headerSpaceBDD)
-            .and(mgr.isSane());
+    try (BDDPacketContext context = acquireBddPacketContext()) {
+      BDDPacket bddPacket = context.getBDDPacket();
+      BDDSourceManager mgr = context.getSourceManager(activeInterfaces, referencedSources);
+      BDD headerSpaceBDD = context.getHeaderSpaceBdd(baseConfig, headerSpace);
+      BDD baseAclBDD =
+          context.getAclBdd(baseConfig, baseAcl, mgr).and(headerSpaceBDD).and(mgr.isSane());
+      BDD deltaAclBDD =
+          context.getAclBdd(deltaConfig, deltaAcl, mgr).and(headerSpaceBDD).and(mgr.isSane());
 
-    String hostname = baseConfig.getHostname();
+      String hostname = baseConfig.getHostname();
 
-    BDD increasedBDD = baseAclBDD.not().and(deltaAclBDD);
-    Flow increasedFlow = getFlow(bddPacket, mgr, hostname, increasedBDD).orElse(null);
+      BDD increasedBDD = baseAclBDD.not().and(deltaAclBDD);
+      Flow increasedFlow = getFlow(bddPacket, mgr, hostname, increasedBDD).orElse(null);
 
-    BDD decreasedBDD = baseAclBDD.and(deltaAclBDD.not());
-    Flow decreasedFlow = getFlow(bddPacket, mgr, hostname, decreasedBDD).orElse(null);
+      BDD decreasedBDD = baseAclBDD.and(deltaAclBDD.not());
+      Flow decreasedFlow = getFlow(bddPacket, mgr, hostname, decreasedBDD).orElse(null);
 
-    return new DifferentialReachFilterResult(increasedFlow, decreasedFlow);
+      return new DifferentialReachFilterResult(increasedFlow, decreasedFlow);
+    }
   }
 
   private Set<String> resolveDeltaSourceInterfaces(ReachFilterParameters parameters, String node) {
@@ -4422,26 +4311,42 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Override
   public Optional<Flow> reachFilter(
       Configuration node, IpAccessList acl, ReachFilterParameters parameters) {
-    BDDPacket bddPacket = new BDDPacket();
-
     Set<String> activeInterfaces =
         Sets.intersection(
             node.activeInterfaces(), resolveSourceInterfaces(parameters, node.getHostname()));
 
     Set<String> referencedSources = referencedSources(node.getIpAccessLists(), acl);
+    HeaderSpace headerSpace = parameters.resolveHeaderspace(specifierContext());
 
-    BDDSourceManager mgr =
-        BDDSourceManager.forSources(bddPacket, activeInterfaces, referencedSources);
+    try (BDDPacketContext context = acquireBddPacketContext()) {
+      BDDSourceManager mgr = context.getSourceManager(activeInterfaces, referencedSources);
+      BDD bdd =
+          context
+              .getAclBdd(node, acl, mgr)
+              .and(context.getHeaderSpaceBdd(node, headerSpace))
+              .and(mgr.isSane());
+      return getFlow(context.getBDDPacket(), mgr, node.getHostname(), bdd);
+    }
+  }
 
-    BDD headerSpaceBDD =
-        new HeaderSpaceToBDD(bddPacket, node.getIpSpaces())
-            .toBDD(parameters.resolveHeaderspace(specifierContext()));
-    BDD bdd =
-        BDDAcl.create(bddPacket, acl, node.getIpAccessLists(), node.getIpSpaces(), mgr)
-            .getBdd()
-            .and(headerSpaceBDD)
-            .and(mgr.isSane());
-    return getFlow(bddPacket, mgr, node.getHostname(), bdd);
+  /**
+   * Returns the {@link BDDPacketContext} of the current snapshot, acquired by the current thread.
+   * Callers must close it when done with it.
+   */
+  private BDDPacketContext acquireBddPacketContext() {
+    NetworkSnapshot snapshot = getNetworkSnapshot();
+    while (true) {
+      BDDPacketContext context;
+      try {
+        context = _cachedBddPacketContexts.get(snapshot, BDDPacketContext::new);
+      } catch (ExecutionException e) {
+        throw new BatfishException("Could not create BDD packet context for " + snapshot, e);
+      }
+      if (context.acquire()) {
+        return context;
+      }
+      // evicted and freed after we got it, so the next attempt creates a new one
+    }
   }
 
   @Override
@@ -4524,32 +4429,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
         reachabilityParameters, StandardReachabilityQuerySynthesizer.builder());
   }
 
-  private Synthesizer synthesizeAcls(String hostname, Configuration config, String aclName) {
-    _logger.info("\n*** GENERATING Z3 LOGIC ***\n");
-    _logger.resetTimer();
-
-    _logger.info("Synthesizing Z3 ACL logic...");
-    Synthesizer s =
-        new Synthesizer(
-            SynthesizerInputImpl.builder()
-                .setConfigurations(Collections.singletonMap(hostname, config))
-                .setEnabledAcls(Collections.singletonMap(hostname, ImmutableSet.of(aclName)))
-                .setSimplify(_settings.getSimplify())
-                .build());
-
-    List<String> warnings = s.getWarnings();
-    int numWarnings = warnings.size();
-    if (numWarnings == 0) {
-      _logger.info("OK\n");
-    } else {
-      for (String warning : warnings) {
-        _logger.warn(warning);
-      }
-    }
-    _logger.printElapsedTime();
-    return s;
-  }
-
   public Synthesizer synthesizeDataPlane() {
     return synthesizeDataPlane(loadConfigurations(), loadDataPlane());
   }
@@ -4563,13 +4442,21 @@ public class Batfish extends PluginConsumer implements IBatfish {
         ImmutableSet.of(),
         ImmutableSet.of(),
         IpSpaceAssignment.empty(),
+        false,
         false);
   }
 
   @Override
   public Set<Flow> bddMultipathConsistency() {
-    BDDReachabilityAnalysis bddReachabilityAnalysis = getBddReachabilityAnalysis(new BDDPacket());
-    return bddReachabilityAnalysis.multipathInconsistencies(getFlowTag());
+    try (BDDPacketContext context = acquireBddPacketContext()) {
+      BDDReachabilityAnalysis bddReachabilityAnalysis =
+          getBddReachabilityAnalysis(context.getBDDPacket());
+      Set<Flow> flows = bddReachabilityAnalysis.multipathInconsistencies(getFlowTag());
+      _logger.infof(
+          "BDD reachability fixpoint: %s\n",
+          bddReachabilityAnalysis.getReverseReachabilityMetrics());
+      return flows;
+    }
   }
 
   @Nonnull
@@ -4588,7 +4475,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     BDDReachabilityAnalysisFactory analysisFactory =
         new BDDReachabilityAnalysisFactory(pkt, configurations, forwardingAnalysis);
-    return analysisFactory.bddReachabilityAnalysis(sourceIpAssignment);
+    int fixpointParallelism =
+        _settings.getParallelBddFixpoint() ? _settings.getAvailableThreads() : 1;
+    return analysisFactory.bddReachabilityAnalysis(
+        sourceIpAssignment, UniverseIpSpace.INSTANCE, fixpointParallelism);
   }
 
   /**
@@ -4597,51 +4487,54 @@ public class Batfish extends PluginConsumer implements IBatfish {
    */
   @Override
   public Set<Flow> bddReducedReachability() {
-    BDDPacket pkt = new BDDPacket();
+    // one context is shared by the base and delta analyses, so their BDDs can be compared
+    try (BDDPacketContext context = acquireBddPacketContext()) {
+      BDDPacket pkt = context.getBDDPacket();
 
-    pushBaseEnvironment();
-    BDDReachabilityAnalysis baseReachabilityAnalysis = getBddReachabilityAnalysis(pkt);
-    Map<IngressLocation, BDD> baseAcceptBDDs =
-        baseReachabilityAnalysis.getIngressLocationAcceptBDDs();
-    popEnvironment();
+      pushBaseEnvironment();
+      BDDReachabilityAnalysis baseReachabilityAnalysis = getBddReachabilityAnalysis(pkt);
+      Map<IngressLocation, BDD> baseAcceptBDDs =
+          baseReachabilityAnalysis.getIngressLocationAcceptBDDs();
+      popEnvironment();
 
-    pushDeltaEnvironment();
-    BDDReachabilityAnalysis deltaReachabilityAnalysis = getBddReachabilityAnalysis(pkt);
-    Map<IngressLocation, BDD> deltaAcceptBDDs =
-        deltaReachabilityAnalysis.getIngressLocationAcceptBDDs();
-    popEnvironment();
+      pushDeltaEnvironment();
+      BDDReachabilityAnalysis deltaReachabilityAnalysis = getBddReachabilityAnalysis(pkt);
+      Map<IngressLocation, BDD> deltaAcceptBDDs =
+          deltaReachabilityAnalysis.getIngressLocationAcceptBDDs();
+      popEnvironment();
 
-    Set<IngressLocation> commonSources =
-        Sets.intersection(baseAcceptBDDs.keySet(), deltaAcceptBDDs.keySet());
-    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
-    for (IngressLocation source : commonSources) {
-      BDD reduced = baseAcceptBDDs.get(source).and(deltaAcceptBDDs.get(source).not());
-      if (reduced.isZero()) {
-        continue;
-      }
-      Flow.Builder flow =
-          pkt.getFlow(reduced)
-              .orElseGet(
-                  () -> {
-                    throw new BatfishException("Error getting flow from BDD");
-                  });
-
-      // set flow parameters
-      flow.setTag(getDifferentialFlowTag());
-      flow.setIngressNode(source.getNode());
-      switch (source.getType()) {
-        case VRF:
-          flow.setIngressVrf(source.getVrf());
-          break;
-        case INTERFACE_LINK:
-          flow.setIngressInterface(source.getInterface());
-          break;
-        default:
-          throw new BatfishException("Unexpected IngressLocationType: " + source.getType());
+      Set<IngressLocation> commonSources =
+          Sets.intersection(baseAcceptBDDs.keySet(), deltaAcceptBDDs.keySet());
+      ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+      for (IngressLocation source : commonSources) {
+        BDD reduced = baseAcceptBDDs.get(source).and(deltaAcceptBDDs.get(source).not());
+        if (reduced.isZero()) {
+          continue;
+        }
+        Flow.Builder flow =
+            pkt.getFlow(reduced)
+                .orElseGet(
+                    () -> {
+                      throw new BatfishException("Error getting flow from BDD");
+                    });
+
+        // set flow parameters
+        flow.setTag(getDifferentialFlowTag());
+        flow.setIngressNode(source.getNode());
+        switch (source.getType()) {
+          case VRF:
+            flow.setIngressVrf(source.getVrf());
+            break;
+          case INTERFACE_LINK:
+            flow.setIngressInterface(source.getInterface());
+            break;
+          default:
+            throw new BatfishException("Unexpected IngressLocationType: " + source.getType());
+        }
+        flows.add(flow.build());
       }
-      flows.add(flow.build());
+      return flows.build();
     }
-    return flows.build();
   }
 
   @Nonnull
@@ -4655,7 +4548,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
         parameters.getForbiddenTransitNodes(),
         parameters.getRequiredTransitNodes(),
         parameters.getSourceIpAssignment(),
-        parameters.getSpecialize());
+        parameters.getSpecialize(),
+        parameters.getUseCompression());
   }
 
   @Nonnull
@@ -4666,23 +4560,43 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Set<String> nonTransitNodes,
       Set<String> transitNodes,
       IpSpaceAssignment ipSpaceAssignment,
-      boolean specialize) {
+      boolean specialize,
+      boolean compressed) {
     _logger.info("\n*** GENERATING Z3 LOGIC ***\n");
     _logger.resetTimer();
 
     _logger.info("Synthesizing Z3 logic...");
 
+    boolean simplify = _settings.getSimplify();
+    NetworkSnapshot snapshot = getNetworkSnapshot();
+    NodSession session;
+    try {
+      session = _cachedNodSessions.get(snapshot, NodSession::new);
+    } catch (ExecutionException e) {
+      throw new BatfishException("Could not start Z3 session for " + snapshot, e);
+    }
     Synthesizer s =
-        new Synthesizer(
-            computeSynthesizerInput(
-                configurations,
-                dataPlane,
-                headerSpace,
-                ipSpaceAssignment,
-                transitNodes,
-                nonTransitNodes,
-                _settings.getSimplify(),
-                specialize));
+        session.getSynthesizer(
+            compressed,
+            headerSpace,
+            nonTransitNodes,
+            transitNodes,
+            ipSpaceAssignment,
+            simplify,
+            specialize,
+            () ->
+                new Synthesizer(
+                    computeSynthesizerInput(
+                        configurations,
+                        dataPlane,
+                        headerSpace,
+                        ipSpaceAssignment,
+                        transitNodes,
+                        nonTransitNodes,
+                        simplify,
+                        specialize)));
+    // weigh the session again with its new synthesizer, unless it was dropped in the meantime
+    _cachedNodSessions.asMap().replace(snapshot, session, session);
 
     List<String> warnings = s.getWarnings();
     int numWarnings = warnings.size();
@@ -4752,24 +4666,29 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Override
   public void writeDataPlane(DataPlane dp, DataPlaneAnswerElement ae) {
     _cachedDataPlanes.put(getNetworkSnapshot(), dp);
+    _cachedNodSessions.invalidate(getNetworkSnapshot());
     serializeObject(dp, _testrigSettings.getEnvironmentSettings().getDataPlanePath());
     serializeObject(ae, _testrigSettings.getEnvironmentSettings().getDataPlaneAnswerPath());
   }
 
-  private void writeJsonAnswer(String structuredAnswerString) {
-    _storage.storeAnswer(
-        structuredAnswerString,
-        _settings.getAnalysisName(),
-        _settings.getQuestionPath(),
-        _baseTestrigSettings.getName(),
-        _deltaTestrigSettings.getName(),
-        _settings.getQuestionName(),
-        _settings.getDiffQuestion());
-  }
-
-  private void writeJsonAnswerWithLog(@Nullable String logString, String structuredAnswerString) {
+  /**
+   * Streams {@code answer} to its answer file and, if {@code writeLog} is set and a task is being
+   * run, to the log of the task.
+   */
+  private void writeJsonAnswerWithLog(Answer answer, boolean writeLog) throws IOException {
+    // Write answer.json if WorkItem was answering a question
+    @Nullable
+    Path answerPath =
+        _storage.storeAnswer(
+            answer,
+            _settings.getAnalysisName(),
+            _settings.getQuestionPath(),
+            _baseTestrigSettings.getName(),
+            _deltaTestrigSettings.getName(),
+            _settings.getQuestionName(),
+            _settings.getDiffQuestion());
     // Write log of WorkItem task to the configured path for logs
-    if (logString != null && _settings.getTaskId() != null) {
+    if (writeLog && _settings.getTaskId() != null) {
       Path jsonPath =
           _settings
               .getStorageBase()
@@ -4777,10 +4696,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
               .resolve(BfConsts.RELPATH_TESTRIGS_DIR)
               .resolve(_settings.getTestrig())
               .resolve(_settings.getTaskId() + BfConsts.SUFFIX_ANSWER_JSON_FILE);
-      CommonUtil.writeFile(jsonPath, logString);
+      if (answerPath != null) {
+        Files.copy(answerPath, jsonPath, StandardCopyOption.REPLACE_EXISTING);
+      } else {
+        BatfishStorage.writeAnswer(answer, jsonPath);
+      }
     }
-    // Write answer.json and answer-pretty.json if WorkItem was answering a question
-    writeJsonAnswer(structuredAnswerString);
   }
 
   private void writeJsonTopology() {
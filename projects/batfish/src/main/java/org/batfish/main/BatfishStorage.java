@@ -1,11 +1,15 @@
 package org.batfish.main;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.common.plugin.PluginConsumer.DEFAULT_HEADER_LENGTH_BYTES;
 import static org.batfish.common.plugin.PluginConsumer.detectFormat;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.base.Throwables;
 import com.google.common.io.Closer;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -13,14 +17,24 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.io.Serializable;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -37,13 +51,31 @@ import org.batfish.common.plugin.PluginConsumer.Format;
 import org.batfish.common.topology.Layer1Topology;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.SerializationCodec;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 
 /** A utility class that abstracts the underlying file system storage used by {@link Batfish}. */
 final class BatfishStorage {
+
+  /**
+   * Flag of a configuration in an index file, set if the configuration has IPsec VPNs or source
+   * NATs. See {@link LazyConfigurations#getIpsecNodes()}.
+   */
+  private static final byte INDEX_FLAG_IPSEC = 1;
+
+  private static final int INDEX_FORMAT = 1;
+
+  /** Written at the start of configuration index files */
+  private static final int INDEX_MAGIC = 0x42464349;
+
+  private static final String INDEX_SUFFIX = ".index";
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
   private final BatfishLogger _logger;
   private final Path _containerDir;
   private final BiFunction<String, Integer, AtomicInteger> _newBatch;
@@ -66,7 +98,8 @@ final class BatfishStorage {
   public SortedMap<String, Configuration> loadCompressedConfigurations(String testrig) {
     Path testrigDir = getTestrigDir(testrig);
     Path indepDir = testrigDir.resolve(BfConsts.RELPATH_COMPRESSED_CONFIG_DIR);
-    return loadConfigurations(testrig, indepDir);
+    LazyConfigurations configurations = loadLazyConfigurations(testrig, indepDir);
+    return configurations == null ? null : configurations.asMap();
   }
 
   /**
@@ -75,18 +108,48 @@ final class BatfishStorage {
    */
   @Nullable
   public SortedMap<String, Configuration> loadConfigurations(String testrig) {
+    LazyConfigurations configurations = loadLazyConfigurations(testrig);
+    return configurations == null ? null : configurations.asMap();
+  }
+
+  /**
+   * Returns the configurations for the given testrig, each of which is deserialized only when first
+   * requested. If a serialized copy of these configurations is not already present, then this
+   * function returns {@code null}.
+   */
+  @Nullable
+  LazyConfigurations loadLazyConfigurations(String testrig) {
     Path testrigDir = getTestrigDir(testrig);
     Path indepDir = testrigDir.resolve(BfConsts.RELPATH_VENDOR_INDEPENDENT_CONFIG_DIR);
-    return loadConfigurations(testrig, indepDir);
+    return loadLazyConfigurations(testrig, indepDir);
   }
 
-  private SortedMap<String, Configuration> loadConfigurations(String testrig, Path indepDir) {
+  @Nullable
+  private LazyConfigurations loadLazyConfigurations(String testrig, Path indepDir) {
     // If the directory that would contain these configs does not even exist, no cache exists.
     if (!Files.exists(indepDir)) {
       _logger.debugf("Unable to load configs for %s from disk: no cache directory", testrig);
       return null;
     }
 
+    Path indexPath = getIndexPath(indepDir);
+    if (Files.exists(indexPath)) {
+      return readIndex(testrig, indexPath, indepDir);
+    }
+
+    // Configurations stored without an index are loaded eagerly. We cannot tell which take part
+    // in resolving IPsec VPN peers without loading them, so all are assumed to.
+    SortedMap<String, Configuration> configurations = loadConfigurations(testrig, indepDir);
+    return configurations == null
+        ? null
+        : new LazyConfigurations(
+            (SortedSet<String>) configurations.keySet(),
+            (SortedSet<String>) configurations.keySet(),
+            configurations::get);
+  }
+
+  @Nullable
+  private SortedMap<String, Configuration> loadConfigurations(String testrig, Path indepDir) {
     // If the directory exists, then likely the configs exist and are useful. Still, we need to
     // confirm that they were serialized with a compatible version of Batfish first.
     if (!cachedConfigsAreCompatible(testrig)) {
@@ -194,7 +257,7 @@ final class BatfishStorage {
         String.format(
             "Serializing %s compressed configuration structures for testrig %s",
             configurations.size(), testrig);
-    storeConfigurations(outputDir, batchName, configurations);
+    storeConfigurations(outputDir, batchName, configurations, Version.getVersion());
   }
 
   /**
@@ -223,15 +286,22 @@ final class BatfishStorage {
             "Serializing %s vendor-independent configuration structures for testrig %s",
             configurations.size(), testrig);
 
-    storeConfigurations(outputDir, batchName, configurations);
+    storeConfigurations(outputDir, batchName, configurations, convertAnswerElement.getVersion());
   }
 
+  /**
+   * Stores each configuration in its own file in {@code outputDir}, followed by an index of all of
+   * them, so they can be loaded individually (see {@link #loadLazyConfigurations(String)}).
+   */
   private void storeConfigurations(
-      Path outputDir, String batchName, Map<String, Configuration> configurations) {
+      Path outputDir, String batchName, Map<String, Configuration> configurations, String version) {
     _logger.infof("\n*** %s***\n", batchName.toUpperCase());
     AtomicInteger progressCount = _newBatch.apply(batchName, configurations.size());
 
-    // Delete any existing output, then recreate.
+    // Delete any existing output, then recreate. The index goes first, so that it never refers to
+    // partially written output.
+    Path indexPath = getIndexPath(outputDir);
+    CommonUtil.deleteIfExists(indexPath);
     CommonUtil.deleteDirectory(outputDir);
     if (!outputDir.toFile().exists() && !outputDir.toFile().mkdirs()) {
       throw new BatfishException(
@@ -247,6 +317,93 @@ final class BatfishStorage {
               serializeObject(e.getValue(), currentOutputPath);
               progressCount.incrementAndGet();
             });
+    writeIndex(indexPath, version, configurations);
+  }
+
+  private static Path getIndexPath(Path configDir) {
+    return configDir.resolveSibling(configDir.getFileName() + INDEX_SUFFIX);
+  }
+
+  /**
+   * Returns whether {@code c} has IPsec VPNs or source NATs, either of which may affect which IPsec
+   * VPNs in the network are peers.
+   */
+  private static boolean hasIpsecVpnsOrSourceNats(Configuration c) {
+    return !c.getIpsecVpns().isEmpty()
+        || c.getInterfaces().values().stream().anyMatch(i -> !i.getSourceNats().isEmpty());
+  }
+
+  /**
+   * Reads the index of the configurations in {@code configDir}. Returns {@code null} if they were
+   * stored by an incompatible version of Batfish.
+   */
+  @Nullable
+  private LazyConfigurations readIndex(String testrig, Path indexPath, Path configDir) {
+    SortedSet<String> hostnames = new TreeSet<>();
+    SortedSet<String> ipsecNodes = new TreeSet<>();
+    try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != INDEX_MAGIC || buffer.getInt() != INDEX_FORMAT) {
+        _logger.debugf("Unable to load configs for %s from disk: unknown index format", testrig);
+        return null;
+      }
+      String version = readString(buffer);
+      if (!Version.isCompatibleVersion(
+          BatfishStorage.class.getCanonicalName(), "Old processed configurations", version)) {
+        _logger.debugf("Unable to load configs for %s from disk: incompatible version", testrig);
+        return null;
+      }
+      int size = buffer.getInt();
+      for (int i = 0; i < size; i++) {
+        String hostname = readString(buffer);
+        hostnames.add(hostname);
+        if ((buffer.get() & INDEX_FLAG_IPSEC) != 0) {
+          ipsecNodes.add(hostname);
+        }
+      }
+    } catch (IOException | BufferUnderflowException e) {
+      _logger.warnf(
+          "Unexpected exception caught while reading configuration index for testrig %s: %s",
+          testrig, Throwables.getStackTraceAsString(e));
+      return null;
+    }
+    return new LazyConfigurations(
+        hostnames,
+        ipsecNodes,
+        hostname -> {
+          Path path = configDir.resolve(hostname);
+          _logger.debugf("Reading %s '%s' from '%s'\n", Configuration.class, hostname, path);
+          return deserializeObject(path, Configuration.class);
+        });
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeIndex(
+      Path indexPath, String version, Map<String, Configuration> configurations) {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+      out.writeInt(INDEX_MAGIC);
+      out.writeInt(INDEX_FORMAT);
+      writeString(out, version);
+      out.writeInt(configurations.size());
+      for (Entry<String, Configuration> e : new TreeMap<>(configurations).entrySet()) {
+        writeString(out, e.getKey());
+        out.writeByte(hasIpsecVpnsOrSourceNats(e.getValue()) ? INDEX_FLAG_IPSEC : 0);
+      }
+    } catch (IOException e) {
+      throw new BatfishException("Failed to write configuration index: " + indexPath, e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(UTF_8);
+    out.writeShort(bytes.length);
+    out.write(bytes);
   }
 
   private @Nullable Path computeAnswerDir(
@@ -300,8 +457,15 @@ final class BatfishStorage {
     return answerDir;
   }
 
-  public void storeAnswer(
-      String answerStr,
+  /**
+   * Writes {@code answer} to its answer file, streaming it through a JSON generator so that no
+   * string representation of a large answer is ever built. The answer is written to a temporary
+   * file that then replaces the answer file, so readers never see a partial answer.
+   *
+   * @return the answer file, or {@code null} if neither a question nor an analysis is configured
+   */
+  public @Nullable Path storeAnswer(
+      Answer answer,
       String analysisName,
       Path questionPath,
       String baseSnapshotName,
@@ -313,11 +477,41 @@ final class BatfishStorage {
             analysisName, questionPath, baseSnapshotName, deltaSnapshotName, questionName, diff);
     // If settings has neither a question nor an analysis configured, don't write a file
     if (answerDir == null) {
-      return;
+      return null;
     }
     Path answerPath = answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON);
     answerDir.toFile().mkdirs();
-    CommonUtil.writeFile(answerPath, answerStr);
+    Path tempPath = null;
+    try {
+      tempPath = Files.createTempFile(answerDir, BfConsts.RELPATH_ANSWER_JSON, TEMP_SUFFIX);
+      writeAnswer(answer, tempPath);
+      Files.move(
+          tempPath,
+          answerPath,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new BatfishException("Could not write answer to " + answerPath, e);
+    } finally {
+      if (tempPath != null) {
+        try {
+          Files.deleteIfExists(tempPath);
+        } catch (IOException e) {
+          _logger.warnf("Could not delete temporary answer file %s\n", tempPath);
+        }
+      }
+    }
+    return answerPath;
+  }
+
+  /** Writes {@code answer} as pretty-printed JSON to {@code path}, one row at a time. */
+  static void writeAnswer(Answer answer, Path path) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(path, UTF_8);
+        JsonGenerator generator =
+            BatfishObjectMapper.prettyWriter().getFactory().createGenerator(writer)) {
+      BatfishObjectMapper.prettyWriter().writeValue(generator, answer);
+      generator.writeRaw('\n');
+    }
   }
 
   public void storeAnswerMetadata(
@@ -362,15 +556,16 @@ final class BatfishStorage {
       PushbackInputStream pbstream = new PushbackInputStream(fis, DEFAULT_HEADER_LENGTH_BYTES);
       Format f = detectFormat(pbstream);
       ObjectInputStream ois;
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
       if (f == Format.GZIP) {
         GZIPInputStream gis =
             closer.register(new GZIPInputStream(pbstream, 8192 /* enlarge buffer */));
-        ois = new ObjectInputStream(gis);
+        ois = SerializationCodec.newDetectingObjectInputStream(gis, loader);
       } else if (f == Format.LZ4) {
         LZ4FrameInputStream lis = closer.register(new LZ4FrameInputStream(pbstream));
-        ois = new ObjectInputStream(lis);
-      } else if (f == Format.JAVA_SERIALIZED) {
-        ois = new ObjectInputStream(pbstream);
+        ois = SerializationCodec.newDetectingObjectInputStream(lis, loader);
+      } else if (f == Format.JAVA_SERIALIZED || f == Format.COMPACT_SERIALIZED) {
+        ois = SerializationCodec.forFormat(f).newObjectInputStream(pbstream, loader);
       } else {
         throw new BatfishException(
             String.format("Could not detect format of the file %s", inputFile));
@@ -419,7 +614,7 @@ final class BatfishStorage {
     try {
       try (OutputStream out = Files.newOutputStream(outputFile);
           LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-          ObjectOutputStream oos = new ObjectOutputStream(gos)) {
+          ObjectOutputStream oos = SerializationCodec.DEFAULT.newObjectOutputStream(gos)) {
         oos.writeObject(object);
       }
     } catch (IOException e) {
@@ -0,0 +1,105 @@
+package org.batfish.main;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+import org.batfish.datamodel.collections.RoutesByVrf;
+import org.batfish.z3.NodSession;
+import org.batfish.z3.Synthesizer;
+import org.batfish.z3.SynthesizerInput;
+
+/**
+ * Rough estimates, in kilobytes, of the heap retained by the snapshot data that a worker caches,
+ * used to bound its caches by memory rather than by number of entries. Each estimate counts only
+ * the objects that dominate that kind of data, rather than walking its object graph, so that
+ * weighing an entry stays cheap next to loading it.
+ */
+final class CacheWeights {
+
+  /**
+   * Bytes retained per configuration. Configurations may be loaded lazily, so they are weighed
+   * without being inspected.
+   */
+  static final long BYTES_PER_CONFIGURATION = 512L * 1024;
+
+  /**
+   * Bytes retained per main RIB route of a data plane, which also accounts for the protocol RIBs,
+   * FIB entries and forwarding analysis derived from it.
+   */
+  static final long BYTES_PER_DATA_PLANE_ROUTE = 2048L;
+
+  /** Bytes retained per node of a data plane, besides its routes */
+  static final long BYTES_PER_DATA_PLANE_NODE = 64L * 1024;
+
+  /**
+   * Bytes retained per enabled node of a NoD synthesizer, for its input and the rules of its
+   * transition relation, which is typically the largest object built for a snapshot.
+   */
+  static final long BYTES_PER_NOD_NODE = 1024L * 1024;
+
+  /** Bytes retained per enabled edge of a NoD synthesizer, for the rules that cross it */
+  static final long BYTES_PER_NOD_EDGE = 64L * 1024;
+
+  /** Bytes retained per BGP advertisement or route of an environment table */
+  static final long BYTES_PER_ENVIRONMENT_ROUTE = 512L;
+
+  private CacheWeights() {}
+
+  static int weighConfigurations(SortedMap<String, Configuration> configurations) {
+    return toKb(configurations.size() * BYTES_PER_CONFIGURATION);
+  }
+
+  static int weighDataPlane(DataPlane dataPlane) {
+    SortedMap<String, SortedMap<String, GenericRib<AbstractRoute>>> ribs = dataPlane.getRibs();
+    long routes = 0L;
+    for (SortedMap<String, GenericRib<AbstractRoute>> vrfRibs : ribs.values()) {
+      for (GenericRib<AbstractRoute> rib : vrfRibs.values()) {
+        routes += rib.getRoutes().size();
+      }
+    }
+    return toKb(ribs.size() * BYTES_PER_DATA_PLANE_NODE + routes * BYTES_PER_DATA_PLANE_ROUTE);
+  }
+
+  /**
+   * Weighs the synthesizers a session holds when weighed. Callers re-insert a session after adding
+   * to it so that it is weighed again.
+   */
+  static int weighNodSession(NodSession session) {
+    long bytes = 0L;
+    for (Synthesizer synthesizer : session.getSynthesizers()) {
+      SynthesizerInput input = synthesizer.getInput();
+      bytes +=
+          input.getEnabledNodes().size() * BYTES_PER_NOD_NODE
+              + input.getEnabledEdges().size() * BYTES_PER_NOD_EDGE;
+    }
+    return toKb(bytes);
+  }
+
+  static int weighEnvironmentBgpTables(SortedMap<String, BgpAdvertisementsByVrf> tables) {
+    return toKb(countRoutes(tables.values()) * BYTES_PER_ENVIRONMENT_ROUTE);
+  }
+
+  static int weighEnvironmentRoutingTables(SortedMap<String, RoutesByVrf> tables) {
+    return toKb(countRoutes(tables.values()) * BYTES_PER_ENVIRONMENT_ROUTE);
+  }
+
+  private static long countRoutes(
+      Collection<? extends Map<String, ? extends SortedSet<?>>> tables) {
+    return tables
+        .stream()
+        .flatMap(byVrf -> byVrf.values().stream())
+        .mapToLong(SortedSet::size)
+        .sum();
+  }
+
+  /** Converts to kilobytes, rounding up so that no entry weighs nothing. */
+  private static int toKb(long bytes) {
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (bytes + 1023) / 1024));
+  }
+}
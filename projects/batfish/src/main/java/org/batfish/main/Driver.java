@@ -1,9 +1,13 @@
 package org.batfish.main;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
 import com.uber.jaeger.Configuration.ReporterConfiguration;
 import com.uber.jaeger.Configuration.SamplerConfiguration;
 import com.uber.jaeger.samplers.ConstSampler;
@@ -21,7 +25,6 @@ import java.lang.management.RuntimeMXBean;
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +35,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -42,7 +46,6 @@ import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
-import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.SystemUtils;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
@@ -64,6 +67,8 @@ import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.datamodel.collections.RoutesByVrf;
+import org.batfish.symbolic.bdd.BDDPacketContext;
+import org.batfish.z3.NodSession;
 import org.codehaus.jettison.json.JSONArray;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
@@ -105,8 +110,6 @@ public class Driver {
     }
   }
 
-  private static boolean _idle = true;
-
   private static Date _lastPollFromCoordinator = new Date();
 
   private static String[] _mainArgs = null;
@@ -117,22 +120,25 @@ public class Driver {
 
   private static ConcurrentMap<String, Task> _taskLog;
 
-  private static final Cache<NetworkSnapshot, DataPlane> CACHED_COMPRESSED_DATA_PLANES =
-      buildDataPlaneCache();
+  private static TaskScheduler _taskScheduler;
+
+  private static Cache<NetworkSnapshot, BDDPacketContext> _cachedBddPacketContexts;
+
+  private static Cache<NetworkSnapshot, DataPlane> _cachedCompressedDataPlanes;
+
+  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> _cachedCompressedTestrigs;
 
-  private static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
+  private static Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
 
-  private static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
-      CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
+  private static Cache<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
+      _cachedEnvironmentBgpTables;
 
-  private static final Map<NetworkSnapshot, SortedMap<String, RoutesByVrf>>
-      CACHED_ENVIRONMENT_ROUTING_TABLES = buildEnvironmentRoutingTablesCache();
+  private static Cache<NetworkSnapshot, SortedMap<String, RoutesByVrf>>
+      _cachedEnvironmentRoutingTables;
 
-  private static final Cache<NetworkSnapshot, SortedMap<String, Configuration>> CACHED_TESTRIGS =
-      buildTestrigCache();
+  private static Cache<NetworkSnapshot, NodSession> _cachedNodSessions;
 
-  private static final Cache<NetworkSnapshot, SortedMap<String, Configuration>>
-      CACHED_COMPRESSED_TESTRIGS = buildTestrigCache();
+  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> _cachedTestrigs;
 
   private static final int COORDINATOR_CHECK_INTERVAL_MS = 1 * 60 * 1000; // 1 min
 
@@ -144,47 +150,140 @@ public class Driver {
 
   static Logger httpServerLogger = Logger.getLogger(HttpServer.class.getName());
 
-  private static final int MAX_CACHED_DATA_PLANES = 2;
+  /*
+   * Shares of the snapshot cache budget. Compressed testrigs and data planes are only used by a few
+   * questions, so get less.
+   */
+  private static final double CACHE_SHARE_COMPRESSED_DATA_PLANES = 0.1;
 
-  private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
+  private static final double CACHE_SHARE_COMPRESSED_TESTRIGS = 0.05;
 
-  private static final int MAX_CACHED_ENVIRONMENT_ROUTING_TABLES = 4;
+  private static final double CACHE_SHARE_DATA_PLANES = 0.4;
 
-  private static final int MAX_CACHED_TESTRIGS = 5;
+  private static final double CACHE_SHARE_ENVIRONMENT_TABLES = 0.05;
+
+  private static final double CACHE_SHARE_NOD_SESSIONS = 0.1;
+
+  private static final double CACHE_SHARE_TESTRIGS = 0.25;
+
+  private static final int MAX_CACHED_BDD_PACKET_CONTEXTS = 5;
 
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
-  private static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
-    return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_DATA_PLANES).weakValues().build();
+  /** Frees the packet of each context once evicted and no longer in use. */
+  private static Cache<NetworkSnapshot, BDDPacketContext> buildBddPacketContextCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_BDD_PACKET_CONTEXTS)
+        .recordStats()
+        .<NetworkSnapshot, BDDPacketContext>removalListener(
+            notification -> notification.getValue().evict())
+        .build();
+  }
+
+  /**
+   * Drops the NoD session of a snapshot once one of its data planes or sets of configurations is
+   * evicted, since the session's synthesizers keep them alive.
+   */
+  private static <V> RemovalListener<NetworkSnapshot, V> evictNodSession() {
+    return notification -> {
+      if (notification.wasEvicted()) {
+        _cachedNodSessions.invalidate(notification.getKey());
+      }
+    };
   }
 
-  private static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
-      buildEnvironmentBgpTablesCache() {
-    return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_BGP_TABLES));
+  /** Builds a weighed cache, as below, with no removal listener. */
+  @VisibleForTesting
+  static <V> Cache<NetworkSnapshot, V> buildWeighedCache(
+      long budgetKb, double share, ToIntFunction<V> weigher) {
+    return buildWeighedCache(budgetKb, share, weigher, notification -> {});
   }
 
-  private static Map<NetworkSnapshot, SortedMap<String, RoutesByVrf>>
-      buildEnvironmentRoutingTablesCache() {
-    return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_ROUTING_TABLES));
+  /**
+   * Builds a cache that evicts least recently used entries once the estimated size of its entries
+   * exceeds {@code share} of {@code budgetKb}. Evicted testrigs and data planes are reloaded from
+   * their serialized form on disk.
+   *
+   * <p>An entry estimated to exceed the whole share is weighed as the whole share, so that it is
+   * kept (alone) rather than evicted as soon as it is put.
+   */
+  private static <V> Cache<NetworkSnapshot, V> buildWeighedCache(
+      long budgetKb,
+      double share,
+      ToIntFunction<V> weigher,
+      RemovalListener<NetworkSnapshot, V> removalListener) {
+    long maxWeight = Math.max(1L, (long) (budgetKb * share));
+    int maxEntryWeight = (int) Math.min(Integer.MAX_VALUE, maxWeight);
+    return CacheBuilder.newBuilder()
+        // a single segment, so that an entry may use the whole budget
+        .concurrencyLevel(1)
+        .maximumWeight(maxWeight)
+        .<NetworkSnapshot, V>weigher(
+            (snapshot, value) -> Math.min(weigher.applyAsInt(value), maxEntryWeight))
+        .removalListener(removalListener)
+        .recordStats()
+        .build();
   }
 
-  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
-    return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TESTRIGS).build();
+  /**
+   * Returns the memory budget in kilobytes for the snapshot caches, by default half of the maximum
+   * heap.
+   */
+  private static long getCacheBudgetKb(Settings settings) {
+    int maxSizeMb = settings.getSnapshotCacheMaxSizeMb();
+    return maxSizeMb > 0 ? maxSizeMb * 1024L : Runtime.getRuntime().maxMemory() / 2 / 1024;
   }
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
-      return true;
-    }
+  /** Returns the statistics of each of the snapshot caches, by name. */
+  public static SortedMap<String, CacheStats> getCacheStats() {
+    return ImmutableSortedMap.<String, CacheStats>naturalOrder()
+        .put("bddPacketContexts", _cachedBddPacketContexts.stats())
+        .put("compressedDataPlanes", _cachedCompressedDataPlanes.stats())
+        .put("compressedTestrigs", _cachedCompressedTestrigs.stats())
+        .put("dataPlanes", _cachedDataPlanes.stats())
+        .put("environmentBgpTables", _cachedEnvironmentBgpTables.stats())
+        .put("environmentRoutingTables", _cachedEnvironmentRoutingTables.stats())
+        .put("nodSessions", _cachedNodSessions.stats())
+        .put("testrigs", _cachedTestrigs.stats())
+        .build();
+  }
 
-    return false;
+  private static void initCaches(Settings settings) {
+    long budgetKb = getCacheBudgetKb(settings);
+    _cachedBddPacketContexts = buildBddPacketContextCache();
+    _cachedNodSessions =
+        buildWeighedCache(budgetKb, CACHE_SHARE_NOD_SESSIONS, CacheWeights::weighNodSession);
+    _cachedCompressedDataPlanes =
+        buildWeighedCache(
+            budgetKb,
+            CACHE_SHARE_COMPRESSED_DATA_PLANES,
+            CacheWeights::weighDataPlane,
+            evictNodSession());
+    _cachedCompressedTestrigs =
+        buildWeighedCache(
+            budgetKb,
+            CACHE_SHARE_COMPRESSED_TESTRIGS,
+            CacheWeights::weighConfigurations,
+            evictNodSession());
+    _cachedDataPlanes =
+        buildWeighedCache(
+            budgetKb, CACHE_SHARE_DATA_PLANES, CacheWeights::weighDataPlane, evictNodSession());
+    _cachedEnvironmentBgpTables =
+        buildWeighedCache(
+            budgetKb, CACHE_SHARE_ENVIRONMENT_TABLES, CacheWeights::weighEnvironmentBgpTables);
+    _cachedEnvironmentRoutingTables =
+        buildWeighedCache(
+            budgetKb, CACHE_SHARE_ENVIRONMENT_TABLES, CacheWeights::weighEnvironmentRoutingTables);
+    _cachedTestrigs =
+        buildWeighedCache(
+            budgetKb, CACHE_SHARE_TESTRIGS, CacheWeights::weighConfigurations, evictNodSession());
   }
 
+  /** Returns whether this worker would accept another task. */
   public static synchronized boolean getIdle() {
     _lastPollFromCoordinator = new Date();
-    return _idle;
+    return _taskScheduler.hasCapacity();
   }
 
   public static BatfishLogger getMainLogger() {
@@ -260,6 +359,15 @@ public class Driver {
       task.setTerminated(new Date());
       task.setErrMessage("Terminated by user");
 
+      // the other tasks of this worker die with it
+      for (Task otherTask : _taskLog.values()) {
+        if (otherTask != task && !otherTask.getStatus().isTerminated()) {
+          otherTask.setStatus(TaskStatus.TerminatedAbnormally);
+          otherTask.setTerminated(new Date());
+          otherTask.setErrMessage("Worker stopped to kill task " + taskId);
+        }
+      }
+
       // we die after a little bit, to allow for the response making it back to the coordinator
       new java.util.Timer()
           .schedule(
@@ -306,6 +414,8 @@ public class Driver {
     _mainArgs = args;
     try {
       _mainSettings = new Settings(args);
+      _taskScheduler = TaskScheduler.create(_mainSettings);
+      initCaches(_mainSettings);
       networkListenerLogger.setLevel(Level.WARNING);
       httpServerLogger.setLevel(Level.WARNING);
     } catch (Exception e) {
@@ -490,10 +600,6 @@ public class Driver {
     }
   }
 
-  private static synchronized void makeIdle() {
-    _idle = true;
-  }
-
   public static synchronized AtomicInteger newBatch(
       Settings settings, String description, int jobs) {
     Batch batch = null;
@@ -547,12 +653,14 @@ public class Driver {
       final Batfish batfish =
           new Batfish(
               settings,
-              CACHED_COMPRESSED_TESTRIGS,
-              CACHED_TESTRIGS,
-              CACHED_COMPRESSED_DATA_PLANES,
-              CACHED_DATA_PLANES,
-              CACHED_ENVIRONMENT_BGP_TABLES,
-              CACHED_ENVIRONMENT_ROUTING_TABLES);
+              _cachedCompressedTestrigs,
+              _cachedTestrigs,
+              _cachedCompressedDataPlanes,
+              _cachedDataPlanes,
+              _cachedBddPacketContexts,
+              _cachedEnvironmentBgpTables,
+              _cachedEnvironmentRoutingTables,
+              _cachedNodSessions);
 
       @Nullable
       SpanContext runBatfishSpanContext =
@@ -674,11 +782,11 @@ public class Driver {
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Non-executable command");
     }
 
-    if (!claimIdle()) {
+    if (!_taskScheduler.tryAdmit()) {
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Not idle");
     }
 
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that the task is released again in case of problem submitting it.
     try {
 
       final BatfishLogger jobLogger =
@@ -700,36 +808,43 @@ public class Driver {
               ? null
               : GlobalTracer.get().activeSpan().context();
 
-      // run batfish on a new thread and set idle to true when done
-      Thread thread =
-          new Thread(
-              () -> {
-                try (ActiveSpan runBatfishSpan =
-                    GlobalTracer.get()
-                        .buildSpan("Initialize Batfish in a new thread")
-                        .addReference(References.FOLLOWS_FROM, runTaskSpanContext)
-                        .startActive()) {
-                  assert runBatfishSpan != null; // avoid unused warning
-                  task.setStatus(TaskStatus.InProgress);
-                  String errMsg = runBatfish(settings);
-                  if (errMsg == null) {
-                    task.setStatus(TaskStatus.TerminatedNormally);
-                  } else {
-                    task.setStatus(TaskStatus.TerminatedAbnormally);
-                    task.setErrMessage(errMsg);
-                  }
-                  task.setTerminated(new Date());
-                  jobLogger.close();
-                  makeIdle();
-                }
-              });
-
-      thread.start();
-
-      return Arrays.asList(BfConsts.SVC_SUCCESS_KEY, "running now");
+      // run batfish in the pool of its kind of task, which releases it when done
+      TaskScheduler.Kind kind = TaskScheduler.Kind.of(settings);
+      boolean runningNow = _taskScheduler.hasFreeThread(kind);
+      if (!runningNow) {
+        task.newBatch(String.format("Waiting for a free %s slot", kind));
+      }
+      _taskScheduler.run(
+          kind,
+          () -> {
+            try (ActiveSpan runBatfishSpan =
+                GlobalTracer.get()
+                    .buildSpan("Initialize Batfish in a new thread")
+                    .addReference(References.FOLLOWS_FROM, runTaskSpanContext)
+                    .startActive()) {
+              assert runBatfishSpan != null; // avoid unused warning
+              if (task.getStatus().isTerminated()) {
+                // killed while waiting for a slot
+                return;
+              }
+              task.setStatus(TaskStatus.InProgress);
+              String errMsg = runBatfish(settings);
+              if (errMsg == null) {
+                task.setStatus(TaskStatus.TerminatedNormally);
+              } else {
+                task.setStatus(TaskStatus.TerminatedAbnormally);
+                task.setErrMessage(errMsg);
+              }
+              task.setTerminated(new Date());
+            } finally {
+              jobLogger.close();
+            }
+          });
+
+      return Arrays.asList(BfConsts.SVC_SUCCESS_KEY, runningNow ? "running now" : "queued");
     } catch (Exception e) {
       _mainLogger.error("Exception while running task: " + e.getMessage());
-      makeIdle();
+      _taskScheduler.release();
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage());
     }
   }
@@ -0,0 +1,61 @@
+package org.batfish.main;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.Function;
+import org.batfish.datamodel.Configuration;
+
+/**
+ * The configurations of a testrig stored on disk, each of which is deserialized only when first
+ * requested and then retained.
+ */
+final class LazyConfigurations {
+
+  private final SortedSet<String> _ipsecNodes;
+
+  private final ImmutableSortedMap<String, Supplier<Configuration>> _loaders;
+
+  /**
+   * @param hostnames the hostnames of all stored configurations
+   * @param ipsecNodes the hostnames of configurations that take part in resolving IPsec VPN peers
+   * @param loader deserializes the configuration with a given hostname
+   */
+  LazyConfigurations(
+      SortedSet<String> hostnames,
+      SortedSet<String> ipsecNodes,
+      Function<String, Configuration> loader) {
+    _ipsecNodes = ImmutableSortedSet.copyOf(ipsecNodes);
+    ImmutableSortedMap.Builder<String, Supplier<Configuration>> loaders =
+        ImmutableSortedMap.naturalOrder();
+    hostnames.forEach(
+        hostname -> loaders.put(hostname, Suppliers.memoize(() -> loader.apply(hostname))));
+    _loaders = loaders.build();
+  }
+
+  /** Returns a view of the configurations that loads each one on first access. */
+  SortedMap<String, Configuration> asMap() {
+    return Maps.transformValues(_loaders, Supplier::get);
+  }
+
+  SortedSet<String> getHostnames() {
+    return _loaders.keySet();
+  }
+
+  /**
+   * Returns the hostnames of configurations that have IPsec VPNs or source NATs, and so may affect
+   * which IPsec VPNs are peers. The environment must be applied to these configurations together.
+   */
+  SortedSet<String> getIpsecNodes() {
+    return _ipsecNodes;
+  }
+
+  /** Returns the configuration with the given hostname, loading it if necessary. */
+  Configuration load(String hostname) {
+    return _loaders.get(hostname).get();
+  }
+}
@@ -0,0 +1,194 @@
+package org.batfish.main;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.batfish.common.BatfishException;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * A map from hostname to {@link VendorConfiguration} that keeps each configuration serialized at
+ * {@code outputPath/hostname} instead of in memory. Configurations are read back from disk on
+ * {@link #get} or {@link #remove}, which only happens when renaming configurations with duplicate
+ * hostnames.
+ *
+ * <p>Parse workers {@link #stage} each configuration they parse, serializing it to a staging
+ * directory next to {@code outputPath}, so that {@link #put} only has to move the staged file into
+ * place. Configurations put without being staged, or renamed since, are serialized by {@link #put}
+ * itself.
+ *
+ * <p>If an overlay configuration exists for a hostname, it is applied before serialization.
+ * Configurations whose hostname contains a path separator cannot be serialized and are instead
+ * retained in memory (see {@link #getUnserializable()}).
+ */
+final class SerializedVendorConfigurations extends AbstractMap<String, VendorConfiguration>
+    implements Closeable {
+
+  /** A configuration serialized by a parse worker, and the hostname it was serialized under */
+  private static final class Staged {
+
+    private final String _hostname;
+
+    private final Path _path;
+
+    private Staged(String hostname, Path path) {
+      _hostname = hostname;
+      _path = path;
+    }
+  }
+
+  private static final String STAGING_DIR_SUFFIX = ".staging";
+
+  private final Function<Path, VendorConfiguration> _deserializer;
+
+  private final Path _outputPath;
+
+  private final Map<String, VendorConfiguration> _overlayConfigurations;
+
+  private final SortedMap<String, Path> _serialized;
+
+  private final BiConsumer<VendorConfiguration, Path> _serializer;
+
+  private final Map<VendorConfiguration, Staged> _staged;
+
+  private final AtomicInteger _stagedCount;
+
+  private final Path _stagingPath;
+
+  private final SortedMap<String, VendorConfiguration> _unserializable;
+
+  SerializedVendorConfigurations(
+      Path outputPath,
+      Map<String, VendorConfiguration> overlayConfigurations,
+      BiConsumer<VendorConfiguration, Path> serializer,
+      Function<Path, VendorConfiguration> deserializer) {
+    _deserializer = deserializer;
+    _outputPath = outputPath;
+    _overlayConfigurations = overlayConfigurations;
+    _serialized = new TreeMap<>();
+    _serializer = serializer;
+    _staged = Collections.synchronizedMap(new IdentityHashMap<>());
+    _stagedCount = new AtomicInteger();
+    _stagingPath = outputPath.resolveSibling(outputPath.getFileName() + STAGING_DIR_SUFFIX);
+    _unserializable = new TreeMap<>();
+  }
+
+  /** Deletes the staged configurations that were never put. */
+  @Override
+  public void close() {
+    if (Files.exists(_stagingPath)) {
+      CommonUtil.deleteDirectory(_stagingPath);
+    }
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return _serialized.containsKey(key) || _unserializable.containsKey(key);
+  }
+
+  @Override
+  public Set<Entry<String, VendorConfiguration>> entrySet() {
+    return Maps.asMap(Sets.union(_serialized.keySet(), _unserializable.keySet()), this::get)
+        .entrySet();
+  }
+
+  @Override
+  public VendorConfiguration get(Object key) {
+    Path path = _serialized.get(key);
+    return path != null ? _deserializer.apply(path) : _unserializable.get(key);
+  }
+
+  /** Returns the overlay configurations that were not applied to any configuration put. */
+  SortedMap<String, VendorConfiguration> getOrphanedOverlays() {
+    return new TreeMap<>(Maps.filterKeys(_overlayConfigurations, k -> !_serialized.containsKey(k)));
+  }
+
+  /** Returns the configurations that could not be serialized because of a bad hostname. */
+  SortedMap<String, VendorConfiguration> getUnserializable() {
+    return _unserializable;
+  }
+
+  @Override
+  public VendorConfiguration put(String hostname, VendorConfiguration vc) {
+    VendorConfiguration old = remove(hostname);
+    Staged staged = _staged.remove(vc);
+    if (staged != null && !staged._hostname.equals(hostname)) {
+      // renamed since it was staged
+      CommonUtil.deleteIfExists(staged._path);
+      vc.setOverlayConfiguration(null);
+      staged = null;
+    }
+    if (hostname.contains(File.separator)) {
+      _unserializable.put(hostname, vc);
+      return old;
+    }
+    Path path = _outputPath.resolve(hostname);
+    if (staged != null) {
+      try {
+        Files.move(staged._path, path, StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        throw new BatfishException("Failed to move serialized configuration to: " + path, e);
+      }
+    } else {
+      vc.setOverlayConfiguration(_overlayConfigurations.get(hostname));
+      _serializer.accept(vc, path);
+    }
+    _serialized.put(hostname, path);
+    return old;
+  }
+
+  @Override
+  @Nullable
+  public VendorConfiguration remove(Object key) {
+    Path path = _serialized.remove(key);
+    if (path == null) {
+      return _unserializable.remove(key);
+    }
+    VendorConfiguration vc = _deserializer.apply(path);
+    vc.setOverlayConfiguration(null);
+    try {
+      Files.delete(path);
+    } catch (IOException e) {
+      throw new BatfishException("Failed to delete serialized configuration: " + path, e);
+    }
+    return vc;
+  }
+
+  /**
+   * Applies the overlay for the hostname of {@code vc}, if any, and serializes it to the staging
+   * directory, ready to be {@link #put}. Safe to call from several threads at once.
+   */
+  void stage(VendorConfiguration vc) {
+    String hostname = vc.getHostname();
+    if (hostname == null || hostname.contains(File.separator)) {
+      return;
+    }
+    CommonUtil.createDirectories(_stagingPath);
+    vc.setOverlayConfiguration(_overlayConfigurations.get(hostname));
+    Path path = _stagingPath.resolve(Integer.toString(_stagedCount.incrementAndGet()));
+    _serializer.accept(vc, path);
+    _staged.put(vc, new Staged(hostname, path));
+  }
+
+  @Override
+  public int size() {
+    return _serialized.size() + _unserializable.size();
+  }
+}
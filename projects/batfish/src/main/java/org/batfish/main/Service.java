@@ -1,10 +1,12 @@
 package org.batfish.main;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheStats;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -38,10 +40,20 @@ public class Service {
   @Produces(MediaType.APPLICATION_JSON)
   public JSONArray getStatus() {
     try {
+      JSONObject caches = new JSONObject();
+      for (Entry<String, CacheStats> entry : Driver.getCacheStats().entrySet()) {
+        CacheStats stats = entry.getValue();
+        caches.put(
+            entry.getKey(),
+            new JSONObject()
+                .put("hits", stats.hitCount())
+                .put("misses", stats.missCount())
+                .put("evictions", stats.evictionCount()));
+      }
       return new JSONArray(
           Arrays.asList(
               BfConsts.SVC_SUCCESS_KEY,
-              (new JSONObject().put("idle", Driver.getIdle())).toString()));
+              (new JSONObject().put("idle", Driver.getIdle()).put("caches", caches)).toString()));
     } catch (Exception e) {
       return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
     }
@@ -0,0 +1,162 @@
+package org.batfish.main;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.batfish.config.Settings;
+
+/**
+ * Admits and runs the tasks of a worker service. At most a configured number of tasks are admitted
+ * at a time, and each admitted task runs in the pool of its {@link Kind}, waiting for a free thread
+ * of that pool if necessary. Separate pools keep, e.g., short questions from queueing behind a long
+ * data plane computation, while bounding how many memory-hungry tasks of one kind run at once.
+ */
+final class TaskScheduler {
+
+  /** The kind of work a task does, which determines the pool it runs in. */
+  enum Kind {
+    /** Parsing and serializing configurations */
+    PARSING,
+    /** Computing a data plane */
+    DATA_PLANE,
+    /** Answering questions and analyses */
+    QUESTION;
+
+    /** Returns the kind of the task run with {@code settings}. */
+    static Kind of(Settings settings) {
+      if (settings.getSerializeVendor() || settings.getSerializeIndependent()) {
+        return PARSING;
+      } else if (settings.getDataPlane()) {
+        return DATA_PLANE;
+      } else {
+        return QUESTION;
+      }
+    }
+  }
+
+  /** Idle pool threads are stopped after this long */
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  /** Guarded by this */
+  private int _admitted;
+
+  private final int _maxTasks;
+
+  private final Map<Kind, ThreadPoolExecutor> _pools;
+
+  /**
+   * @param maxTasks the maximum number of tasks admitted at once
+   * @param maxTasksByKind the maximum number of tasks of each kind that run at once
+   */
+  @VisibleForTesting
+  TaskScheduler(int maxTasks, Map<Kind, Integer> maxTasksByKind) {
+    checkArgument(maxTasks > 0, "At least one task must be allowed");
+    _maxTasks = maxTasks;
+    ImmutableMap.Builder<Kind, ThreadPoolExecutor> pools = ImmutableMap.builder();
+    for (Kind kind : Kind.values()) {
+      int threads = Math.max(1, Math.min(maxTasks, maxTasksByKind.getOrDefault(kind, maxTasks)));
+      ThreadPoolExecutor pool =
+          new ThreadPoolExecutor(
+              threads,
+              threads,
+              KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              new ThreadFactoryBuilder()
+                  .setNameFormat("batfish-" + kind.name().toLowerCase() + "-task-%d")
+                  .build());
+      pool.allowCoreThreadTimeOut(true);
+      pools.put(kind, pool);
+    }
+    _pools = pools.build();
+  }
+
+  /**
+   * Stops accepting tasks and waits up to {@code timeout} for the queued and running tasks to
+   * finish, returning whether they all did.
+   */
+  @VisibleForTesting
+  boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    _pools.values().forEach(ThreadPoolExecutor::shutdown);
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ThreadPoolExecutor pool : _pools.values()) {
+      if (!pool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Creates a scheduler with the task limits configured in {@code settings}. */
+  static TaskScheduler create(Settings settings) {
+    return new TaskScheduler(
+        settings.getMaxTasks(),
+        ImmutableMap.of(
+            Kind.PARSING,
+            settings.getMaxParsingTasks(),
+            Kind.DATA_PLANE,
+            settings.getMaxDataPlaneTasks(),
+            Kind.QUESTION,
+            settings.getMaxQuestionTasks()));
+  }
+
+  /** Returns the number of tasks admitted and not yet finished. */
+  synchronized int getAdmitted() {
+    return _admitted;
+  }
+
+  /** Returns whether another task would be admitted. */
+  synchronized boolean hasCapacity() {
+    return _admitted < _maxTasks;
+  }
+
+  /**
+   * Returns whether the pool of {@code kind} has a thread free to run a task as soon as it is
+   * submitted.
+   */
+  boolean hasFreeThread(Kind kind) {
+    ThreadPoolExecutor pool = _pools.get(kind);
+    return pool.getQueue().isEmpty() && pool.getActiveCount() < pool.getMaximumPoolSize();
+  }
+
+  /**
+   * Releases a task admitted by {@link #tryAdmit()} that will not be {@link #run(Kind, Runnable)
+   * run}.
+   */
+  synchronized void release() {
+    checkArgument(_admitted > 0, "No task to release");
+    _admitted--;
+  }
+
+  /**
+   * Runs {@code task}, which must have been admitted by {@link #tryAdmit()}, in the pool of {@code
+   * kind}. The task is released once it finishes.
+   */
+  void run(Kind kind, Runnable task) {
+    _pools
+        .get(kind)
+        .execute(
+            () -> {
+              try {
+                task.run();
+              } finally {
+                release();
+              }
+            });
+  }
+
+  /** Admits a task, returning {@code false} if the maximum number of tasks are already admitted. */
+  synchronized boolean tryAdmit() {
+    if (_admitted < _maxTasks) {
+      _admitted++;
+      return true;
+    }
+    return false;
+  }
+}
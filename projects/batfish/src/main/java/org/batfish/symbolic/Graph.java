@@ -17,9 +17,9 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
 import javax.annotation.Nullable;
-import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.BatfishException;
 import org.batfish.common.plugin.IBatfish;
+import org.batfish.common.util.SerializationCodec;
 import org.batfish.datamodel.BgpActivePeerConfig;
 import org.batfish.datamodel.BgpPeerConfig;
 import org.batfish.datamodel.BgpProcess;
@@ -170,7 +170,8 @@ public class Graph {
               .loadConfigurations()
               .entrySet()
               .parallelStream()
-              .collect(toMap(Entry::getKey, entry -> SerializationUtils.clone(entry.getValue())));
+              .collect(
+                  toMap(Entry::getKey, entry -> SerializationCodec.DEFAULT.copy(entry.getValue())));
 
       _configurations = clonedConfigs;
     }
@@ -0,0 +1,107 @@
+package org.batfish.symbolic.bdd;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import net.sf.javabdd.BDD;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.acl.CanonicalAcl;
+
+/**
+ * Finds the unreachable lines of an ACL in a single pass over its lines, tracking the packets not
+ * matched by any earlier line as a {@link BDD}.
+ *
+ * <p>A line is unreachable if no packet not matched by an earlier line matches it, and unmatchable
+ * if no packet matches it at all. An unreachable line that is matchable is blocked by the earliest
+ * reachable line matching every packet it matches, if any.
+ */
+public final class BDDAclLineReachability {
+
+  private final SortedMap<Integer, Integer> _blockingLines;
+
+  private final SortedSet<Integer> _unmatchableLines;
+
+  private final SortedSet<Integer> _unreachableLines;
+
+  private BDDAclLineReachability(
+      SortedSet<Integer> unreachableLines,
+      SortedSet<Integer> unmatchableLines,
+      SortedMap<Integer, Integer> blockingLines) {
+    _blockingLines = blockingLines;
+    _unmatchableLines = unmatchableLines;
+    _unreachableLines = unreachableLines;
+  }
+
+  /**
+   * Analyzes the sanitized lines of {@code acl}, using a new {@link BDDPacket} so that several ACLs
+   * may be analyzed in parallel.
+   */
+  public static BDDAclLineReachability analyze(CanonicalAcl acl) {
+    return analyze(new BDDPacket(), acl);
+  }
+
+  public static BDDAclLineReachability analyze(BDDPacket pkt, CanonicalAcl acl) {
+    IpAccessList sanitizedAcl = acl.getSanitizedAcl();
+    BDDSourceManager sourceMgr = BDDSourceManager.forInterfaces(pkt, acl.getInterfaces());
+    AclLineMatchExprToBDD toBdd =
+        BDDAcl.create(pkt, sanitizedAcl, acl.getDependencies(), ImmutableMap.of(), sourceMgr)
+            .getAclLineMatchExprToBDD();
+
+    ImmutableSortedSet.Builder<Integer> unreachableLines = ImmutableSortedSet.naturalOrder();
+    ImmutableSortedSet.Builder<Integer> unmatchableLines = ImmutableSortedSet.naturalOrder();
+    ImmutableSortedMap.Builder<Integer, Integer> blockingLines = ImmutableSortedMap.naturalOrder();
+
+    // packets not matched by any earlier line
+    BDD unmatched = sourceMgr.isSane();
+    // the earlier reachable lines and what they match, in order
+    List<Integer> reachableLineNums = new ArrayList<>();
+    List<BDD> reachableLineBdds = new ArrayList<>();
+    List<IpAccessListLine> lines = sanitizedAcl.getLines();
+    for (int lineNum = 0; lineNum < lines.size(); lineNum++) {
+      BDD lineBdd = toBdd.visit(lines.get(lineNum).getMatchCondition()).and(sourceMgr.isSane());
+      if (lineBdd.isZero()) {
+        unreachableLines.add(lineNum);
+        unmatchableLines.add(lineNum);
+        continue;
+      }
+      if (lineBdd.and(unmatched).isZero()) {
+        unreachableLines.add(lineNum);
+        for (int i = 0; i < reachableLineNums.size(); i++) {
+          if (lineBdd.and(reachableLineBdds.get(i).not()).isZero()) {
+            blockingLines.put(lineNum, reachableLineNums.get(i));
+            break;
+          }
+        }
+        continue;
+      }
+      reachableLineNums.add(lineNum);
+      reachableLineBdds.add(lineBdd);
+      unmatched = unmatched.and(lineBdd.not());
+    }
+    return new BDDAclLineReachability(
+        unreachableLines.build(), unmatchableLines.build(), blockingLines.build());
+  }
+
+  /**
+   * Returns the earliest reachable line that blocks each unreachable, matchable line, for those
+   * lines blocked by a single line.
+   */
+  public SortedMap<Integer, Integer> getBlockingLines() {
+    return _blockingLines;
+  }
+
+  /** Returns the lines that match no packet. */
+  public SortedSet<Integer> getUnmatchableLines() {
+    return _unmatchableLines;
+  }
+
+  /** Returns the lines that match no packet not matched by an earlier line. */
+  public SortedSet<Integer> getUnreachableLines() {
+    return _unreachableLines;
+  }
+}
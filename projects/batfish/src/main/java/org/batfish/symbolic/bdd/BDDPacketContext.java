@@ -0,0 +1,190 @@
+package org.batfish.symbolic.bdd;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import net.sf.javabdd.BDD;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.IpAccessList;
+
+/**
+ * A {@link BDDPacket} shared by the BDD-based questions on one snapshot, along with memoized {@link
+ * BDDSourceManager source managers} and BDDs of the ACLs and header spaces of its nodes.
+ *
+ * <p>Since BDD factories are not thread-safe, a context may only be used between {@link #acquire()}
+ * and {@link #close()}, which hold a lock on it. Once {@link #evict() evicted} from the snapshot
+ * cache, the packet is freed when the last user closes the context. Because BDDs built by questions
+ * are never freed, the packet and memoized BDDs are also discarded whenever the node table outgrows
+ * {@link #MAX_NODES} between uses.
+ */
+public final class BDDPacketContext implements AutoCloseable {
+
+  /** Number of live BDD nodes above which the packet is discarded once no longer in use */
+  static final int MAX_NODES = 1 << 22;
+
+  private static final class NodeBdds {
+
+    private final Map<IpAccessList, Map<BDDSourceManager, BDD>> _aclBdds = new IdentityHashMap<>();
+
+    private final Map<HeaderSpace, BDD> _headerSpaceBdds = new HashMap<>();
+  }
+
+  private boolean _evicted;
+
+  private boolean _freed;
+
+  private final ReentrantLock _lock;
+
+  /** Keyed by identity, and collected along with the configurations of the snapshot. */
+  private Cache<Configuration, NodeBdds> _nodeBdds;
+
+  @Nullable private BDDPacket _pkt;
+
+  private int _references;
+
+  private final Map<List<Set<String>>, BDDSourceManager> _sourceManagers;
+
+  public BDDPacketContext() {
+    _lock = new ReentrantLock();
+    _nodeBdds = CacheBuilder.newBuilder().weakKeys().build();
+    _sourceManagers = new HashMap<>();
+  }
+
+  /**
+   * Waits until no other thread is using this context, then acquires it. Returns {@code false}
+   * without acquiring it if the context has been freed, in which case the caller should get a new
+   * context for the snapshot.
+   */
+  public boolean acquire() {
+    _lock.lock();
+    synchronized (this) {
+      if (_freed) {
+        _lock.unlock();
+        return false;
+      }
+      _references++;
+    }
+    return true;
+  }
+
+  private void checkAcquired() {
+    if (!_lock.isHeldByCurrentThread()) {
+      throw new BatfishException("BDD packet context used without being acquired");
+    }
+  }
+
+  /** Releases this context, freeing its packet if evicted or grown too large. */
+  @Override
+  public void close() {
+    checkAcquired();
+    synchronized (this) {
+      _references--;
+      if (_references == 0) {
+        if (_evicted) {
+          free();
+        } else if (_pkt != null && _pkt.getFactory().getNodeNum() > MAX_NODES) {
+          reset();
+        }
+      }
+    }
+    _lock.unlock();
+  }
+
+  /**
+   * Marks this context as removed from the snapshot cache. Its packet is freed now if unused, or
+   * else when the last user closes it.
+   */
+  public synchronized void evict() {
+    _evicted = true;
+    if (_references == 0) {
+      free();
+    }
+  }
+
+  private void free() {
+    reset();
+    _freed = true;
+  }
+
+  /**
+   * Returns the BDD of the packets permitted by {@code acl} on {@code node}. The result is shared
+   * and must not be modified in place (e.g. by {@link BDD#andWith(BDD)}).
+   */
+  public BDD getAclBdd(Configuration node, IpAccessList acl, BDDSourceManager mgr) {
+    checkAcquired();
+    return getNodeBdds(node)
+        ._aclBdds
+        .computeIfAbsent(acl, k -> new IdentityHashMap<>())
+        .computeIfAbsent(
+            mgr,
+            k ->
+                BDDAcl.create(getBDDPacket(), acl, node.getIpAccessLists(), node.getIpSpaces(), mgr)
+                    .getBdd());
+  }
+
+  /** Returns the packet of this context, creating it if necessary. */
+  public BDDPacket getBDDPacket() {
+    checkAcquired();
+    if (_pkt == null) {
+      _pkt = new BDDPacket();
+    }
+    return _pkt;
+  }
+
+  /**
+   * Returns the BDD of {@code headerSpace}, with IP spaces resolved on {@code node}. The result is
+   * shared and must not be modified in place.
+   */
+  public BDD getHeaderSpaceBdd(Configuration node, HeaderSpace headerSpace) {
+    checkAcquired();
+    return getNodeBdds(node)
+        ._headerSpaceBdds
+        .computeIfAbsent(
+            headerSpace,
+            k -> new HeaderSpaceToBDD(getBDDPacket(), node.getIpSpaces()).toBDD(headerSpace));
+  }
+
+  private NodeBdds getNodeBdds(Configuration node) {
+    try {
+      return _nodeBdds.get(node, NodeBdds::new);
+    } catch (ExecutionException e) {
+      throw new BatfishException("Could not create BDD cache for node " + node.getHostname(), e);
+    }
+  }
+
+  /** See {@link BDDSourceManager#forSources(BDDPacket, Set, Set)}. */
+  public BDDSourceManager getSourceManager(
+      Set<String> activeInterfaces, Set<String> referencedSources) {
+    checkAcquired();
+    return _sourceManagers.computeIfAbsent(
+        ImmutableList.of(
+            ImmutableSet.copyOf(activeInterfaces), ImmutableSet.copyOf(referencedSources)),
+        k -> BDDSourceManager.forSources(getBDDPacket(), activeInterfaces, referencedSources));
+  }
+
+  @Nullable
+  BDDPacket getBDDPacketIfPresent() {
+    return _pkt;
+  }
+
+  /** Discards the packet and everything built with it. */
+  private void reset() {
+    if (_pkt != null) {
+      _pkt.getFactory().done();
+      _pkt = null;
+    }
+    _nodeBdds = CacheBuilder.newBuilder().weakKeys().build();
+    _sourceManagers.clear();
+  }
+}
@@ -0,0 +1,54 @@
+package org.batfish.symbolic.bdd;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Copies {@link BDD BDDs} from one {@link BDDFactory} to another with the same variables, so that
+ * work on them can be spread over several factories (e.g. one per thread, since factories are not
+ * thread-safe). Each node is copied once per instance, so BDDs sharing nodes are cheap to copy
+ * together.
+ *
+ * <p>Nodes are rebuilt by variable number, so the copy is correct whatever the variable orders of
+ * the two factories, but is only as small as the original if they have the same order.
+ */
+public final class BDDTransfer {
+
+  // source node --> copy in target factory
+  private final Map<BDD, BDD> _copies;
+
+  private final BDDFactory _target;
+
+  public BDDTransfer(BDDFactory target) {
+    _copies = new HashMap<>();
+    _target = target;
+  }
+
+  /**
+   * Returns a new factory with the same variables and variable order as {@code source}, to copy its
+   * BDDs into.
+   */
+  public static BDDFactory compatibleFactory(BDDFactory source) {
+    BDDFactory factory = BDDUtils.bddFactory(source.varNum());
+    factory.setVarOrder(source.getVarOrder());
+    return factory;
+  }
+
+  /** Returns a copy of {@code bdd} in the target factory. */
+  public BDD transfer(BDD bdd) {
+    if (bdd.isZero()) {
+      return _target.zero();
+    } else if (bdd.isOne()) {
+      return _target.one();
+    }
+    BDD copy = _copies.get(bdd);
+    if (copy == null) {
+      // recursion depth is bounded by the number of variables
+      copy = _target.ithVar(bdd.var()).ite(transfer(bdd.high()), transfer(bdd.low()));
+      _copies.put(bdd, copy);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,49 @@
+package org.batfish.symbolic.bdd;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+
+/**
+ * An {@link IpSpaceToBDD} that converts each {@link AclIpSpace} and {@link IpWildcardSetIpSpace}
+ * instance only once, however many other IP spaces it is part of. The IP spaces of a {@link
+ * org.batfish.datamodel.ForwardingAnalysis} share most of their subspaces (such as the IPs matched
+ * by each RIB prefix), which would otherwise be converted again for every IP space containing them.
+ *
+ * <p>Instances are compared by identity, so this is cheap even for large IP spaces. The returned
+ * {@link BDD BDDs} are shared, and must not be modified in place.
+ */
+public final class MemoizedIpSpaceToBDD extends IpSpaceToBDD {
+
+  private final Map<IpSpace, BDD> _cache;
+
+  public MemoizedIpSpaceToBDD(BDDFactory factory, BDDInteger var) {
+    super(factory, var);
+    _cache = new IdentityHashMap<>();
+  }
+
+  private <T extends IpSpace> BDD memoize(T ipSpace, Function<T, BDD> toBdd) {
+    BDD bdd = _cache.get(ipSpace);
+    if (bdd == null) {
+      // not computeIfAbsent: the conversion visits, and so may memoize, the subspaces
+      bdd = toBdd.apply(ipSpace);
+      _cache.put(ipSpace, bdd);
+    }
+    return bdd;
+  }
+
+  @Override
+  public BDD visitAclIpSpace(AclIpSpace aclIpSpace) {
+    return memoize(aclIpSpace, super::visitAclIpSpace);
+  }
+
+  @Override
+  public BDD visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+    return memoize(ipWildcardSetIpSpace, super::visitIpWildcardSetIpSpace);
+  }
+}
@@ -0,0 +1,81 @@
+package org.batfish.z3;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.specifier.IpSpaceAssignment;
+
+/**
+ * The {@link Synthesizer synthesizers} built for reachability queries against one snapshot, kept so
+ * that later queries with the same parameters reuse the transition relation already generated for
+ * them instead of encoding the data plane again.
+ *
+ * <p>A session only helps queries whose parameters repeat: the header space is part of those
+ * parameters when the query is specialized to it, which is the default, so different questions
+ * against one data plane usually each synthesize their own transition relation.
+ *
+ * <p>Sessions are kept in the worker's snapshot caches, weighed against their memory budget, which
+ * drop the session of a snapshot when its configurations or data plane are evicted or recomputed.
+ */
+public final class NodSession {
+
+  /** The most synthesizers kept per snapshot, least recently used first to go */
+  static final int MAX_SYNTHESIZERS = 8;
+
+  private final Cache<List<Object>, Synthesizer> _synthesizers;
+
+  public NodSession() {
+    _synthesizers = CacheBuilder.newBuilder().maximumSize(MAX_SYNTHESIZERS).build();
+  }
+
+  /**
+   * Returns the synthesizer for the given query parameters, calling {@code synthesize} to build it
+   * unless an equal query was already synthesized in this session. Queries against the compressed
+   * and the full data plane of the snapshot are kept apart. Unless {@code specialize} is set, the
+   * transitions do not depend on {@code headerSpace}, so queries differing only in it share one
+   * synthesizer.
+   */
+  public @Nonnull Synthesizer getSynthesizer(
+      boolean compressed,
+      HeaderSpace headerSpace,
+      Set<String> nonTransitNodes,
+      Set<String> transitNodes,
+      IpSpaceAssignment ipSpaceAssignment,
+      boolean simplify,
+      boolean specialize,
+      Callable<Synthesizer> synthesize) {
+    List<Object> key =
+        ImmutableList.of(
+            compressed,
+            specialize ? Optional.of(headerSpace) : Optional.empty(),
+            nonTransitNodes,
+            transitNodes,
+            ipSpaceAssignment,
+            simplify,
+            specialize);
+    try {
+      return _synthesizers.get(key, synthesize);
+    } catch (ExecutionException e) {
+      throw new BatfishException("Could not synthesize Z3 logic", e.getCause());
+    }
+  }
+
+  /** Returns the synthesizers currently kept by this session. */
+  public Collection<Synthesizer> getSynthesizers() {
+    return ImmutableList.copyOf(_synthesizers.asMap().values());
+  }
+
+  /** Returns the number of synthesizers currently kept by this session. */
+  public long size() {
+    return _synthesizers.size();
+  }
+}
@@ -1,5 +1,7 @@
 package org.batfish.z3;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
@@ -42,10 +44,17 @@ public class Synthesizer {
 
   private final SynthesizerInput _input;
 
+  /**
+   * The transition relation, generated once and shared by every job and query run against this
+   * synthesizer
+   */
+  private final Supplier<ReachabilityProgram> _nodProgram;
+
   private List<String> _warnings;
 
   public Synthesizer(SynthesizerInput input) {
     _input = input;
+    _nodProgram = Suppliers.memoize(this::computeNodProgram);
     _warnings = new ArrayList<>();
   }
 
@@ -58,6 +67,10 @@ public class Synthesizer {
   }
 
   public ReachabilityProgram synthesizeNodProgram() {
+    return _nodProgram.get();
+  }
+
+  private ReachabilityProgram computeNodProgram() {
     // Only want these 5 states if NoD program is for ACL reachability (only non-data-plane type)
     ImmutableSet.Builder<StateExpr.State> builder =
         ImmutableSet.<StateExpr.State>builder()
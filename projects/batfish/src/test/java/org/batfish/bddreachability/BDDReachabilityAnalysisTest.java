@@ -10,19 +10,26 @@ import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
 import static org.batfish.datamodel.matchers.FlowMatchers.hasDstIp;
 import static org.batfish.symbolic.bdd.BDDMatchers.intersects;
 import static org.batfish.symbolic.bdd.BDDMatchers.isOne;
+import static org.batfish.symbolic.bdd.BDDMatchers.isZero;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import net.sf.javabdd.BDD;
+import org.batfish.datamodel.AclIpSpace;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Flow;
@@ -30,6 +37,7 @@ import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.UniverseIpSpace;
 import org.batfish.main.Batfish;
 import org.batfish.main.BatfishTestUtils;
+import org.batfish.specifier.InterfaceLinkLocation;
 import org.batfish.specifier.InterfaceLocation;
 import org.batfish.specifier.IpSpaceAssignment;
 import org.batfish.symbolic.bdd.BDDAcl;
@@ -37,6 +45,7 @@ import org.batfish.symbolic.bdd.BDDInteger;
 import org.batfish.symbolic.bdd.BDDOps;
 import org.batfish.symbolic.bdd.BDDPacket;
 import org.batfish.symbolic.bdd.IpSpaceToBDD;
+import org.batfish.z3.IngressLocation;
 import org.batfish.z3.expr.StateExpr;
 import org.batfish.z3.state.Accept;
 import org.batfish.z3.state.Drop;
@@ -389,6 +398,78 @@ public final class BDDReachabilityAnalysisTest {
         inconsistency.getFinalStates(), equalTo(ImmutableSet.of(Accept.INSTANCE, Drop.INSTANCE)));
   }
 
+  @Test
+  public void testForwardReachabilityMatchesBackward() {
+    assertThat(
+        _graph.getIngressLocationAcceptBDDs(),
+        equalTo(_graph.computeBackwardIngressLocationAcceptBDDs()));
+
+    // the ingress ACL of link1 on the destination node drops everything to DST_PREFIX_2
+    IpSpaceAssignment assignment =
+        IpSpaceAssignment.builder()
+            .assign(
+                new InterfaceLocation(_net._srcNode.getHostname(), _net._link1Src.getName()),
+                UniverseIpSpace.INSTANCE)
+            .assign(
+                new InterfaceLinkLocation(_dstName, _net._link1Dst.getName()),
+                UniverseIpSpace.INSTANCE)
+            .build();
+    BDDReachabilityAnalysis graph =
+        _graphFactory.bddReachabilityAnalysis(assignment, DST_PREFIX_2.toIpSpace());
+    IngressLocation dropOnly = IngressLocation.interfaceLink(_dstName, _net._link1Dst.getName());
+
+    Map<IngressLocation, BDD> forward = graph.computeForwardIngressLocationAcceptBDDs();
+
+    assertThat(forward, equalTo(graph.computeBackwardIngressLocationAcceptBDDs()));
+    assertThat(forward.get(dropOnly), isZero());
+  }
+
+  @Test
+  public void testForwardReachabilityMatchesBackward_sourceNat() {
+    IpSpaceAssignment assignment =
+        IpSpaceAssignment.builder()
+            .assign(
+                new InterfaceLocation(_net._srcNode.getHostname(), _net._link1Src.getName()),
+                AclIpSpace.union(SOURCE_NAT_ACL_IP.toIpSpace(), Ip.MAX.toIpSpace()))
+            .build();
+    BDDReachabilityAnalysis graph =
+        _graphFactory.bddReachabilityAnalysis(assignment, _dstIface2Ip.toIpSpace());
+
+    Map<IngressLocation, BDD> forward = graph.computeForwardIngressLocationAcceptBDDs();
+
+    assertThat(forward, equalTo(graph.computeBackwardIngressLocationAcceptBDDs()));
+    assertThat(forward.values(), everyItem(not(isZero())));
+  }
+
+  @Test
+  public void testPartitionedReverseReachability() {
+    IpSpaceAssignment assignment =
+        IpSpaceAssignment.builder()
+            .assign(
+                new InterfaceLocation(_net._srcNode.getHostname(), _net._link1Src.getName()),
+                UniverseIpSpace.INSTANCE)
+            .assign(
+                new InterfaceLocation(_net._dstNode.getHostname(), _dstIface1Name),
+                UniverseIpSpace.INSTANCE)
+            .build();
+    BDDReachabilityAnalysis graph = _graphFactory.bddReachabilityAnalysis(assignment);
+
+    List<StateExpr> leaves =
+        ImmutableList.of(Accept.INSTANCE, Drop.INSTANCE, NeighborUnreachable.INSTANCE);
+
+    Map<StateExpr, Map<StateExpr, BDD>> partitioned =
+        graph.computeReverseReachableStatesPartitioned(4);
+
+    FixpointMetrics metrics = graph.getReverseReachabilityMetrics();
+    assertThat(metrics.getParallelism(), equalTo(4));
+    assertThat(metrics.getSccs(), greaterThan(0));
+    assertThat(metrics.getLargestSccSize(), greaterThan(0));
+    assertThat(metrics.getLargestSccSize(), lessThanOrEqualTo(partitioned.size()));
+    assertThat(partitioned, equalTo(graph.computeReverseReachableStates(leaves)));
+    assertThat(graph.getReverseReachabilityMetrics().getParallelism(), equalTo(1));
+    assertThat(graph.getReverseReachabilityMetrics().getSccs(), equalTo(0));
+  }
+
   @Test
   public void testBDDNetworkGraph_sourceNat_noMatch() {
     IpSpaceAssignment assignment =
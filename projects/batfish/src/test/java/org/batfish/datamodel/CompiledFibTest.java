@@ -0,0 +1,85 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.dataplane.rib.Rib;
+import org.junit.Test;
+
+/** Tests of {@link CompiledFib} */
+public class CompiledFibTest {
+
+  private static Rib simpleRib() {
+    Rib rib = new Rib();
+    rib.mergeRoute(new ConnectedRoute(Prefix.parse("10.0.0.0/24"), "eth0"));
+    rib.mergeRoute(new ConnectedRoute(Prefix.parse("10.0.1.0/24"), "eth1"));
+    rib.mergeRoute(
+        new StaticRoute(Prefix.parse("192.168.0.0/16"), new Ip("10.0.0.2"), null, 1, 0L, 0));
+    rib.mergeRoute(
+        new StaticRoute(Prefix.parse("192.168.1.0/24"), new Ip("10.0.1.2"), null, 1, 0L, 0));
+    return rib;
+  }
+
+  @Test
+  public void testLookup() {
+    CompiledFib fib = new CompiledFib(simpleRib());
+
+    assertThat(fib.getNextHopInterfaces(new Ip("10.0.0.5")), contains("eth0"));
+    assertThat(fib.getNextHopInterfaces(new Ip("192.168.2.1")), contains("eth0"));
+    assertThat(fib.getNextHopInterfaces(new Ip("192.168.1.1")), contains("eth1"));
+    assertThat(fib.getNextHopInterfaces(new Ip("8.8.8.8")), empty());
+    assertThat(fib.getNextHopInterfaces(Ip.MAX), empty());
+    assertThat(fib.getNextHopInterfacesByRoute(new Ip("8.8.8.8")).isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void testSharedResults() {
+    CompiledFib fib = new CompiledFib(simpleRib());
+
+    assertThat(
+        fib.getNextHopInterfaces(new Ip("192.168.3.1")),
+        sameInstance(fib.getNextHopInterfaces(new Ip("192.168.200.1"))));
+  }
+
+  @Test
+  public void testSerializable() {
+    CompiledFib fib = new CompiledFib(simpleRib());
+    CompiledFib clone = SerializationUtils.clone(fib);
+
+    assertThat(clone.getNextHopInterfaces(new Ip("192.168.1.1")), contains("eth1"));
+    assertThat(clone.getNextHopInterfaces(), equalTo(fib.getNextHopInterfaces()));
+  }
+
+  /** Randomized comparison against {@link FibImpl} */
+  @Test
+  public void testAgreesWithFibImpl() {
+    Random random = new Random(0);
+    Rib rib = new Rib();
+    for (int i = 0; i < 64; i++) {
+      rib.mergeRoute(
+          new ConnectedRoute(
+              new Prefix(new Ip((long) random.nextInt(1 << 8) << 24), 24), "eth" + i));
+    }
+    for (int i = 0; i < 1000; i++) {
+      Prefix network = new Prefix(new Ip((long) random.nextInt(1 << 16) << 16), random.nextInt(33));
+      Ip nextHopIp = new Ip((long) random.nextInt(1 << 8) << 24 | random.nextInt(1 << 24));
+      rib.mergeRoute(new StaticRoute(network, nextHopIp, null, 1, random.nextInt(2), 0));
+    }
+    FibImpl reference = new FibImpl(rib);
+    CompiledFib fib = new CompiledFib(rib);
+
+    assertThat(fib.getNextHopInterfaces(), equalTo(reference.getNextHopInterfaces()));
+    assertThat(fib.getRoutesByNextHopInterface(), equalTo(reference.getRoutesByNextHopInterface()));
+    for (int i = 0; i < 10000; i++) {
+      Ip ip = new Ip(random.nextInt() & 0xFFFFFFFFL);
+      assertThat(fib.getNextHopInterfaces(ip), equalTo(reference.getNextHopInterfaces(ip)));
+      assertThat(
+          fib.getNextHopInterfacesByRoute(ip), equalTo(reference.getNextHopInterfacesByRoute(ip)));
+    }
+  }
+}
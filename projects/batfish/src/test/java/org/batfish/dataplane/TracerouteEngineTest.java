@@ -30,6 +30,7 @@ import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.FlowHistory;
 import org.batfish.datamodel.FlowHistory.FlowHistoryInfo;
 import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.HeaderSpace;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.InterfaceAddress;
 import org.batfish.datamodel.Ip;
@@ -394,6 +395,60 @@ public class TracerouteEngineTest {
     assertThat(trace.getDisposition(), equalTo(FlowDisposition.DENIED_OUT));
   }
 
+  /**
+   * Flows with the same destination are batched together when ACLs are ignored, but not when an ACL
+   * may tell them apart.
+   */
+  @Test
+  public void testEquivalentFlows() throws IOException {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    Vrf v = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    IpAccessList outgoingFilter =
+        nf.aclBuilder()
+            .setOwner(c)
+            .setName("outgoingAcl")
+            .setLines(
+                ImmutableList.of(
+                    IpAccessListLine.acceptingHeaderSpace(
+                        HeaderSpace.builder().setSrcIps(new Ip("2.0.0.1").toIpSpace()).build())))
+            .build();
+    nf.interfaceBuilder()
+        .setActive(true)
+        .setOwner(c)
+        .setVrf(v)
+        .setAddress(new InterfaceAddress("1.0.0.0/24"))
+        .setOutgoingFilter(outgoingFilter)
+        .build();
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(ImmutableSortedMap.of(c.getHostname(), c), _tempFolder);
+    batfish.computeDataPlane(false);
+    DataPlane dp = batfish.loadDataPlane();
+    Flow.Builder fb =
+        Flow.builder()
+            .setIngressNode(c.getHostname())
+            .setDstIp(new Ip("1.0.0.1"))
+            .setTag(Flow.BASE_FLOW_TAG);
+    Flow permitted = fb.setSrcIp(new Ip("2.0.0.1")).build();
+    Flow denied = fb.setSrcIp(new Ip("2.0.0.2")).build();
+    Set<Flow> flows = ImmutableSet.of(permitted, denied);
+
+    SortedMap<Flow, Set<FlowTrace>> withAcls =
+        TracerouteEngineImpl.getInstance().processFlows(dp, flows, dp.getFibs(), false);
+    SortedMap<Flow, Set<FlowTrace>> withoutAcls =
+        TracerouteEngineImpl.getInstance().processFlows(dp, flows, dp.getFibs(), true);
+
+    assertThat(
+        withAcls.get(permitted),
+        contains(hasDisposition(FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK)));
+    assertThat(withAcls.get(denied), contains(hasDisposition(FlowDisposition.DENIED_OUT)));
+    assertThat(
+        withoutAcls.get(permitted),
+        contains(hasDisposition(FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK)));
+    assertThat(withoutAcls.get(denied), equalTo(withoutAcls.get(permitted)));
+  }
+
   /** When ingress node is non-existent, don't crash with null-pointer. */
   @Test(expected = BatfishException.class)
   public void testTracerouteOutsideNetwork() throws IOException {
@@ -0,0 +1,59 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+/** Tests of {@link Mailbox} */
+public class MailboxTest {
+
+  @Test
+  public void testDrainInPublicationOrder() {
+    Mailbox<Integer> mailbox = new Mailbox<>();
+    assertTrue(mailbox.isEmpty());
+    assertThat(mailbox.drain(), emptyIterable());
+
+    mailbox.publish(ImmutableList.of(1, 2));
+    mailbox.publish(ImmutableList.of());
+    mailbox.publish(ImmutableList.of(3));
+    mailbox.publish(new Object[] {4, 5});
+
+    assertFalse(mailbox.isEmpty());
+    assertThat(mailbox.size(), equalTo(5));
+    assertThat(mailbox.drain(), contains(1, 2, 3, 4, 5));
+    assertTrue(mailbox.isEmpty());
+    assertThat(mailbox.drain(), emptyIterable());
+  }
+
+  @Test
+  public void testPeek() {
+    Mailbox<Integer> mailbox = new Mailbox<>();
+    mailbox.publish(ImmutableList.of(1));
+    mailbox.publish(ImmutableList.of(2));
+
+    assertThat(mailbox.peek(), contains(1, 2));
+    assertThat(mailbox.size(), equalTo(2));
+  }
+
+  @Test
+  public void testStatistics() {
+    Mailbox<Integer> mailbox = new Mailbox<>();
+    mailbox.publish(ImmutableList.of(1, 2, 3));
+    mailbox.drain();
+    mailbox.publish(ImmutableList.of(4));
+    mailbox.drain();
+
+    assertThat(mailbox.getMaxDepth(), equalTo(3));
+    assertThat(mailbox.getNumDelivered(), equalTo(4));
+
+    mailbox.resetStatistics();
+    assertThat(mailbox.getMaxDepth(), equalTo(0));
+    assertThat(mailbox.getNumDelivered(), equalTo(0));
+  }
+}
@@ -40,6 +40,7 @@ import org.batfish.datamodel.routing_policy.expr.Disjunction;
 import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
 import org.batfish.datamodel.routing_policy.statement.If;
 import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -102,6 +103,8 @@ public class RouteReflectionTest {
 
   private BgpProcess.Builder _pb;
 
+  private IncrementalDataPlaneSettings _settings;
+
   private Vrf.Builder _vb;
 
   /*
@@ -216,7 +219,7 @@ public class RouteReflectionTest {
             .build();
     IncrementalBdpEngine engine =
         new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(),
+            _settings,
             new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false),
             (s, i) -> new AtomicInteger());
     Topology topology = CommonUtil.synthesizeTopology(configurations);
@@ -343,7 +346,7 @@ public class RouteReflectionTest {
             .build();
     IncrementalBdpEngine engine =
         new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(),
+            _settings,
             new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false),
             (s, i) -> new AtomicInteger());
     Topology topology = CommonUtil.synthesizeTopology(configurations);
@@ -385,6 +388,7 @@ public class RouteReflectionTest {
     _nb = _nf.bgpNeighborBuilder().setLocalAs(2L);
     _pb = _nf.bgpProcessBuilder();
     _vb = _nf.vrfBuilder().setName(Configuration.DEFAULT_VRF_NAME);
+    _settings = new IncrementalDataPlaneSettings();
     If acceptIffBgp = new If();
     Disjunction guard = new Disjunction();
     guard.setDisjuncts(
@@ -474,4 +478,34 @@ public class RouteReflectionTest {
     assertIbgpRoute(routes, RR_NAME, AS3_PREFIX);
     assertIbgpRoute(routes, EDGE2_NAME, AS1_PREFIX);
   }
+
+  /*
+   * AS1 |                  AS2                   | AS3
+   *       edge1(client) <=> rr <=> (client)edge2
+   */
+  @Test
+  public void testSingleReflectorTwoClientsWorklistSchedule() {
+    _settings.setScheduleName(Schedule.WORKLIST);
+    SortedMap<String, SortedMap<String, SortedSet<AbstractRoute>>> routes =
+        generateRoutesOneReflector(true, true);
+
+    assertIbgpRoute(routes, EDGE1_NAME, AS3_PREFIX);
+    assertIbgpRoute(routes, RR_NAME, AS1_PREFIX);
+    assertIbgpRoute(routes, RR_NAME, AS3_PREFIX);
+    assertIbgpRoute(routes, EDGE2_NAME, AS1_PREFIX);
+  }
+
+  /*
+   * AS1 |                                            AS2
+   *       edge1(client of rr, CID: rr1-loopback) <=> rr1(client of rr2, CID: rr1-loopback) <=> rr2
+   */
+  @Test
+  public void testRejectSameClusterWorklistSchedule() {
+    _settings.setScheduleName(Schedule.WORKLIST);
+    SortedMap<String, SortedMap<String, SortedSet<AbstractRoute>>> routes =
+        generateRoutesTwoReflectors(true);
+
+    assertIbgpRoute(routes, RR1_NAME, AS1_PREFIX);
+    assertNoRoute(routes, RR2_NAME, AS1_PREFIX);
+  }
 }
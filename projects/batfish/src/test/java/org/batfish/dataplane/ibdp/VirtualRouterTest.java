@@ -15,13 +15,13 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
-import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.collection.IsEmptyIterable.emptyIterableOf;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -37,10 +37,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.batfish.datamodel.AbstractRoute;
@@ -705,15 +703,15 @@ public class VirtualRouterTest {
   /** Test basic message queuing operations */
   @Test
   public void testQueueDelta() {
-    Queue<RouteAdvertisement<AbstractRoute>> q = new ConcurrentLinkedQueue<>();
+    Mailbox<RouteAdvertisement<AbstractRoute>> q = new Mailbox<>();
 
     // Test queueing empty deltas
     VirtualRouter.queueDelta(q, null);
-    assertThat(q, empty());
+    assertTrue(q.isEmpty());
 
     RibDelta<AbstractRoute> delta = new RibDelta.Builder<>(null).build();
     VirtualRouter.queueDelta(q, delta);
-    assertThat(q, empty());
+    assertTrue(q.isEmpty());
 
     // Test queueing non-empty delta
     StaticRoute sr1 = new StaticRoute(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, null, 1, 0L, 1);
@@ -722,18 +720,18 @@ public class VirtualRouterTest {
 
     // Add one route
     VirtualRouter.queueDelta(q, builder.build());
-    assertThat(q, hasSize(1));
+    assertThat(q.size(), equalTo(1));
 
     // Repeats are allowed; So existing route + 1 add + 1 remove = 3 total
     builder.remove(sr2, Reason.WITHDRAW);
     VirtualRouter.queueDelta(q, builder.build());
-    assertThat(q, hasSize(3));
+    assertThat(q.size(), equalTo(3));
   }
 
   /** Test that removed routes are queued before added routes */
   @Test
   public void testQueueDeltaOrder() {
-    Queue<RouteAdvertisement<AbstractRoute>> q = new ConcurrentLinkedQueue<>();
+    Mailbox<RouteAdvertisement<AbstractRoute>> q = new Mailbox<>();
     StaticRoute sr1 = new StaticRoute(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, null, 1, 0L, 1);
     StaticRoute sr2 = new StaticRoute(new Prefix(new Ip("1.1.1.1"), 32), Ip.ZERO, null, 100, 0L, 1);
     RibDelta.Builder<AbstractRoute> builder = new Builder<>(null);
@@ -743,10 +741,13 @@ public class VirtualRouterTest {
     VirtualRouter.queueDelta(q, builder.build());
 
     // Check queuing order.
-    // Note: contains compains about generics, do manual remove/check
-    assertThat(q.remove(), equalTo(new RouteAdvertisement<>(sr1)));
-    assertThat(q.remove(), equalTo(new RouteAdvertisement<>(sr2, true, Reason.WITHDRAW)));
-    assertThat(q, empty());
+    assertThat(
+        ImmutableList.copyOf(q.drain()),
+        equalTo(
+            ImmutableList.of(
+                new RouteAdvertisement<>(sr1),
+                new RouteAdvertisement<>(sr2, true, Reason.WITHDRAW))));
+    assertTrue(q.isEmpty());
   }
 
   @Test
@@ -0,0 +1,51 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TestUtils;
+import org.junit.Test;
+
+/** Tests for {@link WorklistSchedule} */
+public class WorklistScheduleTest {
+
+  private static final Map<String, Node> NODES =
+      ImmutableMap.of(
+          "r1",
+          TestUtils.makeIosRouter("r1"),
+          "r2",
+          TestUtils.makeIosRouter("r2"),
+          "r3",
+          TestUtils.makeIosRouter("r3"));
+
+  @Test
+  public void testOnlyPendingNodes() {
+    WorklistSchedule schedule = new WorklistSchedule(NODES, ImmutableSet.of("r1", "r3"));
+
+    assertThat(schedule.hasNext(), is(true));
+    assertThat(
+        schedule.next(), equalTo(ImmutableMap.of("r1", NODES.get("r1"), "r3", NODES.get("r3"))));
+    assertThat(schedule.hasNext(), is(false));
+  }
+
+  @Test
+  public void testNoPendingNodes() {
+    WorklistSchedule schedule = new WorklistSchedule(NODES, ImmutableSet.of());
+
+    assertThat(schedule.hasNext(), is(false));
+  }
+
+  @Test
+  public void testUnknownPendingNode() {
+    WorklistSchedule schedule = new WorklistSchedule(NODES, ImmutableSet.of("r2", "missing"));
+
+    assertThat(schedule.hasNext(), is(true));
+    assertThat(schedule.next(), equalTo(ImmutableMap.of("r2", NODES.get("r2"))));
+    assertThat(schedule.hasNext(), is(false));
+  }
+}
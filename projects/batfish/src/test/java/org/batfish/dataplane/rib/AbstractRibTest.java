@@ -370,4 +370,48 @@ public class AbstractRibTest {
     _rib.clearRoutes(Prefix.parse("1.1.1.1/32"));
     assertThat(_rib.getRoutes(), hasSize(0));
   }
+
+  @Test
+  public void testFingerprintOrderIndependent() {
+    StaticRoute r1 = new StaticRoute(Prefix.parse("1.1.1.1/32"), Ip.ZERO, null, 1, 0L, 1);
+    StaticRoute r2 = new StaticRoute(Prefix.parse("2.2.2.0/24"), Ip.ZERO, null, 1, 0L, 1);
+    AbstractRib<StaticRoute> otherRib = new StaticRib();
+
+    _rib.mergeRoute(r1);
+    _rib.mergeRoute(r2);
+    otherRib.mergeRoute(r2);
+    otherRib.mergeRoute(r1);
+
+    assertThat(_rib.getFingerprint(), equalTo(otherRib.getFingerprint()));
+    assertThat(_rib.getFingerprint(), not(equalTo(RibFingerprint.ZERO)));
+  }
+
+  @Test
+  public void testFingerprintRestoredAfterRemove() {
+    StaticRoute r1 = new StaticRoute(Prefix.parse("1.1.1.1/32"), Ip.ZERO, null, 1, 0L, 1);
+    StaticRoute r2 = new StaticRoute(Prefix.parse("1.1.1.1/32"), new Ip("2.2.2.2"), null, 1, 0L, 1);
+
+    _rib.mergeRoute(r1);
+    RibFingerprint withR1 = _rib.getFingerprint();
+    _rib.mergeRoute(r2);
+    assertThat(_rib.getFingerprint(), not(equalTo(withR1)));
+
+    _rib.removeRoute(r2);
+    assertThat(_rib.getFingerprint(), equalTo(withR1));
+
+    _rib.clearRoutes(Prefix.parse("1.1.1.1/32"));
+    assertThat(_rib.getFingerprint(), equalTo(RibFingerprint.ZERO));
+  }
+
+  @Test
+  public void testFingerprintUnchangedByDuplicateMerge() {
+    StaticRoute r1 = new StaticRoute(Prefix.parse("1.1.1.1/32"), Ip.ZERO, null, 1, 0L, 1);
+
+    _rib.mergeRoute(r1);
+    RibFingerprint withR1 = _rib.getFingerprint();
+    _rib.mergeRoute(r1);
+
+    assertThat(_rib.getFingerprint(), equalTo(withR1));
+    assertThat(_rib.getFingerprint(), equalTo(RibFingerprint.of(r1)));
+  }
 }
@@ -0,0 +1,193 @@
+package org.batfish.dataplane.rib;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.junit.Test;
+
+/** Tests of {@link CompressedRibTree} */
+public class CompressedRibTreeTest {
+
+  /** A RIB that prefers static routes with lower admin cost, with a choice of index */
+  private static final class TestRib extends AbstractRib<StaticRoute> {
+
+    private static final long serialVersionUID = 1L;
+
+    TestRib(RibIndexType indexType) {
+      super(new TreeMap<>(), indexType);
+    }
+
+    @Override
+    public int comparePreference(StaticRoute lhs, StaticRoute rhs) {
+      return Integer.compare(rhs.getAdministrativeCost(), lhs.getAdministrativeCost());
+    }
+  }
+
+  private static StaticRoute route(String prefix) {
+    return route(prefix, 1);
+  }
+
+  private static StaticRoute route(String prefix, int admin) {
+    return new StaticRoute(Prefix.parse(prefix), Ip.ZERO, null, admin, 0L, 0);
+  }
+
+  private static Set<RouteAdvertisement<StaticRoute>> actions(
+      @Nullable RibDelta<StaticRoute> delta) {
+    return delta == null ? ImmutableSet.of() : ImmutableSet.copyOf(delta.getActions());
+  }
+
+  private static TestRib compressedRib() {
+    return new TestRib(RibIndexType.COMPRESSED_TRIE);
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    TestRib rib = compressedRib();
+    StaticRoute r8 = route("10.0.0.0/8");
+    StaticRoute r9 = route("10.0.0.0/9");
+    StaticRoute r9b = route("10.128.0.0/9");
+    StaticRoute r32 = route("10.1.1.1/32");
+    rib.mergeRoute(r8);
+    rib.mergeRoute(r9);
+    rib.mergeRoute(r9b);
+    rib.mergeRoute(r32);
+
+    assertThat(rib.longestPrefixMatch(new Ip("10.1.1.1")), contains(r32));
+    assertThat(rib.longestPrefixMatch(new Ip("10.1.1.2")), contains(r9));
+    assertThat(rib.longestPrefixMatch(new Ip("10.200.1.1")), contains(r9b));
+    assertThat(rib.longestPrefixMatch(new Ip("10.1.1.1"), 8), contains(r8));
+    assertThat(rib.longestPrefixMatch(new Ip("11.1.1.1")), empty());
+  }
+
+  @Test
+  public void testDefaultRoute() {
+    TestRib rib = compressedRib();
+    StaticRoute defaultRoute = route("0.0.0.0/0");
+    rib.mergeRoute(defaultRoute);
+
+    assertThat(rib.longestPrefixMatch(new Ip("1.2.3.4")), contains(defaultRoute));
+    assertThat(rib.getRoutes(Prefix.ZERO), contains(defaultRoute));
+  }
+
+  @Test
+  public void testGetRoutesForPrefix() {
+    TestRib rib = compressedRib();
+    StaticRoute r1 = route("10.0.0.0/8");
+    StaticRoute r2 = new StaticRoute(Prefix.parse("10.0.0.0/8"), new Ip("1.1.1.1"), null, 1, 0L, 0);
+    rib.mergeRoute(r1);
+    rib.mergeRoute(r2);
+    rib.mergeRoute(route("10.0.0.0/16"));
+
+    assertThat(rib.getRoutes(Prefix.parse("10.0.0.0/8")), containsInAnyOrder(r1, r2));
+    assertThat(rib.getRoutes(Prefix.parse("10.0.0.0/12")), empty());
+    assertThat(rib.getRoutes(Prefix.parse("11.0.0.0/8")), empty());
+  }
+
+  @Test
+  public void testOrderedIteration() {
+    TestRib rib = compressedRib();
+    StaticRoute r1 = route("10.0.0.0/8");
+    StaticRoute r2 = route("10.0.0.0/9");
+    StaticRoute r3 = route("10.1.1.1/32");
+    StaticRoute r4 = route("10.128.0.0/9");
+    StaticRoute r5 = route("192.168.0.0/16");
+    rib.mergeRoute(r5);
+    rib.mergeRoute(r3);
+    rib.mergeRoute(r4);
+    rib.mergeRoute(r1);
+    rib.mergeRoute(r2);
+
+    assertThat(rib.getRoutes(), contains(r1, r2, r3, r4, r5));
+  }
+
+  @Test
+  public void testReplaceAndBackup() {
+    TestRib rib = compressedRib();
+    StaticRoute worse = route("10.0.0.0/8", 10);
+    StaticRoute better = route("10.0.0.0/8", 1);
+    rib.addBackupRoute(worse);
+    rib.mergeRoute(worse);
+
+    RibDelta<StaticRoute> delta = rib.mergeRouteGetDelta(better);
+    assertThat(delta.getRoutes(), containsInAnyOrder(worse, better));
+    assertThat(rib.getRoutes(), contains(better));
+    assertThat(rib.mergeRouteGetDelta(worse), equalTo(null));
+
+    // Withdrawing the best route promotes the backup
+    rib.removeRoute(better);
+    assertThat(rib.getRoutes(), contains(worse));
+  }
+
+  @Test
+  public void testEqualityIndependentOfHistory() {
+    TestRib rib1 = compressedRib();
+    TestRib rib2 = compressedRib();
+    StaticRoute r1 = route("10.0.0.0/24");
+    StaticRoute r2 = route("10.0.1.0/24");
+    StaticRoute r3 = route("10.0.0.0/8");
+    rib1.mergeRoute(r1);
+    rib1.mergeRoute(r2);
+    rib1.mergeRoute(r3);
+    rib2.mergeRoute(r1);
+
+    assertThat(rib1, not(equalTo(rib2)));
+
+    // Removing routes prunes the trie back to the same shape
+    rib1.removeRoute(r2);
+    rib1.clearRoutes(r3.getNetwork());
+    assertThat(rib1, equalTo(rib2));
+    assertThat(rib1.hashCode(), equalTo(rib2.hashCode()));
+  }
+
+  /** Randomized comparison against {@link RibTree} */
+  @Test
+  public void testAgreesWithRibTree() {
+    Random random = new Random(0);
+    TestRib compressed = compressedRib();
+    TestRib reference = new TestRib(RibIndexType.RIB_TREE);
+    List<StaticRoute> routes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      // Restrict the address space so that prefixes overlap
+      long bits = (long) random.nextInt(1 << 12) << 20;
+      int length = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1);
+      StaticRoute r = route(new Prefix(new Ip(bits), length).toString(), random.nextInt(3));
+      routes.add(r);
+      assertThat(
+          actions(compressed.mergeRouteGetDelta(r)),
+          equalTo(actions(reference.mergeRouteGetDelta(r))));
+    }
+    for (int i = 0; i < routes.size(); i += 3) {
+      StaticRoute r = routes.get(i);
+      assertThat(
+          actions(compressed.removeRouteGetDelta(r)),
+          equalTo(actions(reference.removeRouteGetDelta(r))));
+    }
+
+    assertThat(compressed.getRoutes(), equalTo(reference.getRoutes()));
+    assertThat(compressed.getRoutableIps(), equalTo(reference.getRoutableIps()));
+    assertThat(compressed.getMatchingIps(), equalTo(reference.getMatchingIps()));
+    for (StaticRoute r : routes) {
+      assertThat(compressed.containsRoute(r), equalTo(reference.containsRoute(r)));
+      assertThat(
+          compressed.getRoutes(r.getNetwork()), equalTo(reference.getRoutes(r.getNetwork())));
+    }
+    for (int i = 0; i < 2000; i++) {
+      Ip ip = new Ip((long) random.nextInt(1 << 12) << 20 | random.nextInt(1 << 20));
+      assertThat(compressed.longestPrefixMatch(ip), equalTo(reference.longestPrefixMatch(ip)));
+    }
+  }
+}
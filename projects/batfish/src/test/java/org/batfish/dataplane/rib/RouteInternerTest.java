@@ -0,0 +1,81 @@
+package org.batfish.dataplane.rib;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.BgpRoute;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.StaticRoute;
+import org.junit.Test;
+
+/** Tests of {@link RouteInterner} */
+public class RouteInternerTest {
+
+  private static StaticRoute route() {
+    return StaticRoute.builder()
+        .setNetwork(Prefix.parse("10.0.0.0/8"))
+        .setNextHopIp(new Ip("1.1.1.1"))
+        .setAdministrativeCost(1)
+        .build();
+  }
+
+  @Test
+  public void testRibsShareEqualRoutes() {
+    Rib rib1 = new Rib();
+    Rib rib2 = new Rib();
+    StaticRoute route1 = route();
+    StaticRoute route2 = route();
+    long hits = RouteInterner.getHits();
+
+    rib1.mergeRoute(route1);
+    rib2.mergeRoute(route2);
+
+    AbstractRoute stored = rib2.getRoutes().iterator().next();
+    assertThat(rib1.getRoutes(), contains(sameInstance(stored)));
+    assertThat(RouteInterner.getHits(), greaterThan(hits));
+  }
+
+  @Test
+  public void testNonRoutingNotMerged() {
+    StaticRoute routing = RouteInterner.intern(route());
+    StaticRoute nonRouting = route();
+    nonRouting.setNonRouting(true);
+
+    assertThat(RouteInterner.intern(nonRouting), not(sameInstance(routing)));
+    assertThat(RouteInterner.intern(nonRouting).getNonRouting(), equalTo(true));
+  }
+
+  @Test
+  public void testRouteReflectorClientFlagNotMerged() {
+    BgpRoute.Builder builder =
+        new BgpRoute.Builder()
+            .setNetwork(Prefix.parse("10.0.0.0/8"))
+            .setNextHopIp(new Ip("1.1.1.1"))
+            .setOriginatorIp(new Ip("1.1.1.1"))
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.IBGP)
+            .setReceivedFromIp(new Ip("1.1.1.1"))
+            .setSrcProtocol(RoutingProtocol.BGP);
+    BgpRoute fromClient = builder.setReceivedFromRouteReflectorClient(true).build();
+    BgpRoute fromNonClient = builder.setReceivedFromRouteReflectorClient(false).build();
+
+    BgpRoute internedFromClient = RouteInterner.intern(fromClient);
+    BgpRoute internedFromNonClient = RouteInterner.intern(fromNonClient);
+
+    assertThat(fromClient, equalTo(fromNonClient));
+    assertThat(internedFromNonClient, not(sameInstance(internedFromClient)));
+    assertThat(internedFromClient.getReceivedFromRouteReflectorClient(), equalTo(true));
+    assertThat(internedFromNonClient.getReceivedFromRouteReflectorClient(), equalTo(false));
+    assertThat(
+        RouteInterner.intern(builder.setReceivedFromRouteReflectorClient(true).build()),
+        sameInstance(internedFromClient));
+  }
+}
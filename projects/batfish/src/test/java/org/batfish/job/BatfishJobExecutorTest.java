@@ -1,6 +1,9 @@
 package org.batfish.job;
 
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -8,6 +11,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
@@ -49,6 +53,33 @@ public class BatfishJobExecutorTest {
     assertEquals(output, Sets.newHashSet("result1", "result2"));
   }
 
+  @Test
+  public void testExecuteJobsMaxPendingJobs() {
+    Settings settings = new Settings();
+
+    // records the largest number of started jobs whose results have not been applied
+    Set<String> output = Sets.newConcurrentHashSet();
+    AtomicInteger started = new AtomicInteger();
+    AtomicInteger maxPending = new AtomicInteger();
+    List<BfTestJob> jobs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      jobs.add(
+          new BfTestJob(
+              settings,
+              "result" + i,
+              () ->
+                  maxPending.accumulateAndGet(
+                      started.incrementAndGet() - output.size(), Math::max)));
+    }
+
+    BfTestAnswerElement ae = new BfTestAnswerElement();
+    BatfishJobExecutor.runJobsInExecutor(
+        settings, _logger, jobs, output, ae, false, TEST_EXECUTOR_DESC, 2);
+
+    assertThat(output, hasSize(20));
+    assertThat(maxPending.get(), lessThanOrEqualTo(2));
+  }
+
   @Test
   public void testHandleJobResultSuccess() {
     Settings settings = new Settings();
@@ -120,16 +151,24 @@ public class BatfishJobExecutorTest {
 
   /** Class for Batfish test job */
   private class BfTestJob extends BatfishJob<BfTestResult> {
+    private Runnable _onCall;
+
     private String _testValue;
 
     public BfTestJob(Settings settings, String testValue) {
+      this(settings, testValue, () -> {});
+    }
+
+    public BfTestJob(Settings settings, String testValue, Runnable onCall) {
       super(settings);
+      _onCall = onCall;
       _testValue = testValue;
     }
 
     @Override
     public BfTestResult call() {
       long startTime = System.currentTimeMillis();
+      _onCall.run();
       return new BfTestResult(
           System.currentTimeMillis() - startTime, _logger.getHistory(), _testValue);
     }
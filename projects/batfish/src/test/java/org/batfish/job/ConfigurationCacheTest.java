@@ -0,0 +1,115 @@
+package org.batfish.job;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.TreeMap;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.vendor.VendorConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link ConfigurationCache}. */
+public class ConfigurationCacheTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private Path _cacheDir;
+
+  private BatfishLogger _logger;
+
+  private static HashCode key(String s) {
+    return ConfigurationCache.newKey().putString(s, UTF_8).hash();
+  }
+
+  @Before
+  public void setup() throws IOException {
+    _cacheDir = _folder.newFolder().toPath();
+    _logger = new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false);
+  }
+
+  @Test
+  public void testStoreLoad() {
+    ConfigurationCache cache = new ConfigurationCache(_cacheDir, Long.MAX_VALUE, _logger);
+    cache.store(key("a"), "value");
+
+    assertThat(cache.load(key("a"), String.class), equalTo("value"));
+    assertThat(cache.load(key("b"), String.class), nullValue());
+  }
+
+  @Test
+  public void testLoadUnreadable() throws IOException {
+    ConfigurationCache cache = new ConfigurationCache(_cacheDir, Long.MAX_VALUE, _logger);
+    Path path = _cacheDir.resolve(key("a").toString());
+    Files.write(path, "garbage".getBytes(UTF_8));
+
+    assertThat(cache.load(key("a"), String.class), nullValue());
+    assertThat(Files.exists(path), equalTo(false));
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws IOException {
+    ConfigurationCache cache = new ConfigurationCache(_cacheDir, Long.MAX_VALUE, _logger);
+    for (String s : new String[] {"a", "b", "c"}) {
+      cache.store(key(s), s);
+    }
+    Files.setLastModifiedTime(_cacheDir.resolve(key("a").toString()), FileTime.fromMillis(1000L));
+    Files.setLastModifiedTime(_cacheDir.resolve(key("b").toString()), FileTime.fromMillis(2000L));
+    Files.setLastModifiedTime(_cacheDir.resolve(key("c").toString()), FileTime.fromMillis(3000L));
+    // reading "a" makes it the most recently used
+    assertThat(cache.load(key("a"), String.class), equalTo("a"));
+    long entrySize = Files.size(_cacheDir.resolve(key("a").toString()));
+
+    ConfigurationCache smallCache = new ConfigurationCache(_cacheDir, 2 * entrySize, _logger);
+
+    assertThat(smallCache.evict(), equalTo(1));
+    assertThat(smallCache.load(key("b"), String.class), nullValue());
+    assertThat(smallCache.load(key("a"), String.class), equalTo("a"));
+    assertThat(smallCache.load(key("c"), String.class), equalTo("c"));
+  }
+
+  @Test
+  public void testParseVendorConfigurationJob() throws Exception {
+    Settings settings = new Settings();
+    settings.setLogger(_logger);
+    ConfigurationCache cache = new ConfigurationCache(_cacheDir, Long.MAX_VALUE, _logger);
+    Path file = _folder.newFile("r1").toPath();
+    Files.write(file, "hostname r1\n!\ninterface Loopback0\n no shutdown\n!\n".getBytes(UTF_8));
+
+    ParseVendorConfigurationAnswerElement miss = new ParseVendorConfigurationAnswerElement();
+    ParseVendorConfigurationAnswerElement hit = new ParseVendorConfigurationAnswerElement();
+    Map<String, VendorConfiguration> missVcs = new TreeMap<>();
+    Map<String, VendorConfiguration> hitVcs = new TreeMap<>();
+    new ParseVendorConfigurationJob(
+            settings, file, "configs/r1", new Warnings(), ConfigurationFormat.UNKNOWN, cache)
+        .call()
+        .applyTo(missVcs, _logger, miss);
+    new ParseVendorConfigurationJob(
+            settings, file, "configs/r1", new Warnings(), ConfigurationFormat.UNKNOWN, cache)
+        .call()
+        .applyTo(hitVcs, _logger, hit);
+
+    assertThat(miss.getParseCacheMisses(), equalTo(1));
+    assertThat(miss.getParseCacheHits(), equalTo(0));
+    assertThat(hit.getParseCacheHits(), equalTo(1));
+    assertThat(hit.getParseCacheMisses(), equalTo(0));
+    assertThat(hitVcs.keySet(), equalTo(ImmutableSet.of("r1")));
+    assertThat(hitVcs.get("r1").getFilename(), equalTo("configs/r1"));
+    assertThat(hit.getParseStatus(), equalTo(miss.getParseStatus()));
+  }
+}
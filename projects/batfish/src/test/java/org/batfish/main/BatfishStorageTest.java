@@ -1,22 +1,41 @@
 package org.batfish.main;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.common.Version.INCOMPATIBLE_VERSION;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts;
 import org.batfish.common.Version;
+import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.IpsecVpn;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -71,4 +90,78 @@ public class BatfishStorageTest {
 
     assertThat(_storage.loadConfigurations(trname), nullValue());
   }
+
+  @Test
+  public void loadLazyConfigurationsDeserializesOnAccess() throws IOException {
+    Configuration node1 = new Configuration("node1", ConfigurationFormat.CISCO_IOS);
+    Configuration node2 = new Configuration("node2", ConfigurationFormat.CISCO_IOS);
+    node2.getIpsecVpns().put("vpn", new IpsecVpn("vpn", node2));
+    Map<String, Configuration> configs = new HashMap<>();
+    configs.put("node1", node1);
+    configs.put("node2", node2);
+    _storage.storeConfigurations(configs, new ConvertConfigurationAnswerElement(), "sometr");
+
+    // Only node2 is still on disk, so node1 can only be loaded if never accessed.
+    Path indepDir = getIndepDir("sometr");
+    Files.delete(indepDir.resolve("node1"));
+    LazyConfigurations lazy = _storage.loadLazyConfigurations("sometr");
+
+    assertThat(lazy, not(nullValue()));
+    assertThat(lazy.getHostnames(), equalTo(ImmutableSortedSet.of("node1", "node2")));
+    assertThat(lazy.getIpsecNodes(), equalTo(ImmutableSortedSet.of("node2")));
+    assertThat(lazy.load("node2").getIpsecVpns().keySet(), equalTo(ImmutableSet.of("vpn")));
+    assertThat(lazy.asMap().get("node2"), sameInstance(lazy.load("node2")));
+  }
+
+  @Test
+  public void loadConfigurationsWithoutIndex() throws IOException {
+    Map<String, Configuration> configs = new HashMap<>();
+    configs.put("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS));
+    _storage.storeConfigurations(configs, new ConvertConfigurationAnswerElement(), "sometr");
+
+    Path indepDir = getIndepDir("sometr");
+    Files.delete(indepDir.resolveSibling(indepDir.getFileName() + ".index"));
+    LazyConfigurations lazy = _storage.loadLazyConfigurations("sometr");
+
+    assertThat(lazy, not(nullValue()));
+    assertThat(lazy.getHostnames(), equalTo(ImmutableSortedSet.of("node1")));
+    // without an index, every configuration is assumed to have IPsec VPNs
+    assertThat(lazy.getIpsecNodes(), equalTo(ImmutableSortedSet.of("node1")));
+  }
+
+  @Test
+  public void storeAnswerStreamsPrettyJson() throws IOException {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(ImmutableList.of(new ColumnMetadata("val", Schema.INTEGER, "val"))));
+    table.addRow(Row.of("val", 1));
+    table.addRow(Row.of("val", 2));
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+
+    Path answerPath = _storage.storeAnswer(answer, null, null, "sometr", null, "q", false);
+
+    assertThat(answerPath, not(nullValue()));
+    assertThat(
+        new String(Files.readAllBytes(answerPath), UTF_8),
+        equalTo(BatfishObjectMapper.writePrettyString(answer) + '\n'));
+    // the temporary file the answer was streamed to was moved into place
+    try (Stream<Path> files = Files.list(answerPath.getParent())) {
+      assertThat(files.collect(Collectors.toList()), contains(answerPath));
+    }
+  }
+
+  @Test
+  public void storeAnswerWithoutQuestionReturnsNull() {
+    assertThat(
+        _storage.storeAnswer(new Answer(), null, null, "sometr", null, null, false), nullValue());
+  }
+
+  private Path getIndepDir(String testrig) {
+    return _containerDir
+        .resolve(BfConsts.RELPATH_TESTRIGS_DIR)
+        .resolve(testrig)
+        .resolve(BfConsts.RELPATH_VENDOR_INDEPENDENT_CONFIG_DIR);
+  }
 }
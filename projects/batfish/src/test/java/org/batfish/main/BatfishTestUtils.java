@@ -6,13 +6,11 @@ import com.google.common.collect.ImmutableMap;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Collections;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
@@ -27,6 +25,8 @@ import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.datamodel.collections.RoutesByVrf;
 import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.symbolic.bdd.BDDPacketContext;
+import org.batfish.z3.NodSession;
 import org.junit.rules.TemporaryFolder;
 
 public class BatfishTestUtils {
@@ -35,12 +35,25 @@ public class BatfishTestUtils {
     return CacheBuilder.newBuilder().maximumSize(5).build();
   }
 
-  private static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> makeEnvBgpCache() {
-    return Collections.synchronizedMap(new LRUMap<>(4));
+  private static Cache<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
+      makeEnvBgpCache() {
+    return CacheBuilder.newBuilder().maximumSize(4).build();
   }
 
-  private static Map<NetworkSnapshot, SortedMap<String, RoutesByVrf>> makeEnvRouteCache() {
-    return Collections.synchronizedMap(new LRUMap<>(4));
+  private static Cache<NetworkSnapshot, SortedMap<String, RoutesByVrf>> makeEnvRouteCache() {
+    return CacheBuilder.newBuilder().maximumSize(4).build();
+  }
+
+  private static Cache<NetworkSnapshot, BDDPacketContext> makeBddPacketContextCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(5)
+        .<NetworkSnapshot, BDDPacketContext>removalListener(
+            notification -> notification.getValue().evict())
+        .build();
+  }
+
+  private static Cache<NetworkSnapshot, NodSession> makeNodSessionCache() {
+    return CacheBuilder.newBuilder().maximumSize(5).build();
   }
 
   private static Cache<NetworkSnapshot, DataPlane> makeDataPlaneCache() {
@@ -75,8 +88,10 @@ public class BatfishTestUtils {
             testrigs,
             makeDataPlaneCache(),
             makeDataPlaneCache(),
+            makeBddPacketContextCache(),
             makeEnvBgpCache(),
-            makeEnvRouteCache());
+            makeEnvRouteCache(),
+            makeNodSessionCache());
     if (!configurations.isEmpty()) {
       Batfish.serializeAsJson(
           settings.getBaseTestrigSettings().getEnvironmentSettings().getSerializedTopologyPath(),
@@ -124,8 +139,10 @@ public class BatfishTestUtils {
             testrigs,
             makeDataPlaneCache(),
             makeDataPlaneCache(),
+            makeBddPacketContextCache(),
             makeEnvBgpCache(),
-            makeEnvRouteCache());
+            makeEnvRouteCache(),
+            makeNodSessionCache());
     batfish.getSettings().setDiffQuestion(true);
     if (!baseConfigs.isEmpty()) {
       Batfish.serializeAsJson(
@@ -210,8 +227,10 @@ public class BatfishTestUtils {
             makeTestrigCache(),
             makeDataPlaneCache(),
             makeDataPlaneCache(),
+            makeBddPacketContextCache(),
             makeEnvBgpCache(),
-            makeEnvRouteCache());
+            makeEnvRouteCache(),
+            makeNodSessionCache());
     registerDataPlanePlugins(batfish);
     return batfish;
   }
@@ -0,0 +1,105 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockRib;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.collections.RoutesByVrf;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.z3.MockSynthesizerInput;
+import org.batfish.z3.NodSession;
+import org.batfish.z3.Synthesizer;
+import org.junit.Test;
+
+/** Tests of {@link CacheWeights}. */
+public class CacheWeightsTest {
+
+  private static StaticRoute route(String prefix) {
+    return StaticRoute.builder()
+        .setNetwork(Prefix.parse(prefix))
+        .setNextHopInterface(Interface.NULL_INTERFACE_NAME)
+        .setAdministrativeCost(1)
+        .build();
+  }
+
+  @Test
+  public void testWeighConfigurations() {
+    Configuration c1 = new Configuration("c1", ConfigurationFormat.CISCO_IOS);
+    Configuration c2 = new Configuration("c2", ConfigurationFormat.CISCO_IOS);
+
+    assertThat(
+        CacheWeights.weighConfigurations(ImmutableSortedMap.of("c1", c1, "c2", c2)),
+        equalTo((int) (2 * CacheWeights.BYTES_PER_CONFIGURATION / 1024)));
+  }
+
+  @Test
+  public void testWeighDataPlaneCountsRoutes() {
+    GenericRib<AbstractRoute> rib =
+        MockRib.builder()
+            .setRoutes(ImmutableSet.of(route("10.0.0.0/8"), route("10.0.0.0/16")))
+            .build();
+    DataPlane dataPlane =
+        MockDataPlane.builder()
+            .setRibs(ImmutableSortedMap.of("n1", ImmutableSortedMap.of("default", rib)))
+            .build();
+
+    assertThat(
+        CacheWeights.weighDataPlane(dataPlane),
+        equalTo(
+            (int)
+                ((CacheWeights.BYTES_PER_DATA_PLANE_NODE
+                        + 2 * CacheWeights.BYTES_PER_DATA_PLANE_ROUTE)
+                    / 1024)));
+  }
+
+  @Test
+  public void testWeighNodSession() {
+    NodSession session = new NodSession();
+    assertThat(CacheWeights.weighNodSession(session), equalTo(1));
+
+    session.getSynthesizer(
+        false,
+        new HeaderSpace(),
+        ImmutableSet.of(),
+        ImmutableSet.of(),
+        IpSpaceAssignment.empty(),
+        false,
+        false,
+        () ->
+            new Synthesizer(
+                MockSynthesizerInput.builder()
+                    .setEnabledNodes(ImmutableSet.of("n1", "n2"))
+                    .setEnabledEdges(ImmutableSet.of(new Edge("n1", "i1", "n2", "i2")))
+                    .build()));
+
+    assertThat(
+        CacheWeights.weighNodSession(session),
+        equalTo(
+            (int)
+                ((2 * CacheWeights.BYTES_PER_NOD_NODE + CacheWeights.BYTES_PER_NOD_EDGE) / 1024)));
+  }
+
+  @Test
+  public void testEmptyEntriesWeighSomething() {
+    RoutesByVrf routes = new RoutesByVrf();
+    routes.put("default", ImmutableSortedSet.of());
+
+    assertThat(
+        CacheWeights.weighEnvironmentRoutingTables(ImmutableSortedMap.of("n1", routes)),
+        equalTo(1));
+  }
+}
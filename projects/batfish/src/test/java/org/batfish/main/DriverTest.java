@@ -0,0 +1,39 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.Cache;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Snapshot;
+import org.junit.Test;
+
+/** Tests of {@link Driver}. */
+public class DriverTest {
+
+  private static final NetworkSnapshot SNAPSHOT_1 =
+      new NetworkSnapshot("container", new Snapshot("testrig1", "env"));
+
+  private static final NetworkSnapshot SNAPSHOT_2 =
+      new NetworkSnapshot("container", new Snapshot("testrig2", "env"));
+
+  @Test
+  public void testWeighedCacheKeepsEntryLargerThanShare() {
+    // a share of 10 KB, and entries weighing their value in KB
+    Cache<NetworkSnapshot, Integer> cache = Driver.buildWeighedCache(100L, 0.1, Integer::intValue);
+
+    cache.put(SNAPSHOT_1, 4);
+    cache.put(SNAPSHOT_2, 1000);
+
+    // the oversized entry is kept, alone
+    assertThat(cache.getIfPresent(SNAPSHOT_2), equalTo(1000));
+    assertThat(cache.getIfPresent(SNAPSHOT_1), nullValue());
+
+    cache.put(SNAPSHOT_1, 4);
+
+    // and is evicted like any other entry
+    assertThat(cache.getIfPresent(SNAPSHOT_1), equalTo(4));
+    assertThat(cache.getIfPresent(SNAPSHOT_2), nullValue());
+  }
+}
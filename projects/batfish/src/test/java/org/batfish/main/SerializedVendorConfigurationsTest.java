@@ -0,0 +1,166 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.batfish.representation.host.HostConfiguration;
+import org.batfish.vendor.VendorConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link SerializedVendorConfigurations}. */
+public class SerializedVendorConfigurationsTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  /** Stand-in for the contents of serialized files */
+  private Map<Path, VendorConfiguration> _disk;
+
+  private SortedMap<String, VendorConfiguration> _overlays;
+
+  private Path _outputPath;
+
+  private SerializedVendorConfigurations _vcs;
+
+  private static HostConfiguration config(String hostname) {
+    HostConfiguration vc = new HostConfiguration();
+    vc.setHostname(hostname);
+    return vc;
+  }
+
+  @Before
+  public void setup() throws IOException {
+    _disk = new HashMap<>();
+    _overlays = new TreeMap<>();
+    _outputPath = _folder.newFolder("vendor").toPath();
+    _vcs =
+        new SerializedVendorConfigurations(
+            _outputPath,
+            _overlays,
+            (vc, path) -> {
+              try {
+                Files.write(path, new byte[0]);
+              } catch (IOException e) {
+                throw new AssertionError(e);
+              }
+              _disk.put(path, vc);
+            },
+            _disk::get);
+  }
+
+  @Test
+  public void testPutSerializes() {
+    HostConfiguration vc = config("h1");
+    _vcs.put("h1", vc);
+
+    Path path = _outputPath.resolve("h1");
+    assertThat(Files.exists(path), equalTo(true));
+    assertThat(_disk.get(path), sameInstance(vc));
+    assertThat(_vcs.get("h1"), sameInstance(vc));
+    assertThat(_vcs.keySet(), equalTo(ImmutableSet.of("h1")));
+    assertThat(_vcs.getUnserializable(), anEmptyMap());
+  }
+
+  @Test
+  public void testRemoveDeletesFile() {
+    HostConfiguration vc = config("h1");
+    _vcs.put("h1", vc);
+
+    assertThat(_vcs.remove("h1"), sameInstance(vc));
+    assertThat(Files.exists(_outputPath.resolve("h1")), equalTo(false));
+    assertThat(_vcs, not(hasKey("h1")));
+    assertThat(_vcs.remove("h1"), nullValue());
+  }
+
+  @Test
+  public void testBadHostnameRetained() {
+    String name = "configs" + File.separator + "iptables-save";
+    HostConfiguration vc = config(name);
+    _vcs.put(name, vc);
+
+    assertThat(_disk, anEmptyMap());
+    assertThat(_vcs.get(name), sameInstance(vc));
+    assertThat(_vcs.getUnserializable().get(name), sameInstance(vc));
+  }
+
+  @Test
+  public void testOverlays() {
+    HostConfiguration overlay1 = config("h1");
+    HostConfiguration overlay2 = config("h2");
+    _overlays.put("h1", overlay1);
+    _overlays.put("h2", overlay2);
+    HostConfiguration vc = config("h1");
+    _vcs.put("h1", vc);
+
+    assertThat(vc.getOverlayConfiguration(), sameInstance(overlay1));
+    assertThat(_vcs.getOrphanedOverlays().keySet(), equalTo(ImmutableSet.of("h2")));
+
+    // renaming a configuration, as done for duplicate hostnames, detaches its overlay
+    _vcs.put("h1__file__f", _vcs.remove("h1"));
+
+    assertThat(vc.getOverlayConfiguration(), nullValue());
+    assertThat(_vcs.getOrphanedOverlays().keySet(), equalTo(ImmutableSet.of("h1", "h2")));
+  }
+
+  @Test
+  public void testStagedConfigurationMoved() {
+    HostConfiguration overlay = config("h1");
+    _overlays.put("h1", overlay);
+    HostConfiguration vc = config("h1");
+    _vcs.stage(vc);
+
+    // serialized by the worker, but not yet in the output directory
+    assertThat(vc.getOverlayConfiguration(), sameInstance(overlay));
+    assertThat(_disk.size(), equalTo(1));
+    assertThat(Files.exists(_outputPath.resolve("h1")), equalTo(false));
+
+    _vcs.put("h1", vc);
+
+    // moved into place rather than serialized again
+    assertThat(_disk.size(), equalTo(1));
+    assertThat(Files.exists(_outputPath.resolve("h1")), equalTo(true));
+    assertThat(_vcs.keySet(), equalTo(ImmutableSet.of("h1")));
+  }
+
+  @Test
+  public void testRenamedAfterStaging() {
+    HostConfiguration vc = config("h1");
+    _vcs.stage(vc);
+    Path staged = Iterables.getOnlyElement(_disk.keySet());
+    vc.setHostname("h1__file__f");
+
+    _vcs.put("h1__file__f", vc);
+
+    assertThat(Files.exists(staged), equalTo(false));
+    assertThat(_disk.get(_outputPath.resolve("h1__file__f")), sameInstance(vc));
+  }
+
+  @Test
+  public void testCloseDeletesStaged() {
+    HostConfiguration vc = config("h1");
+    _vcs.stage(vc);
+    Path staged = Iterables.getOnlyElement(_disk.keySet());
+
+    _vcs.close();
+
+    assertThat(Files.exists(staged), equalTo(false));
+    assertThat(Files.exists(_outputPath), equalTo(true));
+  }
+}
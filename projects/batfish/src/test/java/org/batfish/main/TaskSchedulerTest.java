@@ -0,0 +1,90 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.config.Settings;
+import org.batfish.main.TaskScheduler.Kind;
+import org.junit.Test;
+
+/** Tests of {@link TaskScheduler}. */
+public class TaskSchedulerTest {
+
+  @Test
+  public void testAdmission() {
+    TaskScheduler scheduler = new TaskScheduler(2, ImmutableMap.of());
+
+    assertThat(scheduler.tryAdmit(), equalTo(true));
+    assertThat(scheduler.tryAdmit(), equalTo(true));
+    assertThat(scheduler.hasCapacity(), equalTo(false));
+    assertThat(scheduler.tryAdmit(), equalTo(false));
+
+    scheduler.release();
+    assertThat(scheduler.hasCapacity(), equalTo(true));
+    assertThat(scheduler.getAdmitted(), equalTo(1));
+  }
+
+  @Test
+  public void testKindOf() {
+    assertThat(Kind.of(new Settings(new String[] {"-sv"})), equalTo(Kind.PARSING));
+    assertThat(Kind.of(new Settings(new String[] {"-dp"})), equalTo(Kind.DATA_PLANE));
+    assertThat(Kind.of(new Settings(new String[] {"-answer"})), equalTo(Kind.QUESTION));
+  }
+
+  @Test
+  public void testRunReleases() throws InterruptedException {
+    TaskScheduler scheduler = new TaskScheduler(1, ImmutableMap.of());
+    CountDownLatch done = new CountDownLatch(1);
+    scheduler.tryAdmit();
+
+    scheduler.run(Kind.QUESTION, done::countDown);
+
+    assertThat(done.await(10, TimeUnit.SECONDS), equalTo(true));
+    // released after the task returns
+    assertThat(scheduler.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+    assertThat(scheduler.hasCapacity(), equalTo(true));
+  }
+
+  @Test
+  public void testPoolsLimitTasksOfEachKind() throws InterruptedException {
+    TaskScheduler scheduler =
+        new TaskScheduler(3, ImmutableMap.of(Kind.DATA_PLANE, 1, Kind.QUESTION, 2));
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch dataPlaneStarted = new CountDownLatch(1);
+    CountDownLatch questionsRunning = new CountDownLatch(2);
+    AtomicInteger dataPlanesRun = new AtomicInteger();
+    Runnable dataPlane =
+        () -> {
+          dataPlanesRun.incrementAndGet();
+          dataPlaneStarted.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+    scheduler.tryAdmit();
+    scheduler.run(Kind.DATA_PLANE, dataPlane);
+    scheduler.tryAdmit();
+    scheduler.run(Kind.DATA_PLANE, dataPlane);
+
+    // the second data plane waits for the first, but questions run alongside it
+    assertThat(scheduler.hasFreeThread(Kind.DATA_PLANE), equalTo(false));
+    assertThat(scheduler.hasFreeThread(Kind.QUESTION), equalTo(true));
+    scheduler.tryAdmit();
+    scheduler.run(Kind.QUESTION, questionsRunning::countDown);
+    questionsRunning.countDown();
+    assertThat(questionsRunning.await(10, TimeUnit.SECONDS), equalTo(true));
+    assertThat(dataPlaneStarted.await(10, TimeUnit.SECONDS), equalTo(true));
+    assertThat(dataPlanesRun.get(), equalTo(1));
+
+    blocker.countDown();
+    assertThat(scheduler.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+    assertThat(dataPlanesRun.get(), equalTo(2));
+    assertThat(scheduler.getAdmitted(), equalTo(0));
+  }
+}
@@ -0,0 +1,96 @@
+package org.batfish.symbolic.bdd;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Set;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.acl.CanonicalAcl;
+import org.batfish.datamodel.acl.FalseExpr;
+import org.batfish.datamodel.acl.MatchSrcInterface;
+import org.batfish.datamodel.acl.NotMatchExpr;
+import org.batfish.datamodel.acl.PermittedByAcl;
+import org.batfish.datamodel.acl.TrueExpr;
+import org.junit.Test;
+
+/** Tests of {@link BDDAclLineReachability}. */
+public class BDDAclLineReachabilityTest {
+
+  private static CanonicalAcl canonicalAcl(
+      IpAccessList acl, ImmutableMap<String, IpAccessList> dependencies, Set<String> interfaces) {
+    return new CanonicalAcl(
+        acl, acl, dependencies, interfaces, ImmutableSet.of(), ImmutableSet.of());
+  }
+
+  private static HeaderSpace dstPrefix(String prefix) {
+    return HeaderSpace.builder().setDstIps(Prefix.parse(prefix).toIpSpace()).build();
+  }
+
+  @Test
+  public void testUnreachableLines() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(
+                ImmutableList.of(
+                    IpAccessListLine.acceptingHeaderSpace(dstPrefix("10.0.0.0/8")),
+                    IpAccessListLine.rejectingHeaderSpace(dstPrefix("10.0.0.0/16")),
+                    IpAccessListLine.accepting().setMatchCondition(FalseExpr.INSTANCE).build(),
+                    IpAccessListLine.acceptingHeaderSpace(dstPrefix("11.0.0.0/8")),
+                    IpAccessListLine.rejectingHeaderSpace(dstPrefix("10.0.0.0/7"))))
+            .build();
+
+    BDDAclLineReachability result =
+        BDDAclLineReachability.analyze(canonicalAcl(acl, ImmutableMap.of(), ImmutableSet.of()));
+
+    assertThat(result.getUnreachableLines(), contains(1, 2, 4));
+    assertThat(result.getUnmatchableLines(), contains(2));
+    // line 4 is blocked by lines 0 and 3 together
+    assertThat(result.getBlockingLines(), equalTo(ImmutableSortedMap.of(1, 0)));
+  }
+
+  @Test
+  public void testSourcesAndDependencies() {
+    IpAccessList permitted =
+        IpAccessList.builder()
+            .setName("permitted")
+            .setLines(
+                ImmutableList.of(IpAccessListLine.acceptingHeaderSpace(dstPrefix("1.0.0.0/8"))))
+            .build();
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(
+                ImmutableList.of(
+                    IpAccessListLine.accepting()
+                        .setMatchCondition(new MatchSrcInterface(ImmutableList.of("i1")))
+                        .build(),
+                    IpAccessListLine.accepting()
+                        .setMatchCondition(
+                            new NotMatchExpr(new MatchSrcInterface(ImmutableList.of("i1"))))
+                        .build(),
+                    IpAccessListLine.accepting().setMatchCondition(TrueExpr.INSTANCE).build(),
+                    IpAccessListLine.accepting()
+                        .setMatchCondition(new PermittedByAcl("permitted"))
+                        .build()))
+            .build();
+
+    BDDAclLineReachability result =
+        BDDAclLineReachability.analyze(
+            canonicalAcl(acl, ImmutableMap.of("permitted", permitted), ImmutableSet.of("i1")));
+
+    // only valid sources are considered, so lines 0 and 1 together match every packet
+    assertThat(result.getUnreachableLines(), contains(2, 3));
+    assertThat(result.getUnmatchableLines(), empty());
+    assertThat(result.getBlockingLines().isEmpty(), equalTo(true));
+  }
+}
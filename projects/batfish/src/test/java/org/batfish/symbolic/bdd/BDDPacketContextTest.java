@@ -0,0 +1,132 @@
+package org.batfish.symbolic.bdd;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.sf.javabdd.BDD;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.NetworkFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link BDDPacketContext}. */
+public class BDDPacketContextTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private IpAccessList _acl;
+
+  private Configuration _node;
+
+  @Before
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    _node =
+        nf.configurationBuilder()
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .setHostname("node")
+            .build();
+    _acl =
+        nf.aclBuilder()
+            .setOwner(_node)
+            .setLines(
+                ImmutableList.of(
+                    IpAccessListLine.acceptingHeaderSpace(
+                        HeaderSpace.builder().setDstIps(new Ip("1.1.1.1").toIpSpace()).build())))
+            .build();
+  }
+
+  @Test
+  public void testMemoized() {
+    BDDPacketContext context = new BDDPacketContext();
+    HeaderSpace headerSpace =
+        HeaderSpace.builder().setSrcIps(new Ip("2.2.2.2").toIpSpace()).build();
+    assertThat(context.acquire(), equalTo(true));
+    try (BDDPacketContext c = context) {
+      BDDSourceManager mgr = c.getSourceManager(ImmutableSet.of("eth0"), ImmutableSet.of());
+      BDD aclBdd = c.getAclBdd(_node, _acl, mgr);
+      BDD headerSpaceBdd = c.getHeaderSpaceBdd(_node, headerSpace);
+
+      assertThat(aclBdd, equalTo(c.getBDDPacket().getDstIp().value(new Ip("1.1.1.1").asLong())));
+      assertThat(c.getSourceManager(ImmutableSet.of("eth0"), ImmutableSet.of()), sameInstance(mgr));
+      assertThat(c.getAclBdd(_node, _acl, mgr), sameInstance(aclBdd));
+      assertThat(
+          c.getHeaderSpaceBdd(
+              _node, HeaderSpace.builder().setSrcIps(new Ip("2.2.2.2").toIpSpace()).build()),
+          sameInstance(headerSpaceBdd));
+    }
+  }
+
+  @Test
+  public void testPacketSharedAcrossUses() {
+    BDDPacketContext context = new BDDPacketContext();
+    BDDPacket pkt;
+    assertThat(context.acquire(), equalTo(true));
+    try (BDDPacketContext c = context) {
+      pkt = c.getBDDPacket();
+    }
+    assertThat(context.acquire(), equalTo(true));
+    try (BDDPacketContext c = context) {
+      assertThat(c.getBDDPacket(), sameInstance(pkt));
+    }
+  }
+
+  @Test
+  public void testEvictWhileInUse() {
+    BDDPacketContext context = new BDDPacketContext();
+    assertThat(context.acquire(), equalTo(true));
+    try (BDDPacketContext c = context) {
+      BDDPacket pkt = c.getBDDPacket();
+      c.evict();
+      // still usable until closed
+      assertThat(c.getBDDPacketIfPresent(), sameInstance(pkt));
+    }
+    assertThat(context.getBDDPacketIfPresent(), nullValue());
+    assertThat(context.acquire(), equalTo(false));
+  }
+
+  @Test
+  public void testEvictUnused() {
+    BDDPacketContext context = new BDDPacketContext();
+    assertThat(context.acquire(), equalTo(true));
+    try (BDDPacketContext c = context) {
+      assertThat(c.getBDDPacket(), notNullValue());
+    }
+    context.evict();
+
+    assertThat(context.getBDDPacketIfPresent(), nullValue());
+    assertThat(context.acquire(), equalTo(false));
+  }
+
+  @Test
+  public void testNotAcquired() {
+    _thrown.expect(BatfishException.class);
+    new BDDPacketContext().getBDDPacket();
+  }
+
+  @Test
+  public void testOtherNodesNotShared() {
+    Configuration other = new Configuration("other", ConfigurationFormat.CISCO_IOS);
+    BDDPacketContext context = new BDDPacketContext();
+    assertThat(context.acquire(), equalTo(true));
+    try (BDDPacketContext c = context) {
+      BDDSourceManager mgr = c.getSourceManager(ImmutableSet.of(), ImmutableSet.of());
+      IpAccessList emptyAcl = IpAccessList.builder().setName(_acl.getName()).build();
+      assertThat(c.getAclBdd(_node, _acl, mgr), not(equalTo(c.getAclBdd(other, emptyAcl, mgr))));
+    }
+  }
+}
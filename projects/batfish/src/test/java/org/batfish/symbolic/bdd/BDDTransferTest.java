@@ -0,0 +1,33 @@
+package org.batfish.symbolic.bdd;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Test;
+
+/** Tests of {@link BDDTransfer}. */
+public class BDDTransferTest {
+
+  @Test
+  public void testTransfer() {
+    BDDFactory source = BDDUtils.bddFactory(8);
+    BDDFactory target = BDDTransfer.compatibleFactory(source);
+    BDD bdd = source.ithVar(0).and(source.nithVar(3)).or(source.ithVar(5).xor(source.ithVar(7)));
+    BDDTransfer transfer = new BDDTransfer(target);
+
+    BDD copy = transfer.transfer(bdd);
+
+    assertThat(target.varNum(), equalTo(8));
+    assertThat(
+        copy,
+        equalTo(
+            target.ithVar(0).and(target.nithVar(3)).or(target.ithVar(5).xor(target.ithVar(7)))));
+    assertThat(copy.satCount(), equalTo(bdd.satCount()));
+    assertThat(transfer.transfer(bdd), sameInstance(copy));
+    assertThat(transfer.transfer(source.zero()), equalTo(target.zero()));
+    assertThat(transfer.transfer(source.one()), equalTo(target.one()));
+  }
+}
@@ -0,0 +1,52 @@
+package org.batfish.symbolic.bdd;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link MemoizedIpSpaceToBDD}. */
+public class MemoizedIpSpaceToBDDTest {
+
+  private BDDFactory _factory;
+  private BDDInteger _ipAddrBdd;
+
+  @Before
+  public void init() {
+    _factory = BDDUtils.bddFactory(32);
+    _ipAddrBdd = BDDInteger.makeFromIndex(_factory, 32, 0, true);
+  }
+
+  @Test
+  public void testSharedSubspaceConvertedOnce() {
+    IpSpace matchingIps =
+        IpWildcardSetIpSpace.builder()
+            .including(new IpWildcard(Prefix.parse("10.0.0.0/8")))
+            .excluding(new IpWildcard(Prefix.parse("10.0.0.0/16")))
+            .build();
+    IpSpace acl1 = AclIpSpace.permitting(matchingIps).build();
+    IpSpace acl2 =
+        AclIpSpace.rejecting(Prefix.parse("10.1.0.0/16").toIpSpace())
+            .thenPermitting(matchingIps)
+            .build();
+    MemoizedIpSpaceToBDD toBdd = new MemoizedIpSpaceToBDD(_factory, _ipAddrBdd);
+    IpSpaceToBDD reference = new IpSpaceToBDD(_factory, _ipAddrBdd);
+
+    BDD bdd1 = acl1.accept(toBdd);
+    BDD bdd2 = acl2.accept(toBdd);
+
+    assertThat(bdd1, equalTo(acl1.accept(reference)));
+    assertThat(bdd2, equalTo(acl2.accept(reference)));
+    assertThat(matchingIps.accept(toBdd), sameInstance(matchingIps.accept(toBdd)));
+    assertThat(acl1.accept(toBdd), sameInstance(bdd1));
+  }
+}
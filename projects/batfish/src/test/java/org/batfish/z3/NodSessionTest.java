@@ -0,0 +1,76 @@
+package org.batfish.z3;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.junit.Test;
+
+/** Tests of {@link NodSession}. */
+public class NodSessionTest {
+
+  private static Synthesizer getSynthesizer(
+      NodSession session,
+      boolean compressed,
+      HeaderSpace headerSpace,
+      boolean specialize,
+      AtomicInteger synthesized) {
+    return session.getSynthesizer(
+        compressed,
+        headerSpace,
+        ImmutableSet.of(),
+        ImmutableSet.of(),
+        IpSpaceAssignment.empty(),
+        false,
+        specialize,
+        () -> {
+          synthesized.incrementAndGet();
+          return new Synthesizer(MockSynthesizerInput.builder().build());
+        });
+  }
+
+  @Test
+  public void testReusesSynthesizer() {
+    NodSession session = new NodSession();
+    AtomicInteger synthesized = new AtomicInteger();
+
+    Synthesizer synthesizer = getSynthesizer(session, false, new HeaderSpace(), true, synthesized);
+
+    assertThat(
+        getSynthesizer(session, false, new HeaderSpace(), true, synthesized),
+        sameInstance(synthesizer));
+    assertThat(synthesized.get(), equalTo(1));
+
+    // a different header space to specialize to, or the compressed data plane, is a new query
+    HeaderSpace other = HeaderSpace.builder().setNegate(true).build();
+    getSynthesizer(session, false, other, true, synthesized);
+    getSynthesizer(session, true, new HeaderSpace(), true, synthesized);
+    assertThat(synthesized.get(), equalTo(3));
+    assertThat(session.size(), equalTo(3L));
+  }
+
+  @Test
+  public void testUnspecializedIgnoresHeaderSpace() {
+    NodSession session = new NodSession();
+    AtomicInteger synthesized = new AtomicInteger();
+
+    Synthesizer synthesizer = getSynthesizer(session, false, new HeaderSpace(), false, synthesized);
+    HeaderSpace other = HeaderSpace.builder().setNegate(true).build();
+
+    assertThat(
+        getSynthesizer(session, false, other, false, synthesized), sameInstance(synthesizer));
+    assertThat(synthesized.get(), equalTo(1));
+  }
+
+  @Test
+  public void testProgramSynthesizedOnce() {
+    Synthesizer synthesizer = new Synthesizer(MockSynthesizerInput.builder().build());
+
+    assertThat(
+        synthesizer.synthesizeNodProgram(), sameInstance(synthesizer.synthesizeNodProgram()));
+  }
+}
@@ -0,0 +1,93 @@
+package org.batfish.bddreachability;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.dataplane.ibdp.SyntheticNetworks;
+import org.batfish.dataplane.ibdp.SyntheticNetworks.NetworkType;
+import org.batfish.specifier.InterfaceLocation;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.symbolic.bdd.BDDPacket;
+import org.batfish.z3.IngressLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construction of the BDD reachability graph of a {@link SyntheticNetworks generated network}, and
+ * the reachability fixpoint from every interface. The data plane is computed once per trial.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(
+    value = 1,
+    jvmArgs = {"-Xmx8g"})
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class BDDReachabilityAnalysisBenchmark {
+
+  /**
+   * Threads for the backward fixpoint; above 1 only takes effect on graphs of at least {@link
+   * BDDReachabilityAnalysis#MIN_PARTITIONED_STATES} states
+   */
+  @Param({"1", "4"})
+  public int _fixpointParallelism;
+
+  @Param({"LEAF_SPINE"})
+  public NetworkType _networkType;
+
+  /** Number of leaves, full-mesh routers, or route reflector clients */
+  @Param({"16"})
+  public int _size;
+
+  private IpSpaceAssignment _assignment;
+
+  private SortedMap<String, Configuration> _configurations;
+
+  private ForwardingAnalysis _forwardingAnalysis;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    _configurations = SyntheticNetworks.generate(_networkType, _size);
+    _forwardingAnalysis =
+        SyntheticNetworks.computeDataPlane(_configurations).getForwardingAnalysis();
+    IpSpaceAssignment.Builder assignment = IpSpaceAssignment.builder();
+    _configurations
+        .values()
+        .forEach(
+            c ->
+                c.getInterfaces()
+                    .keySet()
+                    .forEach(
+                        iface ->
+                            assignment.assign(
+                                new InterfaceLocation(c.getHostname(), iface),
+                                UniverseIpSpace.INSTANCE)));
+    _assignment = assignment.build();
+  }
+
+  @Benchmark
+  public BDDReachabilityAnalysis buildAnalysis() {
+    return new BDDReachabilityAnalysisFactory(new BDDPacket(), _configurations, _forwardingAnalysis)
+        .bddReachabilityAnalysis(_assignment, UniverseIpSpace.INSTANCE, _fixpointParallelism);
+  }
+
+  @Benchmark
+  public Map<IngressLocation, BDD> computeAcceptBDDs() {
+    return buildAnalysis().getIngressLocationAcceptBDDs();
+  }
+}
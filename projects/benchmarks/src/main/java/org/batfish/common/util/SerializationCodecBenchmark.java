@@ -0,0 +1,120 @@
+package org.batfish.common.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.dataplane.ibdp.SyntheticNetworks;
+import org.batfish.dataplane.ibdp.SyntheticNetworks.NetworkType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing and reading the configurations and data plane of a {@link SyntheticNetworks generated
+ * network} with each {@link SerializationCodec}, LZ4-compressed as stored on disk. Each
+ * configuration is written to its own stream, as in a snapshot. The total encoded sizes are printed
+ * during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(
+    value = 1,
+    jvmArgs = {"-Xmx8g"})
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class SerializationCodecBenchmark {
+
+  @Param({"JAVA", "COMPACT"})
+  public SerializationCodec _codec;
+
+  /** Number of leaves */
+  @Param({"32"})
+  public int _size;
+
+  private SortedMap<String, Configuration> _configurations;
+
+  private DataPlane _dataPlane;
+
+  private List<byte[]> _encodedConfigurations;
+
+  private byte[] _encodedDataPlane;
+
+  private static Object read(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream ois =
+        SerializationCodec.newDetectingObjectInputStream(
+            new LZ4FrameInputStream(new ByteArrayInputStream(bytes)),
+            SerializationCodecBenchmark.class.getClassLoader())) {
+      return ois.readObject();
+    }
+  }
+
+  private byte[] write(Serializable object) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = _codec.newObjectOutputStream(new LZ4FrameOutputStream(bytes))) {
+      oos.writeObject(object);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    _configurations = SyntheticNetworks.generate(NetworkType.LEAF_SPINE, _size);
+    _dataPlane = SyntheticNetworks.computeDataPlane(_configurations);
+    _encodedConfigurations = writeConfigurations();
+    _encodedDataPlane = writeDataPlane();
+    System.out.printf(
+        "%n%s: configurations %d bytes, data plane %d bytes%n",
+        _codec,
+        _encodedConfigurations.stream().mapToInt(b -> b.length).sum(),
+        _encodedDataPlane.length);
+  }
+
+  @Benchmark
+  public List<Object> readConfigurations() throws IOException, ClassNotFoundException {
+    List<Object> configurations = new ArrayList<>(_encodedConfigurations.size());
+    for (byte[] bytes : _encodedConfigurations) {
+      configurations.add(read(bytes));
+    }
+    return configurations;
+  }
+
+  @Benchmark
+  public Object readDataPlane() throws IOException, ClassNotFoundException {
+    return read(_encodedDataPlane);
+  }
+
+  @Benchmark
+  public List<byte[]> writeConfigurations() throws IOException {
+    List<byte[]> encoded = new ArrayList<>(_configurations.size());
+    for (Configuration c : _configurations.values()) {
+      encoded.add(write(c));
+    }
+    return encoded;
+  }
+
+  @Benchmark
+  public byte[] writeDataPlane() throws IOException {
+    return write(_dataPlane);
+  }
+}
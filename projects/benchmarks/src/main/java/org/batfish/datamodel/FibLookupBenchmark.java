@@ -0,0 +1,102 @@
+package org.batfish.datamodel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.dataplane.rib.Rib;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Construction of and next-hop interface lookups in each {@link Fib} implementation, for a RIB of
+ * connected routes and static routes that resolve recursively through them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class FibLookupBenchmark {
+
+  public enum FibType {
+    COMPILED_FIB,
+    FIB_IMPL
+  }
+
+  private static final int NUM_INTERFACES = 64;
+
+  private static final int NUM_LOOKUPS = 100_000;
+
+  @Param({"COMPILED_FIB", "FIB_IMPL"})
+  public FibType _fibType;
+
+  @Param({"10000"})
+  public int _numRoutes;
+
+  private Fib _fib;
+
+  private Ip[] _lookupIps;
+
+  private Rib _rib;
+
+  private static Ip randomIp(Random random) {
+    return new Ip(random.nextInt() & 0xFFFFFFFFL);
+  }
+
+  /** Interfaces own 10.i.0.0/16; static routes to random prefixes point into those subnets */
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+    _rib = new Rib();
+    for (int i = 0; i < NUM_INTERFACES; i++) {
+      _rib.mergeRoute(
+          new ConnectedRoute(new Prefix(new Ip((10L << 24) + ((long) i << 16)), 16), "eth" + i));
+    }
+    for (int i = 0; i < _numRoutes; i++) {
+      int length = 8 + random.nextInt(17);
+      Ip nextHopIp =
+          new Ip((10L << 24) + ((long) random.nextInt(NUM_INTERFACES) << 16) + 1 + i % 1000);
+      _rib.mergeRoute(
+          StaticRoute.builder()
+              .setNetwork(new Prefix(randomIp(random), length))
+              .setNextHopIp(nextHopIp)
+              .setAdministrativeCost(1)
+              .build());
+    }
+    _lookupIps = new Ip[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      _lookupIps[i] = randomIp(random);
+    }
+    _fib = build();
+  }
+
+  @Benchmark
+  public Fib build() {
+    switch (_fibType) {
+      case COMPILED_FIB:
+        return new CompiledFib(_rib);
+      case FIB_IMPL:
+        return new FibImpl(_rib);
+      default:
+        throw new IllegalArgumentException("Unsupported FIB type: " + _fibType);
+    }
+  }
+
+  @Benchmark
+  public void getNextHopInterfaces(Blackhole blackhole) {
+    for (Ip ip : _lookupIps) {
+      blackhole.consume(_fib.getNextHopInterfaces(ip));
+    }
+  }
+}
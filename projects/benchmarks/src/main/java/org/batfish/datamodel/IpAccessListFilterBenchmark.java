@@ -0,0 +1,92 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Concrete evaluation of flows against an {@link IpAccessList} with {@link IpAccessList#filter},
+ * for a firewall-like ACL whose lines match on addresses, protocol and destination ports. Most
+ * flows fall through to the final line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class IpAccessListFilterBenchmark {
+
+  private static final int NUM_FLOWS = 10_000;
+
+  private static final IpProtocol[] PROTOCOLS = {IpProtocol.TCP, IpProtocol.UDP};
+
+  private IpAccessList _acl;
+
+  private Flow[] _flows;
+
+  @Param({"1000"})
+  public int _numLines;
+
+  private static Prefix randomPrefix(Random random, int length) {
+    return new Prefix(new Ip((10L << 24) + (random.nextInt() & 0xFFFFFF)), length);
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+    ImmutableList.Builder<IpAccessListLine> lines = ImmutableList.builder();
+    for (int i = 0; i < _numLines; i++) {
+      int dstPort = random.nextInt(1024);
+      HeaderSpace headerSpace =
+          HeaderSpace.builder()
+              .setSrcIps(randomPrefix(random, 8 + random.nextInt(17)).toIpSpace())
+              .setDstIps(randomPrefix(random, 16 + random.nextInt(17)).toIpSpace())
+              .setIpProtocols(ImmutableSet.of(PROTOCOLS[random.nextInt(PROTOCOLS.length)]))
+              .setDstPorts(ImmutableSet.of(new SubRange(dstPort, dstPort + random.nextInt(16))))
+              .build();
+      lines.add(
+          random.nextBoolean()
+              ? IpAccessListLine.acceptingHeaderSpace(headerSpace)
+              : IpAccessListLine.rejectingHeaderSpace(headerSpace));
+    }
+    lines.add(IpAccessListLine.ACCEPT_ALL);
+    _acl = IpAccessList.builder().setName("acl").setLines(lines.build()).build();
+
+    _flows = new Flow[NUM_FLOWS];
+    for (int i = 0; i < NUM_FLOWS; i++) {
+      _flows[i] =
+          Flow.builder()
+              .setIngressNode("node")
+              .setSrcIp(new Ip((10L << 24) + (random.nextInt() & 0xFFFFFF)))
+              .setDstIp(new Ip((10L << 24) + (random.nextInt() & 0xFFFFFF)))
+              .setIpProtocol(PROTOCOLS[random.nextInt(PROTOCOLS.length)])
+              .setSrcPort(1024 + random.nextInt(64512))
+              .setDstPort(random.nextInt(1024))
+              .setTag(Flow.BASE_FLOW_TAG)
+              .build();
+    }
+  }
+
+  @Benchmark
+  public void filter(Blackhole blackhole) {
+    for (Flow flow : _flows) {
+      blackhole.consume(_acl.filter(flow, null, ImmutableMap.of(), ImmutableMap.of()));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package org.batfish.dataplane.ibdp;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.dataplane.ibdp.SyntheticNetworks.NetworkType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Data plane computation with {@link IncrementalBdpEngine} on {@link SyntheticNetworks generated
+ * networks} of each {@link NetworkType}. Increase {@code _size} with {@code -p _size=...} to see
+ * how the computation scales.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(
+    value = 1,
+    jvmArgs = {"-Xmx8g"})
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class DataPlaneBenchmark {
+
+  @Param({"LEAF_SPINE", "FULL_MESH_IBGP", "ROUTE_REFLECTORS"})
+  public NetworkType _networkType;
+
+  /** Number of leaves, full-mesh routers, or route reflector clients */
+  @Param({"32"})
+  public int _size;
+
+  private SortedMap<String, Configuration> _configurations;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    _configurations = SyntheticNetworks.generate(_networkType, _size);
+  }
+
+  @Benchmark
+  public DataPlane computeDataPlane() {
+    return SyntheticNetworks.computeDataPlane(_configurations);
+  }
+}
@@ -0,0 +1,252 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.BgpAdvertisement.BgpAdvertisementType;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.InterfaceAddress;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.Disjunction;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Data plane computation on a synthetic iBGP network where every client peers with every route
+ * reflector, and learns prefixes with communities from an external peer. Besides the run time,
+ * reports the heap retained by each computed data plane, which is dominated by BGP routes, and its
+ * serialized size.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(
+    value = 1,
+    jvmArgs = {"-Xmx8g"})
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+public class RouteReflectionBenchmark {
+
+  private static final long AS = 65000L;
+
+  /** Size of the pool of communities that external routes are tagged with */
+  private static final int NUM_COMMUNITIES = 16;
+
+  private static final int NUM_COMMUNITIES_PER_ROUTE = 8;
+
+  private static final int NUM_NEIGHBOR_ASES = 8;
+
+  @Param({"16"})
+  public int _numClients;
+
+  @Param({"64"})
+  public int _numPrefixes;
+
+  @Param({"4"})
+  public int _numReflectors;
+
+  private Set<BgpAdvertisement> _externalAdverts;
+
+  private SortedMap<String, Configuration> _configurations;
+
+  private ComputeDataPlaneResult _result;
+
+  private long _usedHeapBefore;
+
+  private Topology _topology;
+
+  private static Ip clientIp(int client) {
+    return new Ip((10L << 24) + (1L << 8) + client);
+  }
+
+  private static SortedSet<Long> communities(int prefix) {
+    ImmutableSortedSet.Builder<Long> communities = ImmutableSortedSet.naturalOrder();
+    for (int i = 0; i < NUM_COMMUNITIES_PER_ROUTE; i++) {
+      communities.add((AS << 16) + (prefix + i) % NUM_COMMUNITIES);
+    }
+    return communities.build();
+  }
+
+  private static Ip externalPeerIp(int client) {
+    return new Ip((172L << 24) + (16L << 16) + ((long) client << 8) + 1);
+  }
+
+  private static Ip reflectorIp(int reflector) {
+    return new Ip((10L << 24) + 1 + reflector);
+  }
+
+  private static long usedHeap() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+
+  private static BgpProcess bgpProcess(
+      NetworkFactory nf, Configuration c, Ip ip, RoutingPolicy.Builder ibgpExportPolicyBuilder) {
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    nf.interfaceBuilder()
+        .setActive(true)
+        .setOwner(c)
+        .setVrf(vrf)
+        .setAddress(new InterfaceAddress(ip, 16))
+        .build();
+    ibgpExportPolicyBuilder.setOwner(c).setName("ibgp-export").build();
+    return nf.bgpProcessBuilder().setRouterId(ip).setVrf(vrf).build();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    If acceptIffBgp = new If();
+    Disjunction guard = new Disjunction();
+    guard.setDisjuncts(
+        ImmutableList.of(
+            new MatchProtocol(RoutingProtocol.BGP), new MatchProtocol(RoutingProtocol.IBGP)));
+    acceptIffBgp.setGuard(guard);
+    acceptIffBgp.setTrueStatements(ImmutableList.of(Statements.ExitAccept.toStaticStatement()));
+    acceptIffBgp.setFalseStatements(ImmutableList.of(Statements.ExitReject.toStaticStatement()));
+    RoutingPolicy.Builder ibgpExportPolicyBuilder =
+        nf.routingPolicyBuilder().setStatements(ImmutableList.of(acceptIffBgp));
+    RoutingPolicy.Builder rejectPolicyBuilder =
+        nf.routingPolicyBuilder()
+            .setName("reject")
+            .setStatements(ImmutableList.of(Statements.ExitReject.toStaticStatement()));
+    BgpActivePeerConfig.Builder nb =
+        nf.bgpNeighborBuilder().setLocalAs(AS).setRemoteAs(AS).setSendCommunity(true);
+    _configurations = new TreeMap<>();
+
+    for (int r = 0; r < _numReflectors; r++) {
+      Configuration rr = cb.setHostname("rr" + r).build();
+      _configurations.put(rr.getHostname(), rr);
+      BgpProcess proc = bgpProcess(nf, rr, reflectorIp(r), ibgpExportPolicyBuilder);
+      nb.setBgpProcess(proc)
+          .setClusterId(reflectorIp(r).asLong())
+          .setLocalIp(reflectorIp(r))
+          .setExportPolicy("ibgp-export");
+      for (int other = 0; other < _numReflectors; other++) {
+        if (other != r) {
+          nb.setRouteReflectorClient(false).setPeerAddress(reflectorIp(other)).build();
+        }
+      }
+      for (int c = 0; c < _numClients; c++) {
+        nb.setRouteReflectorClient(true).setPeerAddress(clientIp(c)).build();
+      }
+    }
+
+    ImmutableSet.Builder<BgpAdvertisement> externalAdverts = ImmutableSet.builder();
+    BgpAdvertisement.Builder ab =
+        new BgpAdvertisement.Builder()
+            .setClusterList(ImmutableSortedSet.of())
+            .setDstVrf(Configuration.DEFAULT_VRF_NAME)
+            .setOriginType(OriginType.INCOMPLETE)
+            .setSrcProtocol(RoutingProtocol.AGGREGATE)
+            .setSrcVrf(Configuration.DEFAULT_VRF_NAME)
+            .setType(BgpAdvertisementType.EBGP_SENT);
+    for (int c = 0; c < _numClients; c++) {
+      Configuration client = cb.setHostname("client" + c).build();
+      _configurations.put(client.getHostname(), client);
+      BgpProcess proc = bgpProcess(nf, client, clientIp(c), ibgpExportPolicyBuilder);
+      rejectPolicyBuilder.setOwner(client).build();
+      Ip externalPeerIp = externalPeerIp(c);
+      nb.setBgpProcess(proc)
+          .setClusterId(clientIp(c).asLong())
+          .setLocalIp(clientIp(c))
+          .setRouteReflectorClient(false)
+          .setExportPolicy("ibgp-export");
+      for (int r = 0; r < _numReflectors; r++) {
+        nb.setPeerAddress(reflectorIp(r)).build();
+      }
+      nb.setRemoteAs(AS + 1 + c).setPeerAddress(externalPeerIp).setExportPolicy("reject").build();
+      nb.setRemoteAs(AS);
+      for (int p = 0; p < _numPrefixes; p++) {
+        externalAdverts.add(
+            ab.setAsPath(AsPath.ofSingletonAsSets(AS + 1 + c, (long) p % NUM_NEIGHBOR_ASES))
+                .setCommunities(communities(p))
+                .setDstIp(clientIp(c))
+                .setDstNode(client.getHostname())
+                .setNetwork(new Prefix(new Ip((100L << 24) + ((long) c << 16) + (p << 8)), 24))
+                .setNextHopIp(externalPeerIp)
+                .setOriginatorIp(externalPeerIp)
+                .setSrcIp(externalPeerIp)
+                .setSrcNode("external" + c)
+                .build());
+      }
+    }
+    _externalAdverts = externalAdverts.build();
+    _topology = CommonUtil.synthesizeTopology(_configurations);
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    _result = null;
+    _usedHeapBefore = usedHeap();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDownIteration() throws IOException {
+    System.out.printf(
+        "%nRetained heap of data plane: %d KiB%n", (usedHeap() - _usedHeapBefore) / 1024);
+    CountingOutputStream serialized = new CountingOutputStream(ByteStreams.nullOutputStream());
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(_result._dataPlane);
+    }
+    System.out.printf("Serialized size of data plane: %d KiB%n", serialized.getCount() / 1024);
+    _result = null;
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane() {
+    IncrementalBdpEngine engine =
+        new IncrementalBdpEngine(
+            new IncrementalDataPlaneSettings(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false),
+            (s, i) -> new AtomicInteger());
+    _result = engine.computeDataPlane(false, _configurations, _topology, _externalAdverts);
+    return _result;
+  }
+}
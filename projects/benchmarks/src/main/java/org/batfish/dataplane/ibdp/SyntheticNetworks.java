@@ -0,0 +1,278 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.InterfaceAddress;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.Disjunction;
+import org.batfish.datamodel.routing_policy.expr.LiteralOrigin;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.SetOrigin;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+
+/**
+ * Generates BGP networks of configurable size for benchmarks, and computes their data planes. Every
+ * edge router owns a /24 host subnet that it advertises into BGP, and filters traffic to its hosts
+ * with an ACL.
+ */
+public final class SyntheticNetworks {
+
+  /** Shape of a generated network */
+  public enum NetworkType {
+    /** eBGP leaf-spine fabric, with a private AS per leaf and one AS for all spines */
+    LEAF_SPINE,
+    /** Routers in one AS on a shared LAN, with an iBGP session between every pair */
+    FULL_MESH_IBGP,
+    /** Clients in one AS on a shared LAN, each peering with every route reflector */
+    ROUTE_REFLECTORS
+  }
+
+  private static final long AS = 65000L;
+
+  private static final String EXPORT_POLICY_NAME = "export";
+
+  private static final int NUM_ACL_LINES = 50;
+
+  private static final int NUM_REFLECTORS = 2;
+
+  private static final int NUM_SPINES = 4;
+
+  /** A generated router and its BGP process in the default VRF */
+  private static final class Router {
+
+    private final Configuration _c;
+    private final BgpProcess _proc;
+    private final Vrf _vrf;
+
+    private Router(Configuration c, Vrf vrf, BgpProcess proc) {
+      _c = c;
+      _vrf = vrf;
+      _proc = proc;
+    }
+  }
+
+  private static final class Generator {
+
+    private final Configuration.Builder _cb;
+    private final Interface.Builder _ib;
+    private final NetworkFactory _nf;
+    private final BgpActivePeerConfig.Builder _nb;
+    private final RoutingPolicy.Builder _pb;
+    private final SortedMap<String, Configuration> _configurations;
+    private final Vrf.Builder _vb;
+
+    private Generator() {
+      _nf = new NetworkFactory();
+      _cb = _nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+      _ib = _nf.interfaceBuilder().setActive(true);
+      _nb = _nf.bgpNeighborBuilder().setSendCommunity(true).setExportPolicy(EXPORT_POLICY_NAME);
+      _vb = _nf.vrfBuilder().setName(Configuration.DEFAULT_VRF_NAME);
+      If exportConnectedAndBgp = new If();
+      Disjunction guard = new Disjunction();
+      guard.setDisjuncts(
+          ImmutableList.of(
+              new MatchProtocol(RoutingProtocol.CONNECTED),
+              new MatchProtocol(RoutingProtocol.BGP),
+              new MatchProtocol(RoutingProtocol.IBGP)));
+      exportConnectedAndBgp.setGuard(guard);
+      exportConnectedAndBgp.setTrueStatements(
+          ImmutableList.of(
+              new SetOrigin(new LiteralOrigin(OriginType.INCOMPLETE, null)),
+              Statements.ExitAccept.toStaticStatement()));
+      exportConnectedAndBgp.setFalseStatements(
+          ImmutableList.of(Statements.ExitReject.toStaticStatement()));
+      _pb =
+          _nf.routingPolicyBuilder()
+              .setName(EXPORT_POLICY_NAME)
+              .setStatements(ImmutableList.of(exportConnectedAndBgp));
+      _configurations = new TreeMap<>();
+    }
+
+    /** Creates a BGP router with the given address on its uplink interface */
+    private Router router(String hostname, InterfaceAddress address) {
+      Configuration c = _cb.setHostname(hostname).build();
+      _configurations.put(hostname, c);
+      Vrf vrf = _vb.setOwner(c).build();
+      _pb.setOwner(c).build();
+      addInterface(c, vrf, address);
+      return new Router(
+          c, vrf, _nf.bgpProcessBuilder().setRouterId(address.getIp()).setVrf(vrf).build());
+    }
+
+    private void addInterface(Configuration c, Vrf vrf, InterfaceAddress address) {
+      _ib.setOwner(c).setVrf(vrf).setAddress(address).setOutgoingFilter(null).build();
+    }
+
+    /** Adds the filtered host subnet of the {@code index}th edge router */
+    private void addHostSubnet(Router router, int index) {
+      _ib.setOwner(router._c)
+          .setVrf(router._vrf)
+          .setAddress(new InterfaceAddress(hostIp(index), 24))
+          .setOutgoingFilter(hostFilter(router._c))
+          .build();
+    }
+
+    private IpAccessList hostFilter(Configuration c) {
+      ImmutableList.Builder<IpAccessListLine> lines = ImmutableList.builder();
+      for (int i = 0; i < NUM_ACL_LINES; i++) {
+        lines.add(
+            IpAccessListLine.rejectingHeaderSpace(
+                HeaderSpace.builder().setDstPorts(ImmutableSet.of(new SubRange(i, i))).build()));
+      }
+      lines.add(IpAccessListLine.ACCEPT_ALL);
+      return _nf.aclBuilder().setOwner(c).setName("host-filter").setLines(lines.build()).build();
+    }
+
+    private void peer(Router router, long localAs, Ip localIp, long remoteAs, Ip remoteIp) {
+      _nb.setBgpProcess(router._proc)
+          .setClusterId(router._proc.getRouterId().asLong())
+          .setLocalAs(localAs)
+          .setLocalIp(localIp)
+          .setRemoteAs(remoteAs)
+          .setPeerAddress(remoteIp)
+          .build();
+    }
+
+    private void leafSpine(int numLeaves) {
+      _nb.setRouteReflectorClient(false);
+      Router[] spines = new Router[NUM_SPINES];
+      for (int s = 0; s < NUM_SPINES; s++) {
+        spines[s] = router("spine" + s, new InterfaceAddress(lanIp(s), 32));
+      }
+      for (int l = 0; l < numLeaves; l++) {
+        long leafAs = AS + 1 + l;
+        Router leaf = router("leaf" + l, new InterfaceAddress(lanIp(NUM_SPINES + l), 32));
+        addHostSubnet(leaf, l);
+        for (int s = 0; s < NUM_SPINES; s++) {
+          InterfaceAddress leafSide = linkAddress(l, s, false);
+          InterfaceAddress spineSide = linkAddress(l, s, true);
+          addInterface(leaf._c, leaf._vrf, leafSide);
+          addInterface(spines[s]._c, spines[s]._vrf, spineSide);
+          peer(leaf, leafAs, leafSide.getIp(), AS, spineSide.getIp());
+          peer(spines[s], AS, spineSide.getIp(), leafAs, leafSide.getIp());
+        }
+      }
+    }
+
+    private void fullMeshIbgp(int numRouters) {
+      Router[] routers = new Router[numRouters];
+      for (int r = 0; r < numRouters; r++) {
+        routers[r] = router("r" + r, new InterfaceAddress(lanIp(r), 16));
+        addHostSubnet(routers[r], r);
+      }
+      _nb.setRouteReflectorClient(false);
+      for (int r = 0; r < numRouters; r++) {
+        for (int other = 0; other < numRouters; other++) {
+          if (other != r) {
+            peer(routers[r], AS, lanIp(r), AS, lanIp(other));
+          }
+        }
+      }
+    }
+
+    private void routeReflectors(int numClients) {
+      Router[] reflectors = new Router[NUM_REFLECTORS];
+      for (int r = 0; r < NUM_REFLECTORS; r++) {
+        reflectors[r] = router("rr" + r, new InterfaceAddress(lanIp(r), 16));
+      }
+      for (int c = 0; c < numClients; c++) {
+        Ip clientIp = lanIp(NUM_REFLECTORS + c);
+        Router client = router("client" + c, new InterfaceAddress(clientIp, 16));
+        addHostSubnet(client, c);
+        for (int r = 0; r < NUM_REFLECTORS; r++) {
+          _nb.setRouteReflectorClient(false);
+          peer(client, AS, clientIp, AS, lanIp(r));
+          _nb.setRouteReflectorClient(true);
+          peer(reflectors[r], AS, lanIp(r), AS, clientIp);
+        }
+      }
+      _nb.setRouteReflectorClient(false);
+      for (int r = 0; r < NUM_REFLECTORS; r++) {
+        for (int other = 0; other < NUM_REFLECTORS; other++) {
+          if (other != r) {
+            peer(reflectors[r], AS, lanIp(r), AS, lanIp(other));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the data plane of {@code configurations}, with a layer-3 topology inferred from
+   * interface addresses.
+   */
+  public static DataPlane computeDataPlane(SortedMap<String, Configuration> configurations) {
+    IncrementalBdpEngine engine =
+        new IncrementalBdpEngine(
+            new IncrementalDataPlaneSettings(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false),
+            (s, i) -> new AtomicInteger());
+    return engine.computeDataPlane(
+            false, configurations, CommonUtil.synthesizeTopology(configurations), ImmutableSet.of())
+        ._dataPlane;
+  }
+
+  /**
+   * Generates a network of the given type.
+   *
+   * @param type shape of the network
+   * @param size number of leaves, full-mesh routers, or route reflector clients
+   * @return configurations keyed by hostname
+   */
+  public static SortedMap<String, Configuration> generate(NetworkType type, int size) {
+    Generator generator = new Generator();
+    switch (type) {
+      case LEAF_SPINE:
+        generator.leafSpine(size);
+        break;
+      case FULL_MESH_IBGP:
+        generator.fullMeshIbgp(size);
+        break;
+      case ROUTE_REFLECTORS:
+        generator.routeReflectors(size);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported network type: " + type);
+    }
+    return generator._configurations;
+  }
+
+  /** Address of the first host in the subnet of the {@code index}th edge router */
+  public static Ip hostIp(int index) {
+    return new Ip((172L << 24) + (16L << 16) + ((long) index << 8) + 1);
+  }
+
+  private static Ip lanIp(int index) {
+    return new Ip((10L << 24) + 1 + index);
+  }
+
+  /** Address of the /31 link between a leaf and a spine, on the given side */
+  private static InterfaceAddress linkAddress(int leaf, int spine, boolean spineSide) {
+    long base = (11L << 24) + ((long) leaf << 10) + ((long) spine << 1);
+    return new InterfaceAddress(new Ip(base + (spineSide ? 1 : 0)), Prefix.MAX_PREFIX_LENGTH - 1);
+  }
+
+  private SyntheticNetworks() {}
+}
@@ -0,0 +1,198 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.InterfaceAddress;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.Vrf;
+import org.batfish.dataplane.TracerouteEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link TracerouteEngineImpl#processFlows} on a synthetic leaf-spine network with
+ * ECMP static routing and filtered spine interfaces. Lives in this package to compute the data
+ * plane directly with {@link IncrementalBdpEngine}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class TracerouteBenchmark {
+
+  private static final int NUM_ACL_LINES = 50;
+
+  @Param({"false", "true"})
+  public boolean _ignoreAcls;
+
+  @Param({"16"})
+  public int _numLeaves;
+
+  @Param({"10000"})
+  public int _numFlows;
+
+  @Param({"4"})
+  public int _numSpines;
+
+  private DataPlane _dataPlane;
+
+  private Set<Flow> _flows;
+
+  private static Ip leafHostIp(int leaf, int host) {
+    return new Ip((10L << 24) + ((long) leaf << 8) + host);
+  }
+
+  /** Address of the /31 link between a leaf and a spine, on the given side */
+  private static InterfaceAddress linkAddress(int leaf, int spine, boolean spineSide) {
+    long base = (11L << 24) + ((long) leaf << 10) + ((long) spine << 1);
+    return new InterfaceAddress(new Ip(base + (spineSide ? 1 : 0)), Prefix.MAX_PREFIX_LENGTH - 1);
+  }
+
+  private static IpAccessList spineFilter(NetworkFactory nf, Configuration spine) {
+    ImmutableList.Builder<IpAccessListLine> lines = ImmutableList.builder();
+    for (int i = 0; i < NUM_ACL_LINES; i++) {
+      lines.add(
+          IpAccessListLine.rejectingHeaderSpace(
+              HeaderSpace.builder().setDstPorts(ImmutableSet.of(new SubRange(i, i))).build()));
+    }
+    lines.add(IpAccessListLine.ACCEPT_ALL);
+    return nf.aclBuilder().setOwner(spine).setName("spine-filter").setLines(lines.build()).build();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Vrf.Builder vb = nf.vrfBuilder().setName(Configuration.DEFAULT_VRF_NAME);
+    Interface.Builder ib = nf.interfaceBuilder().setActive(true);
+    SortedMap<String, Configuration> configurations = new TreeMap<>();
+
+    Configuration[] spines = new Configuration[_numSpines];
+    Vrf[] spineVrfs = new Vrf[_numSpines];
+    for (int s = 0; s < _numSpines; s++) {
+      spines[s] = cb.setHostname("spine" + s).build();
+      spineVrfs[s] = vb.setOwner(spines[s]).build();
+      configurations.put(spines[s].getHostname(), spines[s]);
+    }
+    IpAccessList[] spineFilters = new IpAccessList[_numSpines];
+    for (int s = 0; s < _numSpines; s++) {
+      spineFilters[s] = spineFilter(nf, spines[s]);
+    }
+    List<ImmutableSortedSet.Builder<StaticRoute>> spineRoutes = new ArrayList<>();
+    for (int s = 0; s < _numSpines; s++) {
+      spineRoutes.add(ImmutableSortedSet.naturalOrder());
+    }
+
+    for (int l = 0; l < _numLeaves; l++) {
+      Configuration leaf = cb.setHostname("leaf" + l).build();
+      Vrf leafVrf = vb.setOwner(leaf).build();
+      configurations.put(leaf.getHostname(), leaf);
+      Prefix hostSubnet = new Prefix(leafHostIp(l, 0), 24);
+      ib.setOwner(leaf)
+          .setVrf(leafVrf)
+          .setAddress(new InterfaceAddress(leafHostIp(l, 1), 24))
+          .setOutgoingFilter(null)
+          .build();
+      ImmutableSortedSet.Builder<StaticRoute> leafRoutes = ImmutableSortedSet.naturalOrder();
+      for (int s = 0; s < _numSpines; s++) {
+        ib.setOwner(leaf).setVrf(leafVrf).setAddress(linkAddress(l, s, false)).build();
+        ib.setOwner(spines[s])
+            .setVrf(spineVrfs[s])
+            .setAddress(linkAddress(l, s, true))
+            .setOutgoingFilter(spineFilters[s])
+            .build();
+        ib.setOutgoingFilter(null);
+        leafRoutes.add(
+            StaticRoute.builder()
+                .setNetwork(Prefix.ZERO)
+                .setNextHopIp(linkAddress(l, s, true).getIp())
+                .setAdministrativeCost(1)
+                .build());
+        spineRoutes
+            .get(s)
+            .add(
+                StaticRoute.builder()
+                    .setNetwork(hostSubnet)
+                    .setNextHopIp(linkAddress(l, s, false).getIp())
+                    .setAdministrativeCost(1)
+                    .build());
+      }
+      leafVrf.setStaticRoutes(leafRoutes.build());
+    }
+    for (int s = 0; s < _numSpines; s++) {
+      spineVrfs[s].setStaticRoutes(spineRoutes.get(s).build());
+    }
+
+    IncrementalBdpEngine engine =
+        new IncrementalBdpEngine(
+            new IncrementalDataPlaneSettings(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false),
+            (s, i) -> new AtomicInteger());
+    _dataPlane =
+        engine.computeDataPlane(
+                false,
+                configurations,
+                CommonUtil.synthesizeTopology(configurations),
+                ImmutableSet.of())
+            ._dataPlane;
+
+    // Many flows share a destination; about half are owned by the destination leaf
+    Random random = new Random(0);
+    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+    for (int i = 0; i < _numFlows; i++) {
+      int srcLeaf = random.nextInt(_numLeaves);
+      flows.add(
+          Flow.builder()
+              .setIngressNode("leaf" + srcLeaf)
+              .setSrcIp(leafHostIp(srcLeaf, 2 + random.nextInt(200)))
+              .setDstIp(leafHostIp(random.nextInt(_numLeaves), 1 + random.nextInt(2)))
+              .setDstPort(random.nextInt(2 * NUM_ACL_LINES))
+              .setTag(Flow.BASE_FLOW_TAG)
+              .build());
+    }
+    _flows = flows.build();
+  }
+
+  @Benchmark
+  public SortedMap<Flow, Set<FlowTrace>> processFlows() {
+    return TracerouteEngineImpl.getInstance()
+        .processFlows(_dataPlane, _flows, _dataPlane.getFibs(), _ignoreAcls);
+  }
+}
@@ -0,0 +1,106 @@
+package org.batfish.dataplane.rib;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link RibIndexType}s backing {@link AbstractRib} on an Internet-like table: bulk
+ * merge, longest prefix match and exact prefix lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class RibIndexBenchmark {
+
+  /** A RIB of static routes that keeps all routes for a prefix, using the given index */
+  private static final class BenchmarkRib extends AbstractRib<StaticRoute> {
+
+    private static final long serialVersionUID = 1L;
+
+    private BenchmarkRib(RibIndexType indexType) {
+      super(null, indexType);
+    }
+
+    @Override
+    public int comparePreference(StaticRoute lhs, StaticRoute rhs) {
+      return 0;
+    }
+  }
+
+  private static final int NUM_LOOKUPS = 100_000;
+
+  @Param({"RIB_TREE", "COMPRESSED_TRIE"})
+  public RibIndexType _indexType;
+
+  @Param({"100000"})
+  public int _numRoutes;
+
+  private Ip[] _lookupIps;
+
+  private StaticRoute[] _routes;
+
+  private BenchmarkRib _rib;
+
+  /** Generate a table whose prefix length distribution roughly resembles a full BGP table */
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+    _routes = new StaticRoute[_numRoutes];
+    for (int i = 0; i < _numRoutes; i++) {
+      int r = random.nextInt(100);
+      int length = r < 60 ? 24 : r < 90 ? 16 + random.nextInt(8) : 8 + random.nextInt(8);
+      Prefix prefix = new Prefix(new Ip(random.nextInt() & 0xFFFFFFFFL), length);
+      _routes[i] = new StaticRoute(prefix, new Ip(random.nextInt() & 0xFFFFFFFFL), null, 1, 0L, 0);
+    }
+    _lookupIps = new Ip[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      _lookupIps[i] = new Ip(random.nextInt() & 0xFFFFFFFFL);
+    }
+    _rib = new BenchmarkRib(_indexType);
+    for (StaticRoute route : _routes) {
+      _rib.mergeRoute(route);
+    }
+  }
+
+  @Benchmark
+  public AbstractRib<StaticRoute> merge() {
+    BenchmarkRib rib = new BenchmarkRib(_indexType);
+    for (StaticRoute route : _routes) {
+      rib.mergeRoute(route);
+    }
+    return rib;
+  }
+
+  @Benchmark
+  public void longestPrefixMatch(Blackhole blackhole) {
+    for (Ip ip : _lookupIps) {
+      blackhole.consume(_rib.longestPrefixMatch(ip));
+    }
+  }
+
+  @Benchmark
+  public void exactPrefixLookup(Blackhole blackhole) {
+    for (StaticRoute route : _routes) {
+      blackhole.consume(_rib.getRoutes(route.getNetwork()));
+    }
+  }
+}
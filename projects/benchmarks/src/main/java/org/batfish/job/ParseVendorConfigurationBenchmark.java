@@ -0,0 +1,88 @@
+package org.batfish.job;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts;
+import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Sequential parsing of every configuration file in the test_rigs corpus with {@link
+ * ParseVendorConfigurationJob}, including format detection and vendor-specific extraction. Run from
+ * the {@code projects} directory, or point {@code _testRigs} at the corpus with {@code -p
+ * _testRigs=...}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(
+    value = 1,
+    jvmArgs = {"-Xmx4g"})
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class ParseVendorConfigurationBenchmark {
+
+  @Param({"../test_rigs"})
+  public String _testRigs;
+
+  /** Text of each configuration file, keyed by path relative to {@link #_testRigs} */
+  private Map<String, String> _configurations;
+
+  private Settings _settings;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    Path testRigs = Paths.get(_testRigs).toRealPath();
+    _configurations = new TreeMap<>();
+    try (Stream<Path> paths = Files.walk(testRigs, Integer.MAX_VALUE)) {
+      paths
+          .filter(Files::isRegularFile)
+          .filter(path -> path.getParent().getFileName().toString().equals("configs"))
+          .forEach(
+              path ->
+                  _configurations.put(
+                      testRigs.relativize(path).toString(), CommonUtil.readFile(path)));
+    }
+    if (_configurations.isEmpty()) {
+      throw new BatfishException(
+          "No configuration files found under: " + testRigs.toAbsolutePath());
+    }
+    _settings =
+        new Settings(
+            new String[] {"-" + BfConsts.ARG_LOG_LEVEL + "=" + BatfishLogger.LEVELSTR_WARN});
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) throws Exception {
+    for (Entry<String, String> e : _configurations.entrySet()) {
+      blackhole.consume(
+          new ParseVendorConfigurationJob(
+                  _settings, e.getValue(), e.getKey(), new Warnings(), ConfigurationFormat.UNKNOWN)
+              .call());
+    }
+  }
+}
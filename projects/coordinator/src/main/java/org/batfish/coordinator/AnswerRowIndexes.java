@@ -0,0 +1,397 @@
+package org.batfish.coordinator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+import org.batfish.common.AnalysisAnswerOptions;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BfConsts;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.table.ColumnarTable;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+
+/**
+ * Persisted indexes of the rows of table answers selected by {@link AnalysisAnswerOptions}, so that
+ * a page of rows can be read without loading the whole answer.
+ *
+ * <p>An index lists the byte offsets in the answer file of the selected rows, in the order in which
+ * the options sort them. It is stored next to the answer, named by a hash of the options other than
+ * the row offset and maximum number of rows, and rebuilt when the answer file changes. Recently
+ * used indexes are kept memory-mapped.
+ *
+ * <p>Whenever an index is built, the indexes of earlier versions of the answer are deleted, and
+ * only the {@link #MAX_INDEXES_PER_ANSWER} most recently built indexes of the answer are kept.
+ */
+final class AnswerRowIndexes {
+
+  /** A persisted index of the rows of an answer selected by some options. */
+  static final class AnswerRowIndex {
+
+    private final long _answerModified;
+
+    private final TableMetadata _metadata;
+
+    private final LongBuffer _offsets;
+
+    private final AnswerStatus _status;
+
+    private AnswerRowIndex(
+        long answerModified, TableMetadata metadata, LongBuffer offsets, AnswerStatus status) {
+      _answerModified = answerModified;
+      _metadata = metadata;
+      _offsets = offsets;
+      _status = status;
+    }
+
+    /** Returns the modification time of the answer file this index was built from. */
+    public long getAnswerModified() {
+      return _answerModified;
+    }
+
+    /** Returns the metadata of the selected columns. */
+    public TableMetadata getMetadata() {
+      return _metadata;
+    }
+
+    /** Returns the number of selected rows. */
+    public int getNumRows() {
+      return _offsets.limit();
+    }
+
+    public AnswerStatus getStatus() {
+      return _status;
+    }
+
+    /**
+     * Reads at most {@code limit} selected rows of {@code answerFile}, starting at {@code offset},
+     * and projects them to {@code options}' columns. Only these rows are read from the file.
+     */
+    public List<Row> readRows(
+        Path answerFile, AnalysisAnswerOptions options, int offset, int limit) {
+      ImmutableList.Builder<Row> rows = ImmutableList.builder();
+      try (FileChannel channel = FileChannel.open(answerFile, StandardOpenOption.READ)) {
+        for (int i = offset; i < getNumRows() && i - offset < limit; i++) {
+          channel.position(_offsets.get(i));
+          Row row;
+          try (JsonParser parser =
+              BatfishObjectMapper.mapper()
+                  .getFactory()
+                  .createParser(Channels.newInputStream(channel))
+                  .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+            parser.nextToken();
+            row = parser.readValueAs(Row.class);
+          }
+          if (row == null) {
+            row = Row.builder().build();
+          }
+          rows.add(
+              options.getColumns().isEmpty()
+                  ? row
+                  : Row.builder().putAll(row, options.getColumns()).build());
+        }
+      } catch (IOException e) {
+        throw new BatfishException("Could not read rows of answer " + answerFile, e);
+      }
+      return rows.build();
+    }
+  }
+
+  private static final String INDEX_DIR = ".row_indexes";
+
+  /** Length of the part of an index file identifying the answer it was built from */
+  private static final int INDEX_PREAMBLE_BYTES = 24;
+
+  /** The maximum number of index files kept for an answer */
+  @VisibleForTesting static final int MAX_INDEXES_PER_ANSWER = 16;
+
+  /** Changed whenever the layout of index files changes */
+  private static final int INDEX_FORMAT = 1;
+
+  private static final int INDEX_MAGIC = 0x42464149;
+
+  private static final String PROP_METADATA = "metadata";
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  /** Keyed by index file, answer modification time and answer size */
+  private final Cache<List<Object>, AnswerRowIndex> _indexes;
+
+  private final BiFunction<TableAnswerElement, AnalysisAnswerOptions, ColumnarTable> _selector;
+
+  /**
+   * @param maxCachedIndexes the number of recently used indexes to keep mapped
+   * @param selector returns the rows of a table answer selected by some options
+   */
+  public AnswerRowIndexes(
+      int maxCachedIndexes,
+      BiFunction<TableAnswerElement, AnalysisAnswerOptions, ColumnarTable> selector) {
+    _indexes = CacheBuilder.newBuilder().maximumSize(maxCachedIndexes).build();
+    _selector = selector;
+  }
+
+  /**
+   * Returns the index of the rows of the table answer in {@code answerFile} selected by {@code
+   * options}, loading or building it if necessary.
+   */
+  public AnswerRowIndex getIndex(Path answerFile, AnalysisAnswerOptions options) {
+    Path indexPath = getIndexPath(answerFile, options);
+    try {
+      long modified = Files.getLastModifiedTime(answerFile).toMillis();
+      long size = Files.size(answerFile);
+      // a changed answer gets a new key, and its old index ages out of the cache
+      List<Object> key = ImmutableList.of(indexPath, modified, size);
+      AnswerRowIndex index = _indexes.getIfPresent(key);
+      if (index == null) {
+        index = readIndex(indexPath, modified, size);
+        if (index == null) {
+          writeIndex(answerFile, indexPath, options, modified, size);
+          pruneIndexes(indexPath, modified, size);
+          index = readIndex(indexPath, modified, size);
+        }
+        if (index == null) {
+          throw new BatfishException("Could not read row index " + indexPath);
+        }
+        _indexes.put(key, index);
+      }
+      return index;
+    } catch (IOException e) {
+      throw new BatfishException("Could not index rows of answer " + answerFile, e);
+    }
+  }
+
+  @VisibleForTesting
+  static Path getIndexPath(Path answerFile, AnalysisAnswerOptions options) {
+    AnalysisAnswerOptions selection =
+        new AnalysisAnswerOptions(
+            options.getColumns(),
+            options.getFilters(),
+            Integer.MAX_VALUE,
+            0,
+            options.getSortOrder(),
+            options.getUniqueRows());
+    String key;
+    try {
+      key =
+          Hashing.sha256().hashString(BatfishObjectMapper.writeString(selection), UTF_8).toString();
+    } catch (IOException e) {
+      throw new BatfishException("Could not serialize answer options", e);
+    }
+    return answerFile.resolveSibling(INDEX_DIR).resolve(key);
+  }
+
+  /**
+   * Returns the index at {@code indexPath}, or {@code null} if missing or built for another file.
+   */
+  @Nullable
+  private static AnswerRowIndex readIndex(Path indexPath, long modified, long size)
+      throws IOException {
+    if (!Files.exists(indexPath)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (!isBuiltFrom(buffer, modified, size)) {
+        return null;
+      }
+      byte[] header = new byte[buffer.getInt()];
+      buffer.get(header);
+      ObjectNode headerNode = (ObjectNode) BatfishObjectMapper.mapper().readTree(header);
+      TableMetadata metadata =
+          BatfishObjectMapper.mapper()
+              .treeToValue(headerNode.get(PROP_METADATA), TableMetadata.class);
+      AnswerStatus status =
+          BatfishObjectMapper.mapper()
+              .treeToValue(headerNode.get(BfConsts.PROP_STATUS), AnswerStatus.class);
+      int numRows = buffer.getInt();
+      LongBuffer offsets = buffer.slice().asLongBuffer();
+      offsets.limit(numRows);
+      return new AnswerRowIndex(modified, metadata, offsets, status);
+    }
+  }
+
+  /**
+   * Returns whether {@code buffer} starts with the preamble of an index built from the answer with
+   * the given modification time and size, consuming the preamble.
+   */
+  private static boolean isBuiltFrom(ByteBuffer buffer, long modified, long size) {
+    return buffer.remaining() >= INDEX_PREAMBLE_BYTES
+        && buffer.getInt() == INDEX_MAGIC
+        && buffer.getInt() == INDEX_FORMAT
+        && buffer.getLong() == modified
+        && buffer.getLong() == size;
+  }
+
+  /**
+   * Deletes the indexes next to {@code indexPath} that were built from another version of the
+   * answer, and the least recently built ones beyond {@link #MAX_INDEXES_PER_ANSWER}. Indexes that
+   * cannot be deleted, e.g. because they are still mapped on some platforms, are left for a later
+   * pass.
+   */
+  private static void pruneIndexes(Path indexPath, long modified, long size) throws IOException {
+    List<Path> current = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(indexPath.getParent())) {
+      for (Path file : files) {
+        // skip the index just built, and indexes being written by other requests
+        if (file.equals(indexPath) || file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+          continue;
+        }
+        ByteBuffer preamble = ByteBuffer.allocate(INDEX_PREAMBLE_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          while (preamble.hasRemaining()) {
+            if (channel.read(preamble) < 0) {
+              break;
+            }
+          }
+        } catch (NoSuchFileException e) {
+          continue;
+        }
+        preamble.flip();
+        if (isBuiltFrom(preamble, modified, size)) {
+          current.add(file);
+        } else {
+          deleteQuietly(file);
+        }
+      }
+    }
+    if (current.size() < MAX_INDEXES_PER_ANSWER) {
+      return;
+    }
+    Map<Path, Long> builtTimes = new HashMap<>();
+    for (Path file : current) {
+      builtTimes.put(file, Files.getLastModifiedTime(file).toMillis());
+    }
+    current.sort(Comparator.comparing(builtTimes::get).reversed());
+    // one slot is taken by the index just built
+    current
+        .subList(MAX_INDEXES_PER_ANSWER - 1, current.size())
+        .forEach(AnswerRowIndexes::deleteQuietly);
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // retried the next time an index of this answer is built
+    }
+  }
+
+  /**
+   * Returns the byte offset in {@code answerFile} of each row of its first answer element, which
+   * must be a table.
+   */
+  @VisibleForTesting
+  static long[] scanRowOffsets(Path answerFile) throws IOException {
+    List<Long> offsets = new ArrayList<>();
+    try (InputStream in = Files.newInputStream(answerFile);
+        JsonParser parser = BatfishObjectMapper.mapper().getFactory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new BatfishException("Answer is not a JSON object: " + answerFile);
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if (field.equals(BfConsts.PROP_ANSWER_ELEMENTS)
+            && parser.currentToken() == JsonToken.START_ARRAY
+            && parser.nextToken() == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String elementField = parser.getCurrentName();
+            parser.nextToken();
+            if (elementField.equals(TableAnswerElement.PROP_ROWS)
+                && parser.currentToken() == JsonToken.START_ARRAY) {
+              while (parser.nextToken() != JsonToken.END_ARRAY) {
+                offsets.add(parser.getTokenLocation().getByteOffset());
+                parser.skipChildren();
+              }
+              return Longs.toArray(offsets);
+            }
+            parser.skipChildren();
+          }
+          break;
+        }
+        parser.skipChildren();
+      }
+    }
+    return Longs.toArray(offsets);
+  }
+
+  private void writeIndex(
+      Path answerFile, Path indexPath, AnalysisAnswerOptions options, long modified, long size)
+      throws IOException {
+    Answer answer = BatfishObjectMapper.mapper().readValue(answerFile.toFile(), Answer.class);
+    if (answer.getAnswerElements().isEmpty()
+        || !(answer.getAnswerElements().get(0) instanceof TableAnswerElement)) {
+      throw new BatfishException("Answer is not a table: " + answerFile);
+    }
+    TableAnswerElement rawTable = (TableAnswerElement) answer.getAnswerElements().get(0);
+    ColumnarTable rows = _selector.apply(rawTable, options);
+    long[] rawOffsets = scanRowOffsets(answerFile);
+    if (rawOffsets.length != rawTable.getRowsTable().size()) {
+      throw new BatfishException("Could not locate rows of answer " + answerFile);
+    }
+    ObjectNode header = BatfishObjectMapper.mapper().createObjectNode();
+    header.set(
+        PROP_METADATA,
+        BatfishObjectMapper.mapper()
+            .valueToTree(WorkMgr.selectMetadata(rawTable.getMetadata(), options)));
+    header.set(BfConsts.PROP_STATUS, BatfishObjectMapper.mapper().valueToTree(answer.getStatus()));
+    byte[] headerBytes = BatfishObjectMapper.mapper().writeValueAsBytes(header);
+
+    Files.createDirectories(indexPath.getParent());
+    Path tempPath =
+        Files.createTempFile(
+            indexPath.getParent(), indexPath.getFileName().toString(), TEMP_SUFFIX);
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(INDEX_FORMAT);
+        out.writeLong(modified);
+        out.writeLong(size);
+        out.writeInt(headerBytes.length);
+        out.write(headerBytes);
+        out.writeInt(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+          out.writeLong(rawOffsets[rows.getRowNumber(i)]);
+        }
+      }
+      Files.move(tempPath, indexPath, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+}
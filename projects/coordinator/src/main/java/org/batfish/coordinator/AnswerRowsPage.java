@@ -0,0 +1,34 @@
+package org.batfish.coordinator;
+
+import org.batfish.datamodel.answers.Answer;
+
+/** A page of the rows of a table answer, as returned by {@link WorkMgr#getAnswerRows}. */
+public final class AnswerRowsPage {
+
+  private final Answer _answer;
+
+  private final long _answerModified;
+
+  private final int _numRows;
+
+  AnswerRowsPage(Answer answer, long answerModified, int numRows) {
+    _answer = answer;
+    _answerModified = answerModified;
+    _numRows = numRows;
+  }
+
+  /** Returns an answer holding a table of the rows of the page, or a failure if there are none. */
+  public Answer getAnswer() {
+    return _answer;
+  }
+
+  /** Returns the modification time of the answer file, which identifies its version. */
+  public long getAnswerModified() {
+    return _answerModified;
+  }
+
+  /** Returns the number of rows selected by the options, across all pages. */
+  public int getNumRows() {
+    return _numRows;
+  }
+}
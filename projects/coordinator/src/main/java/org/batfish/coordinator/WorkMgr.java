@@ -2,24 +2,31 @@ package org.batfish.coordinator;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toCollection;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.io.CharStreams;
 import io.opentracing.ActiveSpan;
 import io.opentracing.References;
 import io.opentracing.SpanContext;
 import io.opentracing.util.GlobalTracer;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -59,6 +66,7 @@ import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.ColumnFilter;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.Container;
 import org.batfish.common.CoordConsts.WorkStatusCode;
@@ -73,6 +81,7 @@ import org.batfish.common.util.UnzipUtility;
 import org.batfish.common.util.WorkItemBuilder;
 import org.batfish.common.util.ZipUtility;
 import org.batfish.coordinator.AnalysisMetadataMgr.AnalysisType;
+import org.batfish.coordinator.AnswerRowIndexes.AnswerRowIndex;
 import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.coordinator.WorkQueueMgr.QueueType;
 import org.batfish.coordinator.config.Settings;
@@ -83,8 +92,10 @@ import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.AutocompleteSuggestion;
 import org.batfish.datamodel.answers.AutocompleteSuggestion.CompletionType;
+import org.batfish.datamodel.answers.Issue;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.SchemaUtils;
 import org.batfish.datamodel.pojo.Node;
 import org.batfish.datamodel.pojo.Topology;
 import org.batfish.datamodel.questions.BgpPropertySpecifier;
@@ -95,6 +106,7 @@ import org.batfish.datamodel.questions.NodesSpecifier;
 import org.batfish.datamodel.questions.OspfPropertySpecifier;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnarTable;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
@@ -119,6 +131,9 @@ public class WorkMgr extends AbstractCoordinator {
 
   private static final Set<String> ENV_FILENAMES = initEnvFilenames();
 
+  /** Number of recently used answer row indexes kept memory-mapped */
+  private static final int MAX_CACHED_ANSWER_ROW_INDEXES = 64;
+
   private static final int MAX_SHOWN_TESTRIG_INFO_SUBDIR_ENTRIES = 10;
 
   private static Set<String> initContainerFilenames() {
@@ -137,6 +152,8 @@ public class WorkMgr extends AbstractCoordinator {
     return envFilenames;
   }
 
+  private final AnswerRowIndexes _answerRowIndexes;
+
   private final BatfishLogger _logger;
 
   private final Settings _settings;
@@ -148,6 +165,7 @@ public class WorkMgr extends AbstractCoordinator {
     _settings = settings;
     _logger = logger;
     _workQueueMgr = new WorkQueueMgr(logger);
+    _answerRowIndexes = new AnswerRowIndexes(MAX_CACHED_ANSWER_ROW_INDEXES, this::selectRows);
     loadPlugins();
   }
 
@@ -658,51 +676,82 @@ public class WorkMgr extends AbstractCoordinator {
       String deltaTestrig,
       String deltaEnv,
       String analysisName,
-      String questionName)
-      throws JsonProcessingException {
-    Path analysisDir = getdirContainerAnalysis(containerName, analysisName);
-    Path testrigDir = getdirTestrig(containerName, baseTestrig);
+      String questionName) {
+    try (Reader answer =
+        getAnalysisAnswerReader(
+            containerName,
+            baseTestrig,
+            baseEnv,
+            deltaTestrig,
+            deltaEnv,
+            analysisName,
+            questionName)) {
+      return CharStreams.toString(answer);
+    } catch (IOException e) {
+      throw new BatfishException("Failed to read answer to question " + questionName, e);
+    }
+  }
 
-    String answer = "unknown";
-    Path questionFile =
-        analysisDir.resolve(
-            Paths.get(
-                BfConsts.RELPATH_QUESTIONS_DIR, questionName, BfConsts.RELPATH_QUESTION_FILE));
+  /**
+   * Returns a reader of the answer to question {@code questionName} of analysis {@code
+   * analysisName}, which streams the answer from its file, or of a failure answer if the question
+   * was not answered or its answer is stale. The caller must close the reader.
+   */
+  public Reader getAnalysisAnswerReader(
+      String containerName,
+      String baseTestrig,
+      String baseEnv,
+      @Nullable String deltaTestrig,
+      String deltaEnv,
+      String analysisName,
+      String questionName)
+      throws IOException {
+    Path questionFile = getAnalysisQuestionFile(containerName, analysisName, questionName);
     if (!Files.exists(questionFile)) {
       throw new BatfishException("Question file for question " + questionName + "not found");
     }
+    return openAnswer(
+        questionFile,
+        getAnalysisAnswerFile(
+            containerName,
+            baseTestrig,
+            baseEnv,
+            deltaTestrig,
+            deltaEnv,
+            analysisName,
+            questionName));
+  }
+
+  private Path getAnalysisAnswerFile(
+      String containerName,
+      String baseTestrig,
+      String baseEnv,
+      @Nullable String deltaTestrig,
+      String deltaEnv,
+      String analysisName,
+      String questionName) {
     Path answerDir =
-        testrigDir.resolve(
-            Paths.get(
-                BfConsts.RELPATH_ANALYSES_DIR,
-                analysisName,
-                BfConsts.RELPATH_QUESTIONS_DIR,
-                questionName,
-                BfConsts.RELPATH_ENVIRONMENTS_DIR,
-                baseEnv));
+        getdirTestrig(containerName, baseTestrig)
+            .resolve(
+                Paths.get(
+                    BfConsts.RELPATH_ANALYSES_DIR,
+                    analysisName,
+                    BfConsts.RELPATH_QUESTIONS_DIR,
+                    questionName,
+                    BfConsts.RELPATH_ENVIRONMENTS_DIR,
+                    baseEnv));
     if (deltaTestrig != null) {
       answerDir = answerDir.resolve(Paths.get(BfConsts.RELPATH_DELTA, deltaTestrig, deltaEnv));
     }
-    Path answerFile = answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON);
-    if (!Files.exists(answerFile)) {
-      Answer ans = Answer.failureAnswer("Not answered", null);
-      ans.setStatus(AnswerStatus.NOTFOUND);
-      answer = BatfishObjectMapper.writePrettyString(ans);
-    } else {
-      boolean answerIsStale;
-      answerIsStale =
-          CommonUtil.getLastModifiedTime(questionFile)
-                  .compareTo(CommonUtil.getLastModifiedTime(answerFile))
-              > 0;
-      if (answerIsStale) {
-        Answer ans = Answer.failureAnswer("Not fresh", null);
-        ans.setStatus(AnswerStatus.STALE);
-        answer = BatfishObjectMapper.writePrettyString(ans);
-      } else {
-        answer = CommonUtil.readFile(answerFile);
-      }
-    }
-    return answer;
+    return answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON);
+  }
+
+  private Path getAnalysisQuestionFile(
+      String containerName, String analysisName, String questionName) {
+    return getdirContainerAnalysis(containerName, analysisName)
+        .resolve(
+            Paths.get(
+                BfConsts.RELPATH_QUESTIONS_DIR, questionName, BfConsts.RELPATH_QUESTION_FILE));
   }
 
   public AnswerMetadata getAnalysisAnswerMetadata(
@@ -853,45 +902,137 @@ public class WorkMgr extends AbstractCoordinator {
     return CommonUtil.readFile(qFile);
   }
 
-  public String getAnswer(
+  private Path getAnswerFile(
       String containerName,
       String baseTestrig,
       String baseEnv,
-      String deltaTestrig,
+      @Nullable String deltaTestrig,
       String deltaEnv,
-      String questionName)
-      throws JsonProcessingException {
-    Path questionDir = getdirContainerQuestion(containerName, questionName);
-    Path questionFile = questionDir.resolve(BfConsts.RELPATH_QUESTION_FILE);
-    if (!Files.exists(questionFile)) {
-      throw new BatfishException("Question file not found for " + questionName);
-    }
-    Path testrigDir = getdirTestrig(containerName, baseTestrig);
+      String questionName) {
     Path answerDir =
-        testrigDir.resolve(Paths.get(BfConsts.RELPATH_ANSWERS_DIR, questionName, baseEnv));
+        getdirTestrig(containerName, baseTestrig)
+            .resolve(Paths.get(BfConsts.RELPATH_ANSWERS_DIR, questionName, baseEnv));
     if (deltaTestrig != null) {
       answerDir = answerDir.resolve(Paths.get(BfConsts.RELPATH_DIFF_DIR, deltaTestrig, deltaEnv));
     } else {
       answerDir = answerDir.resolve(Paths.get(BfConsts.RELPATH_STANDARD_DIR));
     }
-    Path answerFile = answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON);
-    String answer = "unknown";
+    return answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON);
+  }
+
+  public String getAnswer(
+      String containerName,
+      String baseTestrig,
+      String baseEnv,
+      String deltaTestrig,
+      String deltaEnv,
+      String questionName) {
+    try (Reader answer =
+        getAnswerReader(
+            containerName, baseTestrig, baseEnv, deltaTestrig, deltaEnv, questionName)) {
+      return CharStreams.toString(answer);
+    } catch (IOException e) {
+      throw new BatfishException("Failed to read answer to question " + questionName, e);
+    }
+  }
+
+  /**
+   * Returns a reader of the answer to question {@code questionName}, which streams the answer from
+   * its file, or of a failure answer if the question was not answered or its answer is stale. The
+   * caller must close the reader.
+   */
+  public Reader getAnswerReader(
+      String containerName,
+      String baseTestrig,
+      String baseEnv,
+      @Nullable String deltaTestrig,
+      String deltaEnv,
+      String questionName)
+      throws IOException {
+    Path questionFile =
+        getdirContainerQuestion(containerName, questionName)
+            .resolve(BfConsts.RELPATH_QUESTION_FILE);
+    if (!Files.exists(questionFile)) {
+      throw new BatfishException("Question file not found for " + questionName);
+    }
+    return openAnswer(
+        questionFile,
+        getAnswerFile(containerName, baseTestrig, baseEnv, deltaTestrig, deltaEnv, questionName));
+  }
+
+  /**
+   * Returns a reader of the answer in {@code answerFile} to the question in {@code questionFile},
+   * or of a failure answer if the answer is missing or older than the question.
+   */
+  private static Reader openAnswer(Path questionFile, Path answerFile) throws IOException {
     if (!Files.exists(answerFile)) {
       Answer ans = Answer.failureAnswer("Not answered", null);
       ans.setStatus(AnswerStatus.NOTFOUND);
-      answer = BatfishObjectMapper.writePrettyString(ans);
+      return new StringReader(BatfishObjectMapper.writePrettyString(ans));
+    }
+    if (CommonUtil.getLastModifiedTime(questionFile)
+            .compareTo(CommonUtil.getLastModifiedTime(answerFile))
+        > 0) {
+      Answer ans = Answer.failureAnswer("Not fresh", null);
+      ans.setStatus(AnswerStatus.STALE);
+      return new StringReader(BatfishObjectMapper.writePrettyString(ans));
+    }
+    return Files.newBufferedReader(answerFile, UTF_8);
+  }
+
+  /**
+   * Returns a page of the rows of a table answer, selected by {@code options} and starting at its
+   * row offset. The selected rows are read through a persisted {@link AnswerRowIndexes index}, so
+   * after the first request for some options, each page costs time proportional to its size.
+   *
+   * @param analysisName the analysis of the question, or {@code null} for an ad-hoc question
+   */
+  @Nonnull
+  public AnswerRowsPage getAnswerRows(
+      String containerName,
+      String baseTestrig,
+      @Nullable String deltaTestrig,
+      @Nullable String analysisName,
+      String questionName,
+      AnalysisAnswerOptions options) {
+    String env = BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME;
+    Path questionFile;
+    Path answerFile;
+    if (analysisName == null) {
+      questionFile =
+          getdirContainerQuestion(containerName, questionName)
+              .resolve(BfConsts.RELPATH_QUESTION_FILE);
+      answerFile = getAnswerFile(containerName, baseTestrig, env, deltaTestrig, env, questionName);
     } else {
-      if (CommonUtil.getLastModifiedTime(questionFile)
-              .compareTo(CommonUtil.getLastModifiedTime(answerFile))
-          > 0) {
-        Answer ans = Answer.failureAnswer("Not fresh", null);
-        ans.setStatus(AnswerStatus.STALE);
-        answer = BatfishObjectMapper.writePrettyString(ans);
-      } else {
-        answer = CommonUtil.readFile(answerFile);
-      }
+      questionFile = getAnalysisQuestionFile(containerName, analysisName, questionName);
+      answerFile =
+          getAnalysisAnswerFile(
+              containerName, baseTestrig, env, deltaTestrig, env, analysisName, questionName);
+    }
+    if (!Files.exists(questionFile)) {
+      throw new BatfishException("Question file not found for " + questionName);
     }
-    return answer;
+    if (!Files.exists(answerFile)) {
+      Answer answer = Answer.failureAnswer("Not answered", null);
+      answer.setStatus(AnswerStatus.NOTFOUND);
+      return new AnswerRowsPage(answer, 0L, 0);
+    }
+    if (CommonUtil.getLastModifiedTime(questionFile)
+            .compareTo(CommonUtil.getLastModifiedTime(answerFile))
+        > 0) {
+      Answer answer = Answer.failureAnswer("Not fresh", null);
+      answer.setStatus(AnswerStatus.STALE);
+      return new AnswerRowsPage(answer, 0L, 0);
+    }
+    AnswerRowIndex index = _answerRowIndexes.getIndex(answerFile, options);
+    TableAnswerElement table = new TableAnswerElement(index.getMetadata());
+    index
+        .readRows(answerFile, options, options.getRowOffset(), options.getMaxRows())
+        .forEach(table::addRow);
+    Answer answer = new Answer();
+    answer.setStatus(index.getStatus());
+    answer.addAnswerElement(table);
+    return new AnswerRowsPage(answer, index.getAnswerModified(), index.getNumRows());
   }
 
   /**
@@ -1908,6 +2049,46 @@ public class WorkMgr extends AbstractCoordinator {
                 rawAnswersEntry.getValue(), analysisAnswersOptions.get(rawAnswersEntry.getKey())));
   }
 
+  /**
+   * Returns the answers to the questions of analysis {@code analysisName} that have options in
+   * {@code analysisAnswersOptions}, or to all its questions if there are none, each filtered and
+   * sorted according to its options. Each answer is parsed as it is streamed from its file.
+   */
+  public Map<String, Answer> getProcessedAnalysisAnswers(
+      String containerName,
+      String baseTestrig,
+      String baseEnv,
+      @Nullable String deltaTestrig,
+      String deltaEnv,
+      String analysisName,
+      Map<String, AnalysisAnswerOptions> analysisAnswersOptions) {
+    SortedSet<String> allQuestions = listAnalysisQuestions(containerName, analysisName);
+    SortedSet<String> questions =
+        analysisAnswersOptions.isEmpty()
+            ? allQuestions
+            : ImmutableSortedSet.copyOf(
+                Sets.intersection(allQuestions, analysisAnswersOptions.keySet()));
+    ImmutableMap.Builder<String, Answer> answers = ImmutableMap.builder();
+    for (String questionName : questions) {
+      try (Reader rawAnswer =
+          getAnalysisAnswerReader(
+              containerName,
+              baseTestrig,
+              baseEnv,
+              deltaTestrig,
+              deltaEnv,
+              analysisName,
+              questionName)) {
+        answers.put(
+            questionName,
+            processAnalysisAnswer(rawAnswer, analysisAnswersOptions.get(questionName)));
+      } catch (IOException e) {
+        throw new BatfishException("Failed to read answer to question " + questionName, e);
+      }
+    }
+    return answers.build();
+  }
+
   @VisibleForTesting
   @Nonnull
   Answer processAnalysisAnswer(String rawAnswerStr, AnalysisAnswerOptions options) {
@@ -1916,9 +2097,18 @@ public class WorkMgr extends AbstractCoordinator {
       answer.setStatus(AnswerStatus.NOTFOUND);
       return answer;
     }
+    return processAnalysisAnswer(new StringReader(rawAnswerStr), options);
+  }
+
+  /**
+   * Filters and sorts the answer read from {@code rawAnswerReader} according to {@code options}.
+   * The answer is parsed as it is read, so its text is never held in memory.
+   */
+  @Nonnull
+  private Answer processAnalysisAnswer(Reader rawAnswerReader, AnalysisAnswerOptions options) {
     try {
       Answer rawAnswer =
-          BatfishObjectMapper.mapper().readValue(rawAnswerStr, new TypeReference<Answer>() {});
+          BatfishObjectMapper.mapper().readValue(rawAnswerReader, new TypeReference<Answer>() {});
       TableAnswerElement rawTable = (TableAnswerElement) rawAnswer.getAnswerElements().get(0);
       Answer answer = new Answer();
       answer.setStatus(rawAnswer.getStatus());
@@ -1935,40 +2125,52 @@ public class WorkMgr extends AbstractCoordinator {
   @Nonnull
   TableAnswerElement processAnalysisAnswerTable(
       TableAnswerElement rawTable, AnalysisAnswerOptions options) {
+    TableAnswerElement table =
+        new TableAnswerElement(selectMetadata(rawTable.getMetadata(), options));
+    // only the requested page is converted back to rows
+    selectRows(rawTable, options)
+        .getRows(options.getRowOffset(), options.getMaxRows())
+        .forEach(table::addRow);
+    return table;
+  }
+
+  /**
+   * Returns the rows of {@code rawTable} selected by {@code options}: filtered, sorted, projected
+   * and made unique, but not paged.
+   */
+  @Nonnull
+  ColumnarTable selectRows(TableAnswerElement rawTable, AnalysisAnswerOptions options) {
     Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
-    Stream<Row> filteredStream =
-        rawTable
-            .getRowsList()
-            .stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)));
-    Stream<Row> sortedStream =
-        options.getSortOrder().isEmpty()
-            ? filteredStream
-            : filteredStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    Stream<Row> projectedStream;
-    TableAnswerElement table;
-    if (options.getColumns().isEmpty()) {
-      projectedStream = sortedStream;
-      table = new TableAnswerElement(rawTable.getMetadata());
-    } else {
-      projectedStream =
-          sortedStream.map(rawRow -> Row.builder().putAll(rawRow, options.getColumns()).build());
-      Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(rawColumnMap);
-      columnMap.keySet().retainAll(options.getColumns());
-      List<ColumnMetadata> columnMetadata =
-          columnMap.values().stream().collect(ImmutableList.toImmutableList());
-      table =
-          new TableAnswerElement(
-              new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc()));
-    }
-    Stream<Row> uniquifiedStream = projectedStream;
+    ColumnarTable rows = rawTable.getRowsTable();
+    for (ColumnFilter filter : options.getFilters()) {
+      rows = rows.filter(filter.getColumn(), filter::matches);
+    }
+    // sorting is stable, so sort by the least significant column first
+    for (ColumnSortOption columnSortOption : Lists.reverse(options.getSortOrder())) {
+      String column = columnSortOption.getColumn();
+      Comparator<JsonNode> order = valueComparator(rawColumnMap.get(column));
+      rows = rows.sortBy(column, columnSortOption.getReversed() ? order.reversed() : order);
+    }
+    if (!options.getColumns().isEmpty()) {
+      rows = rows.project(options.getColumns());
+    }
     if (options.getUniqueRows()) {
-      uniquifiedStream = uniquifiedStream.distinct();
+      rows = rows.distinct();
     }
-    Stream<Row> truncatedStream =
-        uniquifiedStream.skip(options.getRowOffset()).limit(options.getMaxRows());
-    truncatedStream.forEach(table::addRow);
-    return table;
+    return rows;
+  }
+
+  /** Returns the metadata of the columns of {@code rawMetadata} selected by {@code options}. */
+  @Nonnull
+  static TableMetadata selectMetadata(TableMetadata rawMetadata, AnalysisAnswerOptions options) {
+    if (options.getColumns().isEmpty()) {
+      return rawMetadata;
+    }
+    Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(rawMetadata.toColumnMap());
+    columnMap.keySet().retainAll(options.getColumns());
+    List<ColumnMetadata> columnMetadata =
+        columnMap.values().stream().collect(ImmutableList.toImmutableList());
+    return new TableMetadata(columnMetadata, rawMetadata.getTextDesc());
   }
 
   @VisibleForTesting
@@ -1995,14 +2197,21 @@ public class WorkMgr extends AbstractCoordinator {
 
   @VisibleForTesting
   Comparator<Row> columnComparator(ColumnMetadata columnMetadata) {
-    Schema schema = columnMetadata.getSchema();
     String column = columnMetadata.getName();
+    return Comparator.comparing(r -> r.get(column), valueComparator(columnMetadata));
+  }
+
+  /** Returns the order of values in the column described by {@code columnMetadata}. */
+  @VisibleForTesting
+  Comparator<JsonNode> valueComparator(ColumnMetadata columnMetadata) {
+    Schema schema = columnMetadata.getSchema();
     if (schema.equals(Schema.INTEGER)) {
-      return Comparator.comparing(r -> r.getInteger(column));
+      return Comparator.comparing(v -> (Integer) SchemaUtils.convertType(v, Schema.INTEGER));
     } else if (schema.equals(Schema.ISSUE)) {
-      return Comparator.comparing(r -> r.getIssue(column).getSeverity());
+      return Comparator.comparing(
+          v -> ((Issue) SchemaUtils.convertType(v, Schema.ISSUE)).getSeverity());
     } else if (schema.equals(Schema.STRING)) {
-      return Comparator.comparing(r -> r.getString(column));
+      return Comparator.comparing(v -> (String) SchemaUtils.convertType(v, Schema.STRING));
     } else {
       String message = String.format("Unsupported Schema for sorting: %s", schema);
       _logger.error(message);
@@ -2,6 +2,7 @@ package org.batfish.coordinator;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
@@ -10,6 +11,7 @@ import io.opentracing.util.GlobalTracer;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.security.AccessControlException;
 import java.util.ArrayList;
@@ -31,6 +33,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.io.FileExistsException;
 import org.batfish.common.AnalysisAnswerOptions;
 import org.batfish.common.BatfishException;
@@ -70,6 +73,30 @@ public class WorkMgrService {
     return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_FAILURE, entity));
   }
 
+  private static Response jsonResponse(JSONArray entity) {
+    return Response.ok(entity, MediaType.APPLICATION_JSON).build();
+  }
+
+  /**
+   * Returns a success response whose entity maps {@code key} to the text read from {@code value}.
+   * The text is copied to the response as it is written, so it is never held in memory.
+   */
+  private static StreamingOutput streamingSuccessResponse(String key, Reader value) {
+    return output -> {
+      try (Reader reader = value;
+          JsonGenerator generator =
+              BatfishObjectMapper.mapper().getFactory().createGenerator(output)) {
+        generator.writeStartArray();
+        generator.writeString(CoordConsts.SVC_KEY_SUCCESS);
+        generator.writeStartObject();
+        generator.writeFieldName(key);
+        generator.writeString(reader, -1);
+        generator.writeEndObject();
+        generator.writeEndArray();
+      }
+    };
+  }
+
   @POST
   @Path(CoordConsts.SVC_RSC_AUTO_COMPLETE)
   @Produces(MediaType.APPLICATION_JSON)
@@ -954,19 +981,16 @@ public class WorkMgrService {
         }
       }
 
-      Map<String, String> rawAnswers =
+      Map<String, Answer> answers =
           Main.getWorkMgr()
-              .getAnalysisAnswers(
+              .getProcessedAnalysisAnswers(
                   networkNameParam,
                   snapshotNameParam,
                   BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
                   deltaSnapshotParam,
                   BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
                   analysisName,
-                  analysisAnswersOptions.keySet());
-
-      Map<String, Answer> answers =
-          Main.getWorkMgr().processAnalysisAnswers(rawAnswers, analysisAnswersOptions);
+                  analysisAnswersOptions);
 
       String answerStr = BatfishObjectMapper.writePrettyString(answers);
 
@@ -1004,7 +1028,7 @@ public class WorkMgrService {
   @POST
   @Path(CoordConsts.SVC_RSC_GET_ANSWER)
   @Produces(MediaType.APPLICATION_JSON)
-  public JSONArray getAnswer(
+  public Response getAnswer(
       @FormDataParam(CoordConsts.SVC_KEY_API_KEY) String apiKey,
       @FormDataParam(CoordConsts.SVC_KEY_VERSION) String clientVersion,
       @FormDataParam(CoordConsts.SVC_KEY_CONTAINER_NAME) String containerName,
@@ -1039,23 +1063,25 @@ public class WorkMgrService {
         WorkItem workItem = BatfishObjectMapper.mapper().readValue(workItemStr, WorkItem.class);
         if (!workItem.getContainerName().equals(networkNameParam)
             || !workItem.getTestrigName().equals(snapshotNameParam)) {
-          return failureResponse(
-              "Mismatch in parameters: WorkItem is not for the supplied network or snapshot");
+          return jsonResponse(
+              failureResponse(
+                  "Mismatch in parameters: WorkItem is not for the supplied network or snapshot"));
         }
         QueuedWork work = Main.getWorkMgr().getMatchingWork(workItem, QueueType.INCOMPLETE);
         if (work != null) {
           String taskStr = BatfishObjectMapper.writePrettyString(work.getLastTaskCheckResult());
-          return successResponse(
-              new JSONObject()
-                  .put(CoordConsts.SVC_KEY_WORKID, work.getWorkItem().getId())
-                  .put(CoordConsts.SVC_KEY_WORKSTATUS, work.getStatus().toString())
-                  .put(CoordConsts.SVC_KEY_TASKSTATUS, taskStr));
+          return jsonResponse(
+              successResponse(
+                  new JSONObject()
+                      .put(CoordConsts.SVC_KEY_WORKID, work.getWorkItem().getId())
+                      .put(CoordConsts.SVC_KEY_WORKSTATUS, work.getStatus().toString())
+                      .put(CoordConsts.SVC_KEY_TASKSTATUS, taskStr)));
         }
       }
 
-      String answer =
+      Reader answer =
           Main.getWorkMgr()
-              .getAnswer(
+              .getAnswerReader(
                   networkNameParam,
                   snapshotNameParam,
                   baseEnv,
@@ -1063,10 +1089,10 @@ public class WorkMgrService {
                   deltaEnv,
                   questionName);
 
-      return successResponse(new JSONObject().put(CoordConsts.SVC_KEY_ANSWER, answer));
+      return Response.ok(streamingSuccessResponse(CoordConsts.SVC_KEY_ANSWER, answer)).build();
     } catch (IllegalArgumentException | AccessControlException e) {
       _logger.errorf("WMS:getAnswer exception: %s\n", e.getMessage());
-      return failureResponse(e.getMessage());
+      return jsonResponse(failureResponse(e.getMessage()));
     } catch (Exception e) {
       String stackTrace = Throwables.getStackTraceAsString(e);
       _logger.errorf(
@@ -1077,7 +1103,7 @@ public class WorkMgrService {
           snapshotNameParam,
           deltaSnapshotParam == null ? "" : deltaSnapshotParam,
           stackTrace);
-      return failureResponse(e.getMessage());
+      return jsonResponse(failureResponse(e.getMessage()));
     }
   }
 
@@ -0,0 +1,27 @@
+package org.batfish.coordinator.resources;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.answers.Answer;
+
+/** A page of the rows of a table answer, with a cursor for the next page. */
+public class AnswerRowsBean {
+
+  /** The answer, whose table holds the rows of this page */
+  public Answer answer;
+
+  /** The cursor for the next page, or {@code null} if this is the last page */
+  @Nullable public String nextCursor;
+
+  /** The number of rows across all pages */
+  public int numRows;
+
+  @JsonCreator
+  private AnswerRowsBean() {}
+
+  public AnswerRowsBean(Answer answer, @Nullable String nextCursor, int numRows) {
+    this.answer = answer;
+    this.nextCursor = nextCursor;
+    this.numRows = numRows;
+  }
+}
@@ -0,0 +1,138 @@
+package org.batfish.coordinator.resources;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.util.Base64;
+import javax.annotation.Nullable;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.GET;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import org.batfish.common.AnalysisAnswerOptions;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts;
+import org.batfish.common.CoordConstsV2;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.coordinator.AnswerRowsPage;
+import org.batfish.coordinator.Main;
+
+/**
+ * The {@link AnswerRowsResource} is a resource for paging through the rows of the answer to a
+ * question. It is a subresource of {@link ContainerResource}.
+ *
+ * <p>The first page is requested with the snapshot and the options that select, sort and page the
+ * rows. Each page returns an opaque cursor from which the next page is requested.
+ */
+@Produces(MediaType.APPLICATION_JSON)
+public class AnswerRowsResource {
+
+  private static final String PROP_ANSWER_MODIFIED = "answerModified";
+
+  private BatfishLogger _logger = Main.getLogger();
+
+  private String _container;
+
+  private String _question;
+
+  public AnswerRowsResource(String container, String question) {
+    _container = container;
+    _question = question;
+  }
+
+  /** Returns a page of the rows of the answer, given either a cursor or a snapshot and options. */
+  @GET
+  public AnswerRowsBean getAnswerRows(
+      @QueryParam(CoordConstsV2.QP_SNAPSHOT) String snapshot,
+      @QueryParam(CoordConstsV2.QP_DELTA_SNAPSHOT) String deltaSnapshot,
+      @QueryParam(CoordConstsV2.QP_ANALYSIS) String analysis,
+      @QueryParam(CoordConstsV2.QP_OPTIONS) String optionsStr,
+      @QueryParam(CoordConstsV2.QP_CURSOR) String cursor) {
+    _logger.infof("WMS2: getAnswerRows '%s' '%s'\n", _container, _question);
+    ObjectNode request;
+    if (!Strings.isNullOrEmpty(cursor)) {
+      request = decodeCursor(cursor);
+      if (!request.hasNonNull(CoordConstsV2.QP_SNAPSHOT)
+          || !request.hasNonNull(CoordConstsV2.QP_OPTIONS)) {
+        throw new BadRequestException("Invalid cursor");
+      }
+    } else {
+      if (Strings.isNullOrEmpty(snapshot)) {
+        throw new BadRequestException("Snapshot or cursor must be specified");
+      }
+      request = BatfishObjectMapper.mapper().createObjectNode();
+      request.put(CoordConstsV2.QP_SNAPSHOT, snapshot);
+      request.put(CoordConstsV2.QP_DELTA_SNAPSHOT, deltaSnapshot);
+      request.put(CoordConstsV2.QP_ANALYSIS, analysis);
+      request.set(
+          CoordConstsV2.QP_OPTIONS,
+          Strings.isNullOrEmpty(optionsStr)
+              ? BatfishObjectMapper.mapper().createObjectNode()
+              : readTree(optionsStr));
+    }
+    AnalysisAnswerOptions options;
+    try {
+      options =
+          BatfishObjectMapper.mapper()
+              .treeToValue(request.get(CoordConstsV2.QP_OPTIONS), AnalysisAnswerOptions.class);
+    } catch (IOException e) {
+      throw new BadRequestException("Invalid answer options: " + e.getMessage());
+    }
+    AnswerRowsPage page =
+        Main.getWorkMgr()
+            .getAnswerRows(
+                _container,
+                request.get(CoordConstsV2.QP_SNAPSHOT).asText(),
+                textOrNull(request, CoordConstsV2.QP_DELTA_SNAPSHOT),
+                textOrNull(request, CoordConstsV2.QP_ANALYSIS),
+                _question,
+                options);
+    if (request.has(PROP_ANSWER_MODIFIED)
+        && request.get(PROP_ANSWER_MODIFIED).asLong() != page.getAnswerModified()) {
+      throw new BadRequestException("The answer has changed since the cursor was returned");
+    }
+    long nextOffset = (long) options.getRowOffset() + options.getMaxRows();
+    String nextCursor = null;
+    if (nextOffset < page.getNumRows()) {
+      ObjectNode next = request.deepCopy();
+      ((ObjectNode) next.get(CoordConstsV2.QP_OPTIONS))
+          .put(BfConsts.PROP_ROW_OFFSET, (int) nextOffset);
+      next.put(PROP_ANSWER_MODIFIED, page.getAnswerModified());
+      nextCursor = encodeCursor(next);
+    }
+    return new AnswerRowsBean(page.getAnswer(), nextCursor, page.getNumRows());
+  }
+
+  private static ObjectNode decodeCursor(String cursor) {
+    try {
+      return readTree(new String(Base64.getUrlDecoder().decode(cursor), UTF_8));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+
+  private static String encodeCursor(ObjectNode request) {
+    try {
+      return Base64.getUrlEncoder()
+          .encodeToString(BatfishObjectMapper.mapper().writeValueAsBytes(request));
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not encode cursor", e);
+    }
+  }
+
+  private static ObjectNode readTree(String json) {
+    try {
+      return (ObjectNode) BatfishObjectMapper.mapper().readTree(json);
+    } catch (IOException | ClassCastException e) {
+      throw new BadRequestException("Invalid JSON: " + json);
+    }
+  }
+
+  @Nullable
+  private static String textOrNull(ObjectNode request, String field) {
+    return request.hasNonNull(field) ? request.get(field).asText() : null;
+  }
+}
@@ -5,6 +5,7 @@ import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -41,6 +42,12 @@ public class ContainerResource {
     return Response.ok(container).build();
   }
 
+  /** Relocate the request to {@link AnswerRowsResource}. */
+  @Path(CoordConstsV2.RSC_ANSWERS + "/{question}")
+  public AnswerRowsResource getAnswerRowsResource(@PathParam("question") String question) {
+    return new AnswerRowsResource(_name, question);
+  }
+
   /** Relocate the request to {@link NodeRolesResource}. */
   @Path(CoordConstsV2.RSC_NODE_ROLES)
   public NodeRolesResource getNodeRolesResource() {
@@ -0,0 +1,225 @@
+package org.batfish.coordinator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.batfish.common.AnalysisAnswerOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.coordinator.AnswerRowIndexes.AnswerRowIndex;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link AnswerRowIndexes}. */
+public class AnswerRowIndexesTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private Path _answerFile;
+
+  private WorkMgr _manager;
+
+  /** Counts the answers indexed, i.e. not read from a persisted index */
+  private AtomicInteger _selections;
+
+  private static final AnalysisAnswerOptions SORT_BY_VAL =
+      new AnalysisAnswerOptions(
+          ImmutableSet.of(),
+          ImmutableList.of(),
+          Integer.MAX_VALUE,
+          0,
+          ImmutableList.of(new ColumnSortOption("val", false)),
+          false);
+
+  private static Answer answer(int... vals) {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata("key", Schema.STRING, "key"),
+                    new ColumnMetadata("val", Schema.INTEGER, "val"))));
+    for (int i = 0; i < vals.length; i++) {
+      table.addRow(Row.of("key", "k" + i, "val", vals[i]));
+    }
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    return answer;
+  }
+
+  private AnswerRowIndexes newIndexes() {
+    return new AnswerRowIndexes(
+        2,
+        (table, options) -> {
+          _selections.incrementAndGet();
+          return _manager.selectRows(table, options);
+        });
+  }
+
+  private void writeAnswer(Answer answer) throws IOException {
+    Files.write(_answerFile, BatfishObjectMapper.writePrettyString(answer).getBytes(UTF_8));
+  }
+
+  @Before
+  public void setup() throws Exception {
+    WorkMgrTestUtils.initWorkManager(_folder);
+    _manager = Main.getWorkMgr();
+    _answerFile = _folder.newFolder().toPath().resolve("answer.json");
+    _selections = new AtomicInteger();
+  }
+
+  @Test
+  public void testScanRowOffsets() throws IOException {
+    writeAnswer(answer(3, 1, 2));
+    byte[] bytes = Files.readAllBytes(_answerFile);
+
+    long[] offsets = AnswerRowIndexes.scanRowOffsets(_answerFile);
+
+    assertThat(offsets.length, equalTo(3));
+    for (long offset : offsets) {
+      assertThat((char) bytes[(int) offset], equalTo('{'));
+    }
+  }
+
+  @Test
+  public void testReadRows() throws IOException {
+    writeAnswer(answer(3, 1, 2, 5, 4));
+
+    AnswerRowIndex index = newIndexes().getIndex(_answerFile, SORT_BY_VAL);
+
+    assertThat(index.getNumRows(), equalTo(5));
+    assertThat(index.getStatus(), equalTo(AnswerStatus.SUCCESS));
+    assertThat(
+        index.readRows(_answerFile, SORT_BY_VAL, 1, 2),
+        contains(Row.of("key", "k2", "val", 2), Row.of("key", "k0", "val", 3)));
+    assertThat(
+        index.readRows(_answerFile, SORT_BY_VAL, 4, 2), contains(Row.of("key", "k3", "val", 5)));
+  }
+
+  @Test
+  public void testReadRowsFilteredAndProjected() throws IOException {
+    writeAnswer(answer(3, 1, 2, 3));
+    AnalysisAnswerOptions options =
+        new AnalysisAnswerOptions(
+            ImmutableSet.of("val"),
+            ImmutableList.of(new ColumnFilter("key", "k")),
+            Integer.MAX_VALUE,
+            0,
+            ImmutableList.of(new ColumnSortOption("val", true)),
+            true);
+
+    AnswerRowIndex index = newIndexes().getIndex(_answerFile, options);
+
+    assertThat(index.getMetadata().getColumnMetadata().size(), equalTo(1));
+    assertThat(
+        index.readRows(_answerFile, options, 0, 10),
+        contains(Row.of("val", 3), Row.of("val", 2), Row.of("val", 1)));
+  }
+
+  @Test
+  public void testIndexPersisted() throws IOException {
+    writeAnswer(answer(3, 1, 2));
+    AnalysisAnswerOptions secondPage =
+        new AnalysisAnswerOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            1,
+            1,
+            ImmutableList.of(new ColumnSortOption("val", false)),
+            false);
+
+    newIndexes().getIndex(_answerFile, SORT_BY_VAL);
+    // a new cache reads the index from disk, whatever the page
+    AnswerRowIndex index = newIndexes().getIndex(_answerFile, secondPage);
+
+    assertThat(_selections.get(), equalTo(1));
+    assertThat(
+        index.readRows(_answerFile, secondPage, 1, 1), contains(Row.of("key", "k2", "val", 2)));
+  }
+
+  @Test
+  public void testIndexRebuiltForNewAnswer() throws IOException {
+    AnswerRowIndexes indexes = newIndexes();
+    writeAnswer(answer(3, 1, 2));
+    Files.setLastModifiedTime(_answerFile, FileTime.fromMillis(1000L));
+    indexes.getIndex(_answerFile, SORT_BY_VAL);
+    writeAnswer(answer(7, 6));
+    Files.setLastModifiedTime(_answerFile, FileTime.fromMillis(2000L));
+
+    AnswerRowIndex index = indexes.getIndex(_answerFile, SORT_BY_VAL);
+
+    assertThat(_selections.get(), equalTo(2));
+    assertThat(index.getAnswerModified(), equalTo(2000L));
+    assertThat(
+        index.readRows(_answerFile, SORT_BY_VAL, 0, 10),
+        contains(Row.of("key", "k1", "val", 6), Row.of("key", "k0", "val", 7)));
+  }
+
+  private static AnalysisAnswerOptions filterByKey(String key) {
+    return new AnalysisAnswerOptions(
+        ImmutableSet.of(),
+        ImmutableList.of(new ColumnFilter("key", key)),
+        Integer.MAX_VALUE,
+        0,
+        ImmutableList.of(),
+        false);
+  }
+
+  @Test
+  public void testIndexesOfOldAnswerDeleted() throws IOException {
+    AnswerRowIndexes indexes = newIndexes();
+    writeAnswer(answer(3, 1, 2));
+    Files.setLastModifiedTime(_answerFile, FileTime.fromMillis(1000L));
+    indexes.getIndex(_answerFile, SORT_BY_VAL);
+    Path oldIndex = AnswerRowIndexes.getIndexPath(_answerFile, SORT_BY_VAL);
+    writeAnswer(answer(7, 6));
+    Files.setLastModifiedTime(_answerFile, FileTime.fromMillis(2000L));
+
+    indexes.getIndex(_answerFile, filterByKey("k1"));
+
+    assertThat(Files.exists(oldIndex), equalTo(false));
+    assertThat(
+        Files.exists(AnswerRowIndexes.getIndexPath(_answerFile, filterByKey("k1"))), equalTo(true));
+  }
+
+  @Test
+  public void testIndexesPerAnswerBounded() throws IOException {
+    AnswerRowIndexes indexes = newIndexes();
+    writeAnswer(answer(3, 1, 2));
+
+    for (int i = 0; i < AnswerRowIndexes.MAX_INDEXES_PER_ANSWER + 5; i++) {
+      indexes.getIndex(_answerFile, filterByKey("k" + i));
+    }
+
+    Path indexDir = AnswerRowIndexes.getIndexPath(_answerFile, SORT_BY_VAL).getParent();
+    try (Stream<Path> files = Files.list(indexDir)) {
+      assertThat(files.count(), equalTo((long) AnswerRowIndexes.MAX_INDEXES_PER_ANSWER));
+    }
+    // the index just built is kept
+    assertThat(
+        Files.exists(
+            AnswerRowIndexes.getIndexPath(
+                _answerFile, filterByKey("k" + (AnswerRowIndexes.MAX_INDEXES_PER_ANSWER + 4)))),
+        equalTo(true));
+  }
+}
@@ -13,15 +13,19 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.io.FileUtils;
 import org.batfish.common.AnalysisAnswerOptions;
 import org.batfish.common.BatfishLogger;
@@ -181,6 +185,57 @@ public class WorkMgrServiceTest {
     assertThat(result.getString(0), equalTo(CoordConsts.SVC_KEY_FAILURE));
   }
 
+  @Test
+  public void testGetAnswerStreamsAnswerFile() throws Exception {
+    String questionName = "question1";
+    initNetworkEnvironment();
+    Path networkDir = _networksFolder.getRoot().toPath().resolve(_networkName);
+    Path questionFile =
+        networkDir.resolve(
+            Paths.get(
+                BfConsts.RELPATH_QUESTIONS_DIR, questionName, BfConsts.RELPATH_QUESTION_FILE));
+    questionFile.getParent().toFile().mkdirs();
+    CommonUtil.writeFile(questionFile, "{}");
+    Path answerFile =
+        networkDir.resolve(
+            Paths.get(
+                BfConsts.RELPATH_TESTRIGS_DIR,
+                _snapshotName,
+                BfConsts.RELPATH_ANSWERS_DIR,
+                questionName,
+                BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
+                BfConsts.RELPATH_STANDARD_DIR,
+                BfConsts.RELPATH_ANSWER_JSON));
+    answerFile.getParent().toFile().mkdirs();
+    Answer answer = Answer.failureAnswer("a \"quoted\"\nmessage", null);
+    String answerStr = BatfishObjectMapper.writePrettyString(answer);
+    CommonUtil.writeFile(answerFile, answerStr);
+    Files.setLastModifiedTime(
+        answerFile,
+        FileTime.fromMillis(Files.getLastModifiedTime(questionFile).toMillis() + 1000L));
+
+    Response response =
+        _service.getAnswer(
+            CoordConsts.DEFAULT_API_KEY,
+            Version.getVersion(),
+            null,
+            _networkName,
+            null,
+            _snapshotName,
+            BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
+            null,
+            null,
+            null,
+            questionName,
+            null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(output);
+    JSONArray result = new JSONArray(new String(output.toByteArray(), StandardCharsets.UTF_8));
+
+    assertThat(result.getString(0), equalTo(CoordConsts.SVC_KEY_SUCCESS));
+    assertThat(result.getJSONObject(1).getString(CoordConsts.SVC_KEY_ANSWER), equalTo(answerStr));
+  }
+
   @Test
   public void testGetAnalysisAnswer() throws Exception {
     String analysisName = "analysis1";
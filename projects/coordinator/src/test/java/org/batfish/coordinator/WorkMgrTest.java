@@ -572,6 +572,77 @@ public class WorkMgrTest {
     assertThat(answers3, equalTo(ImmutableMap.of(question1Name, answer1, question2Name, answer2)));
   }
 
+  @Test
+  public void testGetProcessedAnalysisAnswers() throws IOException {
+    String containerName = "container1";
+    String testrigName = "testrig1";
+    String analysisName = "analysis1";
+    String question1Name = "question1";
+    String question2Name = "question2";
+    String question3Name = "question3";
+    _manager.initContainer(containerName, null);
+    _manager.configureAnalysis(
+        containerName,
+        true,
+        analysisName,
+        ImmutableMap.of(question1Name, "{}", question2Name, "{}", question3Name, "{}"),
+        Lists.newArrayList(),
+        null);
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata("val", Schema.INTEGER, "foobar"))));
+    table.addRow(Row.of("val", 1));
+    table.addRow(Row.of("val", 2));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    Path answerDir =
+        _folder
+            .getRoot()
+            .toPath()
+            .resolve(
+                Paths.get(
+                    containerName,
+                    BfConsts.RELPATH_TESTRIGS_DIR,
+                    testrigName,
+                    BfConsts.RELPATH_ANALYSES_DIR,
+                    analysisName,
+                    BfConsts.RELPATH_QUESTIONS_DIR,
+                    question1Name,
+                    BfConsts.RELPATH_ENVIRONMENTS_DIR,
+                    BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME));
+    answerDir.toFile().mkdirs();
+    CommonUtil.writeFile(
+        answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON),
+        BatfishObjectMapper.writePrettyString(answer));
+    AnalysisAnswerOptions options =
+        new AnalysisAnswerOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            1,
+            0,
+            ImmutableList.of(new ColumnSortOption("val", true)),
+            false);
+
+    Map<String, Answer> answers =
+        _manager.getProcessedAnalysisAnswers(
+            containerName,
+            testrigName,
+            BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
+            null,
+            BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
+            analysisName,
+            ImmutableMap.of(question1Name, options, question2Name, options));
+
+    // only the questions with options are answered
+    assertThat(answers.keySet(), equalTo(ImmutableSet.of(question1Name, question2Name)));
+    assertThat(
+        ((TableAnswerElement) answers.get(question1Name).getAnswerElements().get(0)).getRowsList(),
+        equalTo(ImmutableList.of(Row.of("val", 2))));
+    assertThat(answers.get(question2Name).getStatus(), equalTo(AnswerStatus.FAILURE));
+  }
+
   @Test
   public void testGetAutoWorkQueueUserAnalysis() {
     String containerName = "myContainer";
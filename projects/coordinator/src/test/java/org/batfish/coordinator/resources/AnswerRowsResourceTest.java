@@ -0,0 +1,169 @@
+package org.batfish.coordinator.resources;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+import org.batfish.common.BfConsts;
+import org.batfish.common.CoordConsts;
+import org.batfish.common.CoordConstsV2;
+import org.batfish.common.Version;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.coordinator.Main;
+import org.batfish.coordinator.WorkMgrServiceV2TestBase;
+import org.batfish.coordinator.WorkMgrTestUtils;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AnswerRowsResourceTest extends WorkMgrServiceV2TestBase {
+
+  private static final String ANALYSIS = "analysis1";
+
+  private static final String CONTAINER = "container1";
+
+  private static final String QUESTION = "question1";
+
+  private static final String SNAPSHOT = "snapshot1";
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  @Before
+  public void initContainerEnvironment() throws Exception {
+    WorkMgrTestUtils.initWorkManager(_folder);
+    Main.getWorkMgr().initContainer(CONTAINER, null);
+    WorkMgrTestUtils.initTestrigWithTopology(CONTAINER, SNAPSHOT, ImmutableSet.of());
+    Main.getWorkMgr()
+        .configureAnalysis(
+            CONTAINER, true, ANALYSIS, ImmutableMap.of(QUESTION, "{}"), ImmutableList.of(), null);
+  }
+
+  private WebTarget getAnswerRowsTarget() {
+    return target(CoordConsts.SVC_CFG_WORK_MGR2)
+        .path(CoordConstsV2.RSC_NETWORKS)
+        .path(CONTAINER)
+        .path(CoordConstsV2.RSC_ANSWERS)
+        .path(QUESTION);
+  }
+
+  private static Response get(WebTarget target) {
+    return target
+        .request()
+        .header(CoordConstsV2.HTTP_HEADER_BATFISH_APIKEY, CoordConsts.DEFAULT_API_KEY)
+        .header(CoordConstsV2.HTTP_HEADER_BATFISH_VERSION, Version.getVersion())
+        .get();
+  }
+
+  private static WebTarget withQueryParam(WebTarget target, String name, String value) {
+    // resolving a template encodes characters such as braces
+    return target.queryParam(name, "{value}").resolveTemplate("value", value);
+  }
+
+  private void writeAnswer(int numRows) throws IOException {
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(ImmutableList.of(new ColumnMetadata("val", Schema.INTEGER, "val"))));
+    for (int i = numRows - 1; i >= 0; i--) {
+      table.addRow(Row.of("val", i));
+    }
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    Path answerDir =
+        Main.getWorkMgr()
+            .getdirTestrig(CONTAINER, SNAPSHOT)
+            .resolve(
+                Paths.get(
+                    BfConsts.RELPATH_ANALYSES_DIR,
+                    ANALYSIS,
+                    BfConsts.RELPATH_QUESTIONS_DIR,
+                    QUESTION,
+                    BfConsts.RELPATH_ENVIRONMENTS_DIR,
+                    BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME));
+    Files.createDirectories(answerDir);
+    Files.write(
+        answerDir.resolve(BfConsts.RELPATH_ANSWER_JSON),
+        BatfishObjectMapper.writePrettyString(answer).getBytes(UTF_8));
+  }
+
+  @Test
+  public void testPageThroughRows() throws IOException {
+    writeAnswer(5);
+    WebTarget target =
+        withQueryParam(
+            getAnswerRowsTarget()
+                .queryParam(CoordConstsV2.QP_SNAPSHOT, SNAPSHOT)
+                .queryParam(CoordConstsV2.QP_ANALYSIS, ANALYSIS),
+            CoordConstsV2.QP_OPTIONS,
+            "{\"maxRows\":2,\"sortOrder\":[{\"column\":\"val\"}]}");
+
+    List<Row> rows = new ArrayList<>();
+    int pages = 0;
+    while (target != null) {
+      Response response = get(target);
+      assertThat(response.getStatus(), equalTo(OK.getStatusCode()));
+      AnswerRowsBean page = response.readEntity(AnswerRowsBean.class);
+      assertThat(page.numRows, equalTo(5));
+      rows.addAll(((TableAnswerElement) page.answer.getAnswerElements().get(0)).getRowsList());
+      pages++;
+      target =
+          page.nextCursor == null
+              ? null
+              : withQueryParam(getAnswerRowsTarget(), CoordConstsV2.QP_CURSOR, page.nextCursor);
+    }
+
+    assertThat(pages, equalTo(3));
+    assertThat(
+        rows,
+        contains(
+            Row.of("val", 0),
+            Row.of("val", 1),
+            Row.of("val", 2),
+            Row.of("val", 3),
+            Row.of("val", 4)));
+  }
+
+  @Test
+  public void testNotAnswered() {
+    Response response =
+        get(
+            getAnswerRowsTarget()
+                .queryParam(CoordConstsV2.QP_SNAPSHOT, SNAPSHOT)
+                .queryParam(CoordConstsV2.QP_ANALYSIS, ANALYSIS));
+
+    assertThat(response.getStatus(), equalTo(OK.getStatusCode()));
+    AnswerRowsBean page = response.readEntity(AnswerRowsBean.class);
+    assertThat(page.answer.getStatus(), equalTo(AnswerStatus.NOTFOUND));
+    assertThat(page.nextCursor, nullValue());
+  }
+
+  @Test
+  public void testInvalidCursor() {
+    Response response = get(getAnswerRowsTarget().queryParam(CoordConstsV2.QP_CURSOR, "e30"));
+
+    assertThat(response.getStatus(), equalTo(BAD_REQUEST.getStatusCode()));
+  }
+}
@@ -165,13 +165,9 @@ public class JsonPathQuestionPlugin extends QuestionPlugin {
       AnswerElement innerAnswer =
           (innerQuestion.getDifferential()) ? innerAnswerer.answerDiff() : innerAnswerer.answer();
 
-      String innerAnswerStr = null;
-      try {
-        innerAnswerStr = BatfishObjectMapper.writeString(innerAnswer);
-      } catch (IOException e) {
-        throw new BatfishException("Could not get JSON string from inner answer", e);
-      }
-      Object jsonObject = JsonPath.parse(innerAnswerStr, c).json();
+      // build the JSON tree directly from the answer rather than from its string representation
+      JsonNode innerAnswerJson = BatfishObjectMapper.mapper().valueToTree(innerAnswer);
+      Object jsonObject = JsonPath.parse(innerAnswerJson, c).json();
       Map<Integer, JsonPathResult> allResults = new ConcurrentHashMap<>();
       List<Integer> indices = new ArrayList<>();
       for (int i = 0; i < paths.size(); i++) {